@@ -0,0 +1,134 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.parser;
+
+import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.PathIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.ProjectPropertiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
+
+import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectPropertyType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses synthetic identifier lists the way the export commands do. The mixed list contains uid, path, project property and entities
+ * identifiers in equal parts and is parsed by a {@link RegistryBasedParser} configured like
+ * {@link com.espirit.moddev.cli.commands.export.AbstractExportCommand}.
+ *
+ * @author e-Spirit AG
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final String[] UID_PREFIXES = {"page", "pagetemplate", "pageref", "media", "pagefolder"};
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int identifierCount;
+
+    private List<String> mixedIdentifiers;
+    private List<String> uidIdentifiers;
+    private List<String> pathIdentifiers;
+    private List<String> projectPropertyIdentifiers;
+    private RegistryBasedParser registryBasedParser;
+    private UidIdentifierParser uidIdentifierParser;
+    private PathIdentifierParser pathIdentifierParser;
+    private ProjectPropertiesParser projectPropertiesParser;
+
+    @Setup
+    public void setUp() {
+        uidIdentifiers = new ArrayList<>(identifierCount);
+        pathIdentifiers = new ArrayList<>(identifierCount);
+        projectPropertyIdentifiers = new ArrayList<>(identifierCount);
+        mixedIdentifiers = new ArrayList<>(identifierCount);
+        final ProjectPropertyType[] propertyTypes = ProjectPropertyType.values();
+        for (int index = 0; index < identifierCount; index++) {
+            uidIdentifiers.add(UID_PREFIXES[index % UID_PREFIXES.length] + ":uid_" + index);
+            pathIdentifiers.add("path:/PageStore/folder_" + (index % 100) + "/page_" + index);
+            projectPropertyIdentifiers.add("projectproperty:" + propertyTypes[index % propertyTypes.length].name());
+            switch (index % 4) {
+                case 0:
+                    mixedIdentifiers.add(uidIdentifiers.get(index));
+                    break;
+                case 1:
+                    mixedIdentifiers.add(pathIdentifiers.get(index));
+                    break;
+                case 2:
+                    mixedIdentifiers.add(projectPropertyIdentifiers.get(index));
+                    break;
+                default:
+                    mixedIdentifiers.add("entities:entities_" + index);
+                    break;
+            }
+        }
+
+        registryBasedParser = new RegistryBasedParser();
+        registryBasedParser.registerParser(new RootNodeIdentifierParser());
+        registryBasedParser.registerParser(new EntitiesIdentifierParser());
+        registryBasedParser.registerParser(new UidIdentifierParser());
+        registryBasedParser.registerParser(new ProjectPropertiesParser());
+        registryBasedParser.registerParser(new PathIdentifierParser());
+        uidIdentifierParser = new UidIdentifierParser();
+        pathIdentifierParser = new PathIdentifierParser();
+        projectPropertiesParser = new ProjectPropertiesParser();
+    }
+
+    @Benchmark
+    public List<Identifier> registryBasedParser() {
+        return registryBasedParser.parse(mixedIdentifiers);
+    }
+
+    @Benchmark
+    public List<UidIdentifier> uidIdentifierParser() {
+        return uidIdentifierParser.parse(uidIdentifiers);
+    }
+
+    @Benchmark
+    public List<PathIdentifier> pathIdentifierParser() {
+        return pathIdentifierParser.parse(pathIdentifiers);
+    }
+
+    @Benchmark
+    public List<ProjectPropertiesIdentifier> projectPropertiesParser() {
+        return projectPropertiesParser.parse(projectPropertyIdentifiers);
+    }
+}
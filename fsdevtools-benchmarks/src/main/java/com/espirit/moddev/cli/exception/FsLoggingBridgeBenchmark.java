@@ -0,0 +1,103 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the {@link FsLoggingBridge} from many threads like an active FirstSpirit client does: mostly {@code isDebugEnabled} guards and disabled
+ * debug messages for a few dozen classes. The root logger is at WARN. The uncached benchmarks look the logger up on every call, like the bridge
+ * did before it cached the loggers.
+ *
+ * @author e-Spirit AG
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class FsLoggingBridgeBenchmark {
+
+    private static final Class<?>[] LOGGING_CLASSES = {
+        String.class, Integer.class, Long.class, Object.class, Thread.class, StringBuilder.class, java.util.List.class, java.util.Map.class,
+        java.util.HashMap.class, java.util.ArrayList.class, java.util.TreeMap.class, java.io.File.class, java.io.InputStream.class,
+        java.io.OutputStream.class, java.net.URL.class, java.net.Socket.class
+    };
+
+    private final FsLoggingBridge bridge = new FsLoggingBridge();
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        private int index;
+
+        private Class<?> nextClass() {
+            index = (index + 1) % LOGGING_CLASSES.length;
+            return LOGGING_CLASSES[index];
+        }
+    }
+
+    @Benchmark
+    public boolean isDebugEnabled(final Caller caller) {
+        return bridge.isDebugEnabled(caller.nextClass());
+    }
+
+    @Benchmark
+    public boolean isDebugEnabledUncached(final Caller caller) {
+        return LoggerFactory.getLogger(caller.nextClass()).isDebugEnabled();
+    }
+
+    @Benchmark
+    public void logDebug(final Caller caller) {
+        bridge.logDebug("disabled message", caller.nextClass());
+    }
+
+    @Benchmark
+    public void logDebugUncached(final Caller caller) {
+        LoggerFactory.getLogger(caller.nextClass()).debug("disabled message");
+    }
+
+    @Benchmark
+    public boolean isWarnEnabled(final Caller caller) {
+        return bridge.isWarnEnabled(caller.nextClass());
+    }
+
+    @Benchmark
+    public boolean isWarnEnabledUncached(final Caller caller) {
+        return LoggerFactory.getLogger(caller.nextClass()).isWarnEnabled();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.reflection;
+
+import com.espirit.moddev.cli.Cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the startup time of the classpath scan with the build time command index. Since both paths are dominated by
+ * one-time costs, every measurement is a single shot in a fresh fork, without warmup.
+ *
+ * @author e-Spirit AG
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ClassIndexStartupBenchmark {
+
+    @Benchmark
+    public int scanClasspath() {
+        return CommandUtils.scanForCommandClasses(Cli.DEFAULT_COMMAND_PACKAGE_NAME).size()
+               + GroupUtils.scanForGroupClasses(Cli.DEFAULT_GROUP_PACKAGE_NAME).size();
+    }
+
+    @Benchmark
+    public int loadFromIndex() {
+        return CommandUtils.loadCommandClasses(Cli.DEFAULT_COMMAND_PACKAGE_NAME).size()
+               + GroupUtils.loadGroupClasses(Cli.DEFAULT_GROUP_PACKAGE_NAME).size();
+    }
+}
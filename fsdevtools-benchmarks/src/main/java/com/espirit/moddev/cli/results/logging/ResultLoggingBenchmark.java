@@ -0,0 +1,103 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.results.logging;
+
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to reorganize and log export and import results of growing size. The loggers are {@link MockLogger}s at level
+ * INFO, so the cost of formatting is measured without any appender.
+ *
+ * @author e-Spirit AG
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// every synthetic element carries ten file handles
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class ResultLoggingBenchmark {
+
+    private static final String DESCRIPTION = "Updated elements";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int elementCount;
+
+    private List<ExportInfo> exportInfos;
+    private ReorganizedResult reorganizedResult;
+    private MockedStoreAgent storeAgent;
+    private ImportOperation.Result importResult;
+
+    @Setup
+    public void setUp() {
+        exportInfos = SyntheticResults.createExportInfos(elementCount);
+        reorganizedResult = new ReorganizedResult(exportInfos);
+        storeAgent = new MockedStoreAgent();
+        importResult = SyntheticResults.createImportResultWithProblems(elementCount, storeAgent);
+    }
+
+    @Benchmark
+    public ReorganizedResult reorganizedResult() {
+        return new ReorganizedResult(exportInfos);
+    }
+
+    @Benchmark
+    public ReorganizedResult sortedReorganizedResult() {
+        final ReorganizedResult result = new ReorganizedResult(exportInfos);
+        result.sortStoreElements();
+        return result;
+    }
+
+    @Benchmark
+    public String logElements() {
+        // a new logger per call, the mock keeps everything it logs
+        return AdvancedLogger.logElements(new MockLogger(), exportInfos, DESCRIPTION);
+    }
+
+    @Benchmark
+    public String buildSummary() {
+        return AdvancedLogger.buildSummary(exportInfos, DESCRIPTION, reorganizedResult);
+    }
+
+    @Benchmark
+    public String logImportProblems() {
+        return AdvancedLogger.logImportProblems(new MockLogger(), storeAgent, importResult);
+    }
+}
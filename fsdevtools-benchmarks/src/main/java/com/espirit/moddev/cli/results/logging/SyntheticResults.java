@@ -0,0 +1,97 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.results.logging;
+
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.TagNames;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.ExportStatus;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectPropertyType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scalable result sets built from the result fixtures of the fsdevtools-cli tests.
+ *
+ * @author e-Spirit AG
+ */
+final class SyntheticResults {
+
+    private static final Store.Type[] STORE_TYPES = {Store.Type.PAGESTORE, Store.Type.SITESTORE, Store.Type.MEDIASTORE, Store.Type.TEMPLATESTORE};
+    private static final String[] NODE_TAGS = {TagNames.PAGE, TagNames.PAGEREF, TagNames.MEDIUM, TagNames.TEMPLATE};
+    private static final int ENTITY_TYPE_INTERVAL = 100;
+    private static final int ENTITIES_PER_TYPE = 10;
+
+    private SyntheticResults() {
+        // Not used
+    }
+
+    /**
+     * Creates export infos like the ones of an export of a whole project: mostly store elements, spread over four stores, every
+     * {@value #ENTITY_TYPE_INTERVAL}th info is an entity type, followed by all project properties and the FS_META info.
+     *
+     * @param elementCount the number of export infos
+     * @return the export infos, in no particular order
+     */
+    static List<ExportInfo> createExportInfos(final int elementCount) {
+        final List<ExportInfo> exportInfos = new ArrayList<>(elementCount);
+        final ProjectPropertyType[] propertyTypes = ProjectPropertyType.values();
+        for (int index = 0; exportInfos.size() < elementCount - propertyTypes.length - 1; index++) {
+            if (index % ENTITY_TYPE_INTERVAL == 0) {
+                exportInfos.add(new MockedEntityTypeExportInfo("entityType_" + index, "schema_" + (index % 7), ENTITIES_PER_TYPE));
+            } else {
+                final int store = index % STORE_TYPES.length;
+                // reversed names, so sorting has something to do
+                exportInfos.add(new MockedElementExportInfo(STORE_TYPES[store], "element_" + (elementCount - index), NODE_TAGS[store],
+                                                            ExportStatus.UPDATED));
+            }
+        }
+        for (final ProjectPropertyType propertyType : propertyTypes) {
+            exportInfos.add(new MockedPropertyTypeExportInfo(propertyType));
+        }
+        exportInfos.add(new MockedExportInfo(ExportInfo.Type.FS_META));
+        return exportInfos;
+    }
+
+    /**
+     * Creates an import result with the given number of problems. Every problem refers to a store element of the given store agent.
+     *
+     * @param problemCount the number of problems
+     * @param storeAgent   the store agent to add the store elements of the problems to
+     * @return the import result, without elements, entities or project properties
+     */
+    static ImportOperation.Result createImportResultWithProblems(final int problemCount, final StoreAgent storeAgent) {
+        final MockedImportResult importResult = new MockedImportResult(false);
+        for (int index = 0; index < problemCount; index++) {
+            final Store.Type storeType = STORE_TYPES[index % STORE_TYPES.length];
+            final long nodeId = problemCount - index;
+            ((MockedStore) storeAgent.getStore(storeType)).addMockedStoreElement(new MockedStoreElement(nodeId, "element_" + nodeId,
+                                                                                                        index % 2 == 0 ? "uid_" + nodeId : null));
+            importResult.addProblem(storeType, nodeId, "problem " + index);
+        }
+        return importResult;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.core;
+
+import de.espirit.firstspirit.access.store.templatestore.Schema;
+import de.espirit.firstspirit.transport.LayerMapper;
+import de.espirit.firstspirit.transport.LayerMapper.MappingContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses layer mappings of growing size with {@link StringPropertiesMap} and looks up layers with {@link SchemaUidToNameBasedLayerMapper},
+ * once for a mapped schema and once for a schema that falls back to the wild card.
+ *
+ * @author e-Spirit AG
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerMappingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int mappingCount;
+
+    private String layerMapping;
+    private LayerMapper layerMapper;
+    private MappingContext mappedContext;
+    private MappingContext wildCardContext;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < mappingCount; index++) {
+            builder.append("schema_").append(index).append(" : layer_").append(index).append(", ");
+        }
+        builder.append("*=").append(SchemaUidToNameBasedLayerMapper.CREATE_NEW);
+        layerMapping = builder.toString();
+        layerMapper = SchemaUidToNameBasedLayerMapper.from(new StringPropertiesMap(layerMapping));
+        mappedContext = createContext("schema_" + (mappingCount / 2));
+        wildCardContext = createContext("unmapped_schema");
+    }
+
+    @Benchmark
+    public StringPropertiesMap parseStringPropertiesMap() {
+        return new StringPropertiesMap(layerMapping);
+    }
+
+    @Benchmark
+    public String getMappedLayer() {
+        return layerMapper.getLayer(mappedContext);
+    }
+
+    @Benchmark
+    public String getWildCardLayer() {
+        return layerMapper.getLayer(wildCardContext);
+    }
+
+    private static MappingContext createContext(final String schemaUid) {
+        final Schema schema = (Schema) Proxy.newProxyInstance(Schema.class.getClassLoader(), new Class<?>[]{Schema.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUid":
+                case "getName":
+                    return schemaUid;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return (MappingContext) Proxy.newProxyInstance(MappingContext.class.getClassLoader(), new Class<?>[]{MappingContext.class},
+                                                       (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getSchema":
+                        return schema;
+                    case "getSourceLayer":
+                        return "source_" + schemaUid;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
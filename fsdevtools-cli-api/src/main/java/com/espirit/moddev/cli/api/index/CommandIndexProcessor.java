@@ -0,0 +1,175 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.index;
+
+import com.espirit.moddev.cli.api.command.Command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes the command and group index of a compilation unit at build time. The index lists
+ * all non-abstract implementations of {@link Command} in {@link #COMMAND_INDEX_RESOURCE} and all classes annotated
+ * with airline's group annotation in {@link #GROUP_INDEX_RESOURCE}, one binary class name per line.
+ * <p>
+ * The cli reads these resources at runtime instead of scanning the classpath. Classpath roots without an index are
+ * still scanned, so command jars built without this processor keep working.
+ *
+ * @author e-Spirit AG
+ */
+public class CommandIndexProcessor extends AbstractProcessor {
+
+    /**
+     * Classpath resource that lists all indexed command classes.
+     */
+    public static final String COMMAND_INDEX_RESOURCE = "META-INF/fsdevtools/commands.index";
+
+    /**
+     * Classpath resource that lists all indexed group classes.
+     */
+    public static final String GROUP_INDEX_RESOURCE = "META-INF/fsdevtools/groups.index";
+
+    /**
+     * Prefix of comment lines in an index resource.
+     */
+    public static final String COMMENT_PREFIX = "#";
+
+    static final String GROUP_ANNOTATION = "com.github.rvesse.airline.annotations.Group";
+
+    private final Set<String> commandClasses = new TreeSet<>();
+    private final Set<String> groupClasses = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // commands are identified by their interface, so every type has to be visited
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex(COMMAND_INDEX_RESOURCE, commandClasses);
+            writeIndex(GROUP_INDEX_RESOURCE, groupClasses);
+        } else {
+            final TypeElement commandType = processingEnv.getElementUtils().getTypeElement(Command.class.getName());
+            for (final TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                collect(type, commandType);
+            }
+        }
+        // never claim any annotation, other processors may be interested as well
+        return false;
+    }
+
+    private void collect(final TypeElement type, final TypeElement commandType) {
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (isCommand(type, commandType)) {
+            commandClasses.add(binaryName);
+        }
+        if (isGroup(type)) {
+            groupClasses.add(binaryName);
+        }
+        for (final TypeElement nestedType : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collect(nestedType, commandType);
+        }
+    }
+
+    private boolean isCommand(final TypeElement type, final TypeElement commandType) {
+        if (commandType == null || type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        final TypeMirror erasedType = processingEnv.getTypeUtils().erasure(type.asType());
+        final TypeMirror erasedCommandType = processingEnv.getTypeUtils().erasure(commandType.asType());
+        return processingEnv.getTypeUtils().isAssignable(erasedType, erasedCommandType);
+    }
+
+    private static boolean isGroup(final TypeElement type) {
+        for (final AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (GROUP_ANNOTATION.contentEquals(annotationType.getQualifiedName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex(final String resource, final Set<String> classNames) {
+        // keep entries of an earlier, partial compilation as long as their types still exist
+        classNames.addAll(readExistingIndex(resource));
+        try {
+            final FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (Writer writer = fileObject.openWriter()) {
+                writer.write(COMMENT_PREFIX + " generated by " + getClass().getName() + "\n");
+                for (final String className : classNames) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + resource + ": " + e);
+        }
+    }
+
+    private Set<String> readExistingIndex(final String resource) {
+        final Set<String> classNames = new TreeSet<>();
+        try {
+            final FileObject fileObject = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileObject.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String className = line.trim();
+                    if (!className.isEmpty() && !className.startsWith(COMMENT_PREFIX)
+                        && processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                        classNames.add(className);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) { //NOSONAR
+            // no index written yet - nothing to keep
+        }
+        return classNames;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains the annotation processor that indexes commands and groups at build time.
+ *
+ * @author e-Spirit AG
+ */
+package com.espirit.moddev.cli.api.index;
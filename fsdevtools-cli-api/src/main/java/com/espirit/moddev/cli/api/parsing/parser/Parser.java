@@ -24,6 +24,8 @@ package com.espirit.moddev.cli.api.parsing.parser;
 
 import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -46,4 +48,15 @@ public interface Parser<T extends Identifier> {
      * @return true if the input string can be handled somehow
      */
     boolean appliesTo(String input);
+
+    /**
+     * The lower case prefixes of the strings this parser handles, for example "path" for "path:/PageStore/folder".
+     * A parser that is the only one to declare a prefix has to apply to every string of the form "prefix:value", so
+     * that a registry based parser can dispatch such strings by their prefix without asking {@link #appliesTo(String)}.
+     * Parsers that share a prefix are asked with {@link #appliesTo(String)}.
+     * @return the prefixes of this parser, or an empty collection if only {@link #appliesTo(String)} can tell
+     */
+    default Collection<String> getPrefixes() {
+        return Collections.emptySet();
+    }
 }
@@ -0,0 +1,6 @@
+@echo off
+set java_cmd="%JAVA_HOME%/bin/java"
+set script_path=%~dp0
+set CLI_DIR=%script_path:~0,-4%
+set jarfile="%CLI_DIR%\lib\${project.artifactId}-${project.version}.jar"
+%java_cmd% -XX:TieredStopAtLevel=1 -cp %jarfile% com.espirit.moddev.cli.daemon.DaemonClient %*
@@ -0,0 +1,7 @@
+#!/bin/sh
+JAVACMD="$JAVA_HOME/bin/java";
+FS_CLI_DIR="$(dirname $(readlink -f $0))/../";
+JARFILE="${FS_CLI_DIR}lib/${project.artifactId}-${project.version}.jar";
+$JAVACMD -XX:TieredStopAtLevel=1 -cp $JARFILE com.espirit.moddev.cli.daemon.DaemonClient "$@";
+RETVAL=$?;
+exit ${RETVAL};
@@ -30,13 +30,20 @@ import com.espirit.moddev.cli.api.configuration.Config;
 import com.espirit.moddev.cli.api.result.Result;
 import com.espirit.moddev.cli.commands.help.HelpCommand;
 import com.espirit.moddev.cli.commands.help.UnknownCommand;
+import com.espirit.moddev.cli.configuration.GlobalConfig;
 import com.espirit.moddev.cli.exception.FsLoggingBridge;
 import com.espirit.moddev.cli.exception.SystemExitHandler;
+import com.espirit.moddev.cli.logging.AsyncLogAppender;
 import com.espirit.moddev.cli.reflection.CommandUtils;
 import com.espirit.moddev.cli.reflection.GroupUtils;
+import com.espirit.moddev.cli.results.ResultFormatConfig;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+import com.espirit.moddev.cli.timing.FlightRecording;
+import com.espirit.moddev.cli.timing.Timings;
 import com.github.rvesse.airline.builder.CliBuilder;
 
 import de.espirit.common.base.Logging;
+import de.espirit.firstspirit.access.Connection;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,10 +51,15 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 
@@ -76,17 +88,43 @@ public final class Cli {
     public static final String DEFAULT_COMMAND_PACKAGE_NAME = "com.espirit.moddev.cli.commands";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Cli.class);
-    private static Set<Class<? extends Command>> commandClasses = CommandUtils.scanForCommandClasses(DEFAULT_COMMAND_PACKAGE_NAME);
-    private static Set<Class<?>> groupClasses = GroupUtils.scanForGroupClasses(DEFAULT_GROUP_PACKAGE_NAME);
+    private static Set<Class<? extends Command>> commandClasses =
+        Timings.time("load-command-classes", () -> CommandUtils.loadCommandClasses(DEFAULT_COMMAND_PACKAGE_NAME));
+    private static Set<Class<?>> groupClasses = Timings.time("load-group-classes", () -> GroupUtils.loadGroupClasses(DEFAULT_GROUP_PACKAGE_NAME));
 
     private final Properties buildProperties;
     private final Properties gitProperties;
+    private final Function<Config, CliContext> contextFactory;
+    private final boolean connectingEarly;
 
 
     /**
      * Instantiates a new Cli.
      */
     public Cli() {
+        this(CliContextImpl::new, true);
+    }
+
+    /**
+     * Instantiates a new Cli that obtains the context of commands from the given factory. The context is closed after each command, so a factory
+     * that hands out shared connections has to return contexts that keep the connection open on close.
+     *
+     * @param contextFactory the factory that creates the context for a command configuration
+     */
+    public Cli(final Function<Config, CliContext> contextFactory) {
+        this(contextFactory, false);
+    }
+
+    /**
+     * @param connectingEarly true if the connection of {@link #execute(String[])} is opened before the command line is parsed, which is only
+     *                        possible for contexts created by this cli
+     */
+    private Cli(final Function<Config, CliContext> contextFactory, final boolean connectingEarly) {
+        if (contextFactory == null) {
+            throw new IllegalArgumentException("Context factory is null!");
+        }
+        this.contextFactory = contextFactory;
+        this.connectingEarly = connectingEarly;
         buildProperties = new Properties();
         gitProperties = new Properties();
         try (InputStream resourceAsStream = ClassLoader.getSystemClassLoader().getResourceAsStream("CliBuild.properties")) {
@@ -109,7 +147,9 @@ public final class Cli {
      * @param args the input arguments
      */
     public static void main(final String[] args) {
-
+        Timings.markMainEntered();
+        // large results are logged line by line, the console is written by a background thread
+        AsyncLogAppender.install();
         SystemExitHandler cliEventHandler = new SystemExitHandler();
         try {
             new Cli().execute(args);
@@ -125,26 +165,162 @@ public final class Cli {
      * @param args the input arguments
      */
     public void execute(final String[] args) throws Exception {
+        // every invocation reports its own spans, also when the cli is embedded and executed more than once
+        try (Timings.Scope scope = Timings.open()) {
+            execute(args, scope.getTimeline());
+        }
+    }
+
+    private void execute(final String[] args, final Timings.Timeline timeline) throws Exception {
         setLoggingSystemProperties();
 
-        try {
-            logVersionsAndGitHash();
-        } catch (IOException e) {
-            LOGGER.error("Error with version and/or git information, aborting operation...", e);
+        // The jar manifest is read and the connection is opened while the command line is parsed, so none of them waits for the others.
+        // The connection options are scanned from the arguments for that, the connection is only used if airline parses the same options.
+        // The versions are logged once the command is known, after the console logging has been redirected for it.
+        final CompletableFuture<Object[]> versionInformation = CompletableFuture.supplyAsync(this::readAccessApiVersionUnchecked);
+        final EarlyConnection earlyConnection = connectingEarly ? EarlyConnection.open(args) : null;
+        final Command command;
+        try (Timings.Span span = Timings.start("parse-command-line")) {
+            final CliBuilder<Command> builder = getDefaultCliBuilder();
+            command = parseCommandLine(args, builder);
+        } catch (RuntimeException e) {
+            if (earlyConnection != null) {
+                earlyConnection.close();
+            }
+            awaitVersionInformation(versionInformation);
+            throw e;
+        }
+        redirectConsoleLoggingIfNeeded(command);
+        // started before the context is created, so the recording contains it; a connection opened while parsing is not recorded
+        final FlightRecording recording = startFlightRecording(command);
+        final CompletableFuture<CliContext> pendingContext =
+            CompletableFuture.supplyAsync(Timings.bind(() -> createCliContextOrNull(command, earlyConnection)));
+
+        if (!awaitVersionInformation(versionInformation)) {
+            closeContext(awaitQuietly(pendingContext));
+            stopFlightRecording(recording);
             return;
         }
+        executeCommandAndLogTime(command, () -> await(pendingContext), timeline, recording);
+    }
+
+    /**
+     * Executes an already instantiated command like {@link #executeCommand(Command)} and logs the execution time afterwards. The spans of the
+     * command are recorded in a {@link Timings.Timeline} of its own, so commands executed in parallel are reported separately.
+     *
+     * @param command the command instance to execute
+     */
+    public void executeCommandAndLogTime(final Command<Result> command) throws Exception {
+        try (Timings.Scope scope = Timings.open()) {
+            redirectConsoleLoggingIfNeeded(command);
+            final FlightRecording recording = startFlightRecording(command);
+            executeCommandAndLogTime(command, () -> createCliContextOrNull(command), scope.getTimeline(), recording);
+        }
+    }
 
-        final CliBuilder<Command> builder = getDefaultCliBuilder();
-        final Command command = parseCommandLine(args, builder);
+    private void executeCommandAndLogTime(final Command<Result> command, final Supplier<CliContext> contextSupplier,
+                                          final Timings.Timeline timeline, final FlightRecording recording) throws Exception {
         Stopwatch stopwatch = new Stopwatch();
         stopwatch.start();
         try {
-            executeCommand(command);
+            executeCommand(command, contextSupplier);
         } catch (Exception e) {
             throw e;
         } finally {
             stopwatch.stop();
             logExecutionTime(stopwatch);
+            stopFlightRecording(recording);
+            writeTimings(command, timeline);
+        }
+    }
+
+    /**
+     * Moves console logging to the standard error if the command writes its result as records to the standard output, so the records can be
+     * read from the standard output without log lines in between.
+     */
+    private static void redirectConsoleLoggingIfNeeded(final Command command) {
+        if (command instanceof ResultFormatConfig && ((ResultFormatConfig) command).isResultWrittenToStdout()) {
+            NdjsonResultWriter.redirectConsoleLogging();
+        }
+    }
+
+    /**
+     * Starts the flight recording of the command if one was requested.
+     *
+     * @return the recording of the command, or null
+     */
+    private static FlightRecording startFlightRecording(final Command command) {
+        if (command instanceof GlobalConfig && ((GlobalConfig) command).getFlightRecordingFile() != null) {
+            try {
+                return FlightRecording.start(new File(((GlobalConfig) command).getFlightRecordingFile()));
+            } catch (IllegalStateException e) {
+                LOGGER.warn("Flight recording could not be started: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static void stopFlightRecording(final FlightRecording recording) {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+        } catch (IOException e) {
+            LOGGER.warn("Flight recording could not be written", e);
+        }
+    }
+
+    /**
+     * Writes the timing report of the command if one was requested. The spans are discarded with the timeline of the command afterwards.
+     */
+    private static void writeTimings(final Command<Result> command, final Timings.Timeline timeline) {
+        final String timingsFile = command instanceof GlobalConfig ? ((GlobalConfig) command).getTimingsFile() : null;
+        if (timingsFile == null) {
+            return;
+        }
+        try {
+            timeline.writeReport(new File(timingsFile));
+            LOGGER.info("Timings written to '{}'", timingsFile);
+        } catch (IOException e) {
+            LOGGER.warn("Timings could not be written to '" + timingsFile + "'", e);
+        }
+    }
+
+    private boolean awaitVersionInformation(final CompletableFuture<Object[]> versionInformation) {
+        try {
+            logVersionsAndGitHash(await(versionInformation));
+            return true;
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Error with version and/or git information, aborting operation...", e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Waits for a future and rethrows its failure unwrapped, so callers see the same exceptions as with a synchronous call.
+     */
+    static <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static CliContext awaitQuietly(final CompletableFuture<CliContext> pendingContext) {
+        try {
+            return pendingContext.join();
+        } catch (CompletionException e) {
+            LOGGER.debug("Opening the context failed", e.getCause());
+            return null;
         }
     }
 
@@ -154,21 +330,40 @@ public final class Cli {
         LOGGER.info(executionTime);
     }
 
-    private void logVersionsAndGitHash() throws IOException {
+    private Object[] readAccessApiVersionUnchecked() {
+        try {
+            return readAccessApiVersion();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the version of the FirstSpirit Access API from the manifest of its jar.
+     *
+     * @return the version, the implementation version and the path of the jar, or null if the jar is unknown
+     */
+    private static Object[] readAccessApiVersion() throws IOException {
+        String jarFilePath = System.getenv("jarfile") != null ? System.getenv("jarfile") : System.getenv("JARFILE");
+        if (jarFilePath == null) {
+            return null;
+        }
+        String fsAccessPath = normalizePath(jarFilePath);
+        try (JarFile jar = new JarFile(fsAccessPath)) {
+            final Attributes mainAttributes = jar.getManifest().getMainAttributes();
+            final String fsVersionJar = mainAttributes.getValue("FirstSpirit-Version");
+            final String fsImplVersionJar = mainAttributes.getValue("Implementation-Version");
+            return new Object[]{fsVersionJar, fsImplVersionJar, fsAccessPath};
+        }
+    }
+
+    private void logVersionsAndGitHash(final Object[] argsFsVersion) {
         final Object[] argsVersion =
             {CliConstants.FS_CLI, buildProperties.getProperty("fs.cli.build.version"), gitProperties.getProperty("git.hash")};
         LOGGER.info("{} version {} / git hash {}", argsVersion);
         LOGGER.info("Build for FirstSpirit version {}", new Object[]{buildProperties.getProperty("fs.cli.fs.version")});
-        String jarFilePath = System.getenv("jarfile") != null ? System.getenv("jarfile") : System.getenv("JARFILE");
-        if (jarFilePath != null) {
-            String fsAccessPath = normalizePath(jarFilePath);
-            try (JarFile jar = new JarFile(fsAccessPath)) {
-                final Attributes mainAttributes = jar.getManifest().getMainAttributes();
-                final String fsVersionJar = mainAttributes.getValue("FirstSpirit-Version");
-                final String fsImplVersionJar = mainAttributes.getValue("Implementation-Version");
-                final Object[] argsFsVersion = {fsVersionJar, fsImplVersionJar, fsAccessPath};
-                LOGGER.info("Using FirstSpirit Access API version {}.{} (see {})", argsFsVersion);
-            }
+        if (argsFsVersion != null) {
+            LOGGER.info("Using FirstSpirit Access API version {}.{} (see {})", argsFsVersion);
         }
     }
 
@@ -223,17 +418,33 @@ public final class Cli {
      * @param command the command instance to execute
      */
     public void executeCommand(Command<Result> command) throws Exception {
+        executeCommand(command, () -> createCliContextOrNull(command));
+    }
+
+    private void executeCommand(final Command<Result> command, final Supplier<CliContext> contextSupplier) throws Exception {
         LOGGER.info("Executing " + command.getClass().getSimpleName());
         CliContext context = null;
         try {
-            context = getCliContextOrNull(command);
-            Result result = command.call();
-            logResult(result);
+            try (Timings.Span span = Timings.start("await-context")) {
+                context = contextSupplier.get();
+            }
+            if (context != null) {
+                ((Config) command).setContext(context);
+            }
+            final Result result;
+            try (Timings.Span span = Timings.start("call-command").setDetail(command.getClass().getSimpleName())) {
+                result = command.call();
+            }
+            try (Timings.Span span = Timings.start("log-result")) {
+                logResult(result);
+            }
         } catch (Exception e) {
             LOGGER.trace("Exception occurred during context initialization or command execution", e);
             throw e;
         } finally {
-            closeContext(context);
+            try (Timings.Span span = Timings.start("close-context")) {
+                closeContext(context);
+            }
         }
     }
 
@@ -258,13 +469,27 @@ public final class Cli {
         }
     }
 
-    private static CliContext getCliContextOrNull(Command<Result> command) {
+    /**
+     * Creates the context of the command with the connection opened while the command line was parsed, if the command can use it.
+     */
+    private CliContext createCliContextOrNull(final Command<Result> command, final EarlyConnection earlyConnection) {
+        final Connection connection = earlyConnection != null ? earlyConnection.takeFor(command) : null;
+        if (connection == null) {
+            return createCliContextOrNull(command);
+        }
+        try (Timings.Span span = Timings.start("open-context")) {
+            return new CliContextImpl((Config) command, connection);
+        }
+    }
+
+    private CliContext createCliContextOrNull(Command<Result> command) {
         CliContext context = null;
         if (command instanceof Config) {
             Config commandAsConfig = (Config) command;
             if (commandAsConfig.needsContext()) {
-                context = new CliContextImpl(commandAsConfig);
-                commandAsConfig.setContext(context);
+                try (Timings.Span span = Timings.start("open-context")) {
+                    context = contextFactory.apply(commandAsConfig);
+                }
             }
         }
         return context;
@@ -301,7 +526,7 @@ public final class Cli {
 
     /**
      * A getter for command classes from the package specified by {@link #DEFAULT_COMMAND_PACKAGE_NAME} only. The classes are loaded at class-load
-     * time only once.
+     * time only once, using the command index generated at build time.
      *
      * @return a reference to the actual list of loaded commands
      */
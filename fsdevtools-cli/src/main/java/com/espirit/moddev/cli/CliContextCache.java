@@ -0,0 +1,94 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli;
+
+import com.espirit.moddev.cli.api.CliContext;
+import com.espirit.moddev.cli.api.configuration.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps FirstSpirit connections and project specific brokers open between the commands of one cli run, e.g. in daemon or batch mode. Connections
+ * are keyed by host, port, connection mode, user, password and project, so a command never runs on a connection that was authenticated with
+ * other credentials. Contexts handed out by {@link #obtainContext(Config)} leave the cached connection open when they are closed. Use {@code
+ * cache::obtainContext} as the context factory of a {@link Cli}.
+ *
+ * @author e-Spirit AG
+ */
+public class CliContextCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CliContextCache.class);
+
+    private final Map<List<Object>, CliContextImpl> contexts = new HashMap<>();
+
+    /**
+     * Returns a context for the given configuration that reuses a cached connection if possible. A new connection is opened and cached if there
+     * is no connection for the configuration yet, or if the cached one has been disconnected in the meantime.
+     *
+     * @param config the configuration of the command
+     * @return a context that does not close the cached connection
+     */
+    public synchronized CliContext obtainContext(final Config config) {
+        final List<Object> key = Arrays.asList(config.getHost(), config.getPort(), config.getConnectionMode(), config.getUser(),
+                                               config.getPassword(), config.getProject());
+        CliContextImpl cachedContext = contexts.get(key);
+        if (cachedContext != null && !cachedContext.getConnection().isConnected()) {
+            LOGGER.info("Cached connection to {}:{} has been closed, reconnecting...", config.getHost(), config.getPort());
+            contexts.remove(key);
+            closeQuietly(cachedContext);
+            cachedContext = null;
+        }
+        if (cachedContext == null) {
+            cachedContext = new CliContextImpl(config);
+            contexts.put(key, cachedContext);
+        } else {
+            LOGGER.debug("Reusing connection to {}:{} with user '{}'", config.getHost(), config.getPort(), config.getUser());
+        }
+        return new CliContextImpl(config, cachedContext);
+    }
+
+    /**
+     * Closes all cached connections.
+     */
+    @Override
+    public synchronized void close() {
+        for (final CliContextImpl context : contexts.values()) {
+            closeQuietly(context);
+        }
+        contexts.clear();
+    }
+
+    private static void closeQuietly(final CliContextImpl context) {
+        try {
+            context.close();
+        } catch (Exception e) {
+            LOGGER.warn("Closing cached connection caused an exception", e);
+        }
+    }
+}
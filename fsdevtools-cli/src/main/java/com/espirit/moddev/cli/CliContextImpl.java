@@ -26,6 +26,7 @@ import com.espirit.moddev.cli.api.CliContext;
 import com.espirit.moddev.cli.api.configuration.Config;
 import com.espirit.moddev.cli.exception.CliError;
 import com.espirit.moddev.cli.exception.CliException;
+import com.espirit.moddev.cli.timing.Timings;
 
 import de.espirit.firstspirit.access.AdminService;
 import de.espirit.firstspirit.access.Connection;
@@ -48,6 +49,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Default implementation of {@link com.espirit.moddev.cli.api.CliContext}.
@@ -60,8 +65,13 @@ public class CliContextImpl implements CliContext {
 
     private final Map<String, Object> properties;
     private final Config clientConfig;
+    private final boolean sharedConnection;
+    private final boolean preparingProject;
+    private final AtomicInteger serverRoundTrips = new AtomicInteger();
     private Connection connection;
     private SpecialistsBroker projectBroker;
+    private Project project;
+    private boolean projectResolved;
 
     /**
      * Create a new instance that uses the given {@link com.espirit.moddev.cli.api.configuration.Config}.
@@ -70,31 +80,148 @@ public class CliContextImpl implements CliContext {
      * @throws java.lang.IllegalArgumentException if clientConfig is null
      */
     public CliContextImpl(final Config clientConfig) {
+        this(clientConfig, true);
+    }
+
+    private CliContextImpl(final Config clientConfig, final boolean preparingProject) {
+        this(clientConfig, preparingProject, null);
+    }
+
+    /**
+     * Create a new instance that uses the given {@link com.espirit.moddev.cli.api.configuration.Config} and a connection that has been opened
+     * with {@link #connect(Config)} for the same host, port, mode and user before. Closing this instance closes the connection.
+     *
+     * @param clientConfig the configuration to be used
+     * @param connection   the connected connection
+     * @throws java.lang.IllegalArgumentException if clientConfig is null
+     */
+    CliContextImpl(final Config clientConfig, final Connection connection) {
+        this(clientConfig, true, connection);
+    }
+
+    private CliContextImpl(final Config clientConfig, final boolean preparingProject, final Connection connection) {
         if (clientConfig == null) {
             throw new IllegalArgumentException("Config is null!");
         }
         this.clientConfig = clientConfig;
+        this.preparingProject = preparingProject;
+        this.connection = connection;
+        sharedConnection = false;
         properties = new HashMap<>();
         initializeFirstSpiritConnection();
     }
 
+    /**
+     * Create a new instance with its own connection to a project that another context has already created or activated as configured, e.g. to
+     * export parts of the project in parallel. The project is only looked up, so several of these contexts can be opened at the same time.
+     *
+     * @param clientConfig the configuration to be used
+     * @return the new context
+     * @throws java.lang.IllegalArgumentException if clientConfig is null
+     */
+    public static CliContextImpl forPreparedProject(final Config clientConfig) {
+        return new CliContextImpl(clientConfig, false);
+    }
+
+    /**
+     * Create a new instance that uses the given {@link com.espirit.moddev.cli.api.configuration.Config}, but reuses the connection and the
+     * project specific broker of another context. Closing this instance does not close the shared connection.
+     *
+     * @param clientConfig  the configuration to be used
+     * @param sharedContext the context to take the connection and the project specific broker from
+     * @throws java.lang.IllegalArgumentException if clientConfig or sharedContext is null
+     */
+    public CliContextImpl(final Config clientConfig, final CliContextImpl sharedContext) {
+        if (clientConfig == null) {
+            throw new IllegalArgumentException("Config is null!");
+        }
+        if (sharedContext == null) {
+            throw new IllegalArgumentException("Shared context is null!");
+        }
+        this.clientConfig = clientConfig;
+        preparingProject = true;
+        sharedConnection = true;
+        properties = new HashMap<>();
+        connection = sharedContext.connection;
+        projectBroker = sharedContext.projectBroker;
+        synchronized (sharedContext) {
+            project = sharedContext.project;
+            projectResolved = sharedContext.projectResolved;
+        }
+    }
+
     private void initializeFirstSpiritConnection() {
-        openConnection();
-        requireProjectSpecificBroker();
+        if (connection == null) {
+            openConnection();
+        } else {
+            serverRoundTrips.incrementAndGet();
+        }
+        // the server version is only logged, so it is requested while the project is resolved instead of before
+        final CompletableFuture<Void> serverVersionLookup = CompletableFuture.runAsync(Timings.bind(this::logServerVersion));
+        try {
+            requireProjectSpecificBroker();
+        } catch (RuntimeException e) {
+            // a failed version lookup was reported before the project was resolved, so it is reported first
+            awaitServerVersion(serverVersionLookup);
+            throw e;
+        }
+        awaitServerVersion(serverVersionLookup);
     }
 
-    protected void openConnection() {
+    private static void awaitServerVersion(final CompletableFuture<Void> serverVersionLookup) {
         try {
-            connection = obtainConnection();
-            Object[] args = {clientConfig.getHost(), clientConfig.getPort(), clientConfig.getUser()};
-            LOGGER.debug("Connect to FirstSpirit server '{}:{}' with user '{}'...", args);
-            connection.connect();
+            serverVersionLookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CliException(e.getCause());
+        }
+    }
+
+    private void logServerVersion() {
+        if (connection == null) {
+            return;
+        }
+        try (Timings.Span span = Timings.start("server-information")) {
             final ServerInformationAgent serverInformationAgent = connection.getBroker().requestSpecialist(ServerInformationAgent.TYPE);
             if (serverInformationAgent != null) {
                 final ServerInformationAgent.VersionInfo serverVersion = serverInformationAgent.getServerVersion();
+                serverRoundTrips.incrementAndGet();
                 LOGGER.info("Connected to FirstSpirit server at {} of version {}",
                             new Object[]{clientConfig.getHost(), serverVersion.getFullVersionString()});
             }
+        } catch (IOError e) {
+            throw new CliException(e);
+        } catch (Exception e) { //NOSONAR
+            throw new CliException(CliError.UNEXPECTED, clientConfig, e);
+        }
+    }
+
+    protected void openConnection() {
+        connection = connect(clientConfig, this::obtainConnection);
+        serverRoundTrips.incrementAndGet();
+    }
+
+    /**
+     * Connects to the FirstSpirit server without creating a context, e.g. while the command line is still parsed. The connection is passed to
+     * {@link #CliContextImpl(Config, Connection)} afterwards.
+     *
+     * @param clientConfig the configuration to connect with
+     * @return the connected connection
+     * @throws CliException if the connection can not be opened
+     */
+    static Connection connect(final Config clientConfig) {
+        return connect(clientConfig, () -> createConnection(clientConfig));
+    }
+
+    private static Connection connect(final Config clientConfig, final Supplier<Connection> connectionFactory) {
+        try (Timings.Span span = Timings.start("connect").setDetail(clientConfig.getHost() + ":" + clientConfig.getPort())) {
+            final Connection connection = connectionFactory.get();
+            Object[] args = {clientConfig.getHost(), clientConfig.getPort(), clientConfig.getUser()};
+            LOGGER.debug("Connect to FirstSpirit server '{}:{}' with user '{}'...", args);
+            connection.connect();
+            return connection;
         } catch (MaximumNumberOfSessionsExceededException e) {
             throw new CliException(CliError.SESSIONS, clientConfig, e);
         } catch (AuthenticationException e) {
@@ -114,6 +241,10 @@ public class CliContextImpl implements CliContext {
      * @return a connection to a FirstSpirit server
      */
     protected Connection obtainConnection() {
+        return createConnection(clientConfig);
+    }
+
+    private static Connection createConnection(final Config clientConfig) {
         return ConnectionManager
             .getConnection(clientConfig.getHost(), clientConfig.getPort(), clientConfig.getConnectionMode().getCode(), clientConfig.getUser(),
                            clientConfig.getPassword());
@@ -132,9 +263,12 @@ public class CliContextImpl implements CliContext {
         }
 
         if (StringUtils.isNotBlank(name)) {
-            final SpecialistsBroker broker = connection.getBroker();
-            final BrokerAgent brokerAgent = broker.requireSpecialist(BrokerAgent.TYPE);
-            projectBroker = brokerAgent.getBrokerByProjectName(name);
+            try (Timings.Span span = Timings.start("resolve-broker")) {
+                final SpecialistsBroker broker = connection.getBroker();
+                final BrokerAgent brokerAgent = broker.requireSpecialist(BrokerAgent.TYPE);
+                projectBroker = brokerAgent.getBrokerByProjectName(name);
+                serverRoundTrips.incrementAndGet();
+            }
         }
         if (projectBroker == null) {
             throw new IllegalStateException("ProjectBroker cannot be retrieved for project " + name + ". Wrong project name?");
@@ -146,45 +280,84 @@ public class CliContextImpl implements CliContext {
         return getProject().getUserService();
     }
 
+    /**
+     * Get the project of this context. The project is looked up, created and activated as configured on the first call only, later calls return
+     * the same project without a server round trip until {@link #invalidateProject()} is called.
+     *
+     * @return the project, or null if no project is configured
+     */
     @Override
-    public Project getProject() {
+    public synchronized Project getProject() {
+        if (!projectResolved) {
+            try (Timings.Span span = Timings.start("resolve-project")) {
+                project = resolveProject();
+            }
+            projectResolved = true;
+        }
+        return project;
+    }
+
+    /**
+     * Forgets the resolved project, so the next call of {@link #getProject()} looks it up on the server again. Use this after the project has
+     * been changed in a way this context does not know about, e.g. it has been deactivated or deleted.
+     */
+    public synchronized void invalidateProject() {
+        project = null;
+        projectResolved = false;
+    }
+
+    /**
+     * Get the number of calls this context made to the FirstSpirit server, like connecting, looking up or activating the project. Calls made by
+     * commands through the connection or the specialists are not counted.
+     *
+     * @return the number of server round trips made by this context
+     */
+    public int getServerRoundTrips() {
+        return serverRoundTrips.get();
+    }
+
+    private Project resolveProject() {
         final String projectName = clientConfig.getProject();
         if(StringUtils.isBlank(projectName)) {
             return null;
         }
-        Project project = connection.getProjectByName(projectName);
-        if (project == null && clientConfig.isCreatingProjectIfMissing()) {
-            project = createProject(projectName);
+        Project resolvedProject = connection.getProjectByName(projectName);
+        serverRoundTrips.incrementAndGet();
+        if (resolvedProject == null && preparingProject && clientConfig.isCreatingProjectIfMissing()) {
+            resolvedProject = createProject(projectName);
         }
         LOGGER.debug("activate project if deactivated: " + clientConfig.isActivateProjectIfDeactivated(), projectName);
-        if (clientConfig.isActivateProjectIfDeactivated()) {
-            activateProject(projectName, project);
+        if (preparingProject && clientConfig.isActivateProjectIfDeactivated()) {
+            activateProject(projectName, resolvedProject);
         }
-        LOGGER.info("project is '{}'", project);
-        return project;
+        LOGGER.info("project is '{}'", resolvedProject);
+        return resolvedProject;
     }
 
-    private static void activateProject(String projectName, Project project) {
-        if (project == null) {
+    private void activateProject(String projectName, Project projectToActivate) {
+        if (projectToActivate == null) {
             throw new IllegalArgumentException("Project for activation is null");
         }
-        if (!project.isActive()) {
+        if (!projectToActivate.isActive()) {
             LOGGER.warn("Project '{}' is not active! Try to activate...", projectName);
-            UserService userService = project.getUserService();
-            AdminService adminService = userService.getConnection().getService(AdminService.class);
-            adminService.getProjectStorage().activateProject(project);
+            try (Timings.Span span = Timings.start("activate-project")) {
+                UserService userService = projectToActivate.getUserService();
+                AdminService adminService = userService.getConnection().getService(AdminService.class);
+                adminService.getProjectStorage().activateProject(projectToActivate);
+                serverRoundTrips.incrementAndGet();
+            }
         } else {
             LOGGER.debug("Project '{}' is already active! No need to activate...", projectName);
         }
     }
 
     private Project createProject(String projectName) {
-        Project project;
         LOGGER.info("Creating missing project '{}' on server...", projectName);
         AdminService ac = connection.getService(AdminService.class);
         final ProjectStorage projectStorage = ac.getProjectStorage();
-        project = projectStorage.createProject(projectName, projectName + " created by fs-cli");
-        return project;
+        final Project createdProject = projectStorage.createProject(projectName, projectName + " created by fs-cli");
+        serverRoundTrips.incrementAndGet();
+        return createdProject;
     }
 
     @Override
@@ -254,8 +427,15 @@ public class CliContextImpl implements CliContext {
 
     @Override
     public void close() throws Exception {
+        LOGGER.debug("Context made {} server round trips", serverRoundTrips.get());
+        if (sharedConnection) {
+            LOGGER.debug("Keeping shared connection to FirstSpirit open");
+            return;
+        }
         LOGGER.debug("Closing connection to FirstSpirit ...");
-        connection.close();
+        try (Timings.Span span = Timings.start("disconnect").setCount(serverRoundTrips.get())) {
+            connection.close();
+        }
         LOGGER.info("Connection to FirstSpirit closed!");
     }
 }
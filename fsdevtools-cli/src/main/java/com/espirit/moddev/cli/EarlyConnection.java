@@ -0,0 +1,163 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+
+package com.espirit.moddev.cli;
+
+import com.espirit.moddev.cli.api.FsConnectionMode;
+import com.espirit.moddev.cli.api.command.Command;
+import com.espirit.moddev.cli.api.configuration.Config;
+import com.espirit.moddev.cli.configuration.GlobalConfig;
+import com.espirit.moddev.cli.timing.Timings;
+
+import de.espirit.firstspirit.access.Connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A connection that is opened while the command line is parsed. The global connection options are scanned from the arguments before airline
+ * builds the parser, so the connection handshake does not wait for the parser. The connection is handed to the command only if the command
+ * needs a context and airline parsed the same connection options, otherwise it is closed.
+ * <p>
+ * Only the connection is opened early. The project is resolved by the context of the command, because creating or activating it depends on
+ * options of the command.
+ *
+ * @author e-Spirit AG
+ */
+final class EarlyConnection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EarlyConnection.class);
+
+    private final GlobalConfig options;
+    private final CompletableFuture<Connection> connection;
+
+    private EarlyConnection(final GlobalConfig options) {
+        this.options = options;
+        connection = CompletableFuture.supplyAsync(Timings.bind(() -> CliContextImpl.connect(options)));
+    }
+
+    /**
+     * Scans the connection options of the given arguments and starts to open a connection with them. Commands that are called without a
+     * project, like help, rarely need a connection, so no connection is opened for them.
+     *
+     * @param args the arguments of the cli
+     * @return the connection that is being opened, or null if no project is configured or the options are invalid
+     */
+    static EarlyConnection open(final String[] args) {
+        final GlobalConfig options = scanConnectionOptions(args);
+        if (options == null || options.getProject() == null) {
+            return null;
+        }
+        return new EarlyConnection(options);
+    }
+
+    /**
+     * Reads the values of the global connection options like airline does for the usual way of passing them, "--host name". Other ways, like
+     * "--host=name", are not recognized; the connection is not handed to the command then, because its options differ.
+     *
+     * @return the options, or null if a value is invalid, which the parser reports
+     */
+    static GlobalConfig scanConnectionOptions(final String[] args) {
+        final GlobalConfig options = new GlobalConfig();
+        try {
+            for (int index = 0; index + 1 < args.length && !"--".equals(args[index]); index++) {
+                final String value = args[index + 1];
+                switch (args[index]) {
+                    case "-h":
+                    case "--host":
+                        options.setHost(value);
+                        break;
+                    case "-c":
+                    case "--conn-mode":
+                        options.setFsMode(FsConnectionMode.valueOf(value));
+                        break;
+                    case "-port":
+                        options.setPort(Integer.valueOf(value));
+                        break;
+                    case "-u":
+                    case "--user":
+                        options.setUser(value);
+                        break;
+                    case "-pwd":
+                    case "--password":
+                        options.setPassword(value);
+                        break;
+                    case "-p":
+                    case "--project":
+                        options.setProject(value);
+                        break;
+                    default:
+                        continue;
+                }
+                // the value is no option
+                index++;
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Connection options are not valid", e);
+            return null;
+        }
+        return options;
+    }
+
+    /**
+     * Hands the connection to the given command, if the command needs a context that connects with the scanned options. The connection is
+     * closed otherwise.
+     *
+     * @param command the parsed command
+     * @return the connection, or null if the command needs no or another connection
+     * @throws com.espirit.moddev.cli.exception.CliException if the connection could not be opened
+     */
+    Connection takeFor(final Command command) {
+        if (command instanceof Config && ((Config) command).needsContext() && hasOptions((Config) command)) {
+            return Cli.await(connection);
+        }
+        close();
+        return null;
+    }
+
+    private boolean hasOptions(final Config config) {
+        return Objects.equals(options.getHost(), config.getHost()) && Objects.equals(options.getPort(), config.getPort())
+               && options.getConnectionMode() == config.getConnectionMode() && Objects.equals(options.getUser(), config.getUser())
+               && Objects.equals(options.getPassword(), config.getPassword());
+    }
+
+    /**
+     * Closes the connection once it is opened. Failures of opening it are not reported, the connection is not used.
+     */
+    void close() {
+        connection.whenComplete((openedConnection, throwable) -> {
+            if (openedConnection == null) {
+                LOGGER.debug("Connection opened while parsing the command line failed", throwable);
+                return;
+            }
+            try {
+                openedConnection.close();
+            } catch (Exception e) { //NOSONAR
+                LOGGER.debug("Closing the connection opened while parsing the command line failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Path, size, modification time and content hash of every file in a synchronization directory. An import with '--skip-unchanged' writes the
+ * manifest to {@link #FILE_NAME} in the synchronization directory after it succeeded without problems, together with the server and project it
+ * imported into, so the next import into the same target can tell whether the directory changed since. Every import removes the manifest
+ * before it starts, so a failed import is never skipped when it is retried.
+ * <p>
+ * Files whose size and modification time match the previous manifest keep their recorded hash, all other files are hashed in parallel. Files
+ * starting with {@link #STATE_FILE_PREFIX} belong to fs-cli and are not part of the manifest.
+ *
+ * @author e-Spirit AG
+ */
+public final class SyncDirectoryManifest {
+
+    /**
+     * Name of the manifest file in the synchronization directory.
+     */
+    public static final String FILE_NAME = ".fs-cli-manifest";
+
+    /**
+     * Prefix of the files fs-cli keeps in a synchronization directory.
+     */
+    public static final String STATE_FILE_PREFIX = ".fs-cli-";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncDirectoryManifest.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SEPARATOR = "\t";
+    private static final int FIELDS = 4;
+    private static final String TARGET_PREFIX = "#target" + SEPARATOR;
+
+    private final Map<String, Entry> entries;
+    private final String target;
+
+    private SyncDirectoryManifest(final Map<String, Entry> entries, final String target) {
+        this.entries = entries;
+        this.target = target;
+    }
+
+    /**
+     * Get the target of an import, to record and compare it in manifests.
+     *
+     * @param host    the host of the server
+     * @param port    the port of the server
+     * @param project the name of the project
+     * @return the target, like 'localhost:8000/my-project'
+     */
+    public static String getTarget(final String host, final Integer port, final String project) {
+        return host + ":" + port + "/" + project;
+    }
+
+    /**
+     * Loads the manifest of a synchronization directory.
+     *
+     * @param synchronizationDirectory the synchronization directory
+     * @return the manifest, empty if the directory has no manifest yet
+     * @throws IOException if the manifest exists but can not be read
+     */
+    public static SyncDirectoryManifest load(final File synchronizationDirectory) throws IOException {
+        final Map<String, Entry> entries = new TreeMap<>();
+        final File manifestFile = new File(synchronizationDirectory, FILE_NAME);
+        if (!manifestFile.isFile()) {
+            return new SyncDirectoryManifest(entries, null);
+        }
+        String target = null;
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith(TARGET_PREFIX)) {
+                    target = line.substring(TARGET_PREFIX.length());
+                    continue;
+                }
+                // the path is the last field, so it may contain the separator
+                final String[] fields = line.split(SEPARATOR, FIELDS);
+                if (fields.length != FIELDS) {
+                    throw new IOException("Invalid line " + lineNumber + " in " + manifestFile);
+                }
+                try {
+                    entries.put(fields[3], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[0]));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid line " + lineNumber + " in " + manifestFile, e);
+                }
+            }
+        }
+        return new SyncDirectoryManifest(entries, target);
+    }
+
+    /**
+     * Removes the manifest of a synchronization directory, so no import is skipped until a manifest is written again.
+     *
+     * @param synchronizationDirectory the synchronization directory
+     * @throws IOException if the manifest exists but can not be removed
+     */
+    public static void delete(final File synchronizationDirectory) throws IOException {
+        Files.deleteIfExists(new File(synchronizationDirectory, FILE_NAME).toPath());
+    }
+
+    /**
+     * Creates the manifest of the current content of a synchronization directory.
+     *
+     * @param synchronizationDirectory the synchronization directory
+     * @param previous                 the previous manifest, its hashes are reused for files with unchanged size and modification time
+     * @return the manifest of the current content, without a target
+     * @throws IOException if the directory can not be read
+     */
+    public static SyncDirectoryManifest scan(final File synchronizationDirectory, final SyncDirectoryManifest previous) throws IOException {
+        final Path root = synchronizationDirectory.toPath();
+        final Map<String, BasicFileAttributes> files = new TreeMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && !file.getFileName().toString().startsWith(STATE_FILE_PREFIX)) {
+                    files.put(root.relativize(file).toString().replace(File.separatorChar, '/'), attributes);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        final Map<String, Entry> entries = new TreeMap<>();
+        final List<String> filesToHash = new ArrayList<>();
+        for (final Map.Entry<String, BasicFileAttributes> file : files.entrySet()) {
+            final long size = file.getValue().size();
+            final long lastModified = file.getValue().lastModifiedTime().toMillis();
+            final Entry previousEntry = previous.entries.get(file.getKey());
+            if (previousEntry != null && previousEntry.size == size && previousEntry.lastModified == lastModified) {
+                entries.put(file.getKey(), previousEntry);
+            } else {
+                filesToHash.add(file.getKey());
+            }
+        }
+        LOGGER.debug("Hashing {} of {} files in {}", filesToHash.size(), files.size(), synchronizationDirectory);
+        try {
+            filesToHash.parallelStream().forEach(path -> {
+                final BasicFileAttributes attributes = files.get(path);
+                final Entry entry = new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), hash(root.resolve(path)));
+                synchronized (entries) {
+                    entries.put(path, entry);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new SyncDirectoryManifest(entries, null);
+    }
+
+    /**
+     * Writes this manifest to a synchronization directory, as the content that was imported into the given target.
+     *
+     * @param synchronizationDirectory the synchronization directory
+     * @param target                   the target the content was imported into, see {@link #getTarget(String, Integer, String)}
+     * @throws IOException if the manifest can not be written
+     */
+    public void save(final File synchronizationDirectory, final String target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(new File(synchronizationDirectory, FILE_NAME).toPath(), StandardCharsets.UTF_8)) {
+            writer.write(TARGET_PREFIX + target);
+            writer.newLine();
+            for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getValue().hash + SEPARATOR + entry.getValue().size + SEPARATOR + entry.getValue().lastModified + SEPARATOR
+                             + entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Indicates whether this manifest was written after a successful import into the given target.
+     *
+     * @param target the target, see {@link #getTarget(String, Integer, String)}
+     * @return true if the recorded content has been imported into the target
+     */
+    public boolean isImportedInto(final String target) {
+        return this.target != null && this.target.equals(target);
+    }
+
+    /**
+     * Indicates whether this manifest contains no files, for example because the synchronization directory has no manifest yet.
+     *
+     * @return true if the manifest contains no files
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Get the number of files in this manifest.
+     *
+     * @return the number of files
+     */
+    public int getFileCount() {
+        return entries.size();
+    }
+
+    /**
+     * Get the sum of the sizes of all files in this manifest.
+     *
+     * @return the total size in bytes
+     */
+    public long getTotalSize() {
+        long totalSize = 0;
+        for (final Entry entry : entries.values()) {
+            totalSize += entry.size;
+        }
+        return totalSize;
+    }
+
+    /**
+     * Get the paths of all files that were added, changed or removed compared to another manifest. Only the content is compared, a file that was
+     * touched without changing it is not reported.
+     *
+     * @param other the manifest to compare with
+     * @return the sorted relative paths of the changed files, separated by '/'
+     */
+    public SortedSet<String> getChangedPaths(final SyncDirectoryManifest other) {
+        final SortedSet<String> changed = new TreeSet<>();
+        final Set<String> paths = new HashSet<>(entries.keySet());
+        paths.addAll(other.entries.keySet());
+        for (final String path : paths) {
+            final Entry entry = entries.get(path);
+            final Entry otherEntry = other.entries.get(path);
+            if (entry == null || otherEntry == null || entry.size != otherEntry.size || !entry.hash.equals(otherEntry.hash)) {
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    private static String hash(final Path file) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private Entry(final long size, final long lastModified, final String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
@@ -4,15 +4,17 @@ import com.espirit.moddev.cli.api.parsing.exceptions.IDProviderNotFoundException
 import de.espirit.common.tools.Objects;
 import de.espirit.firstspirit.access.store.IDProvider;
 import de.espirit.firstspirit.agency.StoreAgent;
-import de.espirit.firstspirit.store.access.nexport.ExportUtil;
 import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+
 
 /**
  * @author e-Spirit AG
  */
-public class PathIdentifier implements Identifier {
+public class PathIdentifier implements ResolvableIdentifier {
 
     protected static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(PathIdentifier.class);
     private String _path;
@@ -30,12 +32,22 @@ public class PathIdentifier implements Identifier {
     }
 
 
+    /**
+     * Adds the element with a resolver of its own, so the folders of the path are looked up again by every call. Resolve many identifiers with
+     * one {@link StoreElementResolver} instead.
+     */
     @Override
     public void addToExportOperation(StoreAgent storeAgent, boolean useReleaseState, ExportOperation exportOperation) {
-        final IDProvider element = ExportUtil.getElementByPath(storeAgent, useReleaseState, _path);
+        addToExportOperation(new StoreElementResolver(storeAgent, useReleaseState), exportOperation);
+    }
+
+
+    @Override
+    public List<IDProvider> getElements(StoreElementResolver resolver) {
+        final IDProvider element = resolver.getElementByPath(_path);
         if(element != null) {
             LOGGER.debug("Adding store element: {}", element);
-            exportOperation.addElement(element);
+            return Collections.singletonList(element);
         } else {
             throw new IDProviderNotFoundException("IDProvider cannot be retrieved via path '" + _path + '\'');
         }
@@ -0,0 +1,59 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+
+import java.util.List;
+
+/**
+ * An {@link Identifier} that resolves store elements through a {@link StoreElementResolver}, so that stores and folders are looked up only
+ * once for many identifiers.
+ *
+ * @author e-Spirit AG
+ */
+public interface ResolvableIdentifier extends Identifier {
+
+    /**
+     * Adds the elements of this identifier to the given export operation, like
+     * {@link #addToExportOperation(de.espirit.firstspirit.agency.StoreAgent, boolean, ExportOperation)}, but resolves them with the given
+     * resolver.
+     *
+     * @param resolver        the resolver to retrieve store elements with, it determines the store agent and the release state
+     * @param exportOperation the ExportOperation matching elements should be added to
+     */
+    default void addToExportOperation(StoreElementResolver resolver, ExportOperation exportOperation) {
+        for (final IDProvider element : getElements(resolver)) {
+            exportOperation.addElement(element);
+        }
+    }
+
+    /**
+     * Get the store elements this identifier selects.
+     *
+     * @param resolver the resolver to retrieve store elements with, it determines the store agent and the release state
+     * @return the elements, in the order they would be added to an export operation
+     */
+    List<IDProvider> getElements(StoreElementResolver resolver);
+}
@@ -28,12 +28,15 @@ import de.espirit.firstspirit.agency.StoreAgent;
 import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+
 import static com.espirit.moddev.cli.api.parsing.parser.RootNodeIdentifierParser.getAllStorePostfixes;
 
 /**
  * Identifier for FirstSpirit store root nodes.
  */
-public class RootNodeIdentifier implements Identifier {
+public class RootNodeIdentifier implements ResolvableIdentifier {
     protected static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(RootNodeIdentifier.class);
     public static final String ROOT_NODE_IDENTIFIER = "root";
 
@@ -55,6 +58,15 @@ public class RootNodeIdentifier implements Identifier {
         this.uidType = uidType;
     }
 
+    /**
+     * Get the {@link IDProvider.UidType} of the store root node.
+     *
+     * @return the {@link IDProvider.UidType} of the store root node
+     */
+    public IDProvider.UidType getUidType() {
+        return uidType;
+    }
+
     @Override
     public void addToExportOperation(StoreAgent storeAgent, boolean useReleaseState, ExportOperation exportOperation) {
         final IDProvider storeRoot = storeAgent.getStore(uidType.getStoreType(), useReleaseState);
@@ -66,6 +78,17 @@ public class RootNodeIdentifier implements Identifier {
         }
     }
 
+    @Override
+    public List<IDProvider> getElements(StoreElementResolver resolver) {
+        final IDProvider storeRoot = resolver.getStore(uidType.getStoreType());
+        if(storeRoot != null) {
+            LOGGER.debug("Adding store element: {}", storeRoot);
+            return Collections.singletonList(storeRoot);
+        } else {
+            throw new UnknownRootNodeException("Store root cannot be retrieved for uidType " + uidType.getStoreType());
+        }
+    }
+
     @Override
     public String toString() {
         return ROOT_NODE_IDENTIFIER + ":" + getAllStorePostfixes().inverse().get(uidType);
@@ -0,0 +1,271 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.StoreElement;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.ExportUtil;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Resolves the store elements of many identifiers with as few server round trips as possible. A resolver belongs to one {@link StoreAgent} and
+ * one release state; it retrieves each {@link Store} once and keeps the folders of resolved paths in a trie, so resolving paths costs one
+ * lookup per distinct path segment instead of one walk from the store root per path.
+ * <p>
+ * Path segments are matched against the uids of the children of the previous segment first, then against their names. Paths that can not be
+ * resolved that way are passed to {@link ExportUtil#getElementByPath(StoreAgent, boolean, String)}.
+ * <p>
+ * For uid patterns, the resolver indexes all uids of a store with one traversal. The index can be kept in a file between runs, it is rebuilt
+ * whenever the project revision changed.
+ *
+ * @author e-Spirit AG
+ */
+public class StoreElementResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoreElementResolver.class);
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final StoreAgent storeAgent;
+    private final boolean releaseState;
+    private final File uidIndexFile;
+    private final Map<Store.Type, Store> stores = new EnumMap<>(Store.Type.class);
+    private final Map<Store.Type, PathNode> storePaths = new EnumMap<>(Store.Type.class);
+    private final Map<Store.Type, UidIndex> uidIndexes = new EnumMap<>(Store.Type.class);
+
+    /**
+     * @param storeAgent   the StoreAgent to retrieve stores with
+     * @param releaseState indicates whether to resolve elements of the {@link Store#isRelease() release} or the current store
+     */
+    public StoreElementResolver(final StoreAgent storeAgent, final boolean releaseState) {
+        this(storeAgent, releaseState, null);
+    }
+
+    /**
+     * @param storeAgent   the StoreAgent to retrieve stores with
+     * @param releaseState indicates whether to resolve elements of the {@link Store#isRelease() release} or the current store
+     * @param uidIndexFile the file uid indexes are kept in between runs, or null to build them in every run
+     */
+    public StoreElementResolver(final StoreAgent storeAgent, final boolean releaseState, final File uidIndexFile) {
+        this.storeAgent = storeAgent;
+        this.releaseState = releaseState;
+        this.uidIndexFile = uidIndexFile;
+    }
+
+    /**
+     * @return the StoreAgent stores are retrieved with
+     */
+    public StoreAgent getStoreAgent() {
+        return storeAgent;
+    }
+
+    /**
+     * @return true if elements of the release store are resolved, false for the current store
+     */
+    public boolean isReleaseState() {
+        return releaseState;
+    }
+
+    /**
+     * Adds the elements of the given identifier to the given export operation. {@link ResolvableIdentifier}s use this resolver, all other
+     * identifiers use its StoreAgent and release state.
+     *
+     * @param identifier      the identifier
+     * @param exportOperation the ExportOperation matching elements should be added to
+     */
+    public void addToExportOperation(final Identifier identifier, final ExportOperation exportOperation) {
+        if (identifier instanceof ResolvableIdentifier) {
+            ((ResolvableIdentifier) identifier).addToExportOperation(this, exportOperation);
+        } else {
+            identifier.addToExportOperation(storeAgent, releaseState, exportOperation);
+        }
+    }
+
+    /**
+     * Get the store elements of the given identifier. {@link ResolvableIdentifier}s use this resolver, other identifiers, like project properties
+     * or entities, do not select store elements.
+     *
+     * @param identifier the identifier
+     * @return the elements, or null if the identifier does not select store elements
+     */
+    public List<IDProvider> getElements(final Identifier identifier) {
+        if (identifier instanceof ResolvableIdentifier) {
+            return ((ResolvableIdentifier) identifier).getElements(this);
+        }
+        return null;
+    }
+
+    /**
+     * Get the store of the given type. Every store is retrieved once.
+     *
+     * @param storeType the type of the store
+     * @return the store
+     */
+    public Store getStore(final Store.Type storeType) {
+        return stores.computeIfAbsent(storeType, type -> storeAgent.getStore(type, releaseState));
+    }
+
+    /**
+     * Get the element with the given path. Paths look like '/&lt;STORE&gt;/&lt;UID&gt;|&lt;NAME&gt;/...', the store name is compared case
+     * insensitive.
+     *
+     * @param path the path
+     * @return the element, or null if there is no element with the given path
+     */
+    public IDProvider getElementByPath(final String path) {
+        final String[] segments = StringUtils.split(path, PATH_SEPARATOR);
+        final Store.Type storeType = segments.length == 0 ? null : getStoreType(segments[0]);
+        if (storeType == null) {
+            return ExportUtil.getElementByPath(storeAgent, releaseState, path);
+        }
+        PathNode node = storePaths.computeIfAbsent(storeType, type -> new PathNode(getStore(type)));
+        for (int index = 1; index < segments.length && node != null; index++) {
+            node = node.getChild(segments[index]);
+        }
+        return node != null ? node.element : ExportUtil.getElementByPath(storeAgent, releaseState, path);
+    }
+
+    /**
+     * Get the uids of all elements the given mapping addresses, with the node ids of the elements. The uids of a store are indexed once, or
+     * loaded from the uid index file if the project did not change since the index was stored.
+     *
+     * @param uidMapping the mapping
+     * @return the node ids by uid, in no particular order
+     */
+    public Map<String, Long> getNodeIds(final UidMapping uidMapping) {
+        return getUidIndex(uidMapping.getStoreType()).getNodeIds(uidMapping);
+    }
+
+    private UidIndex getUidIndex(final Store.Type storeType) {
+        UidIndex uidIndex = uidIndexes.get(storeType);
+        if (uidIndex == null) {
+            final Store store = getStore(storeType);
+            final long revision = store.getProject().getRevision(new Date()).getId();
+            final String keyPrefix = (releaseState ? "release." : "current.") + storeType.name().toLowerCase(Locale.UK) + ".";
+            final Properties properties = loadUidIndexes();
+            uidIndex = UidIndex.load(properties, keyPrefix);
+            if (uidIndex == null || uidIndex.getRevision() != revision) {
+                LOGGER.info("indexing the uids of {} at revision {}", storeType, revision);
+                uidIndex = UidIndex.build(store, storeType, revision);
+                uidIndex.store(properties, keyPrefix);
+                saveUidIndexes(properties);
+            }
+            uidIndexes.put(storeType, uidIndex);
+        }
+        return uidIndex;
+    }
+
+    private Properties loadUidIndexes() {
+        final Properties properties = new Properties();
+        if (uidIndexFile != null && uidIndexFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(uidIndexFile)) {
+                properties.load(inputStream);
+            } catch (IOException e) {
+                LOGGER.warn("Could not read uid index '" + uidIndexFile + "', uids are indexed again", e);
+                properties.clear();
+            }
+        }
+        return properties;
+    }
+
+    private void saveUidIndexes(final Properties properties) {
+        if (uidIndexFile == null || !uidIndexFile.getAbsoluteFile().getParentFile().isDirectory()) {
+            return;
+        }
+        try (OutputStream outputStream = new FileOutputStream(uidIndexFile)) {
+            properties.store(outputStream, "uids of the exported project by store and uid mapping");
+        } catch (IOException e) {
+            LOGGER.warn("Could not write uid index '" + uidIndexFile + "'", e);
+        }
+    }
+
+    private static Store.Type getStoreType(final String storeName) {
+        for (final Store.Type storeType : Store.Type.values()) {
+            if (storeType.name().equalsIgnoreCase(storeName)) {
+                return storeType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An element of a resolved path. The children of the element are retrieved once, when the first path below the element is resolved.
+     */
+    private static final class PathNode {
+
+        private final IDProvider element;
+        private final Map<String, PathNode> children = new HashMap<>();
+        private Map<String, IDProvider> childrenByUid;
+        private Map<String, IDProvider> childrenByName;
+
+        private PathNode(final IDProvider element) {
+            this.element = element;
+        }
+
+        private PathNode getChild(final String segment) {
+            if (!children.containsKey(segment)) {
+                final IDProvider child = findChild(segment);
+                children.put(segment, child == null ? null : new PathNode(child));
+            }
+            return children.get(segment);
+        }
+
+        private IDProvider findChild(final String segment) {
+            if (childrenByUid == null) {
+                childrenByUid = new HashMap<>();
+                childrenByName = new HashMap<>();
+                for (final StoreElement child : element.getChildren()) {
+                    if (child instanceof IDProvider) {
+                        final IDProvider idProvider = (IDProvider) child;
+                        if (idProvider.hasUid()) {
+                            childrenByUid.putIfAbsent(idProvider.getUid(), idProvider);
+                        }
+                        childrenByName.putIfAbsent(idProvider.getName(), idProvider);
+                    }
+                }
+            }
+            final IDProvider child = childrenByUid.get(segment);
+            return child != null ? child : childrenByName.get(segment);
+        }
+    }
+}
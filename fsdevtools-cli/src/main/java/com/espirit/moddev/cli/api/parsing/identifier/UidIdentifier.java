@@ -30,6 +30,9 @@ import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * FirstSpirit's uids are unique across all stores only in conjunction with their {@link de.espirit.firstspirit.access.store.IDProvider.UidType}.
  * This class encapsulates a uid and its {@link de.espirit.firstspirit.access.store.IDProvider.UidType} and therewith provides a full qualified representation of the uid.
@@ -37,7 +40,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author e-Spirit AG
  */
-public class UidIdentifier implements Identifier {
+public class UidIdentifier implements ResolvableIdentifier {
     protected static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(UidIdentifier.class);
 
     private final UidMapping uidMapping;
@@ -113,17 +116,28 @@ public class UidIdentifier implements Identifier {
      * That is, because multiple implementing classes (for example FILE and MEDIA) can share the same UidType.
      * If you query the store with uid and UidType only, you could retrieve a MEDIA item, even if you only wanted
      * a FILE item. Since uids are unique across stores, there shouldn't be further problems.
+     * The store is retrieved by a resolver of its own; resolve many identifiers with one {@link StoreElementResolver} instead.
      * @param storeAgent the StoreAgent to retrieve store instances from
      * @param useReleaseState indicates whether to request elements from {@link Store#isRelease() release} or current store via given {@link StoreAgent}
      * @param exportOperation the ExportOperation matching elements should be added to
      */
     @Override
     public void addToExportOperation(StoreAgent storeAgent, boolean useReleaseState, ExportOperation exportOperation) {
-        final IDProvider storeElement = storeAgent.getStore(getUidMapping().getStoreType(), useReleaseState).getStoreElement(getUid(), getUidMapping().getUidType());
+        addToExportOperation(new StoreElementResolver(storeAgent, useReleaseState), exportOperation);
+    }
+
+    /**
+     * Selects a StoreElement like {@link #addToExportOperation(StoreAgent, boolean, ExportOperation)}, from the store the given resolver keeps.
+     * @param resolver the resolver to retrieve the store with
+     * @return the selected StoreElement
+     */
+    @Override
+    public List<IDProvider> getElements(StoreElementResolver resolver) {
+        final IDProvider storeElement = resolver.getStore(getUidMapping().getStoreType()).getStoreElement(getUid(), getUidMapping().getUidType());
         if(storeElement != null) {
             if(isAssignableFrom(storeElement)) {
                 LOGGER.debug("Adding store element: {}", storeElement);
-                exportOperation.addElement(storeElement);
+                return Collections.singletonList(storeElement);
             } else {
                 String errorMessage = "IDProvider of class " + storeElement.getClass().getSimpleName() + " found, but expected to find one of class " + getUidMapping().getCorrespondingType().getSimpleName() + " for uid " + uid;
                 throw new IDProviderNotFoundException(errorMessage);
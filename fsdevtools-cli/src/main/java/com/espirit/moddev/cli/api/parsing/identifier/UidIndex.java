@@ -0,0 +1,170 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.StoreElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The uids of all elements of one store, grouped by the {@link UidMapping}s that address them, together with the node ids of the elements, so
+ * matching elements can be fetched by id. The index is built with one traversal of the store and is valid for the project revision it was built
+ * at. It can be kept in {@link Properties} between runs.
+ *
+ * @author e-Spirit AG
+ */
+final class UidIndex {
+
+    private static final String REVISION_KEY = "revision";
+    private static final String UID_SEPARATOR = ",";
+    private static final char NODE_ID_SEPARATOR = ':';
+
+    private final long revision;
+    private final Map<UidMapping, Map<String, Long>> uids;
+
+    private UidIndex(final long revision, final Map<UidMapping, Map<String, Long>> uids) {
+        this.revision = revision;
+        this.uids = uids;
+    }
+
+    /**
+     * Traverses the given store and indexes the uids of all its elements.
+     *
+     * @param store     the store to traverse
+     * @param storeType the type of the store
+     * @param revision  the project revision the store is traversed at
+     * @return the index
+     */
+    static UidIndex build(final Store store, final Store.Type storeType, final long revision) {
+        final List<UidMapping> mappings = new ArrayList<>();
+        for (final UidMapping mapping : UidMapping.values()) {
+            if (mapping.getStoreType() == storeType) {
+                mappings.add(mapping);
+            }
+        }
+        final Map<UidMapping, Map<String, Long>> uids = new EnumMap<>(UidMapping.class);
+        final Deque<StoreElement> pending = new ArrayDeque<>();
+        pending.push(store);
+        while (!pending.isEmpty()) {
+            final StoreElement element = pending.pop();
+            if (element instanceof IDProvider && ((IDProvider) element).hasUid()) {
+                addUid(uids, mappings, (IDProvider) element);
+            }
+            for (final StoreElement child : element.getChildren()) {
+                pending.push(child);
+            }
+        }
+        return new UidIndex(revision, uids);
+    }
+
+    private static void addUid(final Map<UidMapping, Map<String, Long>> uids, final List<UidMapping> mappings, final IDProvider element) {
+        for (final UidMapping mapping : mappings) {
+            if (mapping.getUidType() == element.getUidType() && mapping.getCorrespondingType().isAssignableFrom(element.getClass())) {
+                uids.computeIfAbsent(mapping, key -> new LinkedHashMap<>()).put(element.getUid(), element.getId());
+            }
+        }
+    }
+
+    /**
+     * Loads an index that was stored with {@link #store(Properties, String)}.
+     *
+     * @param properties the properties to load from
+     * @param keyPrefix  the prefix of the keys of this index
+     * @return the index, or null if the properties contain no valid index with the given prefix
+     */
+    static UidIndex load(final Properties properties, final String keyPrefix) {
+        final String revision = properties.getProperty(keyPrefix + REVISION_KEY);
+        if (revision == null) {
+            return null;
+        }
+        final Map<UidMapping, Map<String, Long>> uids = new EnumMap<>(UidMapping.class);
+        try {
+            for (final UidMapping mapping : UidMapping.values()) {
+                final String value = properties.getProperty(keyPrefix + mapping.name());
+                if (value != null && !value.isEmpty()) {
+                    final Map<String, Long> mappingUids = new LinkedHashMap<>();
+                    for (final String entry : value.split(UID_SEPARATOR)) {
+                        final int separator = entry.lastIndexOf(NODE_ID_SEPARATOR);
+                        if (separator < 0) {
+                            // stored without node ids by an older version
+                            return null;
+                        }
+                        mappingUids.put(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+                    }
+                    uids.put(mapping, mappingUids);
+                }
+            }
+            return new UidIndex(Long.parseLong(revision), uids);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores this index in the given properties, replacing an index stored with the same prefix.
+     *
+     * @param properties the properties to store to
+     * @param keyPrefix  the prefix of the keys of this index
+     */
+    void store(final Properties properties, final String keyPrefix) {
+        for (final UidMapping mapping : UidMapping.values()) {
+            properties.remove(keyPrefix + mapping.name());
+        }
+        properties.setProperty(keyPrefix + REVISION_KEY, Long.toString(revision));
+        for (final Map.Entry<UidMapping, Map<String, Long>> entry : uids.entrySet()) {
+            final List<String> values = new ArrayList<>(entry.getValue().size());
+            for (final Map.Entry<String, Long> uid : entry.getValue().entrySet()) {
+                values.add(uid.getKey() + NODE_ID_SEPARATOR + uid.getValue());
+            }
+            properties.setProperty(keyPrefix + entry.getKey().name(), String.join(UID_SEPARATOR, values));
+        }
+    }
+
+    /**
+     * @return the project revision the index was built at
+     */
+    long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Get the uids of the elements the given mapping addresses, with the node ids of the elements.
+     *
+     * @param mapping the mapping
+     * @return the node ids by uid, in no particular order
+     */
+    Map<String, Long> getNodeIds(final UidMapping mapping) {
+        final Map<String, Long> mappingUids = uids.get(mapping);
+        return mappingUids == null ? Collections.<String, Long>emptyMap() : Collections.unmodifiableMap(mappingUids);
+    }
+}
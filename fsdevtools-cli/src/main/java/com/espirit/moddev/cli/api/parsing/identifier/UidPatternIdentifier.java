@@ -0,0 +1,218 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Identifies all elements of a {@link UidMapping} whose uids match a pattern. The pattern is either a glob, like "news_*", where '*' matches
+ * any number of characters and '?' a single one, or a regular expression prefixed with {@value #REGEX_PREFIX}, like "re:^campaign_\d+$".
+ * A glob has to match the whole uid, a regular expression any part of it. The uids are matched against the uid index of a
+ * {@link StoreElementResolver}, the matching elements are fetched by their node ids with {@link Store#getElements(Collection)} in chunks.
+ *
+ * @author e-Spirit AG
+ */
+public class UidPatternIdentifier implements ResolvableIdentifier {
+
+    /**
+     * Prefix of patterns that are regular expressions.
+     */
+    public static final String REGEX_PREFIX = "re:";
+
+    /**
+     * The number of node ids fetched with one request.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UidPatternIdentifier.class);
+
+    private final UidMapping uidMapping;
+    private final String pattern;
+    private final Pattern compiledPattern;
+
+    /**
+     * Instantiates a new uid pattern identifier.
+     *
+     * @param uidMapping {@link UidMapping} of the uids
+     * @param pattern    a glob or a regular expression prefixed with {@value #REGEX_PREFIX}
+     * @throws IllegalArgumentException if uidMapping is null or pattern is null or no valid pattern
+     */
+    public UidPatternIdentifier(final UidMapping uidMapping, final String pattern) {
+        if (uidMapping == null) {
+            throw new IllegalArgumentException("uidMapping is null.");
+        }
+        if (pattern == null || !isPattern(pattern)) {
+            throw new IllegalArgumentException("No uid pattern: " + pattern);
+        }
+        this.uidMapping = uidMapping;
+        this.pattern = pattern;
+        try {
+            compiledPattern = pattern.startsWith(REGEX_PREFIX) ? Pattern.compile(pattern.substring(REGEX_PREFIX.length())) : compileGlob(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid uid pattern '" + pattern + "': " + e.getDescription(), e);
+        }
+    }
+
+    /**
+     * Indicates whether the given string is a uid pattern, that is a glob with '*' or '?' or a non empty regular expression prefixed with
+     * {@value #REGEX_PREFIX}.
+     *
+     * @param value the string to test
+     * @return true if the string is a uid pattern
+     */
+    public static boolean isPattern(final String value) {
+        if (value.startsWith(REGEX_PREFIX)) {
+            return value.length() > REGEX_PREFIX.length();
+        }
+        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0;
+    }
+
+    private static Pattern compileGlob(final String glob) {
+        final StringBuilder regex = new StringBuilder("^");
+        int literalStart = 0;
+        for (int index = 0; index < glob.length(); index++) {
+            final char character = glob.charAt(index);
+            if (character == '*' || character == '?') {
+                if (index > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, index)));
+                }
+                regex.append(character == '*' ? ".*" : ".");
+                literalStart = index + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.append('$').toString());
+    }
+
+    /**
+     * Get the {@link UidMapping} of the matched uids.
+     *
+     * @return the {@link UidMapping} of the matched uids
+     */
+    public UidMapping getUidMapping() {
+        return uidMapping;
+    }
+
+    /**
+     * Get the pattern.
+     *
+     * @return the pattern as given, including the {@value #REGEX_PREFIX} prefix of regular expressions
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Indicates whether the given uid matches the pattern.
+     *
+     * @param uid the uid
+     * @return true if the uid matches
+     */
+    public boolean matches(final String uid) {
+        return compiledPattern.matcher(uid).find();
+    }
+
+    /**
+     * Adds the matching elements with a resolver of its own. The resolver keeps no uid index file, so the uids of the store are indexed by every
+     * call; resolve many identifiers with one {@link StoreElementResolver} instead, see {@link #addToExportOperation(StoreElementResolver, ExportOperation)}.
+     */
+    @Override
+    public void addToExportOperation(StoreAgent storeAgent, boolean useReleaseState, ExportOperation exportOperation) {
+        addToExportOperation(new StoreElementResolver(storeAgent, useReleaseState), exportOperation);
+    }
+
+    /**
+     * Selects all elements of the {@link UidMapping} whose uids match the pattern. A pattern that matches no uid is not an error, it is logged
+     * only.
+     *
+     * @param resolver the resolver to retrieve the uids and elements with
+     * @return the matching elements
+     */
+    @Override
+    public List<IDProvider> getElements(StoreElementResolver resolver) {
+        final List<Long> nodeIds = new ArrayList<>();
+        for (final Map.Entry<String, Long> entry : resolver.getNodeIds(uidMapping).entrySet()) {
+            if (matches(entry.getKey())) {
+                nodeIds.add(entry.getValue());
+            }
+        }
+        final List<IDProvider> elements = new ArrayList<>(nodeIds.size());
+        if (!nodeIds.isEmpty()) {
+            final Store store = resolver.getStore(uidMapping.getStoreType());
+            for (int from = 0; from < nodeIds.size(); from += CHUNK_SIZE) {
+                for (final IDProvider storeElement : store.getElements(nodeIds.subList(from, Math.min(nodeIds.size(), from + CHUNK_SIZE)))) {
+                    // null if the element was deleted after the index was built
+                    if (storeElement != null) {
+                        LOGGER.debug("Adding store element: {}", storeElement);
+                        elements.add(storeElement);
+                    }
+                }
+            }
+        }
+        if (elements.isEmpty()) {
+            LOGGER.warn("No {} uid matches '{}'", uidMapping.getPrefix(), pattern);
+        } else {
+            LOGGER.info("{} {} uids match '{}'", elements.size(), uidMapping.getPrefix(), pattern);
+        }
+        return elements;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == null || o.getClass() != this.getClass()) {
+            return false;
+        } else if (this == o) {
+            return true;
+        } else {
+            final UidPatternIdentifier that = (UidPatternIdentifier) o;
+            return uidMapping.equals(that.uidMapping) && pattern.equals(that.pattern);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = uidMapping.hashCode();
+        result = 31 * result + pattern.hashCode(); //NOSONAR
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return uidMapping.getPrefix() + ":" + pattern;
+    }
+}
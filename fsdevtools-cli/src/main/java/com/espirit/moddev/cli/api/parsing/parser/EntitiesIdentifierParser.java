@@ -71,11 +71,11 @@ public class EntitiesIdentifierParser  implements Parser<EntitiesIdentifier> {
 
     @Override
     public boolean appliesTo(String input) {
-        String[] splitted = input.split(DELIMITER.pattern());
-        if(splitted.length != 2) {
-            return false;
-        }
+        return ENTITIES_IDENTIFIER.equals(IdentifierPrefix.of(input));
+    }
 
-        return splitted[0].toLowerCase(Locale.UK).trim().equals(ENTITIES_IDENTIFIER);
+    @Override
+    public Collection<String> getPrefixes() {
+        return Collections.singleton(ENTITIES_IDENTIFIER);
     }
 }
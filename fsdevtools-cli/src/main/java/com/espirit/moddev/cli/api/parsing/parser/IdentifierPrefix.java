@@ -0,0 +1,64 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.parser;
+
+import java.util.Locale;
+
+/**
+ * Splits identifier strings of the form "prefix:value" without regular expressions. The parsers of this package
+ * use it to decide whether they apply to a string, the {@link RegistryBasedParser} to dispatch a string to them.
+ */
+final class IdentifierPrefix {
+
+    private static final char DELIMITER = ':';
+
+    private IdentifierPrefix() {
+        // Not used
+    }
+
+    /**
+     * Retrieves the prefix of an identifier string of the form "prefix:value". Whitespace around the delimiter
+     * is ignored, the prefix is lower cased.
+     * @param input the identifier string
+     * @return the lower case prefix, or null if the input does not consist of exactly a prefix and a non blank value
+     */
+    static String of(String input) {
+        final int delimiterIndex = input.indexOf(DELIMITER);
+        if (delimiterIndex < 0 || input.indexOf(DELIMITER, delimiterIndex + 1) >= 0) {
+            return null;
+        }
+        if (isBlank(input, delimiterIndex + 1)) {
+            return null;
+        }
+        return input.substring(0, delimiterIndex).trim().toLowerCase(Locale.UK);
+    }
+
+    private static boolean isBlank(String input, int beginIndex) {
+        for (int index = beginIndex; index < input.length(); index++) {
+            if (!Character.isWhitespace(input.charAt(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
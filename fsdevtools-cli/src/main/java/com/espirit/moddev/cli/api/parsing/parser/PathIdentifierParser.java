@@ -3,8 +3,9 @@ package com.espirit.moddev.cli.api.parsing.parser;
 import com.espirit.moddev.cli.api.parsing.identifier.PathIdentifier;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -55,7 +56,11 @@ public class PathIdentifierParser implements Parser<PathIdentifier> {
 
     @Override
     public boolean appliesTo(String input) {
-        final String[] splitted = input.split(DELIMITER.pattern());
-        return splitted.length == 2 && splitted[0].toLowerCase(Locale.UK).trim().equals(PATH_PREFIX);
+        return PATH_PREFIX.equals(IdentifierPrefix.of(input));
+    }
+
+    @Override
+    public Collection<String> getPrefixes() {
+        return Collections.singleton(PATH_PREFIX);
     }
 }
@@ -100,8 +100,12 @@ public class ProjectPropertiesParser implements Parser<ProjectPropertiesIdentifi
 
     @Override
     public boolean appliesTo(String input) {
-        final String[] splitted = input.split(DELIMITER.pattern());
-        return splitted.length == 2 && splitted[0].toLowerCase(Locale.UK).trim().equals(CUSTOM_PREFIX_PROJECT_PROPERTIES);
+        return CUSTOM_PREFIX_PROJECT_PROPERTIES.equals(IdentifierPrefix.of(input));
+    }
+
+    @Override
+    public Collection<String> getPrefixes() {
+        return Collections.singleton(CUSTOM_PREFIX_PROJECT_PROPERTIES);
     }
     
 }
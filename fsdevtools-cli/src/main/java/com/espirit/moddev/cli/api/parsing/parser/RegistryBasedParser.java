@@ -25,27 +25,36 @@ package com.espirit.moddev.cli.api.parsing.parser;
 import com.espirit.moddev.cli.api.parsing.exceptions.NoSuitableParserRegisteredException;
 import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
 
-import com.google.common.collect.Lists;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.collections4.map.HashedMap;
 
+/**
+ * Parser that delegates to the registered parsers. Strings of the form "prefix:value" are dispatched by their
+ * prefix to the parser that declared it with {@link Parser#getPrefixes()}; if several parsers declared the prefix,
+ * to those of them that apply to the string. All other strings, and prefixes no parser declared, are offered to
+ * the registered parsers via {@link Parser#appliesTo(String)}.
+ */
 public class RegistryBasedParser implements Parser<Identifier> {
     protected static final Logger LOGGER = LoggerFactory.getLogger(RegistryBasedParser.class);
 
     private final List<Parser> registeredParsers = new ArrayList<>();
+    private final Map<String, List<Parser>> parsersByPrefix = new HashMap<>();
+    private final List<Parser> parsersWithoutPrefixes = new ArrayList<>();
 
     public RegistryBasedParser() {
     }
 
     /**
-     * Parses a given list of strings. For each string, the first applicable parser
-     * is chosen for parsing.
+     * Parses a given list of strings. Each string is passed to the parsers it is dispatched to, see the
+     * class description, and each of those parsers is invoked once with all of its strings.
      * @throws NoSuitableParserRegisteredException if no applicable parser was found for one of the input strings
      * @throws IllegalStateException if a suitable parser returns null or an empty list for an input string he is applicable for
      * @param input a list of strings to parse
@@ -55,26 +64,16 @@ public class RegistryBasedParser implements Parser<Identifier> {
     public List<Identifier> parse(List<String> input) {
         List result = new ArrayList(input.size());
         
-        Map<Parser, List<String>> inputForParser = new HashedMap<Parser, List<String>>();
+        Map<Parser, List<String>> inputForParser = new LinkedHashMap<>();
         
         for(String currentInput : input) {
-            boolean suitableParserRegistered = false;
-            for(Parser currentParser : registeredParsers) {
-                if(currentParser.appliesTo(currentInput)) {
-                    suitableParserRegistered = true;
-                    List tempList;
-                    if(!inputForParser.containsKey(currentParser)) {
-                        tempList = new ArrayList();
-                    } else {
-                        tempList = inputForParser.get(currentParser);
-                    }
-                    tempList.add(currentInput);
-                    inputForParser.put(currentParser, tempList);
-                }
-            }
-            if(!suitableParserRegistered) {
+            List<Parser> suitableParsers = getSuitableParsers(currentInput);
+            if(suitableParsers.isEmpty()) {
                 throw new NoSuitableParserRegisteredException("No applicable parser found for input string " + currentInput);
             }
+            for(Parser currentParser : suitableParsers) {
+                inputForParser.computeIfAbsent(currentParser, parser -> new ArrayList<>()).add(currentInput);
+            }
         }
         
         for (Map.Entry<Parser, List<String>> entry : inputForParser.entrySet()) {
@@ -97,12 +96,32 @@ public class RegistryBasedParser implements Parser<Identifier> {
      */
     @Override
     public boolean appliesTo(String input) {
-        for(Parser current : registeredParsers) {
+        return !getSuitableParsers(input).isEmpty();
+    }
+
+    private List<Parser> getSuitableParsers(String input) {
+        final String prefix = IdentifierPrefix.of(input);
+        if(prefix != null) {
+            final List<Parser> parsers = parsersByPrefix.get(prefix);
+            if(parsers != null) {
+                return parsers.size() == 1 ? parsers : getApplicableParsers(parsers, input);
+            }
+            return getApplicableParsers(parsersWithoutPrefixes, input);
+        }
+        return getApplicableParsers(registeredParsers, input);
+    }
+
+    private static List<Parser> getApplicableParsers(List<Parser> parsers, String input) {
+        List<Parser> applicableParsers = Collections.emptyList();
+        for(Parser current : parsers) {
             if(current.appliesTo(input)) {
-                return true;
+                if(applicableParsers.isEmpty()) {
+                    applicableParsers = new ArrayList<>();
+                }
+                applicableParsers.add(current);
             }
         }
-        return false;
+        return applicableParsers;
     }
 
     /**
@@ -117,7 +136,9 @@ public class RegistryBasedParser implements Parser<Identifier> {
         if(parser == null) {
             throw new IllegalArgumentException("Don't register null parsers!");
         }
-        return registeredParsers.add(parser);
+        final boolean registered = registeredParsers.add(parser);
+        updateDispatchTable();
+        return registered;
     }
 
     /**
@@ -126,6 +147,22 @@ public class RegistryBasedParser implements Parser<Identifier> {
      * @return true if the supplied parser was unregistered successfully
      */
     public boolean unregisterParser(Parser parser) {
-        return registeredParsers.remove(parser);
+        final boolean unregistered = registeredParsers.remove(parser);
+        updateDispatchTable();
+        return unregistered;
+    }
+
+    private void updateDispatchTable() {
+        parsersByPrefix.clear();
+        parsersWithoutPrefixes.clear();
+        for(Parser parser : registeredParsers) {
+            final Collection<String> prefixes = parser.getPrefixes();
+            if(prefixes.isEmpty()) {
+                parsersWithoutPrefixes.add(parser);
+            }
+            for(String prefix : prefixes) {
+                parsersByPrefix.computeIfAbsent(prefix, key -> new ArrayList<>()).add(parser);
+            }
+        }
     }
 }
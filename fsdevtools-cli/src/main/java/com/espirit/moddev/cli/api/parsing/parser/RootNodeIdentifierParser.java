@@ -110,34 +110,23 @@ public class RootNodeIdentifierParser implements Parser<RootNodeIdentifier> {
         return list;
     }
 
+    /**
+     * Applies to "root:&lt;store&gt;" and to naked store identifiers like "templatestore". Only the former are
+     * dispatched by prefix, the latter are found by {@link RegistryBasedParser} with this method.
+     * @param input the string to test applicability for
+     * @return true if the input is a root node identifier or a known naked store identifier
+     */
     @Override
     public boolean appliesTo(String input) {
-        String[] splitted = input.split(DELIMITER.pattern());
-
-        if(couldBeNakedStoreIdentifier(splitted)) {
-            return isKnownNakedStoreIdentifier(input);
-        } else if(hasTwoTokens(splitted)) {
-            return splitted[0].toLowerCase(Locale.UK).trim().equals(ROOT_NODE_IDENTIFIER);
-        }
-
-        return false;
+        return ROOT_NODE_IDENTIFIER.equals(IdentifierPrefix.of(input)) || isKnownNakedStoreIdentifier(input);
     }
 
-    private boolean hasTwoTokens(String[] splitted) {
-        return splitted.length == 2;
-    }
-
-    private boolean couldBeNakedStoreIdentifier(String[] splitted) {
-        return splitted.length == 1;
+    @Override
+    public Collection<String> getPrefixes() {
+        return Collections.singleton(ROOT_NODE_IDENTIFIER);
     }
 
-    private boolean isKnownNakedStoreIdentifier(String input) {
-        for(String storeIdentifier : STORE_POSTFIXES.keySet()) {
-            boolean isKnownStoreIdentifier = storeIdentifier.equals(input);
-            if(isKnownStoreIdentifier) {
-                return true;
-            }
-        }
-        return false;
+    private static boolean isKnownNakedStoreIdentifier(String input) {
+        return STORE_POSTFIXES.containsKey(input);
     }
 }
@@ -26,6 +26,7 @@ import com.espirit.moddev.cli.api.parsing.exceptions.UnknownRootNodeException;
 import com.espirit.moddev.cli.api.parsing.exceptions.UnregisteredPrefixException;
 import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
 import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+import com.espirit.moddev.cli.api.parsing.identifier.UidPatternIdentifier;
 import de.espirit.firstspirit.access.store.IDProvider;
 import de.espirit.firstspirit.access.store.ReferenceType;
 import org.slf4j.Logger;
@@ -40,6 +41,18 @@ public class UidIdentifierParser implements Parser<UidIdentifier> {
 
     private static final Pattern DELIMITER = Pattern.compile("\\s*:\\s*");
 
+    /**
+     * The prefixes of all {@link UidMapping}s.
+     */
+    static final Set<String> PREFIXES;
+    static {
+        final Set<String> prefixes = new HashSet<>();
+        for (final UidMapping uidMapping : UidMapping.values()) {
+            prefixes.add(uidMapping.getPrefix());
+        }
+        PREFIXES = Collections.unmodifiableSet(prefixes);
+    }
+
     /**
      * Parse a list of full qualified uid strings.
      * The strings must match the following pattern:<br>
@@ -84,18 +97,22 @@ public class UidIdentifierParser implements Parser<UidIdentifier> {
         return list;
     }
 
+    /**
+     * Applies to "&lt;TYPE_PREFIX&gt;:&lt;UID&gt;", but not to uid patterns, which are handled by {@link UidPatternIdentifierParser}.
+     * @param input the string to test applicability for
+     * @return true if the input is a full qualified uid
+     */
     @Override
     public boolean appliesTo(String input) {
-        String[] splitted = input.split(DELIMITER.pattern());
-        if(splitted.length != 2) {
-            return false;
-        }
-        try {
-            UidMapping.valueOf(splitted[0].trim().toUpperCase(Locale.UK));
-            return true;
-        } catch (IllegalArgumentException e) {
-            LOGGER.trace("Identifier string caused an exception, leading to an UnregisteredPrefixException", e);
-            return false;
-        }
+        final String prefix = IdentifierPrefix.of(input);
+        return prefix != null && PREFIXES.contains(prefix) && !UidPatternIdentifier.isPattern(input.substring(input.indexOf(':') + 1).trim());
+    }
+
+    /**
+     * @return the prefixes of all {@link UidMapping}s
+     */
+    @Override
+    public Collection<String> getPrefixes() {
+        return PREFIXES;
     }
 }
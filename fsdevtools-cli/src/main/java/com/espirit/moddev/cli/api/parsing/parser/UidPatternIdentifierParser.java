@@ -0,0 +1,97 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.parser;
+
+import com.espirit.moddev.cli.api.parsing.exceptions.UnregisteredPrefixException;
+import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+import com.espirit.moddev.cli.api.parsing.identifier.UidPatternIdentifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parser implementation that is able to parse uid patterns from a list of strings and return a list of
+ * {@link UidPatternIdentifier} instances. Is applicable to strings of the form "pagetemplate:news_*" or
+ * "page:re:^campaign_\d+$" with a {@link UidMapping} prefix, ":" as a delimiter and a glob or a regular expression
+ * prefixed with {@value UidPatternIdentifier#REGEX_PREFIX} as a postfix.
+ */
+public class UidPatternIdentifierParser implements Parser<UidPatternIdentifier> {
+
+    private static final char DELIMITER = ':';
+
+    /**
+     * Parses a list of uid pattern strings.
+     *
+     * @param input the {@link java.util.List} of uid patterns
+     * @throws IllegalArgumentException if input is null or if a string is no valid uid pattern
+     * @throws UnregisteredPrefixException if a string has an unknown uid mapping prefix
+     * @return the {@link java.util.List} of identifiers representing the input strings
+     */
+    @Override
+    public List<UidPatternIdentifier> parse(final List<String> input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null!");
+        }
+        if (input.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<UidPatternIdentifier> list = new ArrayList<>(input.size());
+        for (final String identifier : input) {
+            final int delimiterIndex = identifier.indexOf(DELIMITER);
+            if (delimiterIndex < 0) {
+                throw new IllegalArgumentException("Wrong input format for input string " + identifier);
+            }
+            final String prefix = identifier.substring(0, delimiterIndex).trim();
+            final UidMapping uidMapping;
+            try {
+                uidMapping = UidMapping.valueOf(prefix.toUpperCase(Locale.UK));
+            } catch (IllegalArgumentException e) {
+                throw new UnregisteredPrefixException("No uid mapping found for identifier " + prefix);
+            }
+            list.add(new UidPatternIdentifier(uidMapping, identifier.substring(delimiterIndex + 1).trim()));
+        }
+        return list;
+    }
+
+    @Override
+    public boolean appliesTo(String input) {
+        final int delimiterIndex = input.indexOf(DELIMITER);
+        if (delimiterIndex < 0) {
+            return false;
+        }
+        final String prefix = input.substring(0, delimiterIndex).trim().toLowerCase(Locale.UK);
+        return UidIdentifierParser.PREFIXES.contains(prefix) && UidPatternIdentifier.isPattern(input.substring(delimiterIndex + 1).trim());
+    }
+
+    /**
+     * @return the prefixes of all {@link UidMapping}s, shared with {@link UidIdentifierParser}
+     */
+    @Override
+    public Collection<String> getPrefixes() {
+        return UidIdentifierParser.PREFIXES;
+    }
+}
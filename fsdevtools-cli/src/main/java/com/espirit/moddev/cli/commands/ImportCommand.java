@@ -23,8 +23,13 @@
 package com.espirit.moddev.cli.commands;
 
 import com.espirit.moddev.cli.CliConstants;
+import com.espirit.moddev.cli.SyncDirectoryManifest;
 import com.espirit.moddev.cli.api.configuration.ImportConfig;
 import com.espirit.moddev.cli.results.ImportResult;
+import com.espirit.moddev.cli.results.ResultFormat;
+import com.espirit.moddev.cli.results.ResultFormatConfig;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+import com.espirit.moddev.cli.timing.Timings;
 import com.espirit.moddev.core.SchemaUidToNameBasedLayerMapper;
 import com.espirit.moddev.core.StringPropertiesMap;
 import com.github.rvesse.airline.annotations.Command;
@@ -40,6 +45,9 @@ import de.espirit.firstspirit.transport.LayerMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.SortedSet;
 
 /**
  * Command that executes a FirstSpirit ImportOperation. Uses a FirstSpirit context.
@@ -49,13 +57,15 @@ import org.slf4j.LoggerFactory;
 @Command(name = "import", description = "Imports a FirstSpirit project into a FirstSpirit Server.")
 @Examples(
         examples = {"fs-cli import -lm *:CREATE_NEW", "fs-cli import -lm my_schema:CREATE_NEW", "fs-cli import -lm *:derby_project14747_0",
-        "fs-cli import -lm schema_a:derby_project14747_0,schema_b:derby_project14747_1"},
+        "fs-cli import -lm schema_a:derby_project14747_0,schema_b:derby_project14747_1", "fs-cli import --skip-unchanged", "fs-cli import --result-format ndjson --result-file import.ndjson"},
         descriptions = 
                 {"Import project and create for every unknown source schema a new target layer (use if uncertain)",
                 "Import project and create for source schema 'my_schema' a new layer",
                 "Import project and redirect every unknown source schema into given target layer. The target layer must be attached to the project! (use with caution)",
-                "Import project and use specified mapping for source schemas and existing target layers. The target layers must be attached to the project! (use with caution)"})
-public class ImportCommand extends SimpleCommand<ImportResult> implements ImportConfig {
+                "Import project and use specified mapping for source schemas and existing target layers. The target layers must be attached to the project! (use with caution)",
+                "Import project only if a file of the sync dir changed since the last import into the same server and project",
+                "Import project and write one json record per imported element and problem to 'import.ndjson'"})
+public class ImportCommand extends SimpleCommand<ImportResult> implements ImportConfig, ResultFormatConfig {
 
     /** The Constant LOGGER. */
     protected static final Logger LOGGER = LoggerFactory.getLogger(ImportCommand.class);
@@ -78,6 +88,24 @@ public class ImportCommand extends SimpleCommand<ImportResult> implements Import
             type = OptionType.COMMAND)
     private String layerMapping;
 
+    /** Skip the import if the sync dir did not change. */
+    @Option(name = {"--skip-unchanged"},
+            description = "Skip the import if no file of the sync dir changed since the last import without problems into the same server and project; the content hashes of the files are compared with the manifest '" + SyncDirectoryManifest.FILE_NAME + "' such an import writes into the sync dir")
+    private boolean skipUnchanged;
+
+    /** The format of the result. */
+    @Option(name = {"--result-format"}, description = "Format of the result: 'log' (default) logs a sorted summary, 'ndjson' streams one json record per element, entity and problem")
+    private String resultFormat = ResultFormat.LOG.toString();
+
+    /** The file the ndjson result is written to. */
+    @Option(name = {"--result-file"}, description = "File the 'ndjson' result is written to; default is '" + NdjsonResultWriter.STDOUT + "' (stdout), console logging moves to stderr then")
+    private String resultFile;
+
+    /** The file the import problems are written to. */
+    @Option(name = {"--problems-file"}, description = "File the import problems are written to, with the node ids of their elements; "
+                                                      + "the elements are not resolved to uids or names then, which is much faster for many problems")
+    private String problemsFile;
+
     public ImportCommand() {
         super();
     }
@@ -103,21 +131,64 @@ public class ImportCommand extends SimpleCommand<ImportResult> implements Import
     public ImportResult call() {
         LOGGER.info("Importing...");
         try {
+            final ResultFormat format = getResultFormat();
             final OperationAgent operationAgent = getContext().requireSpecialist(OperationAgent.TYPE);
             final ImportOperation importOperation = operationAgent.getOperation(ImportOperation.TYPE);
             importOperation.setIgnoreEntities(dontCreateEntities);
             importOperation.setRevisionComment(getImportComment());
             importOperation.setLayerMapper(configureLayerMapper());
             final String syncDirStr = getSynchronizationDirectoryString();
+            final File syncDir = new File(syncDirStr);
+            final String target = SyncDirectoryManifest.getTarget(getHost(), getPort(), getProject());
+            SyncDirectoryManifest manifest = null;
+            if (skipUnchanged && syncDir.isDirectory()) {
+                final SyncDirectoryManifest previousManifest = SyncDirectoryManifest.load(syncDir);
+                try (Timings.Span span = Timings.start("scan-sync-dir")) {
+                    manifest = SyncDirectoryManifest.scan(syncDir, previousManifest);
+                    span.setCount(manifest.getFileCount()).setBytes(manifest.getTotalSize());
+                }
+                final SortedSet<String> changedPaths = manifest.getChangedPaths(previousManifest);
+                if (previousManifest.isImportedInto(target) && changedPaths.isEmpty()) {
+                    // keeps the new modification times of files that were touched without changes, so they are not hashed again next time
+                    saveManifest(manifest, syncDir, target);
+                    return new ImportResult(format, resultFile, problemsFile);
+                }
+                if (previousManifest.isImportedInto(target)) {
+                    LOGGER.info("{} files changed since the last import into {}", changedPaths.size(), target);
+                    LOGGER.debug("changed files: {}", changedPaths);
+                } else {
+                    LOGGER.info("the sync dir has not been imported into {} before", target);
+                }
+            }
+            if (syncDir.isDirectory()) {
+                // the project changes now, a manifest only stands for a completed import
+                SyncDirectoryManifest.delete(syncDir);
+            }
             LOGGER.info("importing from directory '{}'", syncDirStr);
-            final ImportOperation.Result result = importOperation.perform(getSynchronizationDirectory(syncDirStr));
-            return new ImportResult(getContext().requireSpecialist(StoreAgent.TYPE), result);
+            final ImportOperation.Result result;
+            try (Timings.Span span = Timings.start("import")) {
+                result = importOperation.perform(getSynchronizationDirectory(syncDirStr));
+                span.setCount(result.getCreatedElements().size() + result.getUpdatedElements().size() + result.getDeletedElements().size()
+                              + result.getMovedElements().size());
+            }
+            if (manifest != null && result.getProblems().isEmpty()) {
+                saveManifest(manifest, syncDir, target);
+            }
+            return new ImportResult(getContext().requireSpecialist(StoreAgent.TYPE), result, format, resultFile, problemsFile);
         } catch (@SuppressWarnings("squid:S2221") final Exception e) {
             return new ImportResult(e);
         }
     }
 
 
+    private static void saveManifest(final SyncDirectoryManifest manifest, final File syncDir, final String target) {
+        try {
+            manifest.save(syncDir, target);
+        } catch (final IOException e) {
+            LOGGER.warn("Manifest of synchronization directory '" + syncDir + "' could not be written", e);
+        }
+    }
+
     private LayerMapper configureLayerMapper() {
         final LayerMapper layerMapper;
         if (layerMapping == null || layerMapping.trim().isEmpty()) {
@@ -140,6 +211,81 @@ public class ImportCommand extends SimpleCommand<ImportResult> implements Import
         this.layerMapping = layerMapping;
     }
 
+    /**
+     * Indicates whether the import is skipped if the synchronization directory did not change since the last import.
+     *
+     * @return true if unchanged synchronization directories are not imported
+     */
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+
+    /**
+     * Sets whether the import is skipped if the synchronization directory did not change since the last import.
+     *
+     * @param skipUnchanged true to skip the import of unchanged synchronization directories
+     */
+    public void setSkipUnchanged(final boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * Get the format the result is reported in.
+     *
+     * @return the result format, {@link ResultFormat#LOG} by default
+     * @throws IllegalArgumentException if the configured format is unknown
+     */
+    @Override
+    public ResultFormat getResultFormat() {
+        return ResultFormat.fromString(resultFormat);
+    }
+
+    /**
+     * Sets the format the result is reported in.
+     *
+     * @param resultFormat the result format
+     */
+    public void setResultFormat(final ResultFormat resultFormat) {
+        this.resultFormat = resultFormat.toString();
+    }
+
+    /**
+     * Get the file {@link ResultFormat#NDJSON} records are written to.
+     *
+     * @return the result file, or null for the standard output
+     */
+    @Override
+    public String getResultFile() {
+        return resultFile;
+    }
+
+    /**
+     * Sets the file {@link ResultFormat#NDJSON} records are written to.
+     *
+     * @param resultFile the result file, null or {@link NdjsonResultWriter#STDOUT} for the standard output
+     */
+    public void setResultFile(final String resultFile) {
+        this.resultFile = resultFile;
+    }
+
+    /**
+     * Get the file the import problems are written to.
+     *
+     * @return the file, or null if the problems are logged
+     */
+    public String getProblemsFile() {
+        return problemsFile;
+    }
+
+    /**
+     * Sets the file the import problems are written to.
+     *
+     * @param problemsFile the file, or null to log the problems
+     */
+    public void setProblemsFile(final String problemsFile) {
+        this.problemsFile = problemsFile;
+    }
+
     /**
      * Sets the creates the project if missing.
      *
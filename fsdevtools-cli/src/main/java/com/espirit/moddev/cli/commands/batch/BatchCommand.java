@@ -0,0 +1,350 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.batch;
+
+import com.espirit.moddev.cli.Cli;
+import com.espirit.moddev.cli.CliConstants;
+import com.espirit.moddev.cli.CliContextCache;
+import com.espirit.moddev.cli.commands.daemon.DaemonCommand;
+import com.espirit.moddev.cli.commands.export.AbstractExportCommand;
+import com.espirit.moddev.cli.results.SimpleResult;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.CliBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executes a script of fs-cli command lines in one jvm. Each line is parsed with {@link Cli#parseCommandLine(String[], CliBuilder)} before the
+ * first command runs, so a typo does not leave a half executed script behind. Commands with the same host, port, user and project share one
+ * FirstSpirit connection via a {@link CliContextCache}, which is closed after the last command.
+ * <p>
+ * With {@code --parallel}, consecutive export commands that write to different synchronization directories are considered independent and run
+ * in parallel. Every other command waits for all previous commands and runs alone. The worker threads of parallel commands keep connections of
+ * their own, so a connection is never used by two commands at the same time. Every command records its timings and flight recording separately,
+ * see {@link Cli#executeCommandAndLogTime(com.espirit.moddev.cli.api.command.Command)}.
+ *
+ * @author e-Spirit AG
+ */
+@Command(name = BatchCommand.COMMAND_NAME, description = "Executes fs-cli command lines from a file or stdin in one jvm. Commands with the same "
+                                                         + "host, port, user and project share one FirstSpirit connection. Empty lines and lines "
+                                                         + "starting with # are ignored.")
+public class BatchCommand implements com.espirit.moddev.cli.api.command.Command<SimpleResult<Integer>> {
+
+    public static final String COMMAND_NAME = "batch";
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchCommand.class);
+    private static final String STDIN = "-";
+    private static final String COMMENT_PREFIX = "#";
+
+    @Option(name = {"-f", "--file"}, description = "The script to execute, one command line per line. Default is stdin.")
+    private String file = STDIN;
+
+    @Option(name = "--parallel", description = "Maximum number of independent export commands that run in parallel. Consecutive exports into "
+                                               + "different synchronization directories are independent. Default is 1.")
+    private int parallelism = 1;
+
+    @Option(name = "--continue-on-error", description = "Execute the remaining commands if a command fails. The batch fails anyway.")
+    private boolean continueOnError;
+
+    @Override
+    public SimpleResult<Integer> call() {
+        final List<BatchLine> lines;
+        try {
+            lines = parse(readLines());
+        } catch (IOException | RuntimeException e) {
+            return new SimpleResult<Integer>(e);
+        }
+        if (lines.isEmpty()) {
+            LOGGER.warn("Batch contains no commands");
+            return new SimpleResult<>(0);
+        }
+
+        try (CliContextCache contextCache = new CliContextCache();
+             WorkerClis workerClis = new WorkerClis()) {
+            final int failures = execute(new Cli(contextCache::obtainContext), workerClis, lines);
+            if (failures > 0) {
+                final IllegalStateException exception = new IllegalStateException(failures + " of " + lines.size() + " batch commands failed");
+                exception.setStackTrace(new StackTraceElement[0]);
+                return new SimpleResult<Integer>(exception);
+            }
+            LOGGER.info("Executed {} batch commands", lines.size());
+            return new SimpleResult<>(lines.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SimpleResult<Integer>(e);
+        }
+    }
+
+    private List<String> readLines() throws IOException {
+        if (STDIN.equals(file)) {
+            // System.in is not closed, it does not belong to this command
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            final List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+        return Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses all command lines of the script.
+     *
+     * @param lines the lines of the script
+     * @return the parsed commands in script order
+     * @throws IllegalArgumentException if a line can not be parsed, or contains a command that can not be used in a batch
+     */
+    static List<BatchLine> parse(final List<String> lines) {
+        final CliBuilder<com.espirit.moddev.cli.api.command.Command> builder = Cli.getDefaultCliBuilder();
+        final List<BatchLine> batchLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            final int lineNumber = i + 1;
+            final List<String> args = CommandLineTokenizer.tokenize(line);
+            if (!args.isEmpty() && CliConstants.FS_CLI.value().equals(args.get(0))) {
+                args.remove(0);
+            }
+            final com.espirit.moddev.cli.api.command.Command command;
+            try {
+                command = Cli.parseCommandLine(args.toArray(new String[args.size()]), builder);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + " can not be parsed: " + e.getMessage(), e);
+            }
+            if (command instanceof BatchCommand || command instanceof DaemonCommand) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + args.get(0) + " can not be used within a batch");
+            }
+            batchLines.add(new BatchLine(lineNumber, command));
+        }
+        return batchLines;
+    }
+
+    /**
+     * Groups the commands into steps that are executed one after another. The commands of a step are independent of each other: either the step
+     * contains a single command, or it contains consecutive export commands with distinct synchronization directories.
+     *
+     * @param lines    the commands in script order
+     * @param parallel whether independent commands should be grouped at all
+     * @return the steps in execution order
+     */
+    static List<List<BatchLine>> groupIndependentCommands(final List<BatchLine> lines, final boolean parallel) {
+        final List<List<BatchLine>> steps = new ArrayList<>();
+        List<BatchLine> exportStep = new ArrayList<>();
+        final Set<String> synchronizationDirectories = new HashSet<>();
+        for (final BatchLine line : lines) {
+            if (parallel && line.command instanceof AbstractExportCommand) {
+                final String synchronizationDirectory = new File(((AbstractExportCommand) line.command).getSynchronizationDirectoryString())
+                    .getAbsoluteFile().toPath().normalize().toString();
+                if (!synchronizationDirectories.add(synchronizationDirectory)) {
+                    steps.add(exportStep);
+                    exportStep = new ArrayList<>();
+                    synchronizationDirectories.clear();
+                    synchronizationDirectories.add(synchronizationDirectory);
+                }
+                exportStep.add(line);
+            } else {
+                if (!exportStep.isEmpty()) {
+                    steps.add(exportStep);
+                    exportStep = new ArrayList<>();
+                    synchronizationDirectories.clear();
+                }
+                final List<BatchLine> step = new ArrayList<>();
+                step.add(line);
+                steps.add(step);
+            }
+        }
+        if (!exportStep.isEmpty()) {
+            steps.add(exportStep);
+        }
+        return steps;
+    }
+
+    private int execute(final Cli cli, final WorkerClis workerClis, final List<BatchLine> lines) throws InterruptedException {
+        final List<List<BatchLine>> steps = groupIndependentCommands(lines, parallelism > 1);
+        final ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        int failures = 0;
+        int executed = 0;
+        try {
+            for (final List<BatchLine> step : steps) {
+                failures += step.size() == 1 || executor == null ? executeSequentially(cli, step) : executeInParallel(workerClis, step, executor);
+                executed += step.size();
+                if (failures > 0 && !continueOnError) {
+                    break;
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        if (executed < lines.size()) {
+            LOGGER.error("Skipped {} batch commands after a failure, use --continue-on-error to execute them anyway", lines.size() - executed);
+            failures += lines.size() - executed;
+        }
+        return failures;
+    }
+
+    private static int executeSequentially(final Cli cli, final List<BatchLine> step) {
+        int failures = 0;
+        for (final BatchLine line : step) {
+            if (!executeLine(cli, line)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static int executeInParallel(final WorkerClis workerClis, final List<BatchLine> step, final ExecutorService executor)
+        throws InterruptedException {
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        for (final BatchLine line : step) {
+            futures.add(executor.submit(() -> executeLine(workerClis.get(), line)));
+        }
+        int failures = 0;
+        for (final Future<Boolean> future : futures) {
+            try {
+                if (!future.get()) {
+                    failures++;
+                }
+            } catch (ExecutionException e) {
+                LOGGER.error("Batch command could not be executed", e.getCause());
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean executeLine(final Cli cli, final BatchLine line) {
+        LOGGER.info("Executing batch line {}", line.lineNumber);
+        try {
+            cli.executeCommandAndLogTime(line.command);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Batch line " + line.lineNumber + " failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Sets the script to execute.
+     *
+     * @param file the path of the script, or "-" for stdin
+     */
+    public void setFile(final String file) {
+        this.file = file;
+    }
+
+    /**
+     * Sets the maximum number of independent commands that run in parallel.
+     *
+     * @param parallelism the number of threads, 1 executes all commands one after another
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Defines whether the remaining commands are executed after a command failed.
+     *
+     * @param continueOnError true to execute all commands
+     */
+    public void setContinueOnError(final boolean continueOnError) {
+        this.continueOnError = continueOnError;
+    }
+
+    /**
+     * The {@link Cli} instances of the worker threads that execute commands in parallel. Every worker thread gets a {@link CliContextCache} of its
+     * own, so its connections are reused by the commands of that thread only. Closing closes the connections of all workers.
+     */
+    static final class WorkerClis implements AutoCloseable {
+
+        private final List<CliContextCache> contextCaches = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<Cli> clis = ThreadLocal.withInitial(() -> {
+            final CliContextCache contextCache = new CliContextCache();
+            contextCaches.add(contextCache);
+            return new Cli(contextCache::obtainContext);
+        });
+
+        /**
+         * @return the cli of the current worker thread
+         */
+        Cli get() {
+            return clis.get();
+        }
+
+        @Override
+        public void close() {
+            synchronized (contextCaches) {
+                for (final CliContextCache contextCache : contextCaches) {
+                    contextCache.close();
+                }
+                contextCaches.clear();
+            }
+        }
+    }
+
+    /**
+     * A parsed command of the script together with its line number.
+     */
+    static final class BatchLine {
+
+        private final int lineNumber;
+        private final com.espirit.moddev.cli.api.command.Command command;
+
+        BatchLine(final int lineNumber, final com.espirit.moddev.cli.api.command.Command command) {
+            this.lineNumber = lineNumber;
+            this.command = command;
+        }
+
+        int getLineNumber() {
+            return lineNumber;
+        }
+
+        com.espirit.moddev.cli.api.command.Command getCommand() {
+            return command;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a command line of a batch script into arguments like a shell would. Arguments are separated by whitespace, double and single quotes
+ * group arguments that contain whitespace. Within double quotes, a backslash escapes a double quote or another backslash. Outside of quotes,
+ * backslashes are kept as they are, so windows paths do not have to be quoted.
+ *
+ * @author e-Spirit AG
+ */
+final class CommandLineTokenizer {
+
+    private CommandLineTokenizer() {
+        // Not used
+    }
+
+    /**
+     * Splits the given line into arguments.
+     *
+     * @param line the line to split
+     * @return the arguments of the line, empty if the line contains whitespace only
+     * @throws IllegalArgumentException if a quote is not closed
+     */
+    static List<String> tokenize(final String line) {
+        final List<String> arguments = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quote == '"') {
+                if (c == '\\' && i + 1 < line.length() && (line.charAt(i + 1) == '"' || line.charAt(i + 1) == '\\')) {
+                    current.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                inArgument = true;
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                } else {
+                    current.append(c);
+                }
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Missing closing quote " + quote + " in line: " + line);
+        }
+        if (inArgument) {
+            arguments.add(current.toString());
+        }
+        return arguments;
+    }
+}
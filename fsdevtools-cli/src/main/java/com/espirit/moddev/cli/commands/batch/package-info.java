@@ -0,0 +1,5 @@
+/**
+ * Airline commands for executing several cli commands in one run.
+ * @author e-Spirit AG
+ */
+package com.espirit.moddev.cli.commands.batch;
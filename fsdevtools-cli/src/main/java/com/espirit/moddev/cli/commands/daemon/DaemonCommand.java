@@ -0,0 +1,109 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.daemon;
+
+import com.espirit.moddev.cli.daemon.DaemonClient;
+import com.espirit.moddev.cli.daemon.DaemonProtocol;
+import com.espirit.moddev.cli.daemon.DaemonServer;
+import com.espirit.moddev.cli.logging.AsyncLogAppender;
+import com.espirit.moddev.cli.results.SimpleResult;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Starts a {@link DaemonServer} that executes commands sent by the thin client (fs-cli-client) in this jvm, reusing FirstSpirit connections
+ * between commands. The command blocks until the daemon is stopped with {@code --stop} or the jvm is terminated.
+ *
+ * @author e-Spirit AG
+ */
+@Command(name = DaemonCommand.COMMAND_NAME, description = "Starts a daemon that keeps the jvm and FirstSpirit connections warm. "
+                                                          + "Commands are sent to the daemon with fs-cli-client instead of fs-cli.")
+public class DaemonCommand implements com.espirit.moddev.cli.api.command.Command<SimpleResult<Boolean>> {
+
+    public static final String COMMAND_NAME = "daemon";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaemonCommand.class);
+
+    @Option(name = "--port", description = "Loopback port the daemon listens on. Default is a free port, which is published for the client.")
+    private int port;
+
+    @Option(name = "--stop", description = "Stops the running daemon.")
+    private boolean stop;
+
+    @Override
+    public SimpleResult<Boolean> call() {
+        final File daemonFile = DaemonProtocol.getDaemonFile();
+        if (stop) {
+            try {
+                new DaemonClient(daemonFile).stop();
+                LOGGER.info("fs-cli daemon stopped");
+                return new SimpleResult<>(Boolean.TRUE);
+            } catch (IOException e) {
+                return new SimpleResult<Boolean>(e);
+            }
+        }
+        // the daemon attaches appenders for its clients to the root logger and copies the configured ones, which must be attached directly
+        AsyncLogAppender.uninstall();
+        try (DaemonServer server = new DaemonServer(port, daemonFile)) {
+            final Thread shutdownHook = new Thread(server::close, "fs-cli-daemon-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            server.serve();
+            removeShutdownHook(shutdownHook);
+            return new SimpleResult<>(Boolean.TRUE);
+        } catch (IOException e) {
+            return new SimpleResult<Boolean>(e);
+        }
+    }
+
+    private static void removeShutdownHook(final Thread shutdownHook) {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the jvm is already shutting down, so the hook closes the daemon
+            LOGGER.trace("Shutdown in progress", e);
+        }
+    }
+
+    /**
+     * Sets the port the daemon listens on.
+     *
+     * @param port the port, or 0 for a free port
+     */
+    public void setPort(final int port) {
+        this.port = port;
+    }
+
+    /**
+     * Indicates whether a running daemon should be stopped instead of starting a new one.
+     *
+     * @param stop true to stop the running daemon
+     */
+    public void setStop(final boolean stop) {
+        this.stop = stop;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Airline commands for running the cli as a daemon.
+ * @author e-Spirit AG
+ */
+package com.espirit.moddev.cli.commands.daemon;
@@ -22,8 +22,13 @@
 
 package com.espirit.moddev.cli.commands.export;
 
+import com.espirit.moddev.cli.CliContextImpl;
+import com.espirit.moddev.cli.SyncDirectoryFactory;
+import com.espirit.moddev.cli.SyncDirectoryManifest;
+import com.espirit.moddev.cli.api.CliContext;
 import com.espirit.moddev.cli.api.parsing.exceptions.IDProviderNotFoundException;
 import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.StoreElementResolver;
 import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
 import com.espirit.moddev.cli.api.parsing.parser.EntitiesIdentifierParser;
 import com.espirit.moddev.cli.api.parsing.parser.PathIdentifierParser;
@@ -31,16 +36,26 @@ import com.espirit.moddev.cli.api.parsing.parser.ProjectPropertiesParser;
 import com.espirit.moddev.cli.api.parsing.parser.RegistryBasedParser;
 import com.espirit.moddev.cli.api.parsing.parser.RootNodeIdentifierParser;
 import com.espirit.moddev.cli.api.parsing.parser.UidIdentifierParser;
+import com.espirit.moddev.cli.api.parsing.parser.UidPatternIdentifierParser;
 import com.espirit.moddev.cli.commands.SimpleCommand;
 import com.espirit.moddev.cli.commands.help.HelpCommand;
 import com.espirit.moddev.cli.results.ExportResult;
+import com.espirit.moddev.cli.results.ResultFormat;
+import com.espirit.moddev.cli.results.ResultFormatConfig;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+import com.espirit.moddev.cli.timing.FlightRecording;
+import com.espirit.moddev.cli.timing.Timings;
 import com.github.rvesse.airline.annotations.Arguments;
 import com.github.rvesse.airline.annotations.Option;
 
+import de.espirit.firstspirit.access.project.ProjectScriptContext;
 import de.espirit.firstspirit.access.store.IDProvider;
 import de.espirit.firstspirit.access.store.Store;
 import de.espirit.firstspirit.agency.OperationAgent;
 import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.io.FileHandle;
+import de.espirit.firstspirit.io.FileSystem;
+import de.espirit.firstspirit.io.FileSystemsAgent;
 import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
 import de.espirit.firstspirit.transport.PropertiesTransportOptions;
 import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectPropertyType;
@@ -48,11 +63,27 @@ import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectProper
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * This class gathers shared logic and options for different export commands. It can be extended for custom implementations of uid filtering, or to
@@ -60,10 +91,25 @@ import java.util.List;
  *
  * @author e -Spirit AG
  */
-public abstract class AbstractExportCommand extends SimpleCommand<ExportResult> {
+public abstract class AbstractExportCommand extends SimpleCommand<ExportResult> implements ResultFormatConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Value of '--identifiers-from' that reads the identifiers from the standard input.
+     */
+    public static final String STDIN = "-";
+
+    /**
+     * Name of the file in the sync dir the uids of the exported project are indexed in, to resolve uid patterns like 'page:news_*'.
+     */
+    static final String UID_INDEX_FILE_NAME = SyncDirectoryManifest.STATE_FILE_PREFIX + "uid-index.properties";
+
+    /**
+     * Default of '--parallelism', the number of server sessions a parallel export opens in addition to the session of the command.
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
     @Option(name = "--keepObsoleteFiles", description = "keep obsolete files in sync dir which are deleted in project")
     private boolean keepObsoleteFiles;
 
@@ -80,6 +126,31 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
     @Option(name = "--includeProjectProperties", description = "DEPRECATED: use '" + ProjectPropertiesParser.CUSTOM_PREFIX_PROJECT_PROPERTIES + ":" + ProjectPropertiesParser.ALL + "' instead. Export with project properties like resolutions or fonts")
     private boolean includeProjectProperties;
 
+    @Option(name = "--parallel", description = "export the elements of each store in parallel, using one connection per store; the elements of a "
+                                               + "store are exported into a subdirectory of the sync dir named after the store (e.g. 'pagestore'), "
+                                               + "project properties into '" + ExportShards.PROJECT_SHARD + "'")
+    private boolean parallel;
+
+    @Option(name = "--parallelism", description = "maximum number of stores exported at the same time with '--parallel', each with its own "
+                                                  + "connection; default is " + DEFAULT_PARALLELISM)
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    @Option(name = "--incremental", description = "export only elements that changed since the last incremental export into the sync dir; the "
+                                                  + "exported revision of each store is kept in '" + ExportWatermarks.STATE_FILE_NAME + "'")
+    private boolean incremental;
+
+    @Option(name = "--result-format", description = "format of the result: 'log' (default) logs a sorted summary, 'ndjson' streams one json "
+                                                    + "record per exported element and file")
+    private String resultFormat = ResultFormat.LOG.toString();
+
+    @Option(name = "--result-file", description = "file the 'ndjson' result is written to; default is '" + NdjsonResultWriter.STDOUT + "' (stdout), console "
+                                                  + "logging moves to stderr then")
+    private String resultFile;
+
+    @Option(name = "--identifiers-from", description = "file with one identifier per line, '" + STDIN + "' reads from stdin; blank lines and "
+                                                       + "lines starting with '#' are ignored, duplicates are exported once")
+    private String identifiersFrom;
+
     @Arguments(title = "identifiers", description = "A list of various parsable identifiers. Please have a look at the command description for further information.")
     private List<String> identifiers = new LinkedList<>();
 
@@ -93,6 +164,7 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
         parser.registerParser(new RootNodeIdentifierParser());
         parser.registerParser(new EntitiesIdentifierParser());
         parser.registerParser(new UidIdentifierParser());
+        parser.registerParser(new UidPatternIdentifierParser());
         parser.registerParser(new ProjectPropertiesParser());
         parser.registerParser(new PathIdentifierParser());
     }
@@ -144,6 +216,121 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
         this.exportReleaseState = exportReleaseState;
     }
 
+    /**
+     * Indicates whether the elements of each store should be exported in parallel into a subdirectory of the synchronization directory.
+     *
+     * @return true: export each store with its own connection in parallel or false (default): export all elements with one operation
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Defines whether the elements of each store should be exported in parallel.
+     *
+     * @param parallel use {@code true} to export each store in parallel, {@code false} otherwise (default)
+     * @see #isParallel()
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Get the maximum number of stores that are exported at the same time if {@link #isParallel()} is set.
+     *
+     * @return the maximum number of parallel connections, {@link #DEFAULT_PARALLELISM} by default
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of stores that are exported at the same time if {@link #isParallel()} is set.
+     *
+     * @param parallelism the maximum number of parallel connections, at least 1
+     * @see #getParallelism()
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Indicates whether only the elements that changed since the last incremental export should be exported.
+     *
+     * @return true: export changed elements only or false (default): export all elements
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Defines whether only the elements that changed since the last incremental export should be exported.
+     *
+     * @param incremental use {@code true} to export changed elements only, {@code false} otherwise (default)
+     * @see #isIncremental()
+     */
+    public void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Get the format the result is reported in.
+     *
+     * @return the result format, {@link ResultFormat#LOG} by default
+     * @throws IllegalArgumentException if the configured format is unknown
+     */
+    @Override
+    public ResultFormat getResultFormat() {
+        return ResultFormat.fromString(resultFormat);
+    }
+
+    /**
+     * Sets the format the result is reported in.
+     *
+     * @param resultFormat the result format
+     */
+    public void setResultFormat(final ResultFormat resultFormat) {
+        this.resultFormat = resultFormat.toString();
+    }
+
+    /**
+     * Get the file {@link ResultFormat#NDJSON} records are written to.
+     *
+     * @return the result file, or null for the standard output
+     */
+    @Override
+    public String getResultFile() {
+        return resultFile;
+    }
+
+    /**
+     * Sets the file {@link ResultFormat#NDJSON} records are written to.
+     *
+     * @param resultFile the result file, null or {@link NdjsonResultWriter#STDOUT} for the standard output
+     */
+    public void setResultFile(final String resultFile) {
+        this.resultFile = resultFile;
+    }
+
+    /**
+     * Get the file identifiers are read from in addition to the arguments.
+     *
+     * @return the file, {@link #STDIN} for the standard input or null if only the arguments are used
+     */
+    public String getIdentifiersFrom() {
+        return identifiersFrom;
+    }
+
+    /**
+     * Sets the file identifiers are read from in addition to the arguments. The file is read line by line while the identifiers are added to
+     * the export operation.
+     *
+     * @param identifiersFrom the file, {@link #STDIN} for the standard input or null to use the arguments only
+     */
+    public void setIdentifiersFrom(final String identifiersFrom) {
+        this.identifiersFrom = identifiersFrom;
+    }
+
     /**
      * Log release state.
      *
@@ -154,7 +341,8 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
     }
 
     /**
-     * Adds elements to the given export operation. Uses registered parsers to retrieve elements.
+     * Adds elements to the given export operation. Uses registered parsers to retrieve elements. The uids of uid patterns are indexed again by
+     * every call, see {@link #addExportElements(StoreElementResolver, List, ExportOperation)} to keep them in a file.
      *
      * @param storeAgent      the StoreAgent to retrieve IDProviders with
      * @param identifiers     the identifiers of elements that should be added to the ExportOperation
@@ -163,6 +351,19 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
      * @throws IDProviderNotFoundException if {@link Identifier#addToExportOperation(StoreAgent, boolean, ExportOperation)} throws it
      */
     public void addExportElements(final StoreAgent storeAgent, final List<Identifier> identifiers, final ExportOperation exportOperation) {
+        addExportElements(new StoreElementResolver(storeAgent, isExportReleaseState()), identifiers, exportOperation);
+    }
+
+    /**
+     * Adds elements to the given export operation, resolved with the given resolver.
+     *
+     * @param resolver        the resolver to retrieve IDProviders with, it determines the store agent, the release state and the uid index file
+     * @param identifiers     the identifiers of elements that should be added to the ExportOperation
+     * @param exportOperation the ExportOperation to add the elements to
+     * @throws IllegalArgumentException if the ExportOperation is null
+     * @throws IDProviderNotFoundException if {@link StoreElementResolver#addToExportOperation(Identifier, ExportOperation)} throws it
+     */
+    public void addExportElements(final StoreElementResolver resolver, final List<Identifier> identifiers, final ExportOperation exportOperation) {
         if (exportOperation == null) {
             throw new IllegalArgumentException("No null ExportOperation allowed");
         }
@@ -172,24 +373,77 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
             LOGGER.error("no identifiers found - pass at least 1 identifier --> call 'fs-cli help export' for details");
         } else {
             LOGGER.debug("addExportedElements - UIDs {}", identifiers);
+            addToExportOperation(resolver, identifiers, exportOperation);
+            addIncludedProjectProperties(exportOperation);
+        }
+    }
+
+    private static void addToExportOperation(final StoreElementResolver resolver, final List<Identifier> identifiers,
+                                             final ExportOperation exportOperation) {
+        try (Timings.Span span = Timings.start("resolve-identifiers").setCount(identifiers.size())) {
             for (Identifier identifier : identifiers) {
-                identifier.addToExportOperation(storeAgent, isExportReleaseState(), exportOperation);
+                try (Timings.Span identifierSpan = Timings.startDetail("resolve-identifier")) {
+                    if (FlightRecording.isRecording()) {
+                        identifierSpan.setDetail(identifier.toString()).setStoreType(getStoreTypeName(identifier));
+                    }
+                    resolver.addToExportOperation(identifier, exportOperation);
+                }
             }
+        }
+    }
 
-            if (isIncludeProjectProperties()) {
-                LOGGER.warn("usage of flag '--includeProjectProperties' is deprecated - use {}:{}' instead", ProjectPropertiesParser.CUSTOM_PREFIX_PROJECT_PROPERTIES, ProjectPropertiesParser.ALL);
-                addProjectProperties(exportOperation);
-            }
+    private static String getStoreTypeName(final Identifier identifier) {
+        if (identifier instanceof UidIdentifier) {
+            return ((UidIdentifier) identifier).getUidMapping().getStoreType().name();
+        }
+        return null;
+    }
+
+    private void addIncludedProjectProperties(final ExportOperation exportOperation) {
+        if (isIncludeProjectProperties()) {
+            LOGGER.warn("usage of flag '--includeProjectProperties' is deprecated - use {}:{}' instead", ProjectPropertiesParser.CUSTOM_PREFIX_PROJECT_PROPERTIES, ProjectPropertiesParser.ALL);
+            addProjectProperties(exportOperation);
         }
     }
      
     /**
-     * Get a list of {@link UidIdentifier}s that specify the elements that should be synchronized.
+     * Get a list of {@link UidIdentifier}s that specify the elements that should be synchronized. If {@link #getIdentifiersFrom()} is set, the
+     * identifiers read from there are included and duplicates are removed. The standard input can only be read once.
      *
      * @return a {@link java.util.List} of {@link UidIdentifier}s that specify the elements that should be synchronized
+     * @throws UncheckedIOException if the identifiers can not be read
      */
     public List<Identifier> getIdentifiers() {
-        return identifiers.isEmpty() ? Collections.emptyList() : parser.parse(identifiers);
+        if (identifiersFrom == null) {
+            return identifiers.isEmpty() ? Collections.emptyList() : parser.parse(identifiers);
+        }
+        final List<Identifier> result = new ArrayList<>();
+        readIdentifiers(result::addAll);
+        return result;
+    }
+
+    /**
+     * Parses the arguments and the identifiers of {@link #getIdentifiersFrom()} in batches of {@link IdentifierBatches#DEFAULT_BATCH_SIZE} and
+     * passes every distinct identifier once to the given consumer.
+     *
+     * @return the number of distinct identifiers
+     */
+    private int readIdentifiers(final Consumer<List<Identifier>> consumer) {
+        final IdentifierBatches batches = new IdentifierBatches(parser, IdentifierBatches.DEFAULT_BATCH_SIZE, consumer);
+        batches.addAll(identifiers);
+        try {
+            if (STDIN.equals(identifiersFrom)) {
+                // stdin is not closed
+                batches.read(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(identifiersFrom), StandardCharsets.UTF_8)) {
+                    batches.read(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read identifiers from '" + identifiersFrom + "'", e);
+        }
+        return batches.finish();
     }
 
     /**
@@ -243,36 +497,261 @@ public abstract class AbstractExportCommand extends SimpleCommand<ExportResult>
     @SuppressWarnings("squid:S2221")
     protected ExportResult exportStoreElements() {
         try {
+            if (getIdentifiersFrom() != null && !isParallel() && !isIncremental()) {
+                return exportStreamedIdentifiers();
+            }
             // no arguments --> call help-command
-            final List<Identifier> identifierList = getIdentifiers();
+            final List<Identifier> identifierList = Timings.time("parse-identifiers", this::getIdentifiers);
             if (identifierList.isEmpty()) {
-                LOGGER.error("no identifiers for export command found - pass at least 1 identifier --> see 'fs-cli help export' for details\nfs-cli help export");
-                final HelpCommand helpCommand = new HelpCommand();
-                helpCommand.addArguments("export");
-                helpCommand.call();
-                // return result with exception to force exit code 1
-                final IllegalArgumentException exception = new IllegalArgumentException("no identifiers for export command found - pass at least 1 identifier --> see help message above");
-                exception.setStackTrace(new StackTraceElement[0]);
-                return new ExportResult(exception);
+                return createNoIdentifiersResult();
+            }
+
+            // fail before exporting if the result can not be reported
+            getResultFormat();
+            final String syncDirStr = getSynchronizationDirectoryString();
+            if (isParallel() && isIncremental()) {
+                return new ExportResult(new IllegalArgumentException("'--parallel' and '--incremental' can not be combined"));
+            }
+            if (isParallel() && getParallelism() < 1) {
+                return new ExportResult(new IllegalArgumentException("'--parallelism' must be at least 1, but was " + getParallelism()));
+            }
+            if (isParallel()) {
+                return exportShardsInParallel(identifierList, syncDirStr);
+            }
+            if (isIncremental()) {
+                return exportIncrementally(identifierList, syncDirStr);
             }
 
             // create export operation
-            final ExportOperation exportOperation = this.getContext().requireSpecialist(OperationAgent.TYPE).getOperation(ExportOperation.TYPE);
-            exportOperation.setDeleteObsoleteFiles(isDeleteObsoleteFiles());
-            exportOperation.setExportChildElements(isExportChildElements());
-            exportOperation.setExportParentElements(isExportParentElements());
-            exportOperation.setExportRelease(isExportReleaseState());
-            addExportElements(this.getContext().requireSpecialist(StoreAgent.TYPE), identifierList, exportOperation);
+            final ExportOperation exportOperation = createExportOperation(this.getContext());
+            // keeps the uid indexes of uid patterns in the sync dir, like the other export modes
+            addExportElements(createResolver(this.getContext(), new File(syncDirStr)), identifierList, exportOperation);
 
             // export
-            final String syncDirStr = getSynchronizationDirectoryString();
             LOGGER.info("exporting to directory '{}'", syncDirStr);
-            return new ExportResult(exportOperation.perform(getSynchronizationDirectory(syncDirStr)));
+            final ExportResult result;
+            try (Timings.Span span = Timings.start("export")) {
+                result = createResult(exportOperation.perform(getSynchronizationDirectory(syncDirStr)));
+                span.setCount(countElements(result.get()));
+            }
+            return result;
         } catch (final Exception e) {
             return new ExportResult(e);
         }
     }
 
+    private static ExportResult createNoIdentifiersResult() {
+        LOGGER.error("no identifiers for export command found - pass at least 1 identifier --> see 'fs-cli help export' for details\nfs-cli help export");
+        final HelpCommand helpCommand = new HelpCommand();
+        helpCommand.addArguments("export");
+        helpCommand.call();
+        // return result with exception to force exit code 1
+        final IllegalArgumentException exception = new IllegalArgumentException("no identifiers for export command found - pass at least 1 identifier --> see help message above");
+        exception.setStackTrace(new StackTraceElement[0]);
+        return new ExportResult(exception);
+    }
+
+    /**
+     * Exports the identifiers of {@link #getIdentifiersFrom()} and the arguments with one {@link ExportOperation}. The identifiers are added to the
+     * operation batch by batch while they are read, so only the distinct identifiers are kept in memory.
+     */
+    private ExportResult exportStreamedIdentifiers() throws Exception {
+        // fail before exporting if the result can not be reported
+        getResultFormat();
+        final String syncDirStr = getSynchronizationDirectoryString();
+        final ExportOperation exportOperation = createExportOperation(this.getContext());
+        // one resolver for all batches, so stores and folders are retrieved once
+        final StoreElementResolver resolver = createResolver(this.getContext(), new File(syncDirStr));
+        final int identifierCount = readIdentifiers(batch -> addToExportOperation(resolver, batch, exportOperation));
+        if (identifierCount == 0) {
+            return createNoIdentifiersResult();
+        }
+        addIncludedProjectProperties(exportOperation);
+
+        LOGGER.info("exporting {} identifiers to directory '{}'", identifierCount, syncDirStr);
+        final ExportResult result;
+        try (Timings.Span span = Timings.start("export")) {
+            result = createResult(exportOperation.perform(getSynchronizationDirectory(syncDirStr)));
+            span.setCount(countElements(result.get()));
+        }
+        return result;
+    }
+
+    private static int countElements(final ExportOperation.Result result) {
+        return result.getCreatedElements().size() + result.getUpdatedElements().size() + result.getDeletedElements().size()
+               + result.getMovedElements().size();
+    }
+
+    /**
+     * Creates a resolver that keeps its uid index in the given directory, so uid patterns do not traverse the stores again in later exports
+     * into that directory.
+     */
+    private StoreElementResolver createResolver(final ProjectScriptContext context, final File directory) {
+        return new StoreElementResolver(context.requireSpecialist(StoreAgent.TYPE), isExportReleaseState(), new File(directory, UID_INDEX_FILE_NAME));
+    }
+
+    private ExportResult createResult(final ExportOperation.Result result) {
+        return new ExportResult(result, getResultFormat(), getResultFile());
+    }
+
+    private ExportOperation createExportOperation(final ProjectScriptContext context) {
+        final ExportOperation exportOperation = context.requireSpecialist(OperationAgent.TYPE).getOperation(ExportOperation.TYPE);
+        exportOperation.setDeleteObsoleteFiles(isDeleteObsoleteFiles());
+        exportOperation.setExportChildElements(isExportChildElements());
+        exportOperation.setExportParentElements(isExportParentElements());
+        exportOperation.setExportRelease(isExportReleaseState());
+        return exportOperation;
+    }
+
+    /**
+     * Exports only the elements that changed since the last incremental export. The revision up to which each store has been exported is kept in
+     * {@link ExportWatermarks}, the changed elements are selected by {@link ChangedElements}. Identifiers that do not resolve to store elements,
+     * like project properties, are always exported.
+     */
+    private ExportResult exportIncrementally(final List<Identifier> identifiers, final String syncDirStr) throws IOException {
+        final FileSystem<FileHandle> synchronizationDirectory = getSynchronizationDirectory(syncDirStr);
+        final ExportWatermarks watermarks = ExportWatermarks.load(new File(syncDirStr), isExportReleaseState());
+        final StoreElementResolver resolver = createResolver(this.getContext(), new File(syncDirStr));
+        // changed elements with children and everything that is not a store element, configured like a complete export
+        final ExportOperation exportOperation = createExportOperation(this.getContext());
+        boolean exportOperationUsed = false;
+        // changed elements without children; obsolete files are deleted by the operation of the subtrees they belong to
+        final ExportOperation elementOperation = createExportOperation(this.getContext());
+        elementOperation.setExportChildElements(false);
+        elementOperation.setDeleteObsoleteFiles(false);
+        boolean elementOperationUsed = false;
+
+        for (final Map.Entry<String, List<Identifier>> shard : ExportShards.partition(identifiers).entrySet()) {
+            final List<IDProvider> roots = new ArrayList<>();
+            final List<String> elementIdentifiers = new ArrayList<>();
+            for (final Identifier identifier : shard.getValue()) {
+                final List<IDProvider> elements = resolver.getElements(identifier);
+                if (elements == null) {
+                    resolver.addToExportOperation(identifier, exportOperation);
+                    exportOperationUsed = true;
+                } else {
+                    roots.addAll(elements);
+                    elementIdentifiers.add(identifier.toString());
+                }
+            }
+            if (roots.isEmpty()) {
+                continue;
+            }
+            // a watermark recorded with or without children does not fit the other mode
+            final String watermarkKey = (isExportChildElements() ? "" : "excludeChildElements ") + elementIdentifiers;
+            final long watermark = watermarks.getRevision(shard.getKey(), watermarkKey);
+            final ChangedElements changed = Timings.time("collect-changes", () -> ChangedElements.collect(roots, watermark, isExportChildElements(),
+                                                                                                         watermarks.getTombstones(shard.getKey())));
+            LOGGER.info("{}: {} changed elements and {} changed subtrees since revision {}", shard.getKey(), changed.getElements().size(),
+                        changed.getSubtrees().size(), watermark);
+            for (final IDProvider subtree : changed.getSubtrees()) {
+                exportOperation.addElement(subtree);
+                exportOperationUsed = true;
+            }
+            for (final IDProvider element : changed.getElements()) {
+                elementOperation.addElement(element);
+                elementOperationUsed = true;
+            }
+            watermarks.setRevision(shard.getKey(), watermarkKey, changed.getRevision());
+            watermarks.setTombstones(shard.getKey(), changed.getTombstones());
+        }
+        if (isIncludeProjectProperties()) {
+            LOGGER.warn("usage of flag '--includeProjectProperties' is deprecated - use {}:{}' instead", ProjectPropertiesParser.CUSTOM_PREFIX_PROJECT_PROPERTIES, ProjectPropertiesParser.ALL);
+            addProjectProperties(exportOperation);
+            exportOperationUsed = true;
+        }
+
+        LOGGER.info("exporting changes to directory '{}'", syncDirStr);
+        final List<ExportOperation.Result> results = new ArrayList<>();
+        try (Timings.Span span = Timings.start("export")) {
+            if (exportOperationUsed) {
+                results.add(exportOperation.perform(synchronizationDirectory));
+            }
+            if (elementOperationUsed) {
+                results.add(elementOperation.perform(synchronizationDirectory));
+            }
+            span.setCount(results.stream().mapToInt(AbstractExportCommand::countElements).sum());
+        }
+        if (results.isEmpty()) {
+            LOGGER.info("nothing changed since the last export");
+        }
+        // only saved after a successful export, so a failed export is repeated completely
+        watermarks.save();
+        return createResult(new MergedExportResult(results));
+    }
+
+    /**
+     * Exports the identifiers of each store with an own connection and {@link ExportOperation} into a subdirectory of the synchronization
+     * directory. A store root exported on its own is not the same as its children exported individually, so stores are not split any further.
+     * At most {@link #getParallelism()} stores are exported at the same time. The project is created or activated by the context of the command
+     * before, the connections of the stores only look it up.
+     */
+    private ExportResult exportShardsInParallel(final List<Identifier> identifiers, final String syncDirStr) {
+        new SyncDirectoryFactory(this).checkAndCreateSyncDirIfNeeded(syncDirStr);
+        // creates or activates the project once, if the context did not do that already
+        getContext().getProject();
+        final Map<String, List<Identifier>> shards = ExportShards.partition(identifiers);
+        if (isIncludeProjectProperties()) {
+            LOGGER.warn("usage of flag '--includeProjectProperties' is deprecated - use {}:{}' instead", ProjectPropertiesParser.CUSTOM_PREFIX_PROJECT_PROPERTIES, ProjectPropertiesParser.ALL);
+            shards.putIfAbsent(ExportShards.PROJECT_SHARD, new ArrayList<>());
+        }
+        LOGGER.info("exporting {} in parallel to subdirectories of '{}'", shards.keySet(), syncDirStr);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(getParallelism(), shards.size()));
+        // the spans of the shards belong to the invocation of this command
+        final Timings.Timeline timeline = Timings.current();
+        try {
+            final Map<String, Future<ExportOperation.Result>> futures = new LinkedHashMap<>();
+            for (final Map.Entry<String, List<Identifier>> shard : shards.entrySet()) {
+                futures.put(shard.getKey(), executor.submit(() -> {
+                    try (Timings.Scope scope = Timings.join(timeline)) {
+                        return exportShard(shard.getKey(), shard.getValue(), syncDirStr);
+                    }
+                }));
+            }
+            final List<ExportOperation.Result> results = new ArrayList<>();
+            final List<String> failedShards = new ArrayList<>();
+            Throwable failure = null;
+            for (final Map.Entry<String, Future<ExportOperation.Result>> future : futures.entrySet()) {
+                try {
+                    results.add(future.getValue().get());
+                } catch (ExecutionException e) {
+                    LOGGER.error("export of '" + future.getKey() + "' failed", e.getCause());
+                    failedShards.add(future.getKey());
+                    failure = failure == null ? e.getCause() : failure;
+                }
+            }
+            if (failure != null) {
+                return new ExportResult(new IllegalStateException("export of " + failedShards + " failed", failure));
+            }
+            return createResult(new MergedExportResult(results));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExportResult(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExportOperation.Result exportShard(final String shardName, final List<Identifier> identifiers, final String syncDirStr)
+        throws Exception {
+        final File shardDirectory = new File(syncDirStr, shardName);
+        if (!shardDirectory.isDirectory() && !shardDirectory.mkdirs()) {
+            throw new IllegalStateException("Could not create '" + shardDirectory.getAbsolutePath() + "'!");
+        }
+        try (CliContext shardContext = CliContextImpl.forPreparedProject(this)) {
+            final ExportOperation exportOperation = createExportOperation(shardContext);
+            addToExportOperation(createResolver(shardContext, shardDirectory), identifiers, exportOperation);
+            if (isIncludeProjectProperties() && ExportShards.PROJECT_SHARD.equals(shardName)) {
+                addProjectProperties(exportOperation);
+            }
+            LOGGER.info("exporting {} to directory '{}'", identifiers.isEmpty() ? shardName : identifiers, shardDirectory.getPath());
+            final ExportOperation.Result result =
+                exportOperation.perform(shardContext.requireSpecialist(FileSystemsAgent.TYPE).getOSFileSystem(shardDirectory.getPath()));
+            return result;
+        }
+    }
+
     /**
      * Adds the given string based UidIdentifier to this command's argument list. This method doesn't validate the input at all.
      *
@@ -0,0 +1,250 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.store.BasicElementInfo;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.StoreElement;
+import de.espirit.firstspirit.storage.Revision;
+import de.espirit.firstspirit.storage.RevisionMetaData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The elements below a set of root elements that changed after a given revision.
+ * <p>
+ * The changes are read from the metadata of the project revisions committed since the given revision, so the cost depends on the number of
+ * changes, not on the size of the exported subtrees. Changed elements are fetched with {@link Store#getElements(Collection)} and kept if one
+ * of their ancestors is a root. A changed element is exported on its own, without its children; its changed children are part of the changes
+ * themselves.
+ * <p>
+ * Two kinds of changes are exported together with their children:
+ * <ul>
+ * <li>an element that was modified in a revision that deleted elements, because it may be the parent of a deleted element; exporting the
+ * parent with its children removes the files of deleted children from the synchronization directory</li>
+ * <li>a created element whose node id is a tombstone, because a restored element brings back its whole subtree</li>
+ * </ul>
+ * The node ids of deleted elements are added to the tombstones, which are kept in {@link ExportWatermarks} between runs.
+ *
+ * @author e-Spirit AG
+ */
+final class ChangedElements {
+
+    /**
+     * The number of node ids fetched with one request.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    private final List<IDProvider> elements = new ArrayList<>();
+    private final List<IDProvider> subtrees = new ArrayList<>();
+    private final Set<Long> tombstones;
+    private final long revision;
+
+    private ChangedElements(final long revision, final Set<Long> tombstones) {
+        this.revision = revision;
+        this.tombstones = new LinkedHashSet<>(tombstones);
+    }
+
+    /**
+     * Collects the elements below the given roots that changed after the given revision. Without a watermark, or if the revision of the
+     * watermark is not available any more, the roots themselves are selected and the tombstones are dropped.
+     *
+     * @param roots        the elements to start with, all from the same store
+     * @param watermark    the revision of the last export, or {@link ExportWatermarks#NO_REVISION} to select the roots themselves
+     * @param withChildren whether the children of the roots are exported, too
+     * @param tombstones   the node ids of the elements deleted since the store was exported completely
+     * @return the changed elements
+     */
+    static ChangedElements collect(final List<IDProvider> roots, final long watermark, final boolean withChildren, final Set<Long> tombstones) {
+        final Store store = roots.get(0).getStore();
+        final Project project = store.getProject();
+        final Revision latest = project.getRevision(new Date());
+        final Revision start = watermark == ExportWatermarks.NO_REVISION ? null : project.getRevision(watermark);
+        if (start == null) {
+            final ChangedElements changed = new ChangedElements(latest.getId(), new LinkedHashSet<>());
+            (withChildren ? changed.subtrees : changed.elements).addAll(roots);
+            return changed;
+        }
+        final ChangedElements changed = new ChangedElements(latest.getId(), tombstones);
+        if (latest.getId() <= watermark) {
+            return changed;
+        }
+
+        // node ids in the order of their first change, and the ones to export with their children
+        final Set<Long> changedIds = new LinkedHashSet<>();
+        final Set<Long> subtreeIds = new HashSet<>();
+        for (final Revision revision : project.getRevisions(start, latest, Integer.MAX_VALUE, candidate -> candidate.getId() > watermark)) {
+            final RevisionMetaData metaData = revision.getMetaData();
+            final boolean deletes = changed.addTombstones(store.getType(), metaData.getDeletedElements(), changedIds);
+            for (final BasicElementInfo created : metaData.getCreatedElements()) {
+                if (created.getStoreType() == store.getType()) {
+                    changedIds.add(created.getNodeId());
+                    if (changed.tombstones.remove(created.getNodeId())) {
+                        subtreeIds.add(created.getNodeId());
+                    }
+                }
+            }
+            for (final BasicElementInfo modified : metaData.getModifiedElements()) {
+                if (modified.getStoreType() == store.getType()) {
+                    changedIds.add(modified.getNodeId());
+                    if (deletes) {
+                        subtreeIds.add(modified.getNodeId());
+                    }
+                }
+            }
+        }
+        changed.select(store, roots, new ArrayList<>(changedIds), subtreeIds, withChildren);
+        return changed;
+    }
+
+    private boolean addTombstones(final Store.Type storeType, final Set<BasicElementInfo> deletedElements, final Set<Long> changedIds) {
+        boolean deletes = false;
+        for (final BasicElementInfo deleted : deletedElements) {
+            if (deleted.getStoreType() == storeType) {
+                changedIds.remove(deleted.getNodeId());
+                tombstones.add(deleted.getNodeId());
+                deletes = true;
+            }
+        }
+        return deletes;
+    }
+
+    private void select(final Store store, final List<IDProvider> roots, final List<Long> changedIds, final Set<Long> subtreeIds,
+                        final boolean withChildren) {
+        final Set<Long> rootIds = new HashSet<>();
+        for (final IDProvider root : roots) {
+            rootIds.add(root.getId());
+        }
+        final Map<Long, List<Long>> ancestors = new HashMap<>();
+        final List<IDProvider> candidates = new ArrayList<>();
+        for (int from = 0; from < changedIds.size(); from += CHUNK_SIZE) {
+            for (final IDProvider element : store.getElements(changedIds.subList(from, Math.min(changedIds.size(), from + CHUNK_SIZE)))) {
+                // deleted after the revision was read
+                if (element == null) {
+                    continue;
+                }
+                if (getPath(element, rootIds, withChildren, ancestors) != null) {
+                    candidates.add(element);
+                }
+            }
+        }
+        // exported with a changed ancestor anyway
+        final Set<Long> selectedSubtrees = new HashSet<>();
+        if (withChildren) {
+            for (final IDProvider candidate : candidates) {
+                if (subtreeIds.contains(candidate.getId())) {
+                    selectedSubtrees.add(candidate.getId());
+                }
+            }
+        }
+        for (final IDProvider candidate : candidates) {
+            if (isCovered(ancestors.get(candidate.getId()), selectedSubtrees)) {
+                continue;
+            }
+            (selectedSubtrees.contains(candidate.getId()) ? subtrees : elements).add(candidate);
+        }
+    }
+
+    /**
+     * Get the node ids from the given element up to a root. Every element is visited once, the paths of its ancestors are reused.
+     *
+     * @return the node ids, starting with the element, or null if the element is not below a root
+     */
+    private static List<Long> getPath(final IDProvider element, final Set<Long> rootIds, final boolean withChildren,
+                                      final Map<Long, List<Long>> paths) {
+        final long id = element.getId();
+        if (paths.containsKey(id)) {
+            return paths.get(id);
+        }
+        List<Long> path = null;
+        if (rootIds.contains(id)) {
+            path = new ArrayList<>();
+            path.add(id);
+        } else if (withChildren) {
+            final StoreElement parent = element.getParent();
+            final List<Long> parentPath = parent instanceof IDProvider ? getPath((IDProvider) parent, rootIds, true, paths) : null;
+            if (parentPath != null) {
+                path = new ArrayList<>(parentPath.size() + 1);
+                path.add(id);
+                path.addAll(parentPath);
+            }
+        }
+        paths.put(id, path);
+        return path;
+    }
+
+    private static boolean isCovered(final List<Long> path, final Set<Long> subtreeIds) {
+        for (int index = 1; index < path.size(); index++) {
+            if (subtreeIds.contains(path.get(index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the changed elements without children.
+     *
+     * @return the elements to export without their children
+     */
+    List<IDProvider> getElements() {
+        return elements;
+    }
+
+    /**
+     * Get the changed elements with children.
+     *
+     * @return the elements to export together with their children
+     */
+    List<IDProvider> getSubtrees() {
+        return subtrees;
+    }
+
+    /**
+     * Get the node ids of the elements deleted since the store was exported completely, including the ones deleted after the given revision.
+     *
+     * @return the node ids, oldest first
+     */
+    Set<Long> getTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Get the latest revision of the project when the changes were collected. It becomes the watermark of the next export.
+     *
+     * @return the latest revision
+     */
+    long getRevision() {
+        return revision;
+    }
+}
@@ -49,8 +49,15 @@ import static com.espirit.moddev.cli.api.parsing.parser.RootNodeIdentifierParser
                 "export -- path:/PageStore/pageFolderUid/pageUid",
                 "export -- entities:products",
                 "export -- page:homepage entities:news",
+                "export -- pagetemplate:news_*",
+                "export -- \"page:re:^campaign_\\d+$\"",
                 "export -- projectproperty:LANGUAGES projectproperty:RESOLUTIONS",
-                "export -- projectproperty:ALL"
+                "export -- projectproperty:ALL",
+                "export --parallel -- templatestore pagestore sitestore",
+                "export --incremental -- pagestore",
+                "export --result-format ndjson --result-file export.ndjson -- pagestore",
+                "export --identifiers-from identifiers.txt",
+                "export --identifiers-from -"
             },
             descriptions = {
                 "Exports a pagetemplate and a page",
@@ -60,8 +67,15 @@ import static com.espirit.moddev.cli.api.parsing.parser.RootNodeIdentifierParser
                 "Exports the page identified by the path",
                 "Exports all entities of the content2 node 'products' according to the configured filter",
                 "Exports a page and news entities according to the configured filter",
+                "Exports all pagetemplates whose uids start with 'news_'",
+                "Exports all pages whose uids match the regular expression '^campaign_\\d+$'",
                 "Exports the project properties languages and resolutions",
-                "Exports all project properties"
+                "Exports all project properties",
+                "Exports the three stores in parallel into the subdirectories 'templatestore', 'pagestore' and 'sitestore' of the sync dir",
+                "Exports the elements of the pagestore that changed since the last incremental export into the sync dir",
+                "Exports the pagestore and writes one json record per exported element and file to 'export.ndjson'",
+                "Exports the elements listed in 'identifiers.txt', one identifier per line",
+                "Exports the elements whose identifiers are piped to the standard input"
             })
 public class ExportCommand extends AbstractExportCommand {
 
@@ -78,6 +92,7 @@ public class ExportCommand extends AbstractExportCommand {
         return "Exports elements, entities, project properties. Use one or more of following identifiers to specify export objects.\n\r\n" + TAB_SEQUENCE
                 + "1. Export elements based on uid with identifiers like 'pageref:pageRefUid'.\n" + TAB_SEQUENCE
                 + "Known prefixes for uid-based export:\n" + TAB_SEQUENCE + getUidPrefixesWithNewlineEvery5thElement() + "\n\r\n" + TAB_SEQUENCE
+                + "Export all elements of a prefix whose uids match a glob like 'pagetemplate:news_*' or a regular expression like 'page:re:^campaign_\\d+$'.\n\r\n" + TAB_SEQUENCE
                 + "2. Export elements based on path 'path:/<STORE>/<UID>|<NAME>'.\n\r\n" + TAB_SEQUENCE
                 + "3. Export entities with identifiers like 'entities:<CONTENT2_UID>'.\n\r\n" + TAB_SEQUENCE
                 + "4. Export projectproperties with identifiers like 'projectproperty:RESOLUTIONS'\n" + TAB_SEQUENCE
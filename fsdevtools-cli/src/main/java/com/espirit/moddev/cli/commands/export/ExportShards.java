@@ -0,0 +1,118 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import com.espirit.moddev.cli.api.parsing.identifier.EntitiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.PathIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.RootNodeIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidPatternIdentifier;
+
+import de.espirit.firstspirit.access.store.Store;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Partitions export identifiers by the store they belong to. Every partition (shard) can be exported by its own
+ * {@link de.espirit.firstspirit.store.access.nexport.operations.ExportOperation} into its own synchronization directory, independent of the
+ * other shards.
+ *
+ * @author e-Spirit AG
+ */
+final class ExportShards {
+
+    /**
+     * Name of the shard for identifiers that do not belong to a store, like project properties.
+     */
+    static final String PROJECT_SHARD = "project";
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private ExportShards() {
+        // Not used
+    }
+
+    /**
+     * Partitions the given identifiers by store. The shards and the identifiers within a shard keep the order of the given list.
+     *
+     * @param identifiers the identifiers to partition
+     * @return the identifiers mapped by shard name
+     */
+    static Map<String, List<Identifier>> partition(final List<Identifier> identifiers) {
+        final Map<String, List<Identifier>> shards = new LinkedHashMap<>();
+        for (final Identifier identifier : identifiers) {
+            shards.computeIfAbsent(getShardName(identifier), shardName -> new ArrayList<>()).add(identifier);
+        }
+        return shards;
+    }
+
+    /**
+     * Get the name of the shard the given identifier belongs to. The name is used as subdirectory of the synchronization directory.
+     *
+     * @param identifier the identifier
+     * @return the lower case name of the identifier's store, or {@link #PROJECT_SHARD} if the store is unknown
+     */
+    static String getShardName(final Identifier identifier) {
+        final Store.Type storeType = getStoreType(identifier);
+        return storeType == null ? PROJECT_SHARD : storeType.name().toLowerCase(Locale.UK);
+    }
+
+    private static Store.Type getStoreType(final Identifier identifier) {
+        if (identifier instanceof UidIdentifier) {
+            return ((UidIdentifier) identifier).getUidMapping().getStoreType();
+        }
+        if (identifier instanceof UidPatternIdentifier) {
+            return ((UidPatternIdentifier) identifier).getUidMapping().getStoreType();
+        }
+        if (identifier instanceof RootNodeIdentifier) {
+            return ((RootNodeIdentifier) identifier).getUidType().getStoreType();
+        }
+        if (identifier instanceof EntitiesIdentifier) {
+            return Store.Type.CONTENTSTORE;
+        }
+        if (identifier instanceof PathIdentifier) {
+            return getStoreTypeOfPath(((PathIdentifier) identifier).getPath());
+        }
+        return null;
+    }
+
+    /**
+     * Paths look like '/&lt;STORE&gt;/&lt;UID&gt;|&lt;NAME&gt;', the store name is compared case insensitive.
+     */
+    private static Store.Type getStoreTypeOfPath(final String path) {
+        final String relativePath = path.startsWith(PATH_SEPARATOR) ? path.substring(1) : path;
+        final int end = relativePath.indexOf(PATH_SEPARATOR);
+        final String storeName = end < 0 ? relativePath : relativePath.substring(0, end);
+        for (final Store.Type storeType : Store.Type.values()) {
+            if (storeType.name().equalsIgnoreCase(storeName)) {
+                return storeType;
+            }
+        }
+        return null;
+    }
+}
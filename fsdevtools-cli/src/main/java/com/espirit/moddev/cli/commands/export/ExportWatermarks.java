@@ -0,0 +1,184 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The revisions up to which the stores of a project have been exported into a synchronization directory. They are kept in a small properties
+ * file in the synchronization directory, separately for the current and the release state.
+ * <p>
+ * A watermark is only valid for the identifiers it was recorded for. If a store is exported with other identifiers, the recorded revision is
+ * ignored and the store is exported completely.
+ * <p>
+ * Next to the revision, the node ids of the elements deleted since the store was exported completely are kept as tombstones. A deleted element
+ * that is restored keeps its node id, so a tombstone tells that a created element brings back a whole subtree.
+ *
+ * @author e-Spirit AG
+ */
+final class ExportWatermarks {
+
+    /**
+     * Name of the state file in the synchronization directory.
+     */
+    static final String STATE_FILE_NAME = ".fs-cli-export-state.properties";
+
+    /**
+     * Revision returned for stores without a valid watermark.
+     */
+    static final long NO_REVISION = -1;
+
+    private static final String REVISION_SUFFIX = ".revision";
+    private static final String IDENTIFIERS_SUFFIX = ".identifiers";
+    private static final String TOMBSTONES_SUFFIX = ".tombstones";
+    private static final String TOMBSTONE_SEPARATOR = ",";
+
+    /**
+     * The maximum number of tombstones kept per store, the oldest ones are dropped first.
+     */
+    static final int MAX_TOMBSTONES = 10000;
+
+    private final File stateFile;
+    private final String prefix;
+    private final Properties properties = new Properties();
+
+    private ExportWatermarks(final File stateFile, final boolean releaseState) {
+        this.stateFile = stateFile;
+        prefix = releaseState ? "release." : "current.";
+    }
+
+    /**
+     * Loads the watermarks of a synchronization directory. A missing state file results in empty watermarks.
+     *
+     * @param synchronizationDirectory the synchronization directory
+     * @param releaseState             whether the watermarks of the release state or the current state are used
+     * @return the watermarks
+     * @throws IOException if the state file exists but can not be read
+     */
+    static ExportWatermarks load(final File synchronizationDirectory, final boolean releaseState) throws IOException {
+        final ExportWatermarks watermarks = new ExportWatermarks(new File(synchronizationDirectory, STATE_FILE_NAME), releaseState);
+        if (watermarks.stateFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(watermarks.stateFile)) {
+                watermarks.properties.load(inputStream);
+            }
+        }
+        return watermarks;
+    }
+
+    /**
+     * Get the revision up to which the given store has been exported with the given identifiers.
+     *
+     * @param storeName   the name of the store
+     * @param identifiers the identifiers of the store
+     * @return the revision, or {@link #NO_REVISION} if the store has not been exported with these identifiers before
+     */
+    long getRevision(final String storeName, final String identifiers) {
+        final String revision = properties.getProperty(prefix + storeName + REVISION_SUFFIX);
+        if (revision == null || !identifiers.equals(properties.getProperty(prefix + storeName + IDENTIFIERS_SUFFIX))) {
+            return NO_REVISION;
+        }
+        try {
+            return Long.parseLong(revision);
+        } catch (NumberFormatException e) {
+            return NO_REVISION;
+        }
+    }
+
+    /**
+     * Sets the revision up to which the given store has been exported. The change is not written until {@link #save()} is called.
+     *
+     * @param storeName   the name of the store
+     * @param identifiers the identifiers of the store
+     * @param revision    the highest revision of all exported elements
+     */
+    void setRevision(final String storeName, final String identifiers, final long revision) {
+        properties.setProperty(prefix + storeName + REVISION_SUFFIX, Long.toString(revision));
+        properties.setProperty(prefix + storeName + IDENTIFIERS_SUFFIX, identifiers);
+    }
+
+    /**
+     * Get the node ids of the elements of the given store that were deleted since it was exported completely.
+     *
+     * @param storeName the name of the store
+     * @return the node ids, oldest first; empty if there are none
+     */
+    Set<Long> getTombstones(final String storeName) {
+        final Set<Long> tombstones = new LinkedHashSet<>();
+        final String value = properties.getProperty(prefix + storeName + TOMBSTONES_SUFFIX, "");
+        for (final String nodeId : value.split(TOMBSTONE_SEPARATOR)) {
+            try {
+                if (!nodeId.isEmpty()) {
+                    tombstones.add(Long.valueOf(nodeId));
+                }
+            } catch (NumberFormatException e) {
+                // ignore broken entries, the element is exported like any other created element then
+            }
+        }
+        return tombstones;
+    }
+
+    /**
+     * Sets the node ids of the deleted elements of the given store. Only the newest {@link #MAX_TOMBSTONES} are kept. The change is not written
+     * until {@link #save()} is called.
+     *
+     * @param storeName  the name of the store
+     * @param tombstones the node ids, oldest first
+     */
+    void setTombstones(final String storeName, final Set<Long> tombstones) {
+        if (tombstones.isEmpty()) {
+            properties.remove(prefix + storeName + TOMBSTONES_SUFFIX);
+            return;
+        }
+        final StringBuilder value = new StringBuilder();
+        int skip = tombstones.size() - MAX_TOMBSTONES;
+        for (final Long nodeId : tombstones) {
+            if (skip-- > 0) {
+                continue;
+            }
+            if (value.length() > 0) {
+                value.append(TOMBSTONE_SEPARATOR);
+            }
+            value.append(nodeId);
+        }
+        properties.setProperty(prefix + storeName + TOMBSTONES_SUFFIX, value.toString());
+    }
+
+    /**
+     * Writes the watermarks to the state file.
+     *
+     * @throws IOException if the state file can not be written
+     */
+    void save() throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(stateFile)) {
+            properties.store(outputStream, "fs-cli incremental export");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.ProjectPropertiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.parser.Parser;
+
+import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectPropertyType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Parses identifier strings in batches and passes every distinct identifier once to a consumer, so that large identifier lists never have to
+ * be held as strings. Blank lines and lines starting with '#' are ignored. Project property identifiers replace each other when added to an
+ * export operation, so they are merged into one identifier that is passed on by {@link #finish()}.
+ *
+ * @author e-Spirit AG
+ */
+final class IdentifierBatches {
+
+    /**
+     * Default number of identifier strings parsed at once.
+     */
+    static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private final Parser<Identifier> parser;
+    private final int batchSize;
+    private final Consumer<List<Identifier>> consumer;
+    private final Set<Identifier> knownIdentifiers = new HashSet<>();
+    private final List<String> pendingInput;
+    private EnumSet<ProjectPropertyType> projectPropertyTypes;
+    private int identifierCount;
+
+    /**
+     * @param parser    the parser for the identifier strings
+     * @param batchSize the number of identifier strings parsed at once, the consumer gets at most that many identifiers at once
+     * @param consumer  the consumer of the distinct identifiers
+     */
+    IdentifierBatches(final Parser<Identifier> parser, final int batchSize, final Consumer<List<Identifier>> consumer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive, but was " + batchSize);
+        }
+        this.parser = parser;
+        this.batchSize = batchSize;
+        this.consumer = consumer;
+        pendingInput = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Adds an identifier string. The string is parsed as soon as a batch is complete.
+     *
+     * @param input the identifier string
+     */
+    void add(final String input) {
+        final String identifier = input.trim();
+        if (identifier.isEmpty() || identifier.startsWith(COMMENT_PREFIX)) {
+            return;
+        }
+        pendingInput.add(identifier);
+        if (pendingInput.size() >= batchSize) {
+            parsePendingInput();
+        }
+    }
+
+    /**
+     * Adds all given identifier strings.
+     *
+     * @param inputs the identifier strings
+     */
+    void addAll(final Iterable<String> inputs) {
+        for (final String input : inputs) {
+            add(input);
+        }
+    }
+
+    /**
+     * Adds every line of the given reader as identifier string. The reader is not closed.
+     *
+     * @param reader the reader to read from
+     * @throws IOException if reading fails
+     */
+    void read(final BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            add(line);
+        }
+    }
+
+    /**
+     * Parses the remaining identifier strings and passes the merged project property identifier on, if any.
+     *
+     * @return the number of distinct identifiers passed to the consumer
+     */
+    int finish() {
+        parsePendingInput();
+        if (projectPropertyTypes != null) {
+            pass(Collections.singletonList(new ProjectPropertiesIdentifier(projectPropertyTypes)));
+            projectPropertyTypes = null;
+        }
+        return identifierCount;
+    }
+
+    private void parsePendingInput() {
+        if (pendingInput.isEmpty()) {
+            return;
+        }
+        final List<Identifier> parsed = parser.parse(pendingInput);
+        pendingInput.clear();
+        final List<Identifier> batch = new ArrayList<>(parsed.size());
+        for (final Identifier identifier : parsed) {
+            if (identifier instanceof ProjectPropertiesIdentifier) {
+                mergeProjectPropertyTypes((ProjectPropertiesIdentifier) identifier);
+            } else if (knownIdentifiers.add(identifier)) {
+                batch.add(identifier);
+            }
+        }
+        if (!batch.isEmpty()) {
+            pass(batch);
+        }
+    }
+
+    private void mergeProjectPropertyTypes(final ProjectPropertiesIdentifier identifier) {
+        if (projectPropertyTypes == null) {
+            projectPropertyTypes = identifier.getProjectPropertyTypes();
+        } else {
+            projectPropertyTypes.addAll(identifier.getProjectPropertyTypes());
+        }
+    }
+
+    private void pass(final List<Identifier> batch) {
+        identifierCount += batch.size();
+        consumer.accept(batch);
+    }
+}
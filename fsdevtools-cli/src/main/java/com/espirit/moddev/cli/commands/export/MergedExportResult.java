@@ -0,0 +1,160 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import de.espirit.common.util.Pair;
+import de.espirit.firstspirit.io.FileHandle;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.io.ExportInfoFileHandle;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Combines the results of several {@link ExportOperation}s, so the export of all shards can be logged like a single export. The results are
+ * merged once on creation.
+ *
+ * @author e-Spirit AG
+ */
+final class MergedExportResult implements ExportOperation.Result {
+
+    private final Set<FileHandle> createdFiles;
+    private final Set<FileHandle> updatedFiles;
+    private final Set<FileHandle> deletedFiles;
+    private final Set<ExportInfoFileHandle> createdFileHandles;
+    private final Set<ExportInfoFileHandle> updatedFileHandles;
+    private final Set<ExportInfoFileHandle> deletedFileHandles;
+    private final Collection<Pair<ExportInfoFileHandle, ExportInfoFileHandle>> movedFileHandles;
+    private final Collection<ExportInfo> createdElements;
+    private final Collection<ExportInfo> updatedElements;
+    private final Collection<ExportInfo> deletedElements;
+    private final Collection<ExportInfo> movedElements;
+
+    /**
+     * Merges the given results.
+     *
+     * @param results the results to merge
+     * @throws IllegalArgumentException if results is null
+     */
+    MergedExportResult(final List<ExportOperation.Result> results) {
+        if (results == null) {
+            throw new IllegalArgumentException("results is null");
+        }
+        createdFiles = mergeSets(results, ExportOperation.Result::getCreatedFiles);
+        updatedFiles = mergeSets(results, ExportOperation.Result::getUpdatedFiles);
+        deletedFiles = mergeSets(results, ExportOperation.Result::getDeletedFiles);
+        createdFileHandles = mergeSets(results, ExportOperation.Result::getCreatedFileHandles);
+        updatedFileHandles = mergeSets(results, ExportOperation.Result::getUpdatedFileHandles);
+        deletedFileHandles = mergeSets(results, ExportOperation.Result::getDeletedFileHandles);
+        movedFileHandles = mergeCollections(results, ExportOperation.Result::getMovedFileHandles);
+        createdElements = mergeCollections(results, ExportOperation.Result::getCreatedElements);
+        updatedElements = mergeCollections(results, ExportOperation.Result::getUpdatedElements);
+        deletedElements = mergeCollections(results, ExportOperation.Result::getDeletedElements);
+        movedElements = mergeCollections(results, ExportOperation.Result::getMovedElements);
+    }
+
+    private static <T> Set<T> mergeSets(final List<ExportOperation.Result> results,
+                                        final Function<ExportOperation.Result, ? extends Collection<T>> getter) {
+        final Set<T> merged = new LinkedHashSet<>();
+        for (final ExportOperation.Result result : results) {
+            final Collection<T> values = getter.apply(result);
+            if (values != null) {
+                merged.addAll(values);
+            }
+        }
+        return Collections.unmodifiableSet(merged);
+    }
+
+    private static <T> Collection<T> mergeCollections(final List<ExportOperation.Result> results,
+                                                      final Function<ExportOperation.Result, ? extends Collection<T>> getter) {
+        final List<T> merged = new ArrayList<>();
+        for (final ExportOperation.Result result : results) {
+            final Collection<T> values = getter.apply(result);
+            if (values != null) {
+                merged.addAll(values);
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    @Override
+    public Set<FileHandle> getCreatedFiles() {
+        return createdFiles;
+    }
+
+    @Override
+    public Set<FileHandle> getUpdatedFiles() {
+        return updatedFiles;
+    }
+
+    @Override
+    public Set<FileHandle> getDeletedFiles() {
+        return deletedFiles;
+    }
+
+    @Override
+    public Set<ExportInfoFileHandle> getCreatedFileHandles() {
+        return createdFileHandles;
+    }
+
+    @Override
+    public Set<ExportInfoFileHandle> getUpdatedFileHandles() {
+        return updatedFileHandles;
+    }
+
+    @Override
+    public Set<ExportInfoFileHandle> getDeletedFileHandles() {
+        return deletedFileHandles;
+    }
+
+    @Override
+    public Collection<Pair<ExportInfoFileHandle, ExportInfoFileHandle>> getMovedFileHandles() {
+        return movedFileHandles;
+    }
+
+    @Override
+    public Collection<ExportInfo> getCreatedElements() {
+        return createdElements;
+    }
+
+    @Override
+    public Collection<ExportInfo> getUpdatedElements() {
+        return updatedElements;
+    }
+
+    @Override
+    public Collection<ExportInfo> getDeletedElements() {
+        return deletedElements;
+    }
+
+    @Override
+    public Collection<ExportInfo> getMovedElements() {
+        return movedElements;
+    }
+}
@@ -23,6 +23,7 @@
 package com.espirit.moddev.cli.commands.help;
 
 import com.espirit.moddev.cli.CliBuilderHelper;
+import com.espirit.moddev.cli.logging.AsyncLogAppender;
 import com.github.rvesse.airline.annotations.Arguments;
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.builder.CliBuilder;
@@ -71,6 +72,8 @@ public class HelpCommand implements com.espirit.moddev.cli.api.command.Command<H
         String[] argumentArray = argsCopy.toArray(new String[0]);
         help = (Help) cli.parse(argumentArray);
         try {
+            // the help is printed to the standard output directly, after the log lines that are still queued
+            AsyncLogAppender.flushInstalled();
             Help.help(help.global, args);
             return new HelpResult(help.global);
         } catch (IOException e) {
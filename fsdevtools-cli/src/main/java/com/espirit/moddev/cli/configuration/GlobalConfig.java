@@ -89,6 +89,12 @@ public class GlobalConfig implements Config {
     @Option(type = OptionType.GLOBAL, name = {"-sd", "--syncDir"}, description = "The synchronization directory that is used for im- and export. Default is current directory")
     private String synchronizationDirectory = ".";
 
+    @Option(type = OptionType.GLOBAL, name = {"--timings"}, description = "Writes how long the phases of the command took as json to the given file")
+    private String timingsFile;
+
+    @Option(type = OptionType.GLOBAL, name = {"--jfr"}, description = "Records the phases of the command with the Java Flight Recorder to the given file. Needs Java 11 or Java 8 update 262 and later")
+    private String flightRecordingFile;
+
     public GlobalConfig() {
     }
 
@@ -223,6 +229,42 @@ public class GlobalConfig implements Config {
         return (FileSystem<F>) fileSystemsAgent.getOSFileSystem(syncDirStr);
     }
 
+    /**
+     * Get the file the timing report of the command is written to.
+     *
+     * @return the path of the timing report, or null if no report should be written
+     */
+    public String getTimingsFile() {
+        return timingsFile;
+    }
+
+    /**
+     * Set the file the timing report of the command is written to.
+     *
+     * @param timingsFile the path of the timing report, or null to not write a report
+     */
+    public void setTimingsFile(String timingsFile) {
+        this.timingsFile = timingsFile;
+    }
+
+    /**
+     * Get the file the flight recording of the command is written to.
+     *
+     * @return the path of the flight recording, or null if the command should not be recorded
+     */
+    public String getFlightRecordingFile() {
+        return flightRecordingFile;
+    }
+
+    /**
+     * Set the file the flight recording of the command is written to.
+     *
+     * @param flightRecordingFile the path of the flight recording, or null to not record the command
+     */
+    public void setFlightRecordingFile(String flightRecordingFile) {
+        this.flightRecordingFile = flightRecordingFile;
+    }
+
     @Override
     public boolean createSynchronizationDirectoryIfMissing() {
         return !dontCreateSynchronizationDirectoryIfMissing;
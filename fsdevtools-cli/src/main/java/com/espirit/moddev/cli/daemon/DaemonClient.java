@@ -0,0 +1,162 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Thin client that sends its argument vector to a running {@link DaemonServer} instead of executing it in a fresh jvm. The output of the command
+ * is written to stdout and stderr of the client and the exit code of the command becomes the exit code of the client.
+ * <p>
+ * The client must stay cheap to start, so it only depends on {@link DaemonProtocol} and the jdk.
+ *
+ * @author e-Spirit AG
+ */
+public final class DaemonClient {
+
+    private final File daemonFile;
+
+    /**
+     * Creates a client for the daemon that published itself in the given file.
+     *
+     * @param daemonFile the file the daemon published its port and token in
+     */
+    public DaemonClient(final File daemonFile) {
+        this.daemonFile = daemonFile;
+    }
+
+    /**
+     * The entry point of the thin client. Exits with the exit code of the command, or with 1 if the daemon is not reachable.
+     *
+     * @param args the arguments to execute in the daemon
+     */
+    @SuppressWarnings("squid:S1147")
+    public static void main(final String[] args) {
+        int exitCode;
+        try {
+            exitCode = new DaemonClient(DaemonProtocol.getDaemonFile()).execute(args, System.out, System.err);
+        } catch (IOException e) {
+            System.err.println("fs-cli daemon is not reachable (" + e + "). Start it with 'fs-cli daemon'.");
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Executes the given arguments in the daemon and copies its output to the given streams.
+     *
+     * @param args the arguments to execute
+     * @param out  the stream for the standard output of the command
+     * @param err  the stream for the error output of the command
+     * @return the exit code of the command
+     * @throws IOException if the daemon is not reachable or the connection breaks
+     */
+    public int execute(final String[] args, final PrintStream out, final PrintStream err) throws IOException {
+        final Properties daemonProperties = readDaemonProperties();
+        try (Socket socket = connect(daemonProperties)) {
+            final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHeader(outputStream, DaemonProtocol.REQUEST_EXECUTE, daemonProperties);
+            DaemonProtocol.writeText(outputStream, new File("").getAbsolutePath());
+            final Map<String, String> environment = System.getenv();
+            outputStream.writeInt(environment.size());
+            for (final Map.Entry<String, String> entry : environment.entrySet()) {
+                DaemonProtocol.writeText(outputStream, entry.getKey());
+                DaemonProtocol.writeText(outputStream, entry.getValue());
+            }
+            outputStream.writeInt(args.length);
+            for (final String arg : args) {
+                DaemonProtocol.writeText(outputStream, arg);
+            }
+            outputStream.flush();
+            return readResponse(new DataInputStream(new BufferedInputStream(socket.getInputStream())), out, err);
+        }
+    }
+
+    /**
+     * Asks the daemon to stop after the current command.
+     *
+     * @throws IOException if the daemon is not reachable
+     */
+    public void stop() throws IOException {
+        final Properties daemonProperties = readDaemonProperties();
+        try (Socket socket = connect(daemonProperties)) {
+            final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeHeader(outputStream, DaemonProtocol.REQUEST_STOP, daemonProperties);
+            outputStream.flush();
+            readResponse(new DataInputStream(new BufferedInputStream(socket.getInputStream())), System.out, System.err);
+        }
+    }
+
+    private Properties readDaemonProperties() throws IOException {
+        if (!daemonFile.isFile()) {
+            throw new IOException("No running daemon found, " + daemonFile + " does not exist");
+        }
+        return DaemonProtocol.readDaemonFile(daemonFile);
+    }
+
+    private Socket connect(final Properties daemonProperties) throws IOException {
+        final int port;
+        try {
+            port = Integer.parseInt(daemonProperties.getProperty(DaemonProtocol.PROPERTY_PORT, ""));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid port in " + daemonFile, e);
+        }
+        return new Socket(InetAddress.getLoopbackAddress(), port);
+    }
+
+    private static void writeHeader(final DataOutputStream outputStream, final byte requestType, final Properties daemonProperties)
+        throws IOException {
+        outputStream.writeByte(requestType);
+        DaemonProtocol.writeText(outputStream, daemonProperties.getProperty(DaemonProtocol.PROPERTY_TOKEN, ""));
+    }
+
+    private static int readResponse(final DataInputStream inputStream, final PrintStream out, final PrintStream err) throws IOException {
+        while (true) {
+            final byte frameType = inputStream.readByte();
+            switch (frameType) {
+                case DaemonProtocol.FRAME_STDOUT:
+                    out.write(DaemonProtocol.readBytes(inputStream));
+                    out.flush();
+                    break;
+                case DaemonProtocol.FRAME_STDERR:
+                    err.write(DaemonProtocol.readBytes(inputStream));
+                    err.flush();
+                    break;
+                case DaemonProtocol.FRAME_EXIT:
+                    return inputStream.readInt();
+                default:
+                    throw new IOException("Unknown frame type " + frameType);
+            }
+        }
+    }
+}
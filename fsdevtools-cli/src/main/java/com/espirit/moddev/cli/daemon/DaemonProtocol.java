@@ -0,0 +1,185 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.daemon;
+
+import com.espirit.moddev.cli.CliConstants;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Constants and framing helpers shared by the {@link DaemonServer} and the {@link DaemonClient}.
+ * <p>
+ * A client sends a request type, the token of the daemon and, for execution requests, its working directory, its environment and the argument
+ * vector. The daemon answers with a sequence of frames: output frames carry text for the client's stdout or stderr, the final exit frame carries
+ * the exit code.
+ * <p>
+ * This class is used by the thin client, too, so it must not initialize the logging system or any FirstSpirit classes.
+ *
+ * @author e-Spirit AG
+ */
+public final class DaemonProtocol {
+
+    /**
+     * Request type for executing an argument vector.
+     */
+    public static final byte REQUEST_EXECUTE = 1;
+
+    /**
+     * Request type for stopping the daemon.
+     */
+    public static final byte REQUEST_STOP = 2;
+
+    /**
+     * Frame type for text that should be written to stdout.
+     */
+    public static final byte FRAME_STDOUT = 1;
+
+    /**
+     * Frame type for text that should be written to stderr.
+     */
+    public static final byte FRAME_STDERR = 2;
+
+    /**
+     * Frame type that terminates a response and carries the exit code.
+     */
+    public static final byte FRAME_EXIT = 3;
+
+    static final String PROPERTY_PORT = "port";
+    static final String PROPERTY_TOKEN = "token";
+    private static final String DAEMON_FILE_NAME = "daemon.properties";
+    private static final int MAX_BLOCK_LENGTH = 64 * 1024 * 1024;
+
+    private DaemonProtocol() {
+        // Not used
+    }
+
+    /**
+     * The file a running daemon publishes its port and token to. Only the current user should be able to read it.
+     *
+     * @return the daemon file in the fs-cli directory of the user's home
+     */
+    public static File getDaemonFile() {
+        return new File(System.getProperty(CliConstants.USER_HOME.value()) + CliConstants.FS_CLI_DIR, DAEMON_FILE_NAME);
+    }
+
+    /**
+     * Publishes the port and the token of a daemon.
+     *
+     * @param daemonFile the file to write
+     * @param port       the port the daemon listens on
+     * @param token      the token clients have to send
+     * @return false, if the file could not be restricted to the current user
+     * @throws IOException if the file can not be written
+     */
+    static boolean writeDaemonFile(final File daemonFile, final int port, final String token) throws IOException {
+        final File directory = daemonFile.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Directory " + directory + " can not be created");
+        }
+        final Properties properties = new Properties();
+        properties.setProperty(PROPERTY_PORT, Integer.toString(port));
+        properties.setProperty(PROPERTY_TOKEN, token);
+        // create the file empty first, so the token is never readable by other users
+        final boolean restricted;
+        try (OutputStream ignored = new FileOutputStream(daemonFile)) {
+            restricted = daemonFile.setReadable(false, false) && daemonFile.setReadable(true, true)
+                         && daemonFile.setWritable(false, false) && daemonFile.setWritable(true, true);
+        }
+        try (OutputStream outputStream = new FileOutputStream(daemonFile)) {
+            properties.store(outputStream, "fs-cli daemon");
+        }
+        return restricted;
+    }
+
+    static Properties readDaemonFile(final File daemonFile) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(daemonFile)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
+    /**
+     * Writes a string of arbitrary length. {@link DataOutputStream#writeUTF(String)} is limited to 64k, which is not enough for large arguments.
+     *
+     * @param outputStream the stream to write to
+     * @param text         the text to write
+     * @throws IOException if writing fails
+     */
+    static void writeText(final DataOutputStream outputStream, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeBytes(outputStream, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads a string written by {@link #writeText(DataOutputStream, String)}.
+     *
+     * @param inputStream the stream to read from
+     * @return the text
+     * @throws IOException if reading fails
+     */
+    static String readText(final DataInputStream inputStream) throws IOException {
+        return new String(readBytes(inputStream), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a length prefixed block of bytes.
+     *
+     * @param outputStream the stream to write to
+     * @param bytes        the bytes to write from
+     * @param offset       the offset of the first byte to write
+     * @param length       the number of bytes to write
+     * @throws IOException if writing fails
+     */
+    static void writeBytes(final DataOutputStream outputStream, final byte[] bytes, final int offset, final int length) throws IOException {
+        outputStream.writeInt(length);
+        outputStream.write(bytes, offset, length);
+    }
+
+    /**
+     * Reads a block of bytes written by {@link #writeBytes(DataOutputStream, byte[], int, int)}.
+     *
+     * @param inputStream the stream to read from
+     * @return the bytes
+     * @throws IOException if reading fails
+     */
+    static byte[] readBytes(final DataInputStream inputStream) throws IOException {
+        final int length = inputStream.readInt();
+        // the token is read with this method, too, so an unauthenticated client must not be able to allocate arbitrary memory
+        if (length < 0 || length > MAX_BLOCK_LENGTH) {
+            throw new IOException("Invalid block length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.daemon;
+
+import com.espirit.moddev.cli.Cli;
+import com.espirit.moddev.cli.CliConstants;
+import com.espirit.moddev.cli.CliContextCache;
+import com.espirit.moddev.cli.api.command.Command;
+import com.espirit.moddev.cli.commands.ImportCommand;
+import com.espirit.moddev.cli.commands.daemon.DaemonCommand;
+import com.espirit.moddev.cli.commands.export.AbstractExportCommand;
+import com.espirit.moddev.cli.configuration.GlobalConfig;
+import com.espirit.moddev.cli.results.ResultFormatConfig;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Layout;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.WriterAppender;
+import org.apache.log4j.varia.LevelRangeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes argument vectors sent by {@link DaemonClient}s in a warm jvm. The airline parser is built only once and FirstSpirit connections are
+ * kept open in a {@link CliContextCache}, so a command sent to the daemon skips the classpath scan, the cli builder and the connection
+ * handshake of a fresh cli call.
+ * <p>
+ * The daemon listens on the loopback interface only and publishes its port together with a random token in {@link
+ * DaemonProtocol#getDaemonFile()}. Requests without the token are rejected. Commands are executed one after another in the thread calling {@link
+ * #serve()}. While a command runs, its log output and everything written to stdout and stderr is sent to the client.
+ *
+ * @author e-Spirit AG
+ */
+public class DaemonServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaemonServer.class);
+    private static final int TOKEN_BYTES = 32;
+    private static final int BACKLOG = 16;
+    private static final int REQUEST_READ_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+    private static final String DEFAULT_PATTERN = "%m%n";
+
+    private final ServerSocket serverSocket;
+    private final File daemonFile;
+    private final String token;
+    private final CliContextCache connectionCache = new CliContextCache();
+    private final Cli cli = new Cli(connectionCache::obtainContext);
+    private final com.github.rvesse.airline.Cli<Command> parser;
+    private volatile boolean running = true;
+
+    /**
+     * Binds the daemon to the given loopback port and publishes port and token in the given file.
+     *
+     * @param port       the port to listen on, or 0 for a free port
+     * @param daemonFile the file to publish port and token in
+     * @throws IOException if the port can not be bound or the file can not be written
+     */
+    public DaemonServer(final int port, final File daemonFile) throws IOException {
+        this.daemonFile = daemonFile;
+        parser = Cli.getDefaultCliBuilder().build();
+        token = createToken();
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        if (!DaemonProtocol.writeDaemonFile(daemonFile, serverSocket.getLocalPort(), token)) {
+            LOGGER.warn("Permissions of {} can not be restricted to the current user", daemonFile);
+        }
+    }
+
+    private static String createToken() {
+        final byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Get the port this daemon listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts and executes requests until the daemon is stopped by a client or closed.
+     */
+    public void serve() {
+        LOGGER.info("fs-cli daemon listening on {}:{} (see {})", serverSocket.getInetAddress().getHostAddress(), getPort(), daemonFile);
+        while (running) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (SocketException e) {
+                if (running) {
+                    LOGGER.warn("Connection to client failed", e);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Request could not be handled", e);
+            }
+        }
+        LOGGER.info("fs-cli daemon stopped");
+    }
+
+    private void handle(final Socket socket) throws IOException {
+        socket.setSoTimeout(REQUEST_READ_TIMEOUT_MILLIS);
+        final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        final byte requestType = inputStream.readByte();
+        final String sentToken = DaemonProtocol.readText(inputStream);
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), sentToken.getBytes(StandardCharsets.UTF_8))) {
+            LOGGER.warn("Rejected request with invalid token from {}", socket.getRemoteSocketAddress());
+            return;
+        }
+        if (requestType == DaemonProtocol.REQUEST_STOP) {
+            LOGGER.info("Stop requested by client");
+            running = false;
+            writeExit(outputStream, 0);
+            return;
+        }
+        if (requestType != DaemonProtocol.REQUEST_EXECUTE) {
+            LOGGER.warn("Rejected request of unknown type {}", requestType);
+            return;
+        }
+
+        final String workingDirectory = DaemonProtocol.readText(inputStream);
+        final int environmentSize = inputStream.readInt();
+        final Map<String, String> environment = new HashMap<>();
+        for (int i = 0; i < environmentSize; i++) {
+            environment.put(DaemonProtocol.readText(inputStream), DaemonProtocol.readText(inputStream));
+        }
+        final String[] args = new String[inputStream.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = DaemonProtocol.readText(inputStream);
+        }
+        // commands may run for a long time, so only reading the request is limited
+        socket.setSoTimeout(0);
+
+        writeExit(outputStream, execute(args, workingDirectory, environment, outputStream));
+    }
+
+    @SuppressWarnings("unchecked")
+    private int execute(final String[] args, final String workingDirectory, final Map<String, String> environment,
+                        final DataOutputStream outputStream) {
+        final PrintStream clientOut = new PrintStream(new FrameOutputStream(outputStream, DaemonProtocol.FRAME_STDOUT), true);
+        final PrintStream clientErr = new PrintStream(new FrameOutputStream(outputStream, DaemonProtocol.FRAME_STDERR), true);
+        Command command = null;
+        RuntimeException parseException = null;
+        try {
+            command = parser.parse(args);
+        } catch (RuntimeException e) {
+            parseException = e;
+        }
+        // records written to the standard output of the client must not be mixed with log lines
+        final PrintStream clientLog = command instanceof ResultFormatConfig && ((ResultFormatConfig) command).isResultWrittenToStdout()
+                                      ? clientErr : clientOut;
+        final Appender outAppender = createClientAppender(CliConstants.STDOUT_APPENDER.value(), clientLog, Level.TRACE, Level.WARN);
+        final Appender errAppender = createClientAppender(CliConstants.STDERR_APPENDER.value(), clientErr, Level.ERROR, Level.FATAL);
+        final org.apache.log4j.Logger rootLogger = org.apache.log4j.Logger.getRootLogger();
+        final PrintStream originalOut = System.out;
+        final PrintStream originalErr = System.err;
+        rootLogger.addAppender(outAppender);
+        rootLogger.addAppender(errAppender);
+        System.setOut(clientOut);
+        System.setErr(clientErr);
+        try {
+            if (parseException != null) {
+                throw parseException;
+            }
+            if (command instanceof DaemonCommand) {
+                throw new IllegalArgumentException("The daemon can not be controlled from within the daemon, use fs-cli directly");
+            }
+            if (command instanceof GlobalConfig) {
+                adaptToClient((GlobalConfig) command, workingDirectory, environment);
+            }
+            cli.executeCommandAndLogTime(command);
+            return 0;
+        } catch (Exception e) {
+            LOGGER.error("", e);
+            return 1;
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            rootLogger.removeAppender(outAppender);
+            rootLogger.removeAppender(errAppender);
+            clientOut.flush();
+            clientErr.flush();
+        }
+    }
+
+    /**
+     * Lets the command see the environment of the client instead of the daemon's and resolves relative files of the command, like the
+     * synchronization directory or the result file, against the working directory of the client.
+     */
+    static void adaptToClient(final GlobalConfig config, final String workingDirectory, final Map<String, String> environment) {
+        config.getEnvironment().clear();
+        for (final Map.Entry<String, String> entry : environment.entrySet()) {
+            config.getEnvironment().put(entry.getKey(), entry.getValue());
+        }
+        config.setSynchronizationDirectory(resolve(workingDirectory, config.getSynchronizationDirectoryString()));
+        config.setTimingsFile(resolve(workingDirectory, config.getTimingsFile()));
+        config.setFlightRecordingFile(resolve(workingDirectory, config.getFlightRecordingFile()));
+        if (config instanceof AbstractExportCommand) {
+            final AbstractExportCommand exportCommand = (AbstractExportCommand) config;
+            exportCommand.setResultFile(resolve(workingDirectory, exportCommand.getResultFile()));
+            exportCommand.setIdentifiersFrom(resolve(workingDirectory, exportCommand.getIdentifiersFrom()));
+        }
+        if (config instanceof ImportCommand) {
+            final ImportCommand importCommand = (ImportCommand) config;
+            importCommand.setResultFile(resolve(workingDirectory, importCommand.getResultFile()));
+            importCommand.setProblemsFile(resolve(workingDirectory, importCommand.getProblemsFile()));
+        }
+    }
+
+    /**
+     * Resolves a relative path against the working directory of the client. Unset paths and {@value NdjsonResultWriter#STDOUT}, which stands for
+     * the standard output or input, are kept.
+     */
+    private static String resolve(final String workingDirectory, final String path) {
+        if (path == null || NdjsonResultWriter.STDOUT.equals(path) || AbstractExportCommand.STDIN.equals(path) || new File(path).isAbsolute()) {
+            return path;
+        }
+        return new File(workingDirectory, path).getPath();
+    }
+
+    /**
+     * Creates an appender that writes to the client. Layout and filters are taken from the configured appender with the given name, so the client
+     * gets the same output as a direct cli call.
+     */
+    private static Appender createClientAppender(final String configuredName, final PrintStream stream, final Level levelMin, final Level levelMax) {
+        final Appender configured = org.apache.log4j.Logger.getRootLogger().getAppender(configuredName);
+        final Layout layout = configured != null && configured.getLayout() != null ? configured.getLayout() : new PatternLayout(DEFAULT_PATTERN);
+        final WriterAppender appender = new WriterAppender(layout, stream);
+        appender.setName("daemon-client-" + configuredName);
+        if (configured != null && configured.getFilter() != null) {
+            appender.addFilter(configured.getFilter());
+        } else {
+            final LevelRangeFilter filter = new LevelRangeFilter();
+            filter.setLevelMin(levelMin);
+            filter.setLevelMax(levelMax);
+            appender.addFilter(filter);
+        }
+        return appender;
+    }
+
+    private static void writeExit(final DataOutputStream outputStream, final int exitCode) throws IOException {
+        synchronized (outputStream) {
+            outputStream.writeByte(DaemonProtocol.FRAME_EXIT);
+            outputStream.writeInt(exitCode);
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Stops accepting requests, closes all cached connections and removes the daemon file, if it still belongs to this daemon.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Closing server socket caused an exception", e);
+        }
+        connectionCache.close();
+        try {
+            if (daemonFile.isFile() && token.equals(DaemonProtocol.readDaemonFile(daemonFile).getProperty(DaemonProtocol.PROPERTY_TOKEN))
+                && !daemonFile.delete()) {
+                LOGGER.warn("Daemon file {} can not be deleted", daemonFile);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Daemon file can not be read", e);
+        }
+    }
+
+    /**
+     * Sends everything written to it as frames of one type. Writes are synchronized on the shared stream, because stdout, stderr and log output
+     * of other threads end up in the same socket.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream outputStream;
+        private final byte frameType;
+
+        private FrameOutputStream(final DataOutputStream outputStream, final byte frameType) {
+            this.outputStream = outputStream;
+            this.frameType = frameType;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (outputStream) {
+                outputStream.writeByte(frameType);
+                DaemonProtocol.writeBytes(outputStream, b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (outputStream) {
+                outputStream.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * This package contains the daemon that executes cli commands in a warm jvm with cached FirstSpirit connections,
+ * and the thin client that sends commands to it.
+ *
+ * @author e-Spirit AG
+ */
+package com.espirit.moddev.cli.daemon;
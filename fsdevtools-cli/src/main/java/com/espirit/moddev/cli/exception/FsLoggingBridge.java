@@ -26,80 +26,132 @@ import de.espirit.common.base.Logger;
 
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 /**
  * The type FsLoggingBridge is the connection between FS Logging and the SLF4J API.
+ * <p>
+ * The FirstSpirit client logs with the class as logger name and guards most log calls with an {@code isXEnabled} check. The SLF4J logger of a
+ * class is therefore looked up once and cached, together with a snapshot of its enabled levels, so a disabled level is rejected without a logger
+ * repository lookup. The snapshots are taken again after {@link #refreshLevels()}, which must be called whenever log levels are changed at
+ * runtime.
  */
 public class FsLoggingBridge implements Logger {
 
+    private static final AtomicInteger LEVEL_GENERATION = new AtomicInteger();
+    private static final ClassValue<CachedLogger> LOGGERS = new ClassValue<CachedLogger>() {
+        @Override
+        protected CachedLogger computeValue(final Class<?> type) {
+            return new CachedLogger(LoggerFactory.getLogger(type));
+        }
+    };
+
+    /**
+     * Discards the snapshots of the enabled levels, so changed log levels take effect.
+     */
+    public static void refreshLevels() {
+        LEVEL_GENERATION.incrementAndGet();
+    }
+
     @Override
     public boolean isTraceEnabled(final Class<?> aClass) {
-        return LoggerFactory.getLogger(aClass).isTraceEnabled();
+        return LOGGERS.get(aClass).isEnabled(CachedLogger.TRACE);
     }
 
     @Override
     public void logTrace(final String s, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).trace(s);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.TRACE)) {
+            logger.logger.trace(s);
+        }
     }
 
     @Override
     public void logTrace(final String s, final Throwable throwable, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).trace(s, throwable);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.TRACE)) {
+            logger.logger.trace(s, throwable);
+        }
     }
 
     @Override
     public boolean isDebugEnabled(final Class<?> aClass) {
-        return LoggerFactory.getLogger(aClass).isDebugEnabled();
+        return LOGGERS.get(aClass).isEnabled(CachedLogger.DEBUG);
     }
 
     @Override
     public void logDebug(final String s, final Throwable throwable, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).debug(s, throwable);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.DEBUG)) {
+            logger.logger.debug(s, throwable);
+        }
     }
 
     @Override
     public void logDebug(final String s, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).debug(s);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.DEBUG)) {
+            logger.logger.debug(s);
+        }
     }
 
     @Override
     public boolean isInfoEnabled(final Class<?> aClass) {
-        return LoggerFactory.getLogger(aClass).isInfoEnabled();
+        return LOGGERS.get(aClass).isEnabled(CachedLogger.INFO);
     }
 
     @Override
     public void logInfo(final String s, final Throwable throwable, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).info(s, throwable);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.INFO)) {
+            logger.logger.info(s, throwable);
+        }
     }
 
     @Override
     public void logInfo(final String s, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).info(s);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.INFO)) {
+            logger.logger.info(s);
+        }
     }
 
     @Override
     public boolean isWarnEnabled(final Class<?> aClass) {
-        return LoggerFactory.getLogger(aClass).isWarnEnabled();
+        return LOGGERS.get(aClass).isEnabled(CachedLogger.WARN);
     }
 
     @Override
     public void logWarning(final String s, final Throwable throwable, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).warn(s, throwable);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.WARN)) {
+            logger.logger.warn(s, throwable);
+        }
     }
 
     @Override
     public void logWarning(final String s, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).warn(s);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.WARN)) {
+            logger.logger.warn(s);
+        }
     }
 
     @Override
     public void logError(final String s, final Throwable throwable, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).error(s, throwable);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.ERROR)) {
+            logger.logger.error(s, throwable);
+        }
     }
 
     @Override
     public void logError(final String s, final Class<?> aClass) {
-        LoggerFactory.getLogger(aClass).error(s);
+        final CachedLogger logger = LOGGERS.get(aClass);
+        if (logger.isEnabled(CachedLogger.ERROR)) {
+            logger.logger.error(s);
+        }
     }
 
     @Override
@@ -111,4 +163,55 @@ public class FsLoggingBridge implements Logger {
     public void logFatal(final String s, final Throwable throwable, final Class<?> aClass) {
         logError(s, throwable, aClass);
     }
+
+    /**
+     * The SLF4J logger of a class and the levels that were enabled for it when the snapshot was taken.
+     */
+    private static final class CachedLogger {
+
+        private static final int TRACE = 1;
+        private static final int DEBUG = 1 << 1;
+        private static final int INFO = 1 << 2;
+        private static final int WARN = 1 << 3;
+        private static final int ERROR = 1 << 4;
+        private static final long NO_SNAPSHOT = -1L;
+
+        private final org.slf4j.Logger logger;
+        // level generation in the upper and enabled levels in the lower half, so both are read and written at once
+        private volatile long snapshot = NO_SNAPSHOT;
+
+        private CachedLogger(final org.slf4j.Logger logger) {
+            this.logger = logger;
+        }
+
+        private boolean isEnabled(final int level) {
+            final int generation = LEVEL_GENERATION.get();
+            long current = snapshot;
+            if (current == NO_SNAPSHOT || (int) (current >>> 32) != generation) {
+                current = ((long) generation << 32) | enabledLevels();
+                snapshot = current;
+            }
+            return (current & level) != 0;
+        }
+
+        private int enabledLevels() {
+            int levels = 0;
+            if (logger.isTraceEnabled()) {
+                levels |= TRACE;
+            }
+            if (logger.isDebugEnabled()) {
+                levels |= DEBUG;
+            }
+            if (logger.isInfoEnabled()) {
+                levels |= INFO;
+            }
+            if (logger.isWarnEnabled()) {
+                levels |= WARN;
+            }
+            if (logger.isErrorEnabled()) {
+                levels |= ERROR;
+            }
+            return levels;
+        }
+    }
 }
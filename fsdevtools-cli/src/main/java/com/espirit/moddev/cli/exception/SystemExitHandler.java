@@ -23,6 +23,7 @@
 package com.espirit.moddev.cli.exception;
 
 import com.espirit.moddev.cli.api.event.CliEventHandler;
+import com.espirit.moddev.cli.logging.AsyncLogAppender;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -37,6 +38,7 @@ public final class SystemExitHandler implements CliEventHandler {
     @SuppressWarnings("squid:S1147")
     public final void afterExceptionalTermination(Throwable e) {
         LOGGER.error("", e);
+        AsyncLogAppender.flushInstalled();
         System.exit(1);
     }
 
@@ -44,6 +46,7 @@ public final class SystemExitHandler implements CliEventHandler {
     @SuppressWarnings("squid:S1147")
     public final void afterTermination() {
         LOGGER.trace("Execution terminated without exception. Calling System.exit(0).");
+        AsyncLogAppender.flushInstalled();
         System.exit(0);
     }
 
@@ -0,0 +1,276 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.logging;
+
+import com.espirit.moddev.cli.exception.SystemExitHandler;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.WriterAppender;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes the writing of log events off the logging threads. Events are put into a bounded queue and written by a background thread to the
+ * appenders that were attached to the root logger before, so a command that logs a large result does not wait for the console. The writer takes
+ * all queued events at once and lets writer based appenders flush only after the last event of such a batch instead of after every line. A full
+ * queue blocks the logging thread until the writer caught up.
+ * <p>
+ * The location of the log call is not preserved, so the layouts of the appenders should not use it. {@link SystemExitHandler} flushes the
+ * installed appender before the jvm exits, and a shutdown hook flushes it on every other way out of the jvm, so no line gets lost. Code that writes
+ * to the standard output itself, like the help or ndjson records, calls {@link #flushInstalled()} first, so its output does not interleave with
+ * log lines that are still queued.
+ *
+ * @author e-Spirit AG
+ */
+public final class AsyncLogAppender extends AppenderSkeleton {
+
+    static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long FLUSH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static AsyncLogAppender installed;
+    private static boolean shutdownHookAdded;
+
+    private final List<Appender> appenders;
+    private final List<WriterAppender> flushingAppenders = new ArrayList<>();
+    private final BlockingQueue<LoggingEvent> queue;
+    private final Thread writer;
+    private final Object progressLock = new Object();
+    private long enqueuedCount;
+    private long writtenCount;
+    private volatile boolean stopped;
+
+    AsyncLogAppender(final List<Appender> appenders, final int capacity) {
+        this.appenders = Collections.unmodifiableList(new ArrayList<>(appenders));
+        for (final Appender appender : appenders) {
+            if (appender instanceof WriterAppender && ((WriterAppender) appender).getImmediateFlush()) {
+                flushingAppenders.add((WriterAppender) appender);
+            }
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        setName("fs-cli-async");
+        writer = new Thread(this::writeEvents, "fs-cli-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Moves the appenders of the root logger behind an asynchronous appender. Does nothing if it is installed already or the root logger has no
+     * appenders.
+     */
+    public static synchronized void install() {
+        if (installed != null) {
+            return;
+        }
+        final Logger rootLogger = Logger.getRootLogger();
+        final List<Appender> rootAppenders = new ArrayList<>();
+        for (final Object appender : Collections.list(rootLogger.getAllAppenders())) {
+            rootAppenders.add((Appender) appender);
+        }
+        if (rootAppenders.isEmpty()) {
+            return;
+        }
+        installed = new AsyncLogAppender(rootAppenders, DEFAULT_CAPACITY);
+        // removeAllAppenders() would close them
+        for (final Appender appender : rootAppenders) {
+            rootLogger.removeAppender(appender);
+        }
+        rootLogger.addAppender(installed);
+        if (!shutdownHookAdded) {
+            // the writer is a daemon thread, it would lose the queued lines if the jvm exits without the SystemExitHandler
+            Runtime.getRuntime().addShutdownHook(new Thread(AsyncLogAppender::flushInstalled, "fs-cli-log-flush"));
+            shutdownHookAdded = true;
+        }
+    }
+
+    /**
+     * Writes the queued events and attaches the original appenders to the root logger again. Does nothing if no asynchronous appender is
+     * installed.
+     */
+    public static synchronized void uninstall() {
+        if (installed == null) {
+            return;
+        }
+        final Logger rootLogger = Logger.getRootLogger();
+        rootLogger.removeAppender(installed);
+        installed.close();
+        for (final Appender appender : installed.appenders) {
+            rootLogger.addAppender(appender);
+        }
+        installed = null;
+    }
+
+    /**
+     * Get the appenders the events are written to.
+     *
+     * @return the appenders that were attached to the root logger before
+     */
+    public List<Appender> getAppenders() {
+        return appenders;
+    }
+
+    /**
+     * Waits until the events that were logged before have been written, if an asynchronous appender is installed.
+     */
+    public static void flushInstalled() {
+        final AsyncLogAppender appender;
+        synchronized (AsyncLogAppender.class) {
+            appender = installed;
+        }
+        if (appender != null) {
+            appender.flush();
+        }
+    }
+
+    @Override
+    protected void append(final LoggingEvent event) {
+        // take everything the writer needs from the logging thread
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        if (!writer.isAlive()) {
+            dispatch(event);
+            return;
+        }
+        synchronized (progressLock) {
+            enqueuedCount++;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markWritten(1);
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Waits until the events that were logged before have been written, but at most ten seconds.
+     */
+    void flush() {
+        final long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        synchronized (progressLock) {
+            final long target = enqueuedCount;
+            long remaining = FLUSH_TIMEOUT_MILLIS;
+            while (writtenCount < target && remaining > 0 && writer.isAlive()) {
+                try {
+                    progressLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void writeEvents() {
+        final List<LoggingEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!stopped || !queue.isEmpty()) {
+            try {
+                final LoggingEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // stopped, write what is left
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            writeBatch(batch);
+            markWritten(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(final List<LoggingEvent> batch) {
+        final int last = batch.size() - 1;
+        setImmediateFlush(false);
+        for (int index = 0; index < last; index++) {
+            dispatch(batch.get(index));
+        }
+        // flushes the lines of the whole batch
+        setImmediateFlush(true);
+        dispatch(batch.get(last));
+    }
+
+    private void setImmediateFlush(final boolean immediateFlush) {
+        for (final WriterAppender appender : flushingAppenders) {
+            appender.setImmediateFlush(immediateFlush);
+        }
+    }
+
+    private void dispatch(final LoggingEvent event) {
+        for (final Appender appender : appenders) {
+            try {
+                appender.doAppend(event);
+            } catch (RuntimeException e) {
+                LogLog.error("Appender " + appender.getName() + " failed", e);
+            }
+        }
+    }
+
+    private void markWritten(final int count) {
+        synchronized (progressLock) {
+            writtenCount += count;
+            progressLock.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the queued events and stops the writer. Events logged afterwards are written by the logging thread. The original appenders are not
+     * closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        stopped = true;
+        writer.interrupt();
+        try {
+            writer.join(FLUSH_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+}
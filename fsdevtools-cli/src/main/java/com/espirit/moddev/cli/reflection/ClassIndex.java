@@ -0,0 +1,147 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.reflection;
+
+import com.espirit.moddev.cli.api.index.CommandIndexProcessor;
+
+import com.google.common.collect.Multimap;
+
+import org.apache.log4j.Logger;
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the class index written by {@link CommandIndexProcessor} at build time. Classpath roots that contain the requested package, but were built
+ * without an index, are scanned with {@link Reflections} instead, so only those roots pay for a classpath scan.
+ *
+ * @author e-Spirit AG
+ */
+final class ClassIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ClassIndex.class);
+
+    private ClassIndex() {
+        // Not used
+    }
+
+    /**
+     * Retrieves all classes of the given package (including sub packages) that are either listed in the given index resource or are located in a
+     * classpath root without such an index. The result has to be filtered by the caller, since unindexed roots contribute all of their classes.
+     *
+     * @param indexResource the index resource to read, see {@link CommandIndexProcessor#COMMAND_INDEX_RESOURCE}
+     * @param packageName   the package the classes should be located in
+     * @return the set of candidate classes
+     * @throws IOException if the classpath resources can not be read
+     */
+    static Set<Class<?>> findCandidateClasses(final String indexResource, final String packageName) throws IOException {
+        final ClassLoader classLoader = ClassIndex.class.getClassLoader();
+        final String packagePrefix = packageName + ".";
+        final Set<Class<?>> candidates = new LinkedHashSet<>();
+        final Set<String> indexedRoots = new HashSet<>();
+
+        final Enumeration<URL> indexUrls = classLoader.getResources(indexResource);
+        while (indexUrls.hasMoreElements()) {
+            final URL indexUrl = indexUrls.nextElement();
+            indexedRoots.add(getRoot(indexUrl, indexResource));
+            for (final String className : readClassNames(indexUrl)) {
+                if (className.startsWith(packagePrefix)) {
+                    loadClass(classLoader, className, candidates);
+                }
+            }
+        }
+
+        final List<URL> unindexedRoots = findUnindexedRoots(classLoader, packageName, indexedRoots);
+        if (!unindexedRoots.isEmpty()) {
+            LOGGER.debug("No class index found for " + unindexedRoots + ", scanning for classes in package " + packageName);
+            final Reflections reflections = new Reflections(new ConfigurationBuilder()
+                                                                .setUrls(unindexedRoots)
+                                                                .filterInputsBy(new FilterBuilder().includePackage(packageName))
+                                                                .setScanners(new SubTypesScanner(false)));
+            // every scanned class is recorded as a sub type of its direct super type, so the values contain all classes of the package
+            final Multimap<String, String> subTypes = reflections.getStore().getOrCreate(SubTypesScanner.class.getSimpleName());
+            for (final String className : new HashSet<>(subTypes.values())) {
+                loadClass(classLoader, className, candidates);
+            }
+        }
+        return candidates;
+    }
+
+    private static List<URL> findUnindexedRoots(final ClassLoader classLoader, final String packageName, final Set<String> indexedRoots)
+        throws IOException {
+        final String packagePath = packageName.replace('.', '/');
+        final List<URL> unindexedRoots = new ArrayList<>();
+        final Enumeration<URL> packageUrls = classLoader.getResources(packagePath);
+        while (packageUrls.hasMoreElements()) {
+            final String root = getRoot(packageUrls.nextElement(), packagePath);
+            if (!indexedRoots.contains(root)) {
+                unindexedRoots.add(new URL(root));
+            }
+        }
+        return unindexedRoots;
+    }
+
+    private static String getRoot(final URL url, final String resource) {
+        String externalForm = url.toExternalForm();
+        if (externalForm.endsWith("/")) {
+            externalForm = externalForm.substring(0, externalForm.length() - 1);
+        }
+        return externalForm.endsWith(resource) ? externalForm.substring(0, externalForm.length() - resource.length()) : externalForm;
+    }
+
+    private static List<String> readClassNames(final URL indexUrl) throws IOException {
+        final List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexUrl.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String className = line.trim();
+                if (!className.isEmpty() && !className.startsWith(CommandIndexProcessor.COMMENT_PREFIX)) {
+                    classNames.add(className);
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static void loadClass(final ClassLoader classLoader, final String className, final Set<Class<?>> candidates) {
+        try {
+            candidates.add(Class.forName(className, false, classLoader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            // a stale index entry or a broken class must not break the cli
+            LOGGER.debug("Class " + className + " can not be loaded", e);
+        }
+    }
+}
@@ -23,10 +23,12 @@
 package com.espirit.moddev.cli.reflection;
 
 import com.espirit.moddev.cli.api.command.Command;
+import com.espirit.moddev.cli.api.index.CommandIndexProcessor;
 
 import org.apache.log4j.Logger;
 import org.reflections.Reflections;
 
+import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -69,4 +71,31 @@ public final class CommandUtils {
 
         return commandClasses;
     }
+
+    /**
+     * Loads the classes that implement the {@link Command} interface in the given package from the command index generated by
+     * {@link CommandIndexProcessor} at build time. Only classpath roots without an index are scanned. Ignores abstract classes.
+     *
+     * @param packageName the package, whose commands should be loaded recursively
+     * @return a set of matching classes
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<Class<? extends Command>> loadCommandClasses(String packageName) {
+        final Set<Class<?>> candidates;
+        try {
+            candidates = ClassIndex.findCandidateClasses(CommandIndexProcessor.COMMAND_INDEX_RESOURCE, packageName);
+        } catch (IOException e) {
+            LOGGER.warn("Reading the command index failed, falling back to classpath scanning", e);
+            return scanForCommandClasses(packageName);
+        }
+        Set<Class<? extends Command>> commandClasses = candidates
+            .stream()
+            .filter(Command.class::isAssignableFrom)
+            .filter(commandClass -> !commandClass.isInterface() && !Modifier.isAbstract(commandClass.getModifiers()))
+            .map(commandClass -> (Class<? extends Command>) commandClass)
+            .collect(Collectors.toSet());
+
+        LOGGER.debug("Loaded " + commandClasses.size() + " commands from index for package " + packageName);
+        return commandClasses;
+    }
 }
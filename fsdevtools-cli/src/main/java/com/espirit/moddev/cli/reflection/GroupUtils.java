@@ -22,11 +22,13 @@
 
 package com.espirit.moddev.cli.reflection;
 
+import com.espirit.moddev.cli.api.index.CommandIndexProcessor;
 import com.github.rvesse.airline.annotations.Group;
 
 import org.apache.log4j.Logger;
 import org.reflections.Reflections;
 
+import java.io.IOException;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -63,4 +65,27 @@ public final class GroupUtils {
         return groupClasses;
     }
 
+    /**
+     * Loads the classes that are annotated with airline's {@link Group} annotation in the given package from the group index generated by
+     * {@link CommandIndexProcessor} at build time. Only classpath roots without an index are scanned.
+     *
+     * @param packageName the package, whose groups should be loaded recursively
+     * @return a set of matching classes
+     */
+    public static Set<Class<?>> loadGroupClasses(String packageName) {
+        final Set<Class<?>> candidates;
+        try {
+            candidates = ClassIndex.findCandidateClasses(CommandIndexProcessor.GROUP_INDEX_RESOURCE, packageName);
+        } catch (IOException e) {
+            LOGGER.warn("Reading the group index failed, falling back to classpath scanning", e);
+            return scanForGroupClasses(packageName);
+        }
+        Set<Class<?>> groupClasses = candidates.stream()
+            .filter(groupClass -> groupClass.isAnnotationPresent(Group.class))
+            .collect(Collectors.toSet());
+
+        LOGGER.debug("Loaded " + groupClasses.size() + " groups from index for package " + packageName);
+        return groupClasses;
+    }
+
 }
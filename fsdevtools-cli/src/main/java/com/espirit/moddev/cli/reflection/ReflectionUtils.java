@@ -26,10 +26,6 @@ import com.espirit.moddev.cli.api.annotations.Description;
 import com.espirit.moddev.cli.api.command.Command;
 
 import org.apache.log4j.Logger;
-import org.reflections.Reflections;
-import org.reflections.scanners.MethodAnnotationsScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -37,8 +33,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for various reflection-based techniques.
@@ -49,6 +44,11 @@ public final class ReflectionUtils {
 
     private static final Logger LOGGER = Logger.getLogger(ReflectionUtils.class);
 
+    /**
+     * Descriptions that have already been resolved, so every class is only inspected once per jvm.
+     */
+    private static final Map<Class<?>, String> DESCRIPTIONS = new ConcurrentHashMap<>();
+
     private ReflectionUtils() {
         // Not used
     }
@@ -95,13 +95,18 @@ public final class ReflectionUtils {
     /**
      * A helper method that tries to retrieve potentially dynamic description information for {@code commandClass}. The description is not retrieved
      * from the airline annotation's description attribute, but instead from methods annotated with {@link Description}, or static methods that follow
-     * the naming convention "getDescription()" and return a String value.
+     * the naming convention "getDescription()" and return a String value. The description is resolved once per class and cached afterwards.
      *
      * @param commandClass the class the description should be retrieved for
      * @return the description if it is retrievable somehow, or an empty String, if no description can be found via a {@link Description} or a
      * getDescription method - both with a String return value.
      */
     public static String getDescriptionFromClass(Class commandClass) {
+        return DESCRIPTIONS.computeIfAbsent(commandClass, ReflectionUtils::resolveDescription);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String resolveDescription(Class commandClass) {
         String description = "";
         try {
             Method staticDescriptionMethod;
@@ -144,19 +149,17 @@ public final class ReflectionUtils {
      * @return the description method, or null if none is found
      */
     static Method getStaticDescriptionMethod(Class<? extends Command> commandClass) {
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                                                      .setUrls(ClasspathHelper.forClass(commandClass))
-                                                      .setScanners(new MethodAnnotationsScanner())
-        );
-
-        Set<Method> methodsWithDescriptionAnnotation = reflections.getMethodsAnnotatedWith(Description.class).stream()
-            .filter(x -> x.getDeclaringClass().getCanonicalName().equals(commandClass.getCanonicalName()))
-            .collect(Collectors.toSet());
-
+        // the annotation is retained at runtime, so the declared methods can be inspected directly instead of scanning the class' classpath root
         Method staticDescriptionMethod = null;
-        if (!methodsWithDescriptionAnnotation.isEmpty()) {
+        for (Method method : commandClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Description.class)) {
+                staticDescriptionMethod = method;
+                break;
+            }
+        }
+
+        if (staticDescriptionMethod != null) {
             LOGGER.debug("Found annotated method for description for " + commandClass);
-            staticDescriptionMethod = methodsWithDescriptionAnnotation.iterator().next();
         } else {
             try {
                 staticDescriptionMethod = commandClass.getMethod("getDescription");
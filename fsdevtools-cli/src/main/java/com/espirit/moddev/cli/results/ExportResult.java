@@ -23,10 +23,13 @@
 package com.espirit.moddev.cli.results;
 
 import com.espirit.moddev.cli.results.logging.AdvancedLogger;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
 import de.espirit.firstspirit.common.TsFeatures;
 import de.espirit.firstspirit.io.FileHandle;
 import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Set;
 
 /**
@@ -36,6 +39,9 @@ import java.util.Set;
  */
 public class ExportResult extends SimpleResult<ExportOperation.Result> {
 
+    private final ResultFormat _resultFormat;
+    private final String _resultFile;
+
     /**
      * Creates a new instance using the given command result.
      *
@@ -43,7 +49,20 @@ public class ExportResult extends SimpleResult<ExportOperation.Result> {
      * @see com.espirit.moddev.cli.results.SimpleResult#SimpleResult(Object)
      */
     public ExportResult(ExportOperation.Result result) {
+        this(result, ResultFormat.LOG, null);
+    }
+
+    /**
+     * Creates a new instance using the given command result, which is reported in the given format.
+     *
+     * @param result       Result produced by the command
+     * @param resultFormat the format the result is reported in
+     * @param resultFile   the file {@link ResultFormat#NDJSON} records are written to, null for the standard output
+     */
+    public ExportResult(final ExportOperation.Result result, final ResultFormat resultFormat, final String resultFile) {
         super(result);
+        _resultFormat = resultFormat;
+        _resultFile = resultFile;
     }
 
     /**
@@ -54,6 +73,8 @@ public class ExportResult extends SimpleResult<ExportOperation.Result> {
      */
     public ExportResult(Exception exception) {
         super(exception);
+        _resultFormat = ResultFormat.LOG;
+        _resultFile = null;
     }
 
     @Override
@@ -62,7 +83,9 @@ public class ExportResult extends SimpleResult<ExportOperation.Result> {
             LOGGER.error("Export operation not successful", exception);
         } else {
             LOGGER.info("Export operation successful");
-            if (TsFeatures.TS_194654.isEnabled()) {
+            if (_resultFormat == ResultFormat.NDJSON) {
+                writeNdjsonResult(get());
+            } else if (TsFeatures.TS_194654.isEnabled()) {
                 // new logging, based on elements
                 logElementBasedResult(get());
             } else {
@@ -72,6 +95,21 @@ public class ExportResult extends SimpleResult<ExportOperation.Result> {
         }
     }
 
+    /**
+     * Streams the result as json records instead of logging it.
+     *
+     * @throws UncheckedIOException if the records can not be written, which fails the command
+     * @see NdjsonResultWriter
+     */
+    private void writeNdjsonResult(final ExportOperation.Result exportResult) {
+        try (NdjsonResultWriter writer = NdjsonResultWriter.open(_resultFile)) {
+            writer.writeExportResult(exportResult);
+        } catch (IOException e) {
+            // the records are the result of the command, without them it failed
+            throw new UncheckedIOException("Writing the export result failed", e);
+        }
+    }
+
     /**
      * Logs a result based on the element based export operation api result.
      *
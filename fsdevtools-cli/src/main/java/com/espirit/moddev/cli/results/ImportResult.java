@@ -23,12 +23,17 @@
 package com.espirit.moddev.cli.results;
 
 import com.espirit.moddev.cli.results.logging.AdvancedLogger;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
 import de.espirit.firstspirit.access.database.BasicEntityInfo;
 import de.espirit.firstspirit.access.store.BasicElementInfo;
 import de.espirit.firstspirit.agency.StoreAgent;
 import de.espirit.firstspirit.common.TsFeatures;
 import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Set;
 
@@ -39,6 +44,10 @@ import java.util.Set;
 public class ImportResult extends SimpleResult<ImportOperation.Result> {
 
     private final StoreAgent _storeAgent;
+    private final boolean _skipped;
+    private final ResultFormat _resultFormat;
+    private final String _resultFile;
+    private final String _problemsFile;
 
     /**
      * Creates a new instance using the given command result.
@@ -47,8 +56,55 @@ public class ImportResult extends SimpleResult<ImportOperation.Result> {
      * @param result Result produced by the command
      */
     public ImportResult(final StoreAgent storeAgent, ImportOperation.Result result) {
+        this(storeAgent, result, ResultFormat.LOG, null);
+    }
+
+    /**
+     * Creates a new instance using the given command result, which is reported in the given format.
+     *
+     * @param storeAgent   a store agent
+     * @param result       Result produced by the command
+     * @param resultFormat the format the result is reported in
+     * @param resultFile   the file {@link ResultFormat#NDJSON} records are written to, null for the standard output
+     */
+    public ImportResult(final StoreAgent storeAgent, final ImportOperation.Result result, final ResultFormat resultFormat, final String resultFile) {
+        this(storeAgent, result, resultFormat, resultFile, null);
+    }
+
+    /**
+     * Creates a new instance using the given command result, which is reported in the given format.
+     *
+     * @param storeAgent   a store agent
+     * @param result       Result produced by the command
+     * @param resultFormat the format the result is reported in
+     * @param resultFile   the file {@link ResultFormat#NDJSON} records are written to, null for the standard output
+     * @param problemsFile the file the problems are written to, whatever the result format and log level; null to log them
+     */
+    public ImportResult(final StoreAgent storeAgent, final ImportOperation.Result result, final ResultFormat resultFormat, final String resultFile,
+                        final String problemsFile) {
         super(result);
         _storeAgent = storeAgent;
+        _skipped = false;
+        _resultFormat = resultFormat;
+        _resultFile = resultFile;
+        _problemsFile = problemsFile;
+    }
+
+    /**
+     * Creates a result for an import that was skipped, because the synchronization directory did not change since the last import.
+     * It is reported in the given format like the result of an import without changes.
+     *
+     * @param resultFormat the format the result is reported in
+     * @param resultFile   the file {@link ResultFormat#NDJSON} records are written to, null for the standard output
+     * @param problemsFile the file the problems are written to, it is emptied; null if problems are logged
+     */
+    public ImportResult(final ResultFormat resultFormat, final String resultFile, final String problemsFile) {
+        super((ImportOperation.Result) null);
+        _storeAgent = null;
+        _skipped = true;
+        _resultFormat = resultFormat;
+        _resultFile = resultFile;
+        _problemsFile = problemsFile;
     }
 
     /**
@@ -59,17 +115,44 @@ public class ImportResult extends SimpleResult<ImportOperation.Result> {
     public ImportResult(Exception exception) {
         super(exception);
         _storeAgent = null;
+        _skipped = false;
+        _resultFormat = ResultFormat.LOG;
+        _resultFile = null;
+        _problemsFile = null;
+    }
+
+    /**
+     * Indicates whether the import was skipped, because the synchronization directory did not change.
+     *
+     * @return true if nothing was imported
+     */
+    public boolean isSkipped() {
+        return _skipped;
     }
 
     @Override
     public void log() {
         if (isError()) {
             LOGGER.error("Import operation not successful", exception);
+        } else if (_skipped) {
+            LOGGER.info("Import skipped, the synchronization directory did not change since the last import");
+            if (_problemsFile != null) {
+                // problems of an earlier import do not belong to this one
+                truncateImportProblems();
+            }
+            if (_resultFormat == ResultFormat.NDJSON) {
+                writeNdjsonSkipped();
+            }
         } else {
             LOGGER.info("Import operation successful");
-            if (TsFeatures.TS_194654.isEnabled()) {
+            if (_problemsFile != null) {
+                writeImportProblems(get());
+            }
+            if (_resultFormat == ResultFormat.NDJSON) {
+                writeNdjsonResult(get());
+            } else if (TsFeatures.TS_194654.isEnabled()) {
                 // new logging
-                AdvancedLogger.logImportResult(LOGGER, get(), _storeAgent);
+                AdvancedLogger.logImportResult(LOGGER, get(), _storeAgent, _problemsFile);
             } else {
                 // old logging
                 logElementChanges(get().getUpdatedElements(), "updated elements");
@@ -92,6 +175,60 @@ public class ImportResult extends SimpleResult<ImportOperation.Result> {
         }
     }
 
+    /**
+     * Streams the result as json records instead of logging it.
+     *
+     * @throws UncheckedIOException if the records can not be written, which fails the command
+     * @see NdjsonResultWriter
+     */
+    private void writeNdjsonResult(final ImportOperation.Result importResult) {
+        try (NdjsonResultWriter writer = NdjsonResultWriter.open(_resultFile)) {
+            writer.writeImportResult(importResult);
+        } catch (IOException e) {
+            // the records are the result of the command, without them it failed
+            throw new UncheckedIOException("Writing the import result failed", e);
+        }
+    }
+
+    /**
+     * Writes the summary record of the skipped import.
+     *
+     * @throws UncheckedIOException if the record can not be written, which fails the command
+     */
+    private void writeNdjsonSkipped() {
+        try (NdjsonResultWriter writer = NdjsonResultWriter.open(_resultFile)) {
+            writer.writeSkippedImport();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the import result failed", e);
+        }
+    }
+
+    /**
+     * Empties the problems file, the skipped import has no problems.
+     *
+     * @throws UncheckedIOException if the file can not be written, which fails the command
+     */
+    private void truncateImportProblems() {
+        try {
+            Files.write(Paths.get(_problemsFile), new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Emptying the import problems file '" + _problemsFile + "' failed", e);
+        }
+    }
+
+    /**
+     * Writes the problems to the problems file, independent of the format of the result and of the log level.
+     *
+     * @throws UncheckedIOException if the problems can not be written, which fails the command
+     */
+    private void writeImportProblems(final ImportOperation.Result importResult) {
+        try {
+            AdvancedLogger.writeImportProblems(importResult, _problemsFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the import problems to '" + _problemsFile + "' failed", e);
+        }
+    }
+
     private void logProblems(List<ImportOperation.Problem> problems, String state) {
         LOGGER.info("{}: {}", state, problems.size());
         if (LOGGER.isDebugEnabled()) {
@@ -0,0 +1,68 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.results;
+
+import java.util.Locale;
+
+/**
+ * Formats in which export and import commands report their results.
+ *
+ * @author e-Spirit AG
+ */
+public enum ResultFormat {
+
+    /**
+     * Human readable details and summary, logged after the result has been grouped and sorted.
+     */
+    LOG,
+
+    /**
+     * One json record per line for every element, file and problem, written while the result is iterated.
+     *
+     * @see com.espirit.moddev.cli.results.logging.NdjsonResultWriter
+     */
+    NDJSON;
+
+    /**
+     * Get the format with the given name, ignoring case.
+     *
+     * @param name the name of the format, e.g. 'ndjson'
+     * @return the format
+     * @throws IllegalArgumentException if there is no format with the given name
+     */
+    public static ResultFormat fromString(final String name) {
+        if (name != null) {
+            for (final ResultFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name.trim())) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown result format '" + name + "', use 'log' or 'ndjson'");
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.UK);
+    }
+}
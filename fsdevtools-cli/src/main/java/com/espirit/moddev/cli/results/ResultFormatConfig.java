@@ -0,0 +1,63 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.results;
+
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+
+/**
+ * Configuration of commands that report their result in a {@link ResultFormat}.
+ *
+ * @author e-Spirit AG
+ */
+public interface ResultFormatConfig {
+
+    /**
+     * Get the format the result is reported in.
+     *
+     * @return the result format
+     * @throws IllegalArgumentException if the configured format is unknown
+     */
+    ResultFormat getResultFormat();
+
+    /**
+     * Get the file {@link ResultFormat#NDJSON} records are written to.
+     *
+     * @return the file, null or {@link NdjsonResultWriter#STDOUT} for the standard output
+     */
+    String getResultFile();
+
+    /**
+     * Indicates whether the result is written as records to the standard output. Console logging has to move to the standard error then, so
+     * the standard output only contains records.
+     *
+     * @return true if {@link ResultFormat#NDJSON} records are written to the standard output
+     */
+    default boolean isResultWrittenToStdout() {
+        try {
+            return getResultFormat() == ResultFormat.NDJSON && NdjsonResultWriter.isStdout(getResultFile());
+        } catch (IllegalArgumentException e) {
+            // the command reports the unknown format itself
+            return false;
+        }
+    }
+}
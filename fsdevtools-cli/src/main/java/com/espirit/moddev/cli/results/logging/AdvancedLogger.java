@@ -3,10 +3,10 @@ package com.espirit.moddev.cli.results.logging;
 import com.espirit.moddev.cli.results.imports.ElementImportInfoImpl;
 import com.espirit.moddev.cli.results.imports.EntityTypeImportInfoImpl;
 import com.espirit.moddev.cli.results.imports.PropertyTypeImportInfoImpl;
+import com.espirit.moddev.cli.timing.Timings;
 import de.espirit.common.util.Pair;
 import de.espirit.firstspirit.access.database.BasicEntityInfo;
 import de.espirit.firstspirit.access.store.BasicElementInfo;
-import de.espirit.firstspirit.access.store.IDProvider;
 import de.espirit.firstspirit.access.store.Store;
 import de.espirit.firstspirit.access.store.templatestore.Schema;
 import de.espirit.firstspirit.access.store.templatestore.TemplateStoreRoot;
@@ -22,7 +22,12 @@ import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
 import de.espirit.firstspirit.transport.PropertiesTransportOptions;
 import org.slf4j.Logger;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -48,21 +53,25 @@ public enum AdvancedLogger {
             // nothing to do if loglevel is not at least info
             return;
         }
-        logger.info("Export done.");
-
-        // log details and fetch summary
-        logger.info("== DETAILS ==");
-        final String created = logElements(logger, exportResult.getCreatedElements(), "Created elements");
-        final String updated = logElements(logger, exportResult.getUpdatedElements(), "Updated elements");
-        final String deleted = logElements(logger, exportResult.getDeletedElements(), "Deleted elements");
-        final String moved = logElements(logger, exportResult.getMovedElements(), "  Moved elements");
-
-        // log summary
-        logger.info("== SUMMARY ==");
-        logger.info(created);
-        logger.info(updated);
-        logger.info(deleted);
-        logger.info(moved);
+        try (Timings.Span span = Timings.start("render-export-result")) {
+            logger.info("Export done.");
+
+            // log details and fetch summary
+            logger.info("== DETAILS ==");
+            final String created = logElements(logger, exportResult.getCreatedElements(), "Created elements");
+            final String updated = logElements(logger, exportResult.getUpdatedElements(), "Updated elements");
+            final String deleted = logElements(logger, exportResult.getDeletedElements(), "Deleted elements");
+            final String moved = logElements(logger, exportResult.getMovedElements(), "  Moved elements");
+
+            // log summary
+            logger.info("== SUMMARY ==");
+            logger.info(created);
+            logger.info(updated);
+            logger.info(deleted);
+            logger.info(moved);
+            span.setCount(exportResult.getCreatedElements().size() + exportResult.getUpdatedElements().size()
+                          + exportResult.getDeletedElements().size() + exportResult.getMovedElements().size());
+        }
     }
 
 
@@ -75,29 +84,46 @@ public enum AdvancedLogger {
      * @param storeAgent the store agent to use
      */
     public static void logImportResult(final Logger logger, final ImportOperation.Result importResult, final StoreAgent storeAgent) {
+        logImportResult(logger, importResult, storeAgent, null);
+    }
+
+    /**
+     * Logs the given {@code importResult} to the given logger like {@link #logImportResult(Logger, ImportOperation.Result, StoreAgent)}, but
+     * writes the problems to the given file. The elements of the problems are not resolved then, which saves a server request per problem.
+     * @param logger the logger the import result information will be logged to
+     * @param importResult the result to be logged
+     * @param storeAgent the store agent to use
+     * @param problemsFile the file the problems have been written to with {@link #writeImportProblems(ImportOperation.Result, String)}, null to
+     *                     log them
+     */
+    public static void logImportResult(final Logger logger, final ImportOperation.Result importResult, final StoreAgent storeAgent, final String problemsFile) {
         if (!logger.isInfoEnabled()) {
             // nothing to do if loglevel is not at least info
             return;
         }
-        logger.info("Import done.");
-
-        // log details and fetch summary
-        logger.info("== DETAILS ==");
-        final String created = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getCreatedElements(), ExportStatus.CREATED, null),                              "Created elements");
-        final String updated = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getUpdatedElements(), ExportStatus.UPDATED, importResult.getModifiedProjectProperties()),      "Updated elements");
-        final String deleted = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getDeletedElements(), ExportStatus.DELETED, null),                              "Deleted elements");
-        final String moved = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getMovedElements(), ExportStatus.MOVED, null),                                    "  Moved elements");
-        final String lostAndFound = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getLostAndFoundElements(), ExportStatus.MOVED, null),                      "L&Found elements");
-        final String importProblems = logImportProblems(logger, storeAgent, importResult);
-
-        // log summary
-        logger.info("== SUMMARY ==");
-        logger.info(created);
-        logger.info(updated);
-        logger.info(deleted);
-        logger.info(moved);
-        logger.info(lostAndFound);
-        logger.info(importProblems);
+        try (Timings.Span span = Timings.start("render-import-result")) {
+            logger.info("Import done.");
+
+            // log details and fetch summary
+            logger.info("== DETAILS ==");
+            final String created = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getCreatedElements(), ExportStatus.CREATED, null),                              "Created elements");
+            final String updated = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getUpdatedElements(), ExportStatus.UPDATED, importResult.getModifiedProjectProperties()),      "Updated elements");
+            final String deleted = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getDeletedElements(), ExportStatus.DELETED, null),                              "Deleted elements");
+            final String moved = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getMovedElements(), ExportStatus.MOVED, null),                                    "  Moved elements");
+            final String lostAndFound = logElements(logger, createElementExportInfo(storeAgent, importResult, importResult.getLostAndFoundElements(), ExportStatus.MOVED, null),                      "L&Found elements");
+            final String importProblems = logImportProblems(logger, storeAgent, importResult, problemsFile);
+
+            // log summary
+            logger.info("== SUMMARY ==");
+            logger.info(created);
+            logger.info(updated);
+            logger.info(deleted);
+            logger.info(moved);
+            logger.info(lostAndFound);
+            logger.info(importProblems);
+            span.setCount(importResult.getCreatedElements().size() + importResult.getUpdatedElements().size()
+                          + importResult.getDeletedElements().size() + importResult.getMovedElements().size());
+        }
     }
 
     static String logElements(final Logger logger, final Collection<ExportInfo> elements, final String description) {
@@ -118,7 +144,8 @@ public enum AdvancedLogger {
 
             // log elements
             logProjectProperties(logger, reorganizedResult.getProjectProperties());
-            logStoreElements(logger, reorganizedResult.getStoreElements());
+            reorganizedResult.sortStoreElements();
+            logStoreElements(logger, reorganizedResult.getStoreElements(), true);
             logEntityTypes(logger, reorganizedResult.getEntityTypes());
             return buildSummary(elements, description, reorganizedResult);
         }
@@ -126,15 +153,32 @@ public enum AdvancedLogger {
     }
 
     static String logImportProblems(final Logger logger, final StoreAgent storeAgent, final ImportOperation.Result importResult) {
+        return logImportProblems(logger, storeAgent, importResult, null);
+    }
+
+    /**
+     * Logs the problems of the given {@code importResult}, with the uid or name of the element of every problem. If a problems file is given,
+     * only the number of problems and the file are logged, without resolving the elements.
+     */
+    static String logImportProblems(final Logger logger, final StoreAgent storeAgent, final ImportOperation.Result importResult, final String problemsFile) {
         // sort problems and create text
         final List<ImportOperation.Problem> problems = getSortedProblems(importResult);
-        final StringBuilder builder = new StringBuilder();
         final String description = new StringBuilder("Problems: ").append(problems.size()).toString();
+        if (problemsFile != null) {
+            logger.info(description + " (written to '" + problemsFile + "')");
+            return getSpacedString(8) + "Problems: " + importResult.getProblems().size();
+        }
         logger.info(description);
+        final ImportProblemResolver resolver = new ImportProblemResolver(storeAgent);
+        try (Timings.Span span = Timings.start("resolve-problems")) {
+            resolver.resolve(problems);
+            span.setCount(problems.size());
+        }
+        final StringBuilder builder = new StringBuilder();
         for (final ImportOperation.Problem problem : problems) {
             builder.setLength(0);
             builder.append(" - store: ").append(problem.getStoreType());
-            problemAppendUidOrName(builder, storeAgent, problem);
+            builder.append(resolver.getLabel(problem));
             builder.append(" | reason: ").append(problem.getMessage());
             final String text = builder.toString();
             logger.info(text);
@@ -142,18 +186,25 @@ public enum AdvancedLogger {
         return getSpacedString(8) + "Problems: " + importResult.getProblems().size();
     }
 
-    private static void problemAppendUidOrName(final StringBuilder builder, final StoreAgent storeAgent, final ImportOperation.Problem problem) {
-        // we need a store agent
-        if (storeAgent != null) {
-            final Store store = storeAgent.getStore(problem.getStoreType());
-            final IDProvider storeElement = store.getStoreElement(problem.getNodeId());
-            // we need a store element
-            if (storeElement != null) {
-                if (storeElement.hasUid()) {
-                    builder.append(" | uid: ").append(storeElement.getUid());
-                } else {
-                    builder.append(" | name: ").append(storeElement.getName());
-                }
+    /**
+     * Writes the problems of the given {@code importResult} to a file, one line per problem with the node id of its element. The elements are not
+     * resolved, so this is fast for any number of problems.
+     *
+     * @param importResult the result to write the problems of
+     * @param problemsFile the file to write the problems to
+     * @throws IOException if the file can not be written
+     */
+    public static void writeImportProblems(final ImportOperation.Result importResult, final String problemsFile) throws IOException {
+        final List<ImportOperation.Problem> problems = getSortedProblems(importResult);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(problemsFile), StandardCharsets.UTF_8)) {
+            for (final ImportOperation.Problem problem : problems) {
+                writer.write("store: ");
+                writer.write(String.valueOf(problem.getStoreType()));
+                writer.write(" | id: ");
+                writer.write(Long.toString(problem.getNodeId()));
+                writer.write(" | reason: ");
+                writer.write(String.valueOf(problem.getMessage()));
+                writer.newLine();
             }
         }
     }
@@ -172,9 +223,10 @@ public enum AdvancedLogger {
         // append project properties
         appendProjectPropertySummary(summaryOutput, reorganizedResult.getProjectProperties());
         // append store elements
-        appendStoreElementSummary(summaryOutput, reorganizedResult.getStoreElements());
+        appendStoreElementSummary(summaryOutput, reorganizedResult.getStoreElements(), reorganizedResult.getStoreElementCount());
         // append entity types
-        appendEntityTypeSummary(summaryOutput, reorganizedResult.getEntityTypes());
+        appendEntityTypeSummary(summaryOutput, reorganizedResult.getEntityTypes().size(), reorganizedResult.getSchemaCount(),
+                                reorganizedResult.getEntityCount());
 
         // return result
         return summaryOutput.toString();
@@ -188,12 +240,17 @@ public enum AdvancedLogger {
     }
 
     static void appendStoreElementSummary(final StringBuilder stringBuilder, final Map<Store.Type, List<ElementExportInfo>> storeElements) {
+        // count total elements
+        int totalStoreElements = 0;
+        for (final List<ElementExportInfo> list : storeElements.values()) {
+            totalStoreElements += list.size();
+        }
+        appendStoreElementSummary(stringBuilder, storeElements, totalStoreElements);
+    }
+
+    private static void appendStoreElementSummary(final StringBuilder stringBuilder, final Map<Store.Type, List<ElementExportInfo>> storeElements,
+                                                  final int totalStoreElements) {
         if (!storeElements.isEmpty()) {
-            // count total elements
-            int totalStoreElements = 0;
-            for (final List<ElementExportInfo> list : storeElements.values()) {
-                totalStoreElements += list.size();
-            }
             stringBuilder.append(" | store elements: ");
             stringBuilder.append(totalStoreElements);
             stringBuilder.append(" ( ");
@@ -214,20 +271,24 @@ public enum AdvancedLogger {
     }
 
     static void appendEntityTypeSummary(final StringBuilder stringBuilder, final Collection<EntityTypeExportInfo> entityTypes) {
-        if (!entityTypes.isEmpty()) {
-            // count total entities
-            int totalEntityCount = 0;
-            final Set<String> usedSchemas = new HashSet<>();
-            for (final EntityTypeExportInfo exportInfo : entityTypes) {
-                totalEntityCount += exportInfo.getEntities().size();
-                usedSchemas.add(exportInfo.getSchema().getUid());
-            }
-            // put all schemas into a set
+        // count total entities
+        int totalEntityCount = 0;
+        final Set<String> usedSchemas = new HashSet<>();
+        for (final EntityTypeExportInfo exportInfo : entityTypes) {
+            totalEntityCount += exportInfo.getEntities().size();
+            usedSchemas.add(exportInfo.getSchema().getUid());
+        }
+        appendEntityTypeSummary(stringBuilder, entityTypes.size(), usedSchemas.size(), totalEntityCount);
+    }
+
+    private static void appendEntityTypeSummary(final StringBuilder stringBuilder, final int entityTypeCount, final int schemaCount,
+                                                final int totalEntityCount) {
+        if (entityTypeCount > 0) {
             stringBuilder.append(" | entity types: ");
-            stringBuilder.append(entityTypes.size());
+            stringBuilder.append(entityTypeCount);
             stringBuilder.append(" ( ");
             stringBuilder.append("schemas: ");
-            stringBuilder.append(usedSchemas.size());
+            stringBuilder.append(schemaCount);
             stringBuilder.append(", entities: ");
             stringBuilder.append(totalEntityCount);
             stringBuilder.append(" )");
@@ -252,17 +313,28 @@ public enum AdvancedLogger {
                 String secondName = second.getPropertyType() == null ? second.getName() : String.valueOf(second.getPropertyType().ordinal());
                 return firstName.compareTo(secondName);
             });
+            final boolean debugEnabled = logger.isDebugEnabled();
             for (final PropertyTypeExportInfo exportInfo : sortedProjectProperties) {
                 final String identifier = toCamelCase("_", exportInfo.getName());
                 final String spacedString = getSpacedString(SPACE_INDENT - identifier.length() + 1);
                 logger.info(" - " + identifier + spacedString + getFilesStringForElement(exportInfo));
-                logFileInfos(logger, exportInfo, "");
+                if (debugEnabled) {
+                    logFileInfos(logger, exportInfo, "");
+                }
             }
         }
     }
 
-    @SuppressWarnings("squid:S2629")
     static void logStoreElements(Logger logger, final Map<Store.Type, List<ElementExportInfo>> storeElements) {
+        logStoreElements(logger, storeElements, false);
+    }
+
+    /**
+     * @param sorted whether the elements of every store are sorted already, e.g. by {@link ReorganizedResult#sortStoreElements()}; otherwise a
+     *               sorted copy of every store is logged
+     */
+    @SuppressWarnings("squid:S2629")
+    static void logStoreElements(Logger logger, final Map<Store.Type, List<ElementExportInfo>> storeElements, final boolean sorted) {
         if (! logger.isInfoEnabled()) {
             // nothing to do if loglevel is not at least info
             return;
@@ -281,19 +353,28 @@ public enum AdvancedLogger {
         // append headline
         logger.info("- store elements: " + totalElements);
 
-        // append single elements
+        // append single elements, the file handles only in DEBUG
+        final boolean debugEnabled = logger.isDebugEnabled();
         final List<ElementExportInfo> sortedElements = new ArrayList<>();
         for (final Map.Entry<Store.Type, List<ElementExportInfo>> entry : storeElements.entrySet()) {
-            sortedElements.addAll(entry.getValue());
-            sortedElements.sort(new ElementExportInfoComparator());
-            logger.info(" - " + entry.getKey().getName() + ": " + sortedElements.size());
-            for (final ElementExportInfo element : sortedElements) {
+            final List<ElementExportInfo> elements;
+            if (sorted) {
+                elements = entry.getValue();
+            } else {
+                sortedElements.addAll(entry.getValue());
+                sortedElements.sort(new ElementExportInfoComparator());
+                elements = sortedElements;
+            }
+            logger.info(" - " + entry.getKey().getName() + ": " + elements.size());
+            for (final ElementExportInfo element : elements) {
                 String identifier = StoreElements.determineElementType(element.getElementInfo().getNodeTag());
                 identifier += ": '" + element.getName() + "'";
                 final String spacedString = getSpacedString(SPACE_INDENT - identifier.length());
                 final String files = getFilesStringForElement(element);
                 logger.info("  - " + identifier + spacedString + files);
-                logFileInfos(logger, element, " ");
+                if (debugEnabled) {
+                    logFileInfos(logger, element, " ");
+                }
             }
             sortedElements.clear();
         }
@@ -326,6 +407,7 @@ public enum AdvancedLogger {
         logger.info(headline);
 
         // log schemas & entity types
+        final boolean debugEnabled = logger.isDebugEnabled();
         for (final Map.Entry<String, List<EntityTypeExportInfo>> entry : schemaMap.entrySet()) {
             // count entities of schema
             int entityCount = 0;
@@ -340,7 +422,9 @@ public enum AdvancedLogger {
                 final String identifier = "EntityType: '" + entityType.getEntityType() + "'";
                 final String spacedString = getSpacedString(SPACE_INDENT - identifier.length());
                 logger.info("  - " + identifier + spacedString + " ( entities: " + entityType.getEntities().size() + " )");
-                logFileInfos(logger, entityType, "  ");
+                if (debugEnabled) {
+                    logFileInfos(logger, entityType, "  ");
+                }
             }
         }
     }
@@ -552,27 +636,30 @@ public enum AdvancedLogger {
         return problems;
     }
 
+    /**
+     * Get the path store elements are sorted by: the path of the first created, updated, deleted or moved file, or the name of the element.
+     */
+    static String getSortPath(final ElementExportInfo exportInfo) {
+        String path = null;
+        if (!exportInfo.getCreatedFileHandles().isEmpty()) {
+            path = exportInfo.getCreatedFileHandles().iterator().next().getPath();
+        } else if (!exportInfo.getUpdatedFileHandles().isEmpty()) {
+            path = exportInfo.getUpdatedFileHandles().iterator().next().getPath();
+        } else if (!exportInfo.getDeletedFileHandles().isEmpty()) {
+            path = exportInfo.getDeletedFileHandles().iterator().next().getPath();
+        } else if (!exportInfo.getMovedFileHandles().isEmpty()) {
+            path = exportInfo.getMovedFileHandles().iterator().next().getValue().getPath();
+        }
+        return path != null ? path : exportInfo.getName();
+    }
+
     private static class ElementExportInfoComparator implements Comparator<ElementExportInfo>, Serializable {
 
         private static final long serialVersionUID = -2121789213L;
 
         @Override
         public int compare(final ElementExportInfo first, final ElementExportInfo second) {
-            return getPath(first).compareTo(getPath(second));
-        }
-
-        private static String getPath(final ElementExportInfo exportInfo) {
-            String path = null;
-            if (!exportInfo.getCreatedFileHandles().isEmpty()) {
-                path = exportInfo.getCreatedFileHandles().iterator().next().getPath();
-            } else if (!exportInfo.getUpdatedFileHandles().isEmpty()) {
-                path = exportInfo.getUpdatedFileHandles().iterator().next().getPath();
-            } else if (!exportInfo.getDeletedFileHandles().isEmpty()) {
-                path = exportInfo.getDeletedFileHandles().iterator().next().getPath();
-            } else if (!exportInfo.getMovedFileHandles().isEmpty()) {
-                path = exportInfo.getMovedFileHandles().iterator().next().getValue().getPath();
-            }
-            return path != null ? path : exportInfo.getName();
+            return getSortPath(first).compareTo(getSortPath(second));
         }
 
     }
@@ -0,0 +1,94 @@
+package com.espirit.moddev.cli.results.logging;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+
+import java.util.*;
+
+/**
+ * Resolves the uids or names of the elements import problems refer to. The node ids of all problems are grouped by store and fetched with
+ * {@link Store#getElements(Collection)} in chunks, one chunk after another, so a large import does not occupy the common pool or open many
+ * requests at once. Stores and resolved labels are cached, so every store and every node id is requested once, no matter how many problems refer
+ * to it.
+ */
+class ImportProblemResolver {
+
+    /**
+     * The number of node ids fetched with one request.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    private final StoreAgent _storeAgent;
+    private final Map<Store.Type, Store> _stores = new EnumMap<>(Store.Type.class);
+    private final Map<Store.Type, Map<Long, String>> _labels = new EnumMap<>(Store.Type.class);
+
+    ImportProblemResolver(final StoreAgent storeAgent) {
+        _storeAgent = storeAgent;
+    }
+
+    /**
+     * Resolves the elements of the given problems that have not been resolved yet.
+     *
+     * @param problems the problems to resolve the elements of
+     */
+    void resolve(final Collection<ImportOperation.Problem> problems) {
+        if (_storeAgent == null) {
+            return;
+        }
+        final Map<Store.Type, Set<Long>> nodeIds = new EnumMap<>(Store.Type.class);
+        for (final ImportOperation.Problem problem : problems) {
+            final Map<Long, String> labels = _labels.get(problem.getStoreType());
+            if (labels == null || !labels.containsKey(problem.getNodeId())) {
+                nodeIds.computeIfAbsent(problem.getStoreType(), storeType -> new LinkedHashSet<>()).add(problem.getNodeId());
+            }
+        }
+        for (final Map.Entry<Store.Type, Set<Long>> entry : nodeIds.entrySet()) {
+            final Store store = _stores.computeIfAbsent(entry.getKey(), _storeAgent::getStore);
+            final Map<Long, String> labels = _labels.computeIfAbsent(entry.getKey(), storeType -> new HashMap<>());
+            resolve(store, new ArrayList<>(entry.getValue()), labels);
+        }
+    }
+
+    private static void resolve(final Store store, final List<Long> nodeIds, final Map<Long, String> labels) {
+        for (int start = 0; start < nodeIds.size(); start += CHUNK_SIZE) {
+            final List<Long> chunkIds = nodeIds.subList(start, Math.min(nodeIds.size(), start + CHUNK_SIZE));
+            for (final IDProvider element : store.getElements(chunkIds)) {
+                if (element != null) {
+                    labels.put(element.getId(), getLabel(element));
+                }
+            }
+            // remember missing elements, so they are not requested again
+            for (final Long nodeId : chunkIds) {
+                labels.putIfAbsent(nodeId, "");
+            }
+        }
+    }
+
+    private static String getLabel(final IDProvider storeElement) {
+        // we need a store element
+        if (storeElement == null) {
+            return "";
+        }
+        if (storeElement.hasUid()) {
+            return " | uid: " + storeElement.getUid();
+        }
+        return " | name: " + storeElement.getName();
+    }
+
+    /**
+     * Get the uid or name of the element of a problem, as it is appended to the problem in the log.
+     *
+     * @param problem a problem passed to {@link #resolve(Collection)} before
+     * @return " | uid: &lt;uid&gt;", " | name: &lt;name&gt;" or an empty string if the element could not be resolved
+     */
+    String getLabel(final ImportOperation.Problem problem) {
+        final Map<Long, String> labels = _labels.get(problem.getStoreType());
+        if (labels == null) {
+            return "";
+        }
+        final String label = labels.get(problem.getNodeId());
+        return label == null ? "" : label;
+    }
+}
@@ -0,0 +1,445 @@
+package com.espirit.moddev.cli.results.logging;
+
+import com.espirit.moddev.cli.logging.AsyncLogAppender;
+
+import de.espirit.common.util.Pair;
+import de.espirit.firstspirit.access.database.BasicEntityInfo;
+import de.espirit.firstspirit.access.store.BasicElementInfo;
+import de.espirit.firstspirit.store.access.nexport.ElementExportInfo;
+import de.espirit.firstspirit.store.access.nexport.EntityTypeExportInfo;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.PropertyTypeExportInfo;
+import de.espirit.firstspirit.store.access.nexport.io.ExportInfoFileHandle;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+import de.espirit.firstspirit.transport.PropertiesTransportOptions;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes the result of an export or import operation as newline delimited json. Every element, file handle and import problem becomes one record
+ * that is written while the result is iterated, without grouping or sorting the result first. A final summary record holds the counts.
+ * <p>
+ * Records look like:
+ * <pre>
+ * {"record":"element","status":"created","type":"element","name":"home","store":"PAGESTORE","tag":"PAGE","uid":"home","id":4711}
+ * {"record":"file","status":"created","path":"PageStore/home/Page.xml","element":"home"}
+ * {"record":"problem","store":"PAGESTORE","id":4711,"message":"..."}
+ * {"record":"summary","operation":"export","created":1,"updated":0,"deleted":0,"moved":0,...}
+ * {"record":"summary","operation":"import","skipped":true,"created":0,...}
+ * </pre>
+ * Records written to the standard output must not be mixed with log lines, see {@link #redirectConsoleLogging()}.
+ *
+ * @author e-Spirit AG
+ */
+public final class NdjsonResultWriter implements Closeable {
+
+    /**
+     * Result file name that denotes the standard output.
+     */
+    public static final String STDOUT = "-";
+
+    private static final String CREATED = "created";
+    private static final String UPDATED = "updated";
+    private static final String DELETED = "deleted";
+    private static final String MOVED = "moved";
+    private static final String LOST_AND_FOUND = "lostAndFound";
+
+    private final Writer writer;
+    private final boolean closeWriter;
+    private boolean firstField;
+
+    private long createdFiles;
+    private long updatedFiles;
+    private long deletedFiles;
+    private long movedFiles;
+
+    /**
+     * Creates a writer that writes the records to the given writer. The given writer is not closed by {@link #close()}.
+     *
+     * @param writer the writer to write the records to
+     * @throws IllegalArgumentException if writer is null
+     */
+    public NdjsonResultWriter(final Writer writer) {
+        this(writer, false);
+    }
+
+    private NdjsonResultWriter(final Writer writer, final boolean closeWriter) {
+        if (writer == null) {
+            throw new IllegalArgumentException("writer is null");
+        }
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+    }
+
+    /**
+     * Indicates whether the given result file denotes the standard output.
+     *
+     * @param resultFile the result file
+     * @return true if it is null or {@link #STDOUT}
+     */
+    public static boolean isStdout(final String resultFile) {
+        return resultFile == null || STDOUT.equals(resultFile);
+    }
+
+    /**
+     * Moves the console appenders of the root logger from the standard output to the standard error, including the ones behind an
+     * {@link AsyncLogAppender}. Lines logged before are written first. Console logging stays on the standard error for the rest of the process.
+     */
+    public static void redirectConsoleLogging() {
+        AsyncLogAppender.flushInstalled();
+        for (final Object appender : Collections.list(Logger.getRootLogger().getAllAppenders())) {
+            redirectConsoleLogging((Appender) appender);
+        }
+    }
+
+    private static void redirectConsoleLogging(final Appender appender) {
+        if (appender instanceof AsyncLogAppender) {
+            for (final Appender wrapped : ((AsyncLogAppender) appender).getAppenders()) {
+                redirectConsoleLogging(wrapped);
+            }
+        } else if (appender instanceof ConsoleAppender && ConsoleAppender.SYSTEM_OUT.equals(((ConsoleAppender) appender).getTarget())) {
+            final ConsoleAppender consoleAppender = (ConsoleAppender) appender;
+            consoleAppender.setTarget(ConsoleAppender.SYSTEM_ERR);
+            // creates the writer for the new target
+            consoleAppender.activateOptions();
+        }
+    }
+
+    /**
+     * Opens a writer for the given result file.
+     *
+     * @param resultFile the file to write to, the standard output is used if it is null or {@link #STDOUT}
+     * @return the writer
+     * @throws IOException if the file can not be opened
+     */
+    public static NdjsonResultWriter open(final String resultFile) throws IOException {
+        if (isStdout(resultFile)) {
+            // log lines that are still queued must not end up between the records
+            AsyncLogAppender.flushInstalled();
+            return new NdjsonResultWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), false);
+        }
+        return new NdjsonResultWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resultFile), StandardCharsets.UTF_8)), true);
+    }
+
+    /**
+     * Writes the records of an export result.
+     *
+     * @param exportResult the result to write
+     * @throws IOException if writing fails
+     */
+    public void writeExportResult(final ExportOperation.Result exportResult) throws IOException {
+        final long created = writeExportInfos(exportResult.getCreatedElements(), CREATED);
+        final long updated = writeExportInfos(exportResult.getUpdatedElements(), UPDATED);
+        final long deleted = writeExportInfos(exportResult.getDeletedElements(), DELETED);
+        final long moved = writeExportInfos(exportResult.getMovedElements(), MOVED);
+
+        beginRecord("summary");
+        field("operation", "export");
+        field(CREATED, created);
+        field(UPDATED, updated);
+        field(DELETED, deleted);
+        field(MOVED, moved);
+        writeFileCounts();
+        endRecord();
+        writer.flush();
+    }
+
+    /**
+     * Writes the records of an import result.
+     *
+     * @param importResult the result to write
+     * @throws IOException if writing fails
+     */
+    public void writeImportResult(final ImportOperation.Result importResult) throws IOException {
+        final long created = writeElementInfos(importResult.getCreatedElements(), CREATED);
+        final long updated = writeElementInfos(importResult.getUpdatedElements(), UPDATED);
+        final long deleted = writeElementInfos(importResult.getDeletedElements(), DELETED);
+        final long moved = writeElementInfos(importResult.getMovedElements(), MOVED);
+        final long lostAndFound = writeElementInfos(importResult.getLostAndFoundElements(), LOST_AND_FOUND);
+        final long createdEntities = writeEntities(importResult.getCreatedEntities(), CREATED);
+        long updatedEntities = 0;
+        try {
+            updatedEntities = writeEntities(importResult.getUpdatedEntities(), UPDATED);
+        } catch (@SuppressWarnings("squid:S1166") final NoSuchMethodError ignore) {
+            // ImportOperation.Result#getUpdatedEntities() does not exist in versions < 5.2.800
+        }
+        final long projectProperties = writeProjectProperties(importResult.getModifiedProjectProperties());
+        final long problems = writeProblems(importResult.getProblems());
+
+        beginRecord("summary");
+        field("operation", "import");
+        field(CREATED, created);
+        field(UPDATED, updated);
+        field(DELETED, deleted);
+        field(MOVED, moved);
+        field(LOST_AND_FOUND, lostAndFound);
+        field("createdEntities", createdEntities);
+        field("updatedEntities", updatedEntities);
+        field("projectProperties", projectProperties);
+        field("problems", problems);
+        endRecord();
+        writer.flush();
+    }
+
+    /**
+     * Writes the summary record of an import that was skipped, because the synchronization directory did not change. All counts are zero.
+     *
+     * @throws IOException if writing fails
+     */
+    public void writeSkippedImport() throws IOException {
+        beginRecord("summary");
+        field("operation", "import");
+        field("skipped", true);
+        field(CREATED, 0);
+        field(UPDATED, 0);
+        field(DELETED, 0);
+        field(MOVED, 0);
+        field(LOST_AND_FOUND, 0);
+        field("createdEntities", 0);
+        field("updatedEntities", 0);
+        field("projectProperties", 0);
+        field("problems", 0);
+        endRecord();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closeWriter) {
+            writer.close();
+        } else {
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return the number of written elements, not counting FS_META infos, which are part of every export
+     */
+    private long writeExportInfos(final Collection<ExportInfo> exportInfos, final String status) throws IOException {
+        long count = 0;
+        for (final ExportInfo exportInfo : nullSafe(exportInfos)) {
+            beginRecord("element");
+            field("status", status);
+            field("type", exportInfo.getType().name().toLowerCase(Locale.UK));
+            field("name", exportInfo.getName());
+            switch (exportInfo.getType()) {
+                case ELEMENT:
+                    writeElementInfoFields(((ElementExportInfo) exportInfo).getElementInfo());
+                    break;
+                case ENTITY_TYPE: {
+                    final EntityTypeExportInfo entityType = (EntityTypeExportInfo) exportInfo;
+                    field("schema", entityType.getSchema().getUid());
+                    field("entityType", entityType.getEntityType());
+                    field("entities", entityType.getEntities().size());
+                    break;
+                }
+                case PROJECT_PROPERTY: {
+                    final PropertiesTransportOptions.ProjectPropertyType propertyType = ((PropertyTypeExportInfo) exportInfo).getPropertyType();
+                    field("property", propertyType == null ? null : propertyType.name());
+                    break;
+                }
+                default:
+                    break;
+            }
+            endRecord();
+            if (exportInfo.getType() != ExportInfo.Type.FS_META) {
+                count++;
+            }
+            createdFiles += writeFileHandles(exportInfo.getCreatedFileHandles(), CREATED, exportInfo.getName());
+            updatedFiles += writeFileHandles(exportInfo.getUpdatedFileHandles(), UPDATED, exportInfo.getName());
+            deletedFiles += writeFileHandles(exportInfo.getDeletedFileHandles(), DELETED, exportInfo.getName());
+            movedFiles += writeMovedFileHandles(exportInfo.getMovedFileHandles(), exportInfo.getName());
+        }
+        return count;
+    }
+
+    private long writeFileHandles(final Set<ExportInfoFileHandle> fileHandles, final String status, final String element) throws IOException {
+        long count = 0;
+        for (final ExportInfoFileHandle fileHandle : nullSafe(fileHandles)) {
+            beginRecord("file");
+            field("status", status);
+            field("path", fileHandle.getPath());
+            field("element", element);
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private long writeMovedFileHandles(final Collection<Pair<ExportInfoFileHandle, ExportInfoFileHandle>> fileHandles, final String element)
+        throws IOException {
+        long count = 0;
+        for (final Pair<ExportInfoFileHandle, ExportInfoFileHandle> fileHandle : nullSafe(fileHandles)) {
+            beginRecord("file");
+            field("status", MOVED);
+            field("path", fileHandle.getValue().getPath());
+            field("from", fileHandle.getKey().getPath());
+            field("element", element);
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private void writeFileCounts() throws IOException {
+        field("createdFiles", createdFiles);
+        field("updatedFiles", updatedFiles);
+        field("deletedFiles", deletedFiles);
+        field("movedFiles", movedFiles);
+    }
+
+    private long writeElementInfos(final Collection<BasicElementInfo> elementInfos, final String status) throws IOException {
+        long count = 0;
+        for (final BasicElementInfo elementInfo : nullSafe(elementInfos)) {
+            beginRecord("element");
+            field("status", status);
+            field("type", "element");
+            writeElementInfoFields(elementInfo);
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private void writeElementInfoFields(final BasicElementInfo elementInfo) throws IOException {
+        field("store", elementInfo.getStoreType() == null ? null : elementInfo.getStoreType().name());
+        field("tag", elementInfo.getNodeTag());
+        field("uid", elementInfo.getUid());
+        field("id", elementInfo.getNodeId());
+    }
+
+    private long writeEntities(final Collection<BasicEntityInfo> entities, final String status) throws IOException {
+        long count = 0;
+        for (final BasicEntityInfo entity : nullSafe(entities)) {
+            beginRecord("entity");
+            field("status", status);
+            field("schema", entity.getSchemaUid());
+            field("entityType", entity.getEntityType());
+            field("gid", String.valueOf(entity.getGid()));
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private long writeProjectProperties(final Collection<PropertiesTransportOptions.ProjectPropertyType> projectProperties) throws IOException {
+        long count = 0;
+        for (final PropertiesTransportOptions.ProjectPropertyType property : nullSafe(projectProperties)) {
+            beginRecord("element");
+            field("status", UPDATED);
+            field("type", ExportInfo.Type.PROJECT_PROPERTY.name().toLowerCase(Locale.UK));
+            field("property", property.name());
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private long writeProblems(final Collection<ImportOperation.Problem> problems) throws IOException {
+        long count = 0;
+        for (final ImportOperation.Problem problem : nullSafe(problems)) {
+            beginRecord("problem");
+            field("store", problem.getStoreType() == null ? null : problem.getStoreType().name());
+            field("id", problem.getNodeId());
+            field("message", problem.getMessage());
+            endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    private static <T> Collection<T> nullSafe(final Collection<T> collection) {
+        return collection == null ? Collections.<T>emptyList() : collection;
+    }
+
+    //////////////////////////////////////////////////////////
+    //
+    // JSON HELPER METHODS
+    //
+    //////////////////////////////////////////////////////////
+
+    private void beginRecord(final String record) throws IOException {
+        writer.write('{');
+        firstField = true;
+        field("record", record);
+    }
+
+    private void endRecord() throws IOException {
+        writer.write("}\n");
+    }
+
+    private void field(final String name, final String value) throws IOException {
+        fieldName(name);
+        if (value == null) {
+            writer.write("null");
+        } else {
+            writeString(value);
+        }
+    }
+
+    private void field(final String name, final long value) throws IOException {
+        fieldName(name);
+        writer.write(Long.toString(value));
+    }
+
+    private void field(final String name, final boolean value) throws IOException {
+        fieldName(name);
+        writer.write(Boolean.toString(value));
+    }
+
+    private void fieldName(final String name) throws IOException {
+        if (!firstField) {
+            writer.write(',');
+        }
+        firstField = false;
+        writeString(name);
+        writer.write(':');
+    }
+
+    private void writeString(final String value) throws IOException {
+        writer.write('"');
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            switch (character) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) character));
+                    } else {
+                        writer.write(character);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -9,46 +9,66 @@ import de.espirit.firstspirit.transport.PropertiesTransportOptions;
 
 import java.util.*;
 
-// [review] javadoc (sorting, ...)
+/**
+ * The elements of an export or import result grouped by kind: project properties, store elements by store type and entity types. The result
+ * is walked twice: the first walk counts the store elements of every store type and computes the counters of the summary, the second fills
+ * buckets that are created with their final size. Store elements keep the order of the result until {@link #sortStoreElements()} is called.
+ */
 class ReorganizedResult {
 
+    /**
+     * Buckets of at least this size are sorted in parallel.
+     */
+    static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+    private static final Store.Type[] STORE_TYPES = Store.Type.values();
+
     private final Map<PropertiesTransportOptions.ProjectPropertyType, PropertyTypeExportInfo> _projectProperties;
+    /**
+     * A project property without type, kept apart because an EnumMap has no null key
+     */
+    private PropertyTypeExportInfo _untypedProjectProperty;
     private final Map<Store.Type, List<ElementExportInfo>> _storeElements;
     private final Collection<EntityTypeExportInfo> _entityTypes;
+    private final Set<String> _schemaUids;
+    private int _storeElementCount;
+    private int _entityCount;
     /**
      * Indicates whether an FS_META file is contained in this result set
      */
     private boolean _containsFsMeta;
 
     ReorganizedResult(final Collection<ExportInfo> elements) {
-        _projectProperties = new HashMap<>();
-        _storeElements = new TreeMap<>();
+        _projectProperties = new EnumMap<>(PropertiesTransportOptions.ProjectPropertyType.class);
+        _storeElements = new EnumMap<>(Store.Type.class);
         _entityTypes = new ArrayList<>();
+        _schemaUids = new HashSet<>();
         reorganize(elements);
     }
 
     private void reorganize(final Collection<ExportInfo> elements) {
+        // store elements are counted by store type first, so every bucket can be created with its final size
+        final int[] storeElementCounts = new int[STORE_TYPES.length];
         for (final ExportInfo element : elements) {
             switch (element.getType()) {
                 case PROJECT_PROPERTY: {
                     final PropertyTypeExportInfo exportInfo = (PropertyTypeExportInfo) element;
-                    _projectProperties.put(exportInfo.getPropertyType(), exportInfo);
-                    break;
-                }
-                case ELEMENT: {
-                    final ElementExportInfo exportInfo = (ElementExportInfo) element;
-                    final Store.Type storeType = exportInfo.getElementInfo().getStoreType();
-                    List<ElementExportInfo> exportInfoList = _storeElements.get(storeType);
-                    if (exportInfoList == null) {
-                        exportInfoList = new ArrayList<>();
-                        _storeElements.put(storeType, exportInfoList);
+                    if (exportInfo.getPropertyType() == null) {
+                        _untypedProjectProperty = exportInfo;
+                    } else {
+                        _projectProperties.put(exportInfo.getPropertyType(), exportInfo);
                     }
-                    exportInfoList.add(exportInfo);
                     break;
                 }
+                case ELEMENT:
+                    storeElementCounts[((ElementExportInfo) element).getElementInfo().getStoreType().ordinal()]++;
+                    _storeElementCount++;
+                    break;
                 case ENTITY_TYPE: {
                     final EntityTypeExportInfo exportInfo = (EntityTypeExportInfo) element;
                     _entityTypes.add(exportInfo);
+                    _entityCount += exportInfo.getEntities().size();
+                    _schemaUids.add(exportInfo.getSchema().getUid());
                     break;
                 }
                 case FS_META:
@@ -60,10 +80,55 @@ class ReorganizedResult {
                 }
             }
         }
+        if (_storeElementCount == 0) {
+            return;
+        }
+        for (int storeType = 0; storeType < STORE_TYPES.length; storeType++) {
+            if (storeElementCounts[storeType] > 0) {
+                _storeElements.put(STORE_TYPES[storeType], new ArrayList<>(storeElementCounts[storeType]));
+            }
+        }
+        for (final ExportInfo element : elements) {
+            if (element.getType() == ExportInfo.Type.ELEMENT) {
+                final ElementExportInfo exportInfo = (ElementExportInfo) element;
+                _storeElements.get(exportInfo.getElementInfo().getStoreType()).add(exportInfo);
+            }
+        }
+    }
+
+    /**
+     * Sorts the store elements of every store type by the path of their first file, see {@link AdvancedLogger#getSortPath(ElementExportInfo)}.
+     * The paths are computed once per element, large buckets are sorted in parallel.
+     */
+    void sortStoreElements() {
+        for (final Map.Entry<Store.Type, List<ElementExportInfo>> entry : _storeElements.entrySet()) {
+            final List<ElementExportInfo> bucket = entry.getValue();
+            if (bucket.size() < 2) {
+                continue;
+            }
+            final SortEntry[] sortEntries = new SortEntry[bucket.size()];
+            for (int index = 0; index < sortEntries.length; index++) {
+                sortEntries[index] = new SortEntry(bucket.get(index));
+            }
+            if (sortEntries.length >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(sortEntries);
+            } else {
+                Arrays.sort(sortEntries);
+            }
+            for (int index = 0; index < sortEntries.length; index++) {
+                bucket.set(index, sortEntries[index]._exportInfo);
+            }
+        }
     }
 
     Collection<PropertyTypeExportInfo> getProjectProperties() {
-        return _projectProperties.values();
+        if (_untypedProjectProperty == null) {
+            return _projectProperties.values();
+        }
+        final List<PropertyTypeExportInfo> projectProperties = new ArrayList<>(_projectProperties.size() + 1);
+        projectProperties.addAll(_projectProperties.values());
+        projectProperties.add(_untypedProjectProperty);
+        return projectProperties;
     }
 
     Map<Store.Type, List<ElementExportInfo>> getStoreElements() {
@@ -74,10 +139,47 @@ class ReorganizedResult {
         return Collections.unmodifiableCollection(_entityTypes);
     }
 
+    /**
+     * @return the number of store elements of all store types
+     */
+    int getStoreElementCount() {
+        return _storeElementCount;
+    }
+
+    /**
+     * @return the number of entities of all entity types
+     */
+    int getEntityCount() {
+        return _entityCount;
+    }
+
+    /**
+     * @return the number of distinct schemas of the entity types
+     */
+    int getSchemaCount() {
+        return _schemaUids.size();
+    }
+
     /**
      * Indicates whether an FS_META (e.g. .FirstSpirit/Import*.txt)  file is contained in this result set
      */
     public boolean containsFsMeta() {
         return _containsFsMeta;
     }
-}
\ No newline at end of file
+
+    private static final class SortEntry implements Comparable<SortEntry> {
+
+        private final String _path;
+        private final ElementExportInfo _exportInfo;
+
+        private SortEntry(final ElementExportInfo exportInfo) {
+            _path = AdvancedLogger.getSortPath(exportInfo);
+            _exportInfo = exportInfo;
+        }
+
+        @Override
+        public int compareTo(final SortEntry other) {
+            return _path.compareTo(other._path);
+        }
+    }
+}
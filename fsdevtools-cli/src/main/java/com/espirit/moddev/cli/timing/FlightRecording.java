@@ -0,0 +1,133 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the {@link Timings.Span spans} of a cli run with the Java Flight Recorder. The recording is written to a file that can be opened with
+ * JDK Mission Control, next to the usual jvm events like garbage collections, allocations and thread states.
+ * <p>
+ * The flight recorder API is only available in Java 11 and later and in Java 8 since update 262. The classes using it are loaded only after
+ * {@link #isAvailable()} found it, so the cli runs without the flight recorder as well. Without a running recording a span costs a single volatile
+ * read more than before.
+ * <p>
+ * Every command records into a recording of its own, so commands that run in parallel in one jvm, like the lines of a batch, do not overwrite each
+ * other's recordings. The flight recorder commits every event to all running recordings though, so a recording also contains the spans of the
+ * commands that ran at the same time; the detail of their "call-command" span tells them apart.
+ *
+ * @author e-Spirit AG
+ */
+public final class FlightRecording {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightRecording.class);
+    private static final String FLIGHT_RECORDER_CLASS = "jdk.jfr.FlightRecorder";
+
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+
+    private final File file;
+    private final Object recording;
+    private boolean stopped;
+
+    private FlightRecording(final File file, final Object recording) {
+        this.file = file;
+        this.recording = recording;
+    }
+
+    /**
+     * Indicates whether the running jvm supports flight recordings.
+     *
+     * @return true if recordings can be started
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName(FLIGHT_RECORDER_CLASS, false, FlightRecording.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+        return JfrRecorder.isAvailable();
+    }
+
+    /**
+     * Indicates whether any recording is running, meaning spans are committed as flight recorder events.
+     *
+     * @return true if a recording is running
+     */
+    public static boolean isRecording() {
+        return RUNNING.get() > 0;
+    }
+
+    /**
+     * Starts a recording of the span events and the default jvm events. The recording is written to the given file when it is
+     * {@link #stop() stopped}.
+     *
+     * @param file the file to write the recording to
+     * @return the started recording
+     * @throws IllegalStateException if the jvm does not support flight recordings
+     */
+    public static FlightRecording start(final File file) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Flight recordings are not supported by this jvm, use Java 11 or Java 8 update 262 and later");
+        }
+        final FlightRecording flightRecording = new FlightRecording(file, JfrRecorder.start());
+        RUNNING.incrementAndGet();
+        LOGGER.debug("Flight recording to '{}' started", file);
+        return flightRecording;
+    }
+
+    /**
+     * Stops this recording and writes it to its file. Stopping a recording again has no effect.
+     *
+     * @throws IOException if the recording can not be written
+     */
+    public synchronized void stop() throws IOException {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        RUNNING.decrementAndGet();
+        JfrRecorder.stop(recording, file.toPath());
+        LOGGER.info("Flight recording written to '{}'", file);
+    }
+
+    /**
+     * @return the file this recording is written to
+     */
+    public File getFile() {
+        return file;
+    }
+
+    static Object begin() {
+        return JfrRecorder.begin();
+    }
+
+    static void commit(final Object event, final String name, final String parent, final String detail, final String storeType, final long count,
+                       final long bytes) {
+        JfrRecorder.commit(event, name, parent, detail, storeType, count, bytes);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * The access to the flight recorder api. This class must only be loaded after {@link FlightRecording#isAvailable()} found the api.
+ *
+ * @author e-Spirit AG
+ */
+final class JfrRecorder {
+
+    private static final String DEFAULT_CONFIGURATION = "default";
+
+    private JfrRecorder() {
+        // Not used
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static Object start() {
+        final Recording recording = createRecording();
+        recording.setName("fs-cli");
+        recording.enable(PhaseEvent.class);
+        recording.start();
+        return recording;
+    }
+
+    private static Recording createRecording() {
+        try {
+            return new Recording(Configuration.getConfiguration(DEFAULT_CONFIGURATION));
+        } catch (IOException | ParseException e) {
+            // the span events are still recorded
+            return new Recording();
+        }
+    }
+
+    static void stop(final Object recording, final Path file) throws IOException {
+        final Recording stoppedRecording = (Recording) recording;
+        try {
+            stoppedRecording.stop();
+            stoppedRecording.dump(file);
+        } finally {
+            stoppedRecording.close();
+        }
+    }
+
+    static Object begin() {
+        final PhaseEvent event = new PhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commit(final Object event, final String name, final String parent, final String detail, final String storeType, final long count,
+                       final long bytes) {
+        final PhaseEvent phaseEvent = (PhaseEvent) event;
+        phaseEvent.end();
+        if (phaseEvent.shouldCommit()) {
+            phaseEvent.phase = name;
+            phaseEvent.parent = parent;
+            phaseEvent.detail = detail;
+            phaseEvent.storeType = storeType;
+            phaseEvent.count = count;
+            phaseEvent.bytes = bytes;
+            phaseEvent.commit();
+        }
+    }
+}
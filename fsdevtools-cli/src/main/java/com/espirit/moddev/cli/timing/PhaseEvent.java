@@ -0,0 +1,65 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of a {@link Timings.Span}. Counts and sizes that are not known are -1.
+ *
+ * @author e-Spirit AG
+ */
+@Name("com.espirit.moddev.cli.Phase")
+@Label("fs-cli Phase")
+@Category({"FirstSpirit", "fs-cli"})
+@Description("A phase of a fs-cli run, like opening the connection, resolving an identifier or performing an export")
+@StackTrace(false)
+class PhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Parent Phase")
+    String parent;
+
+    @Label("Detail")
+    @Description("What the phase worked on, like the name of a command, a server or an identifier")
+    String detail;
+
+    @Label("Store Type")
+    String storeType;
+
+    @Label("Count")
+    @Description("The number of elements, files or server round trips the phase handled")
+    long count;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
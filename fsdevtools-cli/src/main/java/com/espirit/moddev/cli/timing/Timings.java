@@ -0,0 +1,549 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records how long the phases of a cli run take. A phase is measured by a {@link Span}:
+ * <pre>
+ * try (Timings.Span span = Timings.start("connect")) {
+ *     connection.connect();
+ * }
+ * </pre>
+ * Spans are cheap enough to be recorded always, only a few dozen are recorded per command. Spans started while another span of the same thread
+ * is open are recorded with that span as parent. The recorded spans are written as json with {@link #writeReport(File)}:
+ * <pre>
+ * {"jvmStartToMainMs":412.0,"spans":[
+ * {"name":"connect","parent":"open-context","thread":"main","startMs":820.113,"durationMs":301.207},
+ * ...]}
+ * </pre>
+ * The start of a span is measured from the start of the jvm. While a {@link FlightRecording} is running, every span is also committed as a
+ * flight recorder event, together with the payload set on the span.
+ * <p>
+ * Spans are recorded into the {@link Timeline} of the thread they are started in. Every cli invocation {@link #open() opens} a timeline of its
+ * own, so commands that run one after another or in parallel in one jvm, like the lines of a batch, are reported separately. Tasks that an
+ * invocation hands to other threads {@link #join(Timeline) join} its timeline. Spans started outside of any timeline, like loading the command
+ * classes at startup, are kept in a small buffer and moved into the next timeline that is opened.
+ *
+ * @author e-Spirit AG
+ */
+public final class Timings {
+
+    /**
+     * The maximum number of spans that are kept while no timeline is open, the oldest spans are dropped.
+     */
+    static final int MAX_UNSCOPED_RECORDS = 256;
+
+    private static final Timeline UNSCOPED = new Timeline(MAX_UNSCOPED_RECORDS);
+    private static final ThreadLocal<Timeline> CURRENT_TIMELINE = new ThreadLocal<>();
+    private static final ThreadLocal<Span> CURRENT_SPAN = new ThreadLocal<>();
+    // System.nanoTime() has no fixed origin, so spans are related to the jvm start through the time this class was loaded
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final long ORIGIN_MILLIS = System.currentTimeMillis();
+    private static volatile long mainEnteredMillis = -1;
+
+    private Timings() {
+        // Not used
+    }
+
+    /**
+     * Opens a new timeline and binds it to the current thread until the returned scope is closed. The spans recorded outside of any timeline so
+     * far are moved into the new timeline.
+     *
+     * @return the scope of the new timeline
+     */
+    public static Scope open() {
+        final Timeline timeline = new Timeline(Integer.MAX_VALUE);
+        UNSCOPED.moveTo(timeline);
+        return new Scope(timeline);
+    }
+
+    /**
+     * Binds the given timeline to the current thread until the returned scope is closed, e.g. in a task that runs for the invocation that
+     * opened the timeline.
+     *
+     * @param timeline the timeline to record the spans of the current thread in, null to record them outside of any timeline
+     * @return the scope of the timeline
+     */
+    public static Scope join(final Timeline timeline) {
+        return new Scope(timeline);
+    }
+
+    /**
+     * Get the timeline bound to the current thread.
+     *
+     * @return the timeline, or null if the current thread records outside of any timeline
+     */
+    public static Timeline current() {
+        return CURRENT_TIMELINE.get();
+    }
+
+    /**
+     * Binds the timeline of the current thread to the given supplier, so the spans of the supplier are recorded in that timeline, no matter which
+     * thread runs it.
+     *
+     * @param supplier the task, e.g. for {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier)}
+     * @param <T>      the type of the result of the task
+     * @return the bound task
+     */
+    public static <T> Supplier<T> bind(final Supplier<T> supplier) {
+        final Timeline timeline = current();
+        return () -> {
+            try (Scope scope = join(timeline)) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * Binds the timeline of the current thread to the given task like {@link #bind(Supplier)}.
+     *
+     * @param task the task, e.g. for {@link java.util.concurrent.CompletableFuture#runAsync(Runnable)}
+     * @return the bound task
+     */
+    public static Runnable bind(final Runnable task) {
+        final Timeline timeline = current();
+        return () -> {
+            try (Scope scope = join(timeline)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Starts a span. The span ends when it is closed.
+     *
+     * @param name the name of the phase, like "connect"
+     * @return the started span
+     */
+    public static Span start(final String name) {
+        final Span span = new Span(name, CURRENT_SPAN.get(), true);
+        CURRENT_SPAN.set(span);
+        return span;
+    }
+
+    /**
+     * Starts a span that is only committed to a running {@link FlightRecording}, for phases that occur too often for the report, like resolving a
+     * single identifier. Without a recording the returned span does nothing.
+     *
+     * @param name the name of the phase, like "resolve-identifier"
+     * @return the started span
+     */
+    public static Span startDetail(final String name) {
+        if (!FlightRecording.isRecording()) {
+            return Span.DISABLED;
+        }
+        final Span current = CURRENT_SPAN.get();
+        return new Span(name, current, false);
+    }
+
+    /**
+     * Measures the given supplier with a span.
+     *
+     * @param name     the name of the phase
+     * @param supplier the phase
+     * @param <T>      the type of the result of the phase
+     * @return the result of the supplier
+     */
+    public static <T> T time(final String name, final Supplier<T> supplier) {
+        try (Span span = start(name)) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * Remembers that the main method has been entered, so the report contains the time the jvm took to start.
+     */
+    public static void markMainEntered() {
+        mainEnteredMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the spans that have been recorded in the timeline of the current thread, or outside of any timeline if none is bound.
+     *
+     * @return the ended spans, in the order they ended
+     */
+    public static List<Record> getRecords() {
+        return getTimeline().getRecords();
+    }
+
+    /**
+     * Forgets the spans recorded in the timeline of the current thread, or outside of any timeline if none is bound.
+     */
+    public static void reset() {
+        getTimeline().reset();
+    }
+
+    /**
+     * Writes the spans of the timeline of the current thread, or the spans recorded outside of any timeline if none is bound, as json to the
+     * given file.
+     *
+     * @param file the file to write the report to
+     * @throws IOException if the file can not be written
+     */
+    public static void writeReport(final File file) throws IOException {
+        getTimeline().writeReport(file);
+    }
+
+    static void writeReport(final Writer writer) throws IOException {
+        writeReport(writer, getTimeline().getRecords());
+    }
+
+    private static Timeline getTimeline() {
+        final Timeline timeline = CURRENT_TIMELINE.get();
+        return timeline == null ? UNSCOPED : timeline;
+    }
+
+    private static void writeReport(final Writer writer, final List<Record> records) throws IOException {
+        final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        final long originFromJvmStartNanos = TimeUnit.MILLISECONDS.toNanos(ORIGIN_MILLIS - jvmStartMillis);
+        writer.write('{');
+        if (mainEnteredMillis >= 0) {
+            writer.write("\"jvmStartToMainMs\":");
+            writer.write(formatMillis(TimeUnit.MILLISECONDS.toNanos(mainEnteredMillis - jvmStartMillis)));
+            writer.write(',');
+        }
+        writer.write("\"spans\":[");
+        boolean first = true;
+        for (final Record record : records) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("{\"name\":");
+            writeString(writer, record.getName());
+            if (record.getParent() != null) {
+                writer.write(",\"parent\":");
+                writeString(writer, record.getParent());
+            }
+            writer.write(",\"thread\":");
+            writeString(writer, record.getThread());
+            writer.write(",\"startMs\":");
+            writer.write(formatMillis(originFromJvmStartNanos + record.getStartNanos()));
+            writer.write(",\"durationMs\":");
+            writer.write(formatMillis(record.getDurationNanos()));
+            writer.write('}');
+        }
+        writer.write("]}\n");
+    }
+
+    private static String formatMillis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void writeString(final Writer writer, final String value) throws IOException {
+        writer.write('"');
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            if (character == '"' || character == '\\') {
+                writer.write('\\');
+                writer.write(character);
+            } else if (character < 0x20) {
+                writer.write(String.format("\\u%04x", (int) character));
+            } else {
+                writer.write(character);
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * A phase that is being measured. Closing the span records it; closing it again has no effect. The payload of a span is only used for
+     * flight recorder events.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private static final Span DISABLED = new Span();
+
+        private final String name;
+        private final Span parent;
+        private final Timeline timeline;
+        private final boolean reported;
+        private final long startNanos = System.nanoTime();
+        // the flight recorder event, null if no recording was running when the span started
+        private final Object event;
+        private boolean closed;
+        private String detail;
+        private String storeType;
+        private long count = -1;
+        private long bytes = -1;
+
+        private Span(final String name, final Span parent, final boolean reported) {
+            this.name = name;
+            this.parent = parent;
+            this.timeline = getTimeline();
+            this.reported = reported;
+            this.event = FlightRecording.isRecording() ? FlightRecording.begin() : null;
+        }
+
+        private Span() {
+            this.name = null;
+            this.parent = null;
+            this.timeline = null;
+            this.reported = false;
+            this.event = null;
+            this.closed = true;
+        }
+
+        /**
+         * @param detail what the phase worked on, like the name of a command or an identifier
+         * @return this span
+         */
+        public Span setDetail(final String detail) {
+            if (event != null) {
+                this.detail = detail;
+            }
+            return this;
+        }
+
+        /**
+         * @param storeType the store the phase worked on
+         * @return this span
+         */
+        public Span setStoreType(final String storeType) {
+            if (event != null) {
+                this.storeType = storeType;
+            }
+            return this;
+        }
+
+        /**
+         * @param count the number of items the phase handled, like elements, files or server round trips
+         * @return this span
+         */
+        public Span setCount(final long count) {
+            if (event != null) {
+                this.count = count;
+            }
+            return this;
+        }
+
+        /**
+         * @param bytes the number of bytes the phase handled
+         * @return this span
+         */
+        public Span setBytes(final long bytes) {
+            if (event != null) {
+                this.bytes = bytes;
+            }
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            final long endNanos = System.nanoTime();
+            if (event != null) {
+                FlightRecording.commit(event, name, parent == null ? null : parent.name, detail, storeType, count, bytes);
+            }
+            if (!reported) {
+                return;
+            }
+            timeline.add(new Record(name, parent == null ? null : parent.name, Thread.currentThread().getName(), startNanos - ORIGIN_NANOS,
+                                   endNanos - startNanos));
+            if (CURRENT_SPAN.get() == this) {
+                if (parent == null) {
+                    CURRENT_SPAN.remove();
+                } else {
+                    CURRENT_SPAN.set(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * The spans recorded for one cli invocation.
+     */
+    public static final class Timeline {
+
+        private final int maxRecords;
+        private final Deque<Record> records = new ArrayDeque<>();
+
+        private Timeline(final int maxRecords) {
+            this.maxRecords = maxRecords;
+        }
+
+        private void add(final Record record) {
+            synchronized (records) {
+                if (records.size() == maxRecords) {
+                    records.removeFirst();
+                }
+                records.addLast(record);
+            }
+        }
+
+        private void moveTo(final Timeline timeline) {
+            final List<Record> moved;
+            synchronized (records) {
+                moved = new ArrayList<>(records);
+                records.clear();
+            }
+            for (final Record record : moved) {
+                timeline.add(record);
+            }
+        }
+
+        /**
+         * @return the ended spans of this timeline, in the order they ended
+         */
+        public List<Record> getRecords() {
+            synchronized (records) {
+                return new ArrayList<>(records);
+            }
+        }
+
+        private void reset() {
+            synchronized (records) {
+                records.clear();
+            }
+        }
+
+        /**
+         * Writes the spans of this timeline as json to the given file.
+         *
+         * @param file the file to write the report to
+         * @throws IOException if the file can not be written
+         */
+        public void writeReport(final File file) throws IOException {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                Timings.writeReport(writer, getRecords());
+            }
+        }
+    }
+
+    /**
+     * Binds a timeline to the thread it was created in. Closing the scope binds the timeline and the open span the thread had before again, so
+     * it has to be closed in the same thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Timeline timeline;
+        private final Timeline previousTimeline = CURRENT_TIMELINE.get();
+        private final Span previousSpan = CURRENT_SPAN.get();
+        private boolean closed;
+
+        private Scope(final Timeline timeline) {
+            this.timeline = timeline;
+            bindToThread(timeline, null);
+        }
+
+        private static void bindToThread(final Timeline timeline, final Span span) {
+            if (timeline == null) {
+                CURRENT_TIMELINE.remove();
+            } else {
+                CURRENT_TIMELINE.set(timeline);
+            }
+            if (span == null) {
+                CURRENT_SPAN.remove();
+            } else {
+                CURRENT_SPAN.set(span);
+            }
+        }
+
+        /**
+         * @return the timeline of this scope, null for spans recorded outside of any timeline
+         */
+        public Timeline getTimeline() {
+            return timeline;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                bindToThread(previousTimeline, previousSpan);
+            }
+        }
+    }
+
+    /**
+     * An ended span.
+     */
+    public static final class Record {
+
+        private final String name;
+        private final String parent;
+        private final String thread;
+        private final long startNanos;
+        private final long durationNanos;
+
+        private Record(final String name, final String parent, final String thread, final long startNanos, final long durationNanos) {
+            this.name = name;
+            this.parent = parent;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * @return the name of the phase
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the name of the span that was open in the same thread when this span started, or null
+         */
+        public String getParent() {
+            return parent;
+        }
+
+        /**
+         * @return the name of the thread the span ran in
+         */
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * @return the start of the span in nanoseconds, relative to the time the timings were initialized
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * @return the duration of the span in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
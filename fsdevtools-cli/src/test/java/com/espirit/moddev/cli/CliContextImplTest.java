@@ -29,6 +29,7 @@ import com.espirit.moddev.cli.api.configuration.Config;
 import com.espirit.moddev.cli.api.configuration.ImportConfig;
 
 import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+import com.espirit.moddev.cli.exception.CliException;
 import de.espirit.firstspirit.access.AdminService;
 import de.espirit.firstspirit.access.BaseContext;
 import de.espirit.firstspirit.access.Connection;
@@ -37,6 +38,7 @@ import de.espirit.firstspirit.access.project.Project;
 import de.espirit.firstspirit.access.store.IDProvider;
 import de.espirit.firstspirit.agency.BrokerAgent;
 import de.espirit.firstspirit.agency.LanguageAgent;
+import de.espirit.firstspirit.agency.ServerInformationAgent;
 import de.espirit.firstspirit.agency.SpecialistsBroker;
 
 import org.apache.log4j.Appender;
@@ -60,6 +62,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -143,6 +146,12 @@ public class CliContextImplTest {
         };
     }
 
+    @Test(expected = CliException.class)
+    public void testServerVersionLookupFailure() throws Exception {
+        when(specialistsBroker.requestSpecialist(ServerInformationAgent.TYPE)).thenThrow(new IllegalStateException("incompatible server"));
+        new TestContext(clientConfig);
+    }
+
     @Test
     public void testAutoCloseable() throws Exception {
         Connection firstSpiritConnection = null;
@@ -154,6 +163,47 @@ public class CliContextImplTest {
         verify(firstSpiritConnection, times(1)).close();
     }
 
+    @Test
+    public void testSharedContextKeepsConnectionOpen() throws Exception {
+        try (TestContext context = new TestContext(clientConfig);
+             CliContextImpl sharedContext = new CliContextImpl(clientConfig, context)) {
+            assertThat("Expect the shared connection", sharedContext.getConnection(), is(sameInstance(context.getConnection())));
+        }
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    public void testProjectIsResolvedOnce() throws Exception {
+        final CliContextImpl context = (CliContextImpl) testling;
+        final Project project = context.getProject();
+        assertThat("Expect the same project", context.getProject(), is(sameInstance(project)));
+        verify(connection, times(1)).getProjectByName("myProject");
+    }
+
+    @Test
+    public void testInvalidateProject() throws Exception {
+        final CliContextImpl context = (CliContextImpl) testling;
+        context.invalidateProject();
+        context.getProject();
+        context.getProject();
+        verify(connection, times(2)).getProjectByName("myProject");
+    }
+
+    @Test
+    public void testServerRoundTrips() throws Exception {
+        final CliContextImpl context = (CliContextImpl) testling;
+        // connect, project lookup and project broker
+        assertThat("Expect 3 round trips", context.getServerRoundTrips(), is(3));
+        context.getProject();
+        context.getUserService();
+        assertThat("Expect no further round trips", context.getServerRoundTrips(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSharedContextConstructor() throws Exception {
+        new CliContextImpl(clientConfig, null);
+    }
+
     @Theory
     public void testIsRest(final BaseContext.Env environment) throws Exception {
         assertThat("Expected false", testling.is(environment), is(Boolean.FALSE));
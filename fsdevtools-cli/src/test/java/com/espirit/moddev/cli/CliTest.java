@@ -63,6 +63,13 @@ public class CliTest {
         new Cli().execute(new String[]{"throwexception"});
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testContextFailureIsRethrownUnwrapped() throws Exception {
+        new Cli(config -> {
+            throw new IllegalStateException("no server");
+        }).execute(new String[]{"export"});
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void defaultCliHasNoUndefinedGroup() {
         CliBuilder<Command> builder = Cli.getDefaultCliBuilder();
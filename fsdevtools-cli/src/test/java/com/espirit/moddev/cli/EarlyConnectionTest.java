@@ -0,0 +1,65 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+
+package com.espirit.moddev.cli;
+
+import com.espirit.moddev.cli.api.FsConnectionMode;
+import com.espirit.moddev.cli.configuration.GlobalConfig;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author e-Spirit AG
+ */
+public class EarlyConnectionTest {
+
+    @Test
+    public void testScanConnectionOptions() {
+        final GlobalConfig options = EarlyConnection.scanConnectionOptions(
+            new String[]{"-e", "--host", "fs.example.com", "-port", "8080", "-c", "SOCKET", "-u", "editor", "-pwd", "secret", "-p", "project",
+                         "export", "--", "-p", "pagestore"});
+
+        assertThat(options.getHost(), is("fs.example.com"));
+        assertThat(options.getPort(), is(8080));
+        assertThat(options.getConnectionMode(), is(FsConnectionMode.SOCKET));
+        assertThat(options.getUser(), is("editor"));
+        assertThat(options.getPassword(), is("secret"));
+        assertThat("arguments after '--' are no options", options.getProject(), is("project"));
+    }
+
+    @Test
+    public void testOptionValueIsNoOption() {
+        final GlobalConfig options = EarlyConnection.scanConnectionOptions(new String[]{"-u", "-p", "export"});
+
+        assertThat(options.getUser(), is("-p"));
+    }
+
+    @Test
+    public void testInvalidPort() {
+        assertThat(EarlyConnection.scanConnectionOptions(new String[]{"-port", "http", "-p", "project", "export"}), is(nullValue()));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SyncDirectoryManifestTest {
+
+    private static final String TARGET = SyncDirectoryManifest.getTarget("localhost", 8000, "project");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testMissingManifestIsEmpty() throws Exception {
+        assertThat(SyncDirectoryManifest.load(temporaryFolder.getRoot()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testUnchangedDirectory() throws Exception {
+        write("PageStore/page.xml", "page");
+        write("TemplateStore/template.xml", "template");
+        saveManifest(TARGET);
+
+        final SyncDirectoryManifest previous = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+        final SyncDirectoryManifest current = SyncDirectoryManifest.scan(temporaryFolder.getRoot(), previous);
+
+        assertThat(previous.isEmpty(), is(false));
+        assertThat(current.getChangedPaths(previous), is(empty()));
+    }
+
+    @Test
+    public void testChangedAddedAndRemovedFiles() throws Exception {
+        write("PageStore/page.xml", "page");
+        write("PageStore/removed.xml", "removed");
+        write("TemplateStore/template.xml", "template");
+        saveManifest(TARGET);
+        final SyncDirectoryManifest previous = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+
+        final File page = write("PageStore/page.xml", "changed page");
+        page.setLastModified(page.lastModified() + 2000);
+        Files.delete(new File(temporaryFolder.getRoot(), "PageStore/removed.xml").toPath());
+        write("MediaStore/added.png", "media");
+
+        assertThat(SyncDirectoryManifest.scan(temporaryFolder.getRoot(), previous).getChangedPaths(previous),
+                   contains("MediaStore/added.png", "PageStore/page.xml", "PageStore/removed.xml"));
+    }
+
+    @Test
+    public void testTouchedFileIsNotChanged() throws Exception {
+        final File page = write("PageStore/page.xml", "page");
+        saveManifest(TARGET);
+        final SyncDirectoryManifest previous = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+
+        page.setLastModified(page.lastModified() + 2000);
+
+        assertThat(SyncDirectoryManifest.scan(temporaryFolder.getRoot(), previous).getChangedPaths(previous), is(empty()));
+    }
+
+    @Test
+    public void testStateFilesAreIgnored() throws Exception {
+        write("PageStore/page.xml", "page");
+        saveManifest(TARGET);
+        final SyncDirectoryManifest previous = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+
+        write(SyncDirectoryManifest.STATE_FILE_PREFIX + "export-state.properties", "state");
+
+        assertThat(SyncDirectoryManifest.scan(temporaryFolder.getRoot(), previous).getChangedPaths(previous), is(empty()));
+    }
+
+    @Test
+    public void testTargetIsRecorded() throws Exception {
+        write("PageStore/page.xml", "page");
+        saveManifest(TARGET);
+
+        final SyncDirectoryManifest manifest = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+        assertThat(manifest.isImportedInto(TARGET), is(true));
+        assertThat(manifest.isImportedInto(SyncDirectoryManifest.getTarget("localhost", 8000, "other project")), is(false));
+        assertThat(manifest.isImportedInto(SyncDirectoryManifest.getTarget("otherhost", 8000, "project")), is(false));
+        assertThat(manifest.isImportedInto(SyncDirectoryManifest.getTarget("localhost", 8001, "project")), is(false));
+    }
+
+    @Test
+    public void testManifestWithoutTargetIsNotImported() throws Exception {
+        write("PageStore/page.xml", "page");
+        write(SyncDirectoryManifest.FILE_NAME, "0123\t4\t5\tPageStore/page.xml\n");
+
+        final SyncDirectoryManifest manifest = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+        assertThat(manifest.isEmpty(), is(false));
+        assertThat(manifest.isImportedInto(TARGET), is(false));
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        write("PageStore/page.xml", "page");
+        saveManifest(TARGET);
+
+        SyncDirectoryManifest.delete(temporaryFolder.getRoot());
+
+        assertThat(new File(temporaryFolder.getRoot(), SyncDirectoryManifest.FILE_NAME).exists(), is(false));
+        assertThat(SyncDirectoryManifest.load(temporaryFolder.getRoot()).isImportedInto(TARGET), is(false));
+    }
+
+    private void saveManifest(final String target) throws Exception {
+        final SyncDirectoryManifest previous = SyncDirectoryManifest.load(temporaryFolder.getRoot());
+        SyncDirectoryManifest.scan(temporaryFolder.getRoot(), previous).save(temporaryFolder.getRoot(), target);
+    }
+
+    private File write(final String path, final String content) throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
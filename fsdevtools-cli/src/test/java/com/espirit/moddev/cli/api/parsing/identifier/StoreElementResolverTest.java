@@ -0,0 +1,146 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import com.espirit.moddev.cli.util.StoreTestUtil;
+
+import de.espirit.common.util.Listable;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.pagestore.Page;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+import de.espirit.firstspirit.transport.PropertiesTransportOptions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author e-Spirit AG
+ */
+public class StoreElementResolverTest {
+
+    private StoreAgent storeAgent;
+    private Store pageStore;
+    private IDProvider folder;
+    private IDProvider homepage;
+    private IDProvider imprint;
+    private StoreElementResolver testling;
+
+    @Before
+    public void setUp() {
+        homepage = createElement("homepage", "Homepage");
+        imprint = createElement(null, "imprint");
+        folder = createElement(null, "folder", homepage, imprint);
+        pageStore = mock(Store.class);
+        setChildren(pageStore, folder);
+        storeAgent = mock(StoreAgent.class);
+        when(storeAgent.getStore(Store.Type.PAGESTORE, false)).thenReturn(pageStore);
+        testling = new StoreElementResolver(storeAgent, false);
+    }
+
+    @Test
+    public void testStoreIsRetrievedOnce() {
+        assertThat(testling.getStore(Store.Type.PAGESTORE), is(sameInstance(pageStore)));
+        assertThat(testling.getStore(Store.Type.PAGESTORE), is(sameInstance(pageStore)));
+
+        verify(storeAgent, times(1)).getStore(Store.Type.PAGESTORE, false);
+    }
+
+    @Test
+    public void testSharedPathPrefixIsResolvedOnce() {
+        assertThat(testling.getElementByPath("/PageStore/folder/homepage"), is(sameInstance(homepage)));
+        assertThat(testling.getElementByPath("/pagestore/folder/imprint"), is(sameInstance(imprint)));
+        assertThat(testling.getElementByPath("/pagestore/folder"), is(sameInstance(folder)));
+
+        verify(storeAgent, times(1)).getStore(Store.Type.PAGESTORE, false);
+        verify(pageStore, times(1)).getChildren();
+        verify(folder, times(1)).getChildren();
+    }
+
+    @Test
+    public void testUidIsPreferredOverName() {
+        final IDProvider namedHomepage = createElement(null, "homepage");
+        setChildren(folder, namedHomepage, homepage);
+
+        assertThat(testling.getElementByPath("/pagestore/folder/homepage"), is(sameInstance(homepage)));
+    }
+
+    @Test
+    public void testIdentifiersShareTheResolver() {
+        final ExportOperation exportOperation = mock(ExportOperation.class);
+        when(pageStore.getStoreElement("homepage", IDProvider.UidType.PAGESTORE)).thenReturn(homepage);
+
+        testling.addToExportOperation(new PathIdentifier("/pagestore/folder/imprint"), exportOperation);
+        testling.addToExportOperation(new UidIdentifier(UidMapping.PAGE, "homepage"), exportOperation);
+
+        verify(exportOperation).addElement(imprint);
+        verify(exportOperation).addElement(homepage);
+        verify(storeAgent, times(1)).getStore(Store.Type.PAGESTORE, false);
+    }
+
+    @Test
+    public void testGetElementsOfRootNode() {
+        assertThat(testling.getElements(new RootNodeIdentifier(IDProvider.UidType.PAGESTORE)), contains((IDProvider) pageStore));
+    }
+
+    @Test
+    public void testGetElementsOfPath() {
+        assertThat(testling.getElements(new PathIdentifier("/pagestore/folder/imprint")), contains(imprint));
+    }
+
+    @Test
+    public void testNoElementsForProjectProperties() {
+        final ProjectPropertiesIdentifier identifier =
+            new ProjectPropertiesIdentifier(EnumSet.of(PropertiesTransportOptions.ProjectPropertyType.LANGUAGES));
+
+        assertThat(testling.getElements(identifier), is(nullValue()));
+    }
+
+    private static IDProvider createElement(final String uid, final String name, final IDProvider... children) {
+        final IDProvider element = uid == null ? mock(IDProvider.class) : mock(Page.class);
+        when(element.hasUid()).thenReturn(uid != null);
+        when(element.getUid()).thenReturn(uid);
+        when(element.getName()).thenReturn(name);
+        setChildren(element, children);
+        return element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setChildren(final IDProvider element, final IDProvider... children) {
+        when(element.getChildren()).thenReturn((Listable) new StoreTestUtil.SimpleListable(Arrays.asList(children)));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.identifier;
+
+import com.espirit.moddev.cli.util.StoreTestUtil;
+
+import de.espirit.common.util.Listable;
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.access.store.pagestore.Page;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+import de.espirit.firstspirit.storage.Revision;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author e-Spirit AG
+ */
+public class UidPatternIdentifierTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StoreAgent storeAgent;
+    private Store pageStore;
+    private Revision revision;
+    private IDProvider folder;
+    private Page news1;
+    private Page news2;
+    private Page campaign;
+
+    @Before
+    public void setUp() {
+        news1 = createPage("news_1", 1);
+        news2 = createPage("news_2", 2);
+        campaign = createPage("campaign_42", 3);
+        folder = mock(IDProvider.class);
+        setChildren(folder, news1, news2, campaign);
+        pageStore = mock(Store.class);
+        setChildren(pageStore, folder);
+        final Map<Long, IDProvider> pages = new HashMap<>();
+        for (Page page : Arrays.asList(news1, news2, campaign)) {
+            pages.put(page.getId(), page);
+        }
+        doAnswer(invocation -> {
+            final List<IDProvider> elements = new ArrayList<>();
+            for (Long nodeId : invocation.<Collection<Long>>getArgument(0)) {
+                elements.add(pages.get(nodeId));
+            }
+            return elements;
+        }).when(pageStore).getElements(any());
+        revision = mock(Revision.class);
+        when(revision.getId()).thenReturn(7L);
+        final Project project = mock(Project.class);
+        when(project.getRevision(any(Date.class))).thenReturn(revision);
+        when(pageStore.getProject()).thenReturn(project);
+        storeAgent = mock(StoreAgent.class);
+        when(storeAgent.getStore(Store.Type.PAGESTORE, false)).thenReturn(pageStore);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPattern() {
+        new UidPatternIdentifier(UidMapping.PAGE, "news");
+    }
+
+    @Test
+    public void testGlobMatchesWholeUid() {
+        final UidPatternIdentifier identifier = new UidPatternIdentifier(UidMapping.PAGE, "news_?");
+
+        assertThat(identifier.matches("news_1"), is(true));
+        assertThat(identifier.matches("news_12"), is(false));
+        assertThat(identifier.matches("old_news_1"), is(false));
+    }
+
+    @Test
+    public void testGlobQuotesRegexCharacters() {
+        final UidPatternIdentifier identifier = new UidPatternIdentifier(UidMapping.PAGE, "news.*");
+
+        assertThat(identifier.matches("news.1"), is(true));
+        assertThat(identifier.matches("newsX1"), is(false));
+    }
+
+    @Test
+    public void testRegexMatchesPartOfUid() {
+        final UidPatternIdentifier identifier = new UidPatternIdentifier(UidMapping.PAGE, "re:_\\d+");
+
+        assertThat(identifier.matches("campaign_42"), is(true));
+        assertThat(identifier.matches("campaign"), is(false));
+    }
+
+    @Test
+    public void testAddToExportOperation() {
+        final ExportOperation exportOperation = mock(ExportOperation.class);
+        final StoreElementResolver resolver = new StoreElementResolver(storeAgent, false);
+
+        new UidPatternIdentifier(UidMapping.PAGE, "news_*").addToExportOperation(resolver, exportOperation);
+        new UidPatternIdentifier(UidMapping.PAGE, "re:^campaign_\\d+$").addToExportOperation(resolver, exportOperation);
+
+        verify(exportOperation).addElement(news1);
+        verify(exportOperation).addElement(news2);
+        verify(exportOperation).addElement(campaign);
+        // the store is traversed once for both patterns, the matches of each pattern are fetched with one request
+        verify(folder, times(1)).getChildren();
+        verify(pageStore, times(2)).getElements(any());
+        verify(pageStore, never()).getStoreElement(any(String.class), any(IDProvider.UidType.class));
+    }
+
+    @Test
+    public void testUidIndexIsReusedForUnchangedProject() {
+        final File uidIndexFile = new File(temporaryFolder.getRoot(), "uid-index.properties");
+        new UidPatternIdentifier(UidMapping.PAGE, "news_*").addToExportOperation(new StoreElementResolver(storeAgent, false, uidIndexFile),
+                                                                                  mock(ExportOperation.class));
+        assertThat(uidIndexFile.isFile(), is(true));
+
+        final ExportOperation exportOperation = mock(ExportOperation.class);
+        new UidPatternIdentifier(UidMapping.PAGE, "news_*").addToExportOperation(new StoreElementResolver(storeAgent, false, uidIndexFile),
+                                                                                  exportOperation);
+
+        verify(exportOperation).addElement(news1);
+        verify(exportOperation).addElement(news2);
+        verify(folder, times(1)).getChildren();
+    }
+
+    @Test
+    public void testUidIndexIsRebuiltForChangedProject() {
+        final File uidIndexFile = new File(temporaryFolder.getRoot(), "uid-index.properties");
+        new UidPatternIdentifier(UidMapping.PAGE, "news_*").addToExportOperation(new StoreElementResolver(storeAgent, false, uidIndexFile),
+                                                                                  mock(ExportOperation.class));
+        when(revision.getId()).thenReturn(8L);
+
+        final ExportOperation exportOperation = mock(ExportOperation.class);
+        new UidPatternIdentifier(UidMapping.PAGE, "news_*").addToExportOperation(new StoreElementResolver(storeAgent, false, uidIndexFile),
+                                                                                  exportOperation);
+
+        verify(exportOperation).addElement(news1);
+        verify(folder, times(2)).getChildren();
+    }
+
+    @Test
+    public void testNoMatch() {
+        final ExportOperation exportOperation = mock(ExportOperation.class);
+
+        new UidPatternIdentifier(UidMapping.PAGE, "archive_*").addToExportOperation(new StoreElementResolver(storeAgent, false), exportOperation);
+
+        verify(exportOperation, never()).addElement(any(IDProvider.class));
+        verify(pageStore, never()).getElements(any());
+    }
+
+    @Test
+    public void testEquality() {
+        assertThat(new UidPatternIdentifier(UidMapping.PAGE, "news_*"), is(new UidPatternIdentifier(UidMapping.PAGE, "news_*")));
+        assertThat(new UidPatternIdentifier(UidMapping.PAGE, "news_*"), is(not(new UidPatternIdentifier(UidMapping.PAGEREF, "news_*"))));
+    }
+
+    private static Page createPage(final String uid, final long nodeId) {
+        final Page page = mock(Page.class);
+        when(page.getId()).thenReturn(nodeId);
+        when(page.hasUid()).thenReturn(true);
+        when(page.getUid()).thenReturn(uid);
+        when(page.getUidType()).thenReturn(IDProvider.UidType.PAGESTORE);
+        setChildren(page);
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setChildren(final IDProvider element, final IDProvider... children) {
+        when(element.getChildren()).thenReturn((Listable) new StoreTestUtil.SimpleListable(Arrays.asList(children)));
+    }
+}
@@ -22,6 +22,7 @@
 
 package com.espirit.moddev.cli.api.parsing.parser;
 
+import com.espirit.moddev.cli.api.parsing.exceptions.NoSuitableParserRegisteredException;
 import com.espirit.moddev.cli.api.parsing.identifier.*;
 import com.google.common.collect.Lists;
 import de.espirit.firstspirit.access.store.IDProvider;
@@ -31,6 +32,8 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -95,6 +98,54 @@ public class RegistryBasedParserTest {
         Assert.assertThat(list.contains(new EntitiesIdentifier("news")), equalTo(true));
     }
 
+    @Test
+    public void testParseDispatchesByDeclaredPrefix() {
+        final List<List<String>> invocations = new ArrayList<>();
+        testling.registerParser(new Parser<Identifier>() {
+            @Override
+            public List<Identifier> parse(List<String> input) {
+                invocations.add(input);
+                return new ArrayList<Identifier>() {{
+                    add((storeAgent, useReleaseState, exportOperation) -> {});
+                }};
+            }
+
+            @Override
+            public boolean appliesTo(String input) {
+                throw new AssertionError("Parsers with declared prefixes should not be asked for " + input);
+            }
+
+            @Override
+            public Collection<String> getPrefixes() {
+                return Collections.singleton("xxx");
+            }
+        });
+
+        Assert.assertTrue(testling.appliesTo("XXX : aaa"));
+        Assert.assertFalse(testling.appliesTo("yyy:aaa"));
+        final List<Identifier> result = testling.parse(Arrays.asList("xxx:aaa", "XXX : bbb"));
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("xxx:aaa", "XXX : bbb")), invocations);
+    }
+
+    @Test
+    public void testParseNakedStoreRoot() {
+        testling.registerParser(new RootNodeIdentifierParser());
+        testling.registerParser(new UidIdentifierParser());
+        final List<Identifier> list = testling.parse(Arrays.asList("templatestore", "ROOT : pagestore", "page:homepage"));
+        Assert.assertEquals(3, list.size());
+        Assert.assertThat(list.contains(new RootNodeIdentifier(IDProvider.UidType.TEMPLATESTORE)), equalTo(true));
+        Assert.assertThat(list.contains(new RootNodeIdentifier(IDProvider.UidType.PAGESTORE)), equalTo(true));
+        Assert.assertThat(list.contains(new UidIdentifier(UidMapping.PAGE, "homepage")), equalTo(true));
+    }
+
+    @Test(expected = NoSuitableParserRegisteredException.class)
+    public void testParseUndeclaredPrefix() {
+        testling.registerParser(new RootNodeIdentifierParser());
+        testling.registerParser(new UidIdentifierParser());
+        testling.parse(Arrays.asList("page:homepage", "pagexyz:homepage"));
+    }
+
     @Test
     public void testDEVEX69() {
         testling.registerParser(new Parser<Identifier>() {
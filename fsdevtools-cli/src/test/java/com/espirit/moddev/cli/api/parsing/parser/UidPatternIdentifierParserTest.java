@@ -0,0 +1,90 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.api.parsing.parser;
+
+import com.espirit.moddev.cli.api.parsing.exceptions.UnregisteredPrefixException;
+import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+import com.espirit.moddev.cli.api.parsing.identifier.UidPatternIdentifier;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author e-Spirit AG
+ */
+public class UidPatternIdentifierParserTest {
+
+    private UidPatternIdentifierParser testling;
+
+    @Before
+    public void setUp() {
+        testling = new UidPatternIdentifierParser();
+    }
+
+    @Test
+    public void testAppliesTo() {
+        for (String current : Arrays.asList("page:news_*", "PAGE : news_?", "pagetemplate:*", "page:re:^campaign_\\d+$")) {
+            Assert.assertTrue("Parser should apply to string " + current, testling.appliesTo(current));
+        }
+    }
+
+    @Test
+    public void testDontApplyTo() {
+        for (String current : Arrays.asList("page:news", "pagexyz:news_*", "page:re:", "news_*")) {
+            Assert.assertFalse("Parser should not apply to string " + current, testling.appliesTo(current));
+        }
+    }
+
+    @Test
+    public void testUidParserDoesNotApplyToPatterns() {
+        Assert.assertFalse(new UidIdentifierParser().appliesTo("page:news_*"));
+        Assert.assertFalse(new UidIdentifierParser().appliesTo("page:re:^news"));
+    }
+
+    @Test
+    public void testParse() {
+        final List<UidPatternIdentifier> list = testling.parse(Arrays.asList("PAGE : news_*", "pagetemplate:re:^campaign_\\d+$"));
+
+        assertThat(list.get(0).getUidMapping(), is(UidMapping.PAGE));
+        assertThat(list.get(0).getPattern(), is("news_*"));
+        assertThat(list.get(1).getUidMapping(), is(UidMapping.PAGETEMPLATE));
+        assertThat(list.get(1).getPattern(), is("re:^campaign_\\d+$"));
+    }
+
+    @Test(expected = UnregisteredPrefixException.class)
+    public void testParseWithNonExistentPrefix() {
+        testling.parse(Arrays.asList("xxxxx:news_*"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidRegex() {
+        testling.parse(Arrays.asList("page:re:news_(*"));
+    }
+}
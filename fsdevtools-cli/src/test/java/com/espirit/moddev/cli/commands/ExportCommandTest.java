@@ -23,10 +23,12 @@
 package com.espirit.moddev.cli.commands;
 
 import com.espirit.moddev.cli.commands.export.ExportCommand;
+import com.espirit.moddev.cli.results.ResultFormat;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -78,4 +80,48 @@ public class ExportCommandTest {
     }
 
 
+    /**
+     * Tests {@link ExportCommand#isParallel()}
+     */
+    @Test
+    public void testIsParallel() throws Exception {
+        assertThat("by default all elements are exported with one operation", testling.isParallel(), is(Boolean.FALSE));
+    }
+
+
+    /**
+     * Tests {@link ExportCommand#getParallelism()}
+     */
+    @Test
+    public void testGetParallelism() throws Exception {
+        assertThat("by default a few stores are exported at the same time", testling.getParallelism(), is(ExportCommand.DEFAULT_PARALLELISM));
+    }
+
+
+    /**
+     * Tests {@link ExportCommand#isIncremental()}
+     */
+    @Test
+    public void testIsIncremental() throws Exception {
+        assertThat("by default all elements are exported", testling.isIncremental(), is(Boolean.FALSE));
+    }
+
+
+    /**
+     * Tests {@link ExportCommand#getResultFormat()}
+     */
+    @Test
+    public void testGetResultFormat() throws Exception {
+        assertThat("by default the result is logged", testling.getResultFormat(), is(ResultFormat.LOG));
+    }
+
+    /**
+     * Tests {@link ExportCommand#getIdentifiersFrom()}
+     */
+    @Test
+    public void testGetIdentifiersFrom() throws Exception {
+        assertThat("by default only the arguments are used", testling.getIdentifiersFrom(), is(nullValue()));
+    }
+
+
 }
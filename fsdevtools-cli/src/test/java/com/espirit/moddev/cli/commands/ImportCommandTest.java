@@ -23,6 +23,7 @@
 package com.espirit.moddev.cli.commands;
 
 import com.espirit.moddev.cli.CliConstants;
+import com.espirit.moddev.cli.results.ResultFormat;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -61,4 +62,20 @@ public class ImportCommandTest {
     public void testGetImportComment() throws Exception {
         assertThat("Expect null value", testling.getImportComment(), is("Imported by " + CliConstants.FS_CLI));
     }
+
+    /**
+     * Test method for {@link ImportCommand#isSkipUnchanged()}.
+     */
+    @Test
+    public void testIsSkipUnchanged() throws Exception {
+        assertThat("Expect false", testling.isSkipUnchanged(), is(Boolean.FALSE));
+    }
+
+    /**
+     * Test method for {@link ImportCommand#getResultFormat()}.
+     */
+    @Test
+    public void testGetResultFormat() throws Exception {
+        assertThat("Expect log", testling.getResultFormat(), is(ResultFormat.LOG));
+    }
 }
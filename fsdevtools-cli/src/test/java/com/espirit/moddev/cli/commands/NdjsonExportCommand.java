@@ -0,0 +1,50 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands;
+
+import com.espirit.moddev.cli.commands.export.ExportCommand;
+import com.espirit.moddev.cli.results.ExportResult;
+import com.espirit.moddev.cli.results.logging.MockedExportResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Export command that reports a mocked result without a FirstSpirit connection.
+ */
+@com.github.rvesse.airline.annotations.Command(name = "ndjsonexport")
+public class NdjsonExportCommand extends ExportCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NdjsonExportCommand.class);
+
+    @Override
+    public boolean needsContext() {
+        return false;
+    }
+
+    @Override
+    protected ExportResult exportStoreElements() {
+        LOGGER.info("exporting mocked elements");
+        return new ExportResult(new MockedExportResult(), getResultFormat(), getResultFile());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.batch;
+
+import com.espirit.moddev.cli.Cli;
+import com.espirit.moddev.cli.commands.export.ExportCommand;
+import com.espirit.moddev.cli.commands.help.HelpCommand;
+import com.espirit.moddev.cli.results.SimpleResult;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author e-Spirit AG
+ */
+public class BatchCommandTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parseSkipsCommentsAndBlankLines() {
+        final List<BatchCommand.BatchLine> lines = BatchCommand.parse(Arrays.asList("# nightly sync", "", "fs-cli help", "export -- pageref:a"));
+        assertThat(lines.size(), is(2));
+        assertThat(lines.get(0).getLineNumber(), is(3));
+        assertThat(lines.get(0).getCommand(), is(instanceOf(HelpCommand.class)));
+        assertThat(lines.get(1).getCommand(), is(instanceOf(ExportCommand.class)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsNestedBatch() {
+        BatchCommand.parse(Arrays.asList("help", "batch -f other.txt"));
+    }
+
+    @Test
+    public void exportsIntoDifferentDirectoriesAreGrouped() {
+        final List<BatchCommand.BatchLine> lines = BatchCommand.parse(Arrays.asList("-sd a export -- pageref:a",
+                                                                                    "-sd b export -- pageref:b",
+                                                                                    "-sd a export -- pageref:c",
+                                                                                    "help",
+                                                                                    "-sd c export -- pageref:d"));
+        final List<List<BatchCommand.BatchLine>> steps = BatchCommand.groupIndependentCommands(lines, true);
+        assertThat(steps.size(), is(4));
+        assertThat(steps.get(0).size(), is(2));
+        assertThat(steps.get(1).size(), is(1));
+        assertThat(steps.get(2).get(0).getCommand(), is(instanceOf(HelpCommand.class)));
+        assertThat(steps.get(3).size(), is(1));
+    }
+
+    @Test
+    public void sequentialExecutionDoesNotGroup() {
+        final List<BatchCommand.BatchLine> lines = BatchCommand.parse(Arrays.asList("-sd a export -- pageref:a", "-sd b export -- pageref:b"));
+        assertThat(BatchCommand.groupIndependentCommands(lines, false).size(), is(2));
+    }
+
+    @Test
+    public void workerThreadsKeepTheirOwnCli() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (BatchCommand.WorkerClis workerClis = new BatchCommand.WorkerClis()) {
+            final Cli cli = workerClis.get();
+            assertThat(workerClis.get(), is(sameInstance(cli)));
+            final Cli workerCli = CompletableFuture.supplyAsync(workerClis::get, executor).get();
+            assertThat(workerCli, is(not(sameInstance(cli))));
+            assertThat(CompletableFuture.supplyAsync(workerClis::get, executor).get(), is(sameInstance(workerCli)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void executesScriptFromFile() throws Exception {
+        final File script = temporaryFolder.newFile();
+        Files.write(script.toPath(), Arrays.asList("help", "help export"), StandardCharsets.UTF_8);
+        final BatchCommand testling = new BatchCommand();
+        testling.setFile(script.getPath());
+        final SimpleResult<Integer> result = testling.call();
+        assertThat(result.isError(), is(false));
+        assertThat(result.get(), is(2));
+    }
+
+    @Test
+    public void failingCommandFailsBatchAndSkipsRemainingCommands() throws Exception {
+        final File script = temporaryFolder.newFile();
+        Files.write(script.toPath(), Arrays.asList("throwexception", "help"), StandardCharsets.UTF_8);
+        final BatchCommand testling = new BatchCommand();
+        testling.setFile(script.getPath());
+        assertThat(testling.call().isError(), is(true));
+    }
+}
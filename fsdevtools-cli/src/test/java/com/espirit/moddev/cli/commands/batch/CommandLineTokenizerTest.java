@@ -0,0 +1,67 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.batch;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author e-Spirit AG
+ */
+public class CommandLineTokenizerTest {
+
+    @Test
+    public void splitsAtWhitespace() {
+        assertThat(CommandLineTokenizer.tokenize("  export -sd  dir\tpageref:a "), is(Arrays.asList("export", "-sd", "dir", "pageref:a")));
+    }
+
+    @Test
+    public void quotesGroupArguments() {
+        assertThat(CommandLineTokenizer.tokenize("export -sd \"my dir\" 'path:/a b'"), is(Arrays.asList("export", "-sd", "my dir", "path:/a b")));
+    }
+
+    @Test
+    public void backslashEscapesWithinDoubleQuotesOnly() {
+        assertThat(CommandLineTokenizer.tokenize("export -sd C:\\sync \"a\\\"b\\\\\""), is(Arrays.asList("export", "-sd", "C:\\sync", "a\"b\\")));
+    }
+
+    @Test
+    public void emptyQuotesAreAnArgument() {
+        assertThat(CommandLineTokenizer.tokenize("export \"\""), is(Arrays.asList("export", "")));
+    }
+
+    @Test
+    public void blankLineHasNoArguments() {
+        assertThat(CommandLineTokenizer.tokenize("   "), is(Collections.<String>emptyList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unclosedQuoteIsRejected() {
+        CommandLineTokenizer.tokenize("export \"pageref:a");
+    }
+}
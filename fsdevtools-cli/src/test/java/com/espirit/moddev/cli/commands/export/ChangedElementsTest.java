@@ -0,0 +1,229 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import de.espirit.common.util.Filter;
+import de.espirit.firstspirit.access.project.Project;
+import de.espirit.firstspirit.access.store.BasicElementInfo;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.store.access.BasicElementInfoImpl;
+import de.espirit.firstspirit.storage.Revision;
+import de.espirit.firstspirit.storage.RevisionMetaData;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChangedElementsTest {
+
+    private static final String STORE_NAME = "pagestore";
+    private static final String IDENTIFIERS = "[pagestore]";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Project project;
+    private Store store;
+    private IDProvider page;
+    private IDProvider folder;
+    private IDProvider pageInFolder;
+    private IDProvider outside;
+    private final List<Revision> revisions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        project = mock(Project.class);
+        store = mock(Store.class);
+        when(store.getType()).thenReturn(Store.Type.PAGESTORE);
+        when(store.getProject()).thenReturn(project);
+        when(store.getId()).thenReturn(1L);
+        when(store.getStore()).thenReturn(store);
+        page = createElement(2, store);
+        folder = createElement(3, store);
+        pageInFolder = createElement(4, folder);
+        outside = createElement(9, null);
+        when(project.getRevisions(any(Revision.class), any(Revision.class), anyInt(), any())).thenAnswer(invocation -> {
+            final Revision start = (Revision) invocation.getArguments()[0];
+            final Revision end = (Revision) invocation.getArguments()[1];
+            @SuppressWarnings("unchecked")
+            final Filter<Revision> filter = (Filter<Revision>) invocation.getArguments()[3];
+            final List<Revision> result = new ArrayList<>();
+            for (final Revision revision : revisions) {
+                if (revision.getId() >= start.getId() && revision.getId() <= end.getId() && (filter == null || filter.accept(revision))) {
+                    result.add(revision);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Test
+    public void testWatermarkAndTombstonesArePersistedBetweenRuns() throws Exception {
+        // first run: no watermark, the root is exported completely
+        commit(10, changes(), changes(), changes());
+        ChangedElements changed = run();
+        assertThat(changed.getSubtrees(), contains((IDProvider) store));
+        assertThat(changed.getElements(), is(empty()));
+        assertThat(load().getRevision(STORE_NAME, IDENTIFIERS), is(10L));
+
+        // second run: a page of the folder is deleted, another page and an element outside the root are modified
+        commit(11, changes(), changes(folder), changes(5));
+        commit(12, changes(), changes(page, outside), changes());
+        doReturn(Arrays.asList(folder, page, outside)).when(store).getElements(Arrays.asList(3L, 2L, 9L));
+        changed = run();
+        assertThat("The parent of a deleted element is exported with its children.", changed.getSubtrees(), contains(folder));
+        assertThat(changed.getElements(), contains(page));
+        assertThat(load().getRevision(STORE_NAME, IDENTIFIERS), is(12L));
+        assertThat(load().getTombstones(STORE_NAME), contains(5L));
+
+        // third run: the deleted page is restored with its node id, and a child of it is modified
+        final IDProvider restored = createElement(5, folder);
+        final IDProvider childOfRestored = createElement(6, restored);
+        commit(13, changes(restored), changes(childOfRestored), changes());
+        doReturn(Arrays.asList(restored, childOfRestored)).when(store).getElements(Arrays.asList(5L, 6L));
+        changed = run();
+        assertThat("A restored element is exported with its children.", changed.getSubtrees(), contains(restored));
+        assertThat("Elements below an exported subtree are not exported again.", changed.getElements(), is(empty()));
+        assertThat(load().getTombstones(STORE_NAME), is(empty()));
+        verify(pageInFolder, never()).getParent();
+    }
+
+    @Test
+    public void testNothingChangedKeepsWatermark() throws Exception {
+        commit(10, changes(), changes(), changes());
+        run();
+        final ChangedElements changed = run();
+
+        assertThat(changed.getElements(), is(empty()));
+        assertThat(changed.getSubtrees(), is(empty()));
+        assertThat(changed.getRevision(), is(10L));
+        verify(store, never()).getElements(any());
+    }
+
+    @Test
+    public void testMissingRevisionExportsRootsAgain() throws Exception {
+        commit(10, changes(), changes(), changes());
+        final ExportWatermarks watermarks = load();
+        watermarks.setRevision(STORE_NAME, IDENTIFIERS, 7);
+        watermarks.setTombstones(STORE_NAME, new HashSet<>(Collections.singletonList(5L)));
+        watermarks.save();
+
+        final ChangedElements changed = run();
+
+        assertThat(changed.getSubtrees(), contains((IDProvider) store));
+        assertThat(load().getTombstones(STORE_NAME), is(empty()));
+    }
+
+    @Test
+    public void testWithoutChildrenOnlyRootsAreSelected() {
+        commit(10, changes(), changes(), changes());
+        commit(11, changes(), changes(page, folder), changes());
+        doReturn(Arrays.asList(page, folder)).when(store).getElements(Arrays.asList(2L, 3L));
+
+        final ChangedElements changed = ChangedElements.collect(Collections.singletonList(page), 10, false, Collections.emptySet());
+
+        assertThat(changed.getElements(), contains(page));
+        assertThat(changed.getSubtrees(), is(empty()));
+    }
+
+    /**
+     * Collects the changes of the store like an incremental export does, with the watermarks of the temporary folder, and saves the watermarks.
+     */
+    private ChangedElements run() throws Exception {
+        final ExportWatermarks watermarks = load();
+        final long watermark = watermarks.getRevision(STORE_NAME, IDENTIFIERS);
+        final ChangedElements changed = ChangedElements.collect(Collections.singletonList((IDProvider) store), watermark, true,
+                                                                watermarks.getTombstones(STORE_NAME));
+        watermarks.setRevision(STORE_NAME, IDENTIFIERS, changed.getRevision());
+        watermarks.setTombstones(STORE_NAME, changed.getTombstones());
+        watermarks.save();
+        return changed;
+    }
+
+    private ExportWatermarks load() throws Exception {
+        return ExportWatermarks.load(temporaryFolder.getRoot(), false);
+    }
+
+    private void commit(final long id, final Set<BasicElementInfo> created, final Set<BasicElementInfo> modified,
+                        final Set<BasicElementInfo> deleted) {
+        final RevisionMetaData metaData = mock(RevisionMetaData.class);
+        when(metaData.getCreatedElements()).thenReturn(created);
+        when(metaData.getModifiedElements()).thenReturn(modified);
+        when(metaData.getDeletedElements()).thenReturn(deleted);
+        final Revision revision = mock(Revision.class);
+        when(revision.getId()).thenReturn(id);
+        when(revision.getMetaData()).thenReturn(metaData);
+        revisions.add(revision);
+        when(project.getRevision(id)).thenReturn(revision);
+        when(project.getRevision(any(Date.class))).thenReturn(revision);
+    }
+
+    private static Set<BasicElementInfo> changes(final IDProvider... elements) {
+        final long[] nodeIds = new long[elements.length];
+        for (int index = 0; index < elements.length; index++) {
+            nodeIds[index] = elements[index].getId();
+        }
+        return changes(nodeIds);
+    }
+
+    private static Set<BasicElementInfo> changes(final long... nodeIds) {
+        // in a stable order, so the changed node ids are requested in a known order
+        final Set<BasicElementInfo> changes = new LinkedHashSet<>();
+        for (final long nodeId : nodeIds) {
+            changes.add(new BasicElementInfoImpl(Store.Type.PAGESTORE, "PAGE", nodeId, "element_" + nodeId, -1));
+        }
+        return changes;
+    }
+
+    private IDProvider createElement(final long id, final IDProvider parent) {
+        final IDProvider element = mock(IDProvider.class);
+        when(element.getId()).thenReturn(id);
+        when(element.getStore()).thenReturn(store);
+        when(element.getParent()).thenReturn(parent);
+        return element;
+    }
+}
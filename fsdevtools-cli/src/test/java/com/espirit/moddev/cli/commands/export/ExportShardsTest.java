@@ -0,0 +1,93 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import com.espirit.moddev.cli.api.parsing.identifier.EntitiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.PathIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.ProjectPropertiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.RootNodeIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.transport.PropertiesTransportOptions;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ExportShardsTest {
+
+    @Test
+    public void testShardNameOfUidIdentifier() {
+        assertThat(ExportShards.getShardName(new UidIdentifier(UidMapping.PAGEREF, "home")), is("sitestore"));
+        assertThat(ExportShards.getShardName(new UidIdentifier(UidMapping.MEDIA, "logo")), is("mediastore"));
+    }
+
+    @Test
+    public void testShardNameOfRootNodeIdentifier() {
+        assertThat(ExportShards.getShardName(new RootNodeIdentifier(IDProvider.UidType.TEMPLATESTORE)), is("templatestore"));
+    }
+
+    @Test
+    public void testShardNameOfEntitiesIdentifier() {
+        assertThat(ExportShards.getShardName(new EntitiesIdentifier("products")), is("contentstore"));
+    }
+
+    @Test
+    public void testShardNameOfPathIdentifier() {
+        assertThat(ExportShards.getShardName(new PathIdentifier("/PageStore/folder/page")), is("pagestore"));
+        assertThat(ExportShards.getShardName(new PathIdentifier("/templatestore")), is("templatestore"));
+        assertThat(ExportShards.getShardName(new PathIdentifier("/unknown/element")), is(ExportShards.PROJECT_SHARD));
+    }
+
+    @Test
+    public void testShardNameOfProjectProperties() {
+        final Identifier identifier =
+            new ProjectPropertiesIdentifier(EnumSet.of(PropertiesTransportOptions.ProjectPropertyType.LANGUAGES));
+        assertThat(ExportShards.getShardName(identifier), is(ExportShards.PROJECT_SHARD));
+    }
+
+    @Test
+    public void testPartitionKeepsOrder() {
+        final Identifier homepage = new UidIdentifier(UidMapping.PAGE, "homepage");
+        final Identifier pageRef = new UidIdentifier(UidMapping.PAGEREF, "homepage");
+        final Identifier template = new UidIdentifier(UidMapping.PAGETEMPLATE, "default");
+        final Identifier folder = new PathIdentifier("/PageStore/folder");
+
+        final Map<String, List<Identifier>> shards = ExportShards.partition(Arrays.asList(homepage, pageRef, template, folder));
+
+        assertThat(shards.keySet(), contains("pagestore", "sitestore", "templatestore"));
+        assertThat(shards.get("pagestore"), contains(homepage, folder));
+        assertThat(shards.get("sitestore"), contains(pageRef));
+        assertThat(shards.get("templatestore"), contains(template));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ExportWatermarksTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNoStateFile() throws Exception {
+        final ExportWatermarks watermarks = ExportWatermarks.load(temporaryFolder.getRoot(), false);
+
+        assertThat(watermarks.getRevision("pagestore", "[pagestore]"), is(ExportWatermarks.NO_REVISION));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        final ExportWatermarks watermarks = ExportWatermarks.load(temporaryFolder.getRoot(), false);
+        watermarks.setRevision("pagestore", "[pagestore]", 42);
+        watermarks.save();
+
+        assertThat(new File(temporaryFolder.getRoot(), ExportWatermarks.STATE_FILE_NAME).isFile(), is(true));
+        assertThat(ExportWatermarks.load(temporaryFolder.getRoot(), false).getRevision("pagestore", "[pagestore]"), is(42L));
+    }
+
+    @Test
+    public void testOtherIdentifiersInvalidateWatermark() throws Exception {
+        final ExportWatermarks watermarks = ExportWatermarks.load(temporaryFolder.getRoot(), false);
+        watermarks.setRevision("pagestore", "[pagestore]", 42);
+
+        assertThat(watermarks.getRevision("pagestore", "[page:homepage]"), is(ExportWatermarks.NO_REVISION));
+    }
+
+    @Test
+    public void testReleaseAndCurrentStateAreSeparate() throws Exception {
+        final ExportWatermarks current = ExportWatermarks.load(temporaryFolder.getRoot(), false);
+        current.setRevision("pagestore", "[pagestore]", 42);
+        current.save();
+
+        assertThat(ExportWatermarks.load(temporaryFolder.getRoot(), true).getRevision("pagestore", "[pagestore]"),
+                   is(ExportWatermarks.NO_REVISION));
+    }
+
+    @Test
+    public void testOnlyNewestTombstonesAreKept() throws Exception {
+        final Set<Long> tombstones = new LinkedHashSet<>();
+        for (long nodeId = 0; nodeId < ExportWatermarks.MAX_TOMBSTONES + 2; nodeId++) {
+            tombstones.add(nodeId);
+        }
+        final ExportWatermarks watermarks = ExportWatermarks.load(temporaryFolder.getRoot(), false);
+        watermarks.setTombstones("pagestore", tombstones);
+        watermarks.save();
+
+        final Set<Long> loaded = ExportWatermarks.load(temporaryFolder.getRoot(), false).getTombstones("pagestore");
+        assertThat(loaded.size(), is(ExportWatermarks.MAX_TOMBSTONES));
+        assertThat(loaded.iterator().next(), is(2L));
+        assertThat(ExportWatermarks.load(temporaryFolder.getRoot(), false).getTombstones("mediastore").isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import com.espirit.moddev.cli.api.parsing.identifier.EntitiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.Identifier;
+import com.espirit.moddev.cli.api.parsing.identifier.PathIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.ProjectPropertiesIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidIdentifier;
+import com.espirit.moddev.cli.api.parsing.identifier.UidMapping;
+import com.espirit.moddev.cli.api.parsing.parser.EntitiesIdentifierParser;
+import com.espirit.moddev.cli.api.parsing.parser.PathIdentifierParser;
+import com.espirit.moddev.cli.api.parsing.parser.ProjectPropertiesParser;
+import com.espirit.moddev.cli.api.parsing.parser.RegistryBasedParser;
+import com.espirit.moddev.cli.api.parsing.parser.UidIdentifierParser;
+
+import de.espirit.firstspirit.transport.PropertiesTransportOptions.ProjectPropertyType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class IdentifierBatchesTest {
+
+    private RegistryBasedParser parser;
+    private List<List<Identifier>> batches;
+
+    @Before
+    public void setUp() {
+        parser = new RegistryBasedParser();
+        parser.registerParser(new EntitiesIdentifierParser());
+        parser.registerParser(new UidIdentifierParser());
+        parser.registerParser(new ProjectPropertiesParser());
+        parser.registerParser(new PathIdentifierParser());
+        batches = new ArrayList<>();
+    }
+
+    @Test
+    public void testDuplicatesArePassedOnce() throws Exception {
+        final IdentifierBatches testling = new IdentifierBatches(parser, 2, batches::add);
+        testling.read(new BufferedReader(new StringReader("page:homepage\nentities:news\nPAGE : homepage\npath:/PageStore/folder\nentities:news\n")));
+
+        assertThat(testling.finish(), is(3));
+        assertThat(flatten(batches), contains(new UidIdentifier(UidMapping.PAGE, "homepage"), new EntitiesIdentifier("news"),
+                                              new PathIdentifier("/PageStore/folder")));
+        for (final List<Identifier> batch : batches) {
+            assertThat(batch.size(), lessThanOrEqualTo(2));
+        }
+    }
+
+    @Test
+    public void testBlankLinesAndCommentsAreIgnored() throws Exception {
+        final IdentifierBatches testling = new IdentifierBatches(parser, IdentifierBatches.DEFAULT_BATCH_SIZE, batches::add);
+        testling.read(new BufferedReader(new StringReader("# generated\n\n   \n  page:homepage  \n")));
+
+        assertThat(testling.finish(), is(1));
+        assertThat(flatten(batches), contains(new UidIdentifier(UidMapping.PAGE, "homepage")));
+    }
+
+    @Test
+    public void testProjectPropertiesAreMerged() {
+        final IdentifierBatches testling = new IdentifierBatches(parser, 1, batches::add);
+        testling.addAll(Arrays.asList("projectproperty:LANGUAGES", "page:homepage", "projectproperty:GROUPS", "projectproperty:LANGUAGES"));
+
+        assertThat(testling.finish(), is(2));
+        assertThat(flatten(batches), contains(new UidIdentifier(UidMapping.PAGE, "homepage"),
+                                              new ProjectPropertiesIdentifier(EnumSet.of(ProjectPropertyType.LANGUAGES, ProjectPropertyType.GROUPS))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSizeMustBePositive() {
+        new IdentifierBatches(parser, 0, batches::add);
+    }
+
+    private static List<Identifier> flatten(final List<List<Identifier>> batches) {
+        final List<Identifier> identifiers = new ArrayList<>();
+        batches.forEach(identifiers::addAll);
+        return identifiers;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.commands.export;
+
+import de.espirit.firstspirit.io.FileHandle;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.operations.ExportOperation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MergedExportResultTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullResults() {
+        new MergedExportResult(null);
+    }
+
+    @Test
+    public void testMergesElementsAndFiles() {
+        final ExportInfo page = mock(ExportInfo.class);
+        final ExportInfo template = mock(ExportInfo.class);
+        final FileHandle pageFile = mock(FileHandle.class);
+        final FileHandle templateFile = mock(FileHandle.class);
+
+        final ExportOperation.Result pageStoreResult = mock(ExportOperation.Result.class);
+        when(pageStoreResult.getCreatedElements()).thenReturn(Collections.singletonList(page));
+        when(pageStoreResult.getCreatedFiles()).thenReturn(new HashSet<>(Collections.singletonList(pageFile)));
+        final ExportOperation.Result templateStoreResult = mock(ExportOperation.Result.class);
+        when(templateStoreResult.getCreatedElements()).thenReturn(Collections.singletonList(template));
+        when(templateStoreResult.getCreatedFiles()).thenReturn(new HashSet<>(Collections.singletonList(templateFile)));
+
+        final MergedExportResult result = new MergedExportResult(Arrays.asList(pageStoreResult, templateStoreResult));
+
+        assertThat(result.getCreatedElements(), containsInAnyOrder(page, template));
+        assertThat(result.getCreatedFiles(), containsInAnyOrder(pageFile, templateFile));
+    }
+
+    @Test
+    public void testSingleEmptyResult() {
+        final MergedExportResult result = new MergedExportResult(Collections.singletonList(mock(ExportOperation.Result.class)));
+
+        assertThat(result.getUpdatedElements(), is(empty()));
+        assertThat(result.getDeletedFiles(), is(empty()));
+        assertThat(result.getMovedFileHandles(), is(empty()));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.daemon;
+
+import com.espirit.moddev.cli.commands.ImportCommand;
+import com.espirit.moddev.cli.commands.export.AbstractExportCommand;
+import com.espirit.moddev.cli.commands.export.ExportCommand;
+import com.espirit.moddev.cli.results.logging.NdjsonResultWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author e-Spirit AG
+ */
+public class DaemonServerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File daemonFile;
+    private DaemonServer testling;
+    private Thread serverThread;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    @Before
+    public void setUp() throws Exception {
+        daemonFile = new File(temporaryFolder.getRoot(), "daemon.properties");
+        testling = new DaemonServer(0, daemonFile);
+        serverThread = new Thread(testling::serve);
+        serverThread.start();
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        testling.close();
+        serverThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void executesCommandAndSendsOutputToClient() throws Exception {
+        final int exitCode = new DaemonClient(daemonFile).execute(new String[]{"help"}, new PrintStream(out), new PrintStream(err));
+        assertEquals(0, exitCode);
+        assertThat(out.toString(), containsString("daemon"));
+    }
+
+    @Test
+    public void ndjsonResultOnStdoutIsNotMixedWithLogLines() throws Exception {
+        final String[] args = {"ndjsonexport", "--result-format", "ndjson", "--", "pagestore"};
+        final int exitCode = new DaemonClient(daemonFile).execute(args, new PrintStream(out), new PrintStream(err));
+        assertEquals(0, exitCode);
+        final String[] lines = out.toString("UTF-8").split("\n");
+        for (final String line : lines) {
+            assertThat(line, startsWith("{\"record\":"));
+        }
+        assertThat(lines[lines.length - 1], startsWith("{\"record\":\"summary\""));
+        assertThat(err.toString("UTF-8"), containsString("exporting mocked elements"));
+    }
+
+    @Test
+    public void failingCommandReturnsExitCodeOne() throws Exception {
+        final int exitCode = new DaemonClient(daemonFile).execute(new String[]{"throwexception"}, new PrintStream(out), new PrintStream(err));
+        assertEquals(1, exitCode);
+    }
+
+    @Test
+    public void daemonCommandIsRejectedWithinDaemon() throws Exception {
+        final int exitCode = new DaemonClient(daemonFile).execute(new String[]{"daemon"}, new PrintStream(out), new PrintStream(err));
+        assertEquals(1, exitCode);
+    }
+
+    @Test
+    public void daemonKeepsServingAfterFailedCommand() throws Exception {
+        final DaemonClient client = new DaemonClient(daemonFile);
+        client.execute(new String[]{"throwexception"}, new PrintStream(out), new PrintStream(err));
+        assertEquals(0, client.execute(new String[]{"help"}, new PrintStream(out), new PrintStream(err)));
+    }
+
+    @Test(expected = IOException.class)
+    public void requestWithInvalidTokenIsRejected() throws Exception {
+        final Properties properties = DaemonProtocol.readDaemonFile(daemonFile);
+        properties.setProperty(DaemonProtocol.PROPERTY_TOKEN, "invalid");
+        final File forgedDaemonFile = temporaryFolder.newFile();
+        try (OutputStream outputStream = new FileOutputStream(forgedDaemonFile)) {
+            properties.store(outputStream, null);
+        }
+        new DaemonClient(forgedDaemonFile).execute(new String[]{"help"}, new PrintStream(out), new PrintStream(err));
+    }
+
+    @Test
+    public void stopEndsServingAndCloseRemovesDaemonFile() throws Exception {
+        new DaemonClient(daemonFile).stop();
+        serverThread.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse("daemon should not serve after stop", serverThread.isAlive());
+        testling.close();
+        assertFalse("daemon file should be removed", daemonFile.exists());
+    }
+
+    @Test
+    public void filesOfExportAreResolvedAgainstWorkingDirectoryOfClient() {
+        final File workingDirectory = temporaryFolder.getRoot();
+        final File absoluteFile = new File(workingDirectory, "absolute.ndjson").getAbsoluteFile();
+        final ExportCommand command = new ExportCommand();
+        command.setSynchronizationDirectory("sync");
+        command.setTimingsFile("timings.json");
+        command.setFlightRecordingFile("export.jfr");
+        command.setResultFile(absoluteFile.getPath());
+        command.setIdentifiersFrom("identifiers.txt");
+
+        DaemonServer.adaptToClient(command, workingDirectory.getPath(), Collections.<String, String>emptyMap());
+
+        assertEquals(new File(workingDirectory, "sync").getPath(), command.getSynchronizationDirectoryString());
+        assertEquals(new File(workingDirectory, "timings.json").getPath(), command.getTimingsFile());
+        assertEquals(new File(workingDirectory, "export.jfr").getPath(), command.getFlightRecordingFile());
+        assertEquals(absoluteFile.getPath(), command.getResultFile());
+        assertEquals(new File(workingDirectory, "identifiers.txt").getPath(), command.getIdentifiersFrom());
+    }
+
+    @Test
+    public void filesOfImportAreResolvedAgainstWorkingDirectoryOfClient() {
+        final File workingDirectory = temporaryFolder.getRoot();
+        final ImportCommand command = new ImportCommand();
+        command.setResultFile("import.ndjson");
+        command.setProblemsFile("problems.txt");
+
+        DaemonServer.adaptToClient(command, workingDirectory.getPath(), Collections.<String, String>emptyMap());
+
+        assertEquals(new File(workingDirectory, "import.ndjson").getPath(), command.getResultFile());
+        assertEquals(new File(workingDirectory, "problems.txt").getPath(), command.getProblemsFile());
+        assertNull("unset files stay unset", command.getTimingsFile());
+    }
+
+    @Test
+    public void standardStreamsAreNotResolved() {
+        final ExportCommand command = new ExportCommand();
+        command.setResultFile(NdjsonResultWriter.STDOUT);
+        command.setIdentifiersFrom(AbstractExportCommand.STDIN);
+
+        DaemonServer.adaptToClient(command, temporaryFolder.getRoot().getPath(), Collections.<String, String>emptyMap());
+
+        assertEquals(NdjsonResultWriter.STDOUT, command.getResultFile());
+        assertEquals(AbstractExportCommand.STDIN, command.getIdentifiersFrom());
+    }
+
+    @Test(expected = IOException.class)
+    public void clientFailsWithoutRunningDaemon() throws Exception {
+        new DaemonClient(new File(temporaryFolder.getRoot(), "missing.properties")).stop();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.exception;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FsLoggingBridgeTest {
+
+    private final FsLoggingBridge bridge = new FsLoggingBridge();
+    private Logger log4jLogger;
+    private Level previousLevel;
+
+    @Before
+    public void setUp() {
+        log4jLogger = Logger.getLogger(LoggingClass.class);
+        previousLevel = log4jLogger.getLevel();
+        log4jLogger.setLevel(Level.WARN);
+        FsLoggingBridge.refreshLevels();
+    }
+
+    @After
+    public void tearDown() {
+        log4jLogger.setLevel(previousLevel);
+        FsLoggingBridge.refreshLevels();
+    }
+
+    @Test
+    public void testEnabledLevels() {
+        assertThat(bridge.isTraceEnabled(LoggingClass.class), is(false));
+        assertThat(bridge.isDebugEnabled(LoggingClass.class), is(false));
+        assertThat(bridge.isInfoEnabled(LoggingClass.class), is(false));
+        assertThat(bridge.isWarnEnabled(LoggingClass.class), is(true));
+    }
+
+    @Test
+    public void testChangedLevelNeedsRefresh() {
+        assertThat(bridge.isDebugEnabled(LoggingClass.class), is(false));
+
+        log4jLogger.setLevel(Level.DEBUG);
+
+        // the snapshot is kept until the levels are refreshed
+        assertThat(bridge.isDebugEnabled(LoggingClass.class), is(false));
+        FsLoggingBridge.refreshLevels();
+        assertThat(bridge.isDebugEnabled(LoggingClass.class), is(true));
+        assertThat(bridge.isTraceEnabled(LoggingClass.class), is(false));
+    }
+
+    private static final class LoggingClass {
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.logging;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.WriterAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AsyncLogAppenderTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private StringWriter output;
+    private WriterAppender writerAppender;
+    private Logger logger;
+
+    @Before
+    public void setUp() {
+        output = new StringWriter();
+        writerAppender = new WriterAppender(new PatternLayout("%m%n"), output);
+        logger = Logger.getLogger(AsyncLogAppenderTest.class.getName() + ".logger");
+        logger.setAdditivity(false);
+    }
+
+    @After
+    public void tearDown() {
+        logger.removeAllAppenders();
+        logger.setAdditivity(true);
+        logger.setLevel(null);
+    }
+
+    @Test
+    public void testEventsAreWrittenInOrder() {
+        final AsyncLogAppender appender = new AsyncLogAppender(Collections.<Appender>singletonList(writerAppender), 4);
+        logger.addAppender(appender);
+
+        final StringBuilder expected = new StringBuilder();
+        for (int index = 0; index < 100; index++) {
+            logger.info("line " + index);
+            expected.append("line ").append(index).append(NEW_LINE);
+        }
+        appender.flush();
+
+        assertThat(output.toString(), is(expected.toString()));
+        assertThat(writerAppender.getImmediateFlush(), is(true));
+        appender.close();
+    }
+
+    @Test
+    public void testCloseWritesQueuedEventsAndKeepsAppendersOpen() {
+        final AsyncLogAppender appender = new AsyncLogAppender(Collections.<Appender>singletonList(writerAppender), AsyncLogAppender.DEFAULT_CAPACITY);
+        logger.addAppender(appender);
+        logger.info("first");
+        logger.warn("second");
+
+        logger.removeAppender(appender);
+        appender.close();
+        logger.addAppender(writerAppender);
+        logger.info("third");
+
+        assertThat(output.toString(), is("first" + NEW_LINE + "second" + NEW_LINE + "third" + NEW_LINE));
+    }
+
+    @Test
+    public void testFlushInstalledWritesQueuedEvents() {
+        final Logger rootLogger = Logger.getRootLogger();
+        rootLogger.addAppender(writerAppender);
+        logger.setAdditivity(true);
+        logger.setLevel(Level.INFO);
+        AsyncLogAppender.install();
+        try {
+            logger.info("queued");
+
+            AsyncLogAppender.flushInstalled();
+
+            assertThat(output.toString(), containsString("queued" + NEW_LINE));
+        } finally {
+            AsyncLogAppender.uninstall();
+            rootLogger.removeAppender(writerAppender);
+        }
+    }
+
+    @Test
+    public void testFlushWithoutInstalledAppender() {
+        AsyncLogAppender.flushInstalled();
+        AsyncLogAppender.uninstall();
+    }
+}
@@ -0,0 +1,124 @@
+package com.espirit.moddev.cli.results.logging;
+
+import com.espirit.moddev.cli.results.ImportResult;
+import com.espirit.moddev.cli.results.ResultFormat;
+import de.espirit.firstspirit.access.store.IDProvider;
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.agency.StoreAgent;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ImportProblemResolverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNodeIdsAreResolvedInBulkPerStore() {
+        final Store pageStore = mock(Store.class);
+        final IDProvider page = createElement(1, "page", "page_uid");
+        final IDProvider folder = createElement(2, "folder", null);
+        doReturn(Arrays.asList(page, folder)).when(pageStore).getElements(any());
+        final StoreAgent storeAgent = mock(StoreAgent.class);
+        when(storeAgent.getStore(Store.Type.PAGESTORE)).thenReturn(pageStore);
+
+        final ImportOperation.Problem first = createProblem(Store.Type.PAGESTORE, 1);
+        final ImportOperation.Problem second = createProblem(Store.Type.PAGESTORE, 2);
+        final ImportOperation.Problem duplicate = createProblem(Store.Type.PAGESTORE, 1);
+        final ImportProblemResolver resolver = new ImportProblemResolver(storeAgent);
+        resolver.resolve(Arrays.asList(first, second, duplicate));
+
+        assertEquals("Label does not match.", " | uid: page_uid", resolver.getLabel(first));
+        assertEquals("Label does not match.", " | name: folder", resolver.getLabel(second));
+        assertEquals("Label does not match.", " | uid: page_uid", resolver.getLabel(duplicate));
+        verify(storeAgent, times(1)).getStore(Store.Type.PAGESTORE);
+        verify(pageStore, times(1)).getElements(Arrays.asList(1L, 2L));
+        verify(pageStore, never()).getStoreElement(anyLong());
+    }
+
+    @Test
+    public void testMissingElementsAreNotRequestedAgain() {
+        final Store mediaStore = mock(Store.class);
+        doReturn(Collections.emptyList()).when(mediaStore).getElements(any());
+        final StoreAgent storeAgent = mock(StoreAgent.class);
+        when(storeAgent.getStore(Store.Type.MEDIASTORE)).thenReturn(mediaStore);
+
+        final ImportOperation.Problem problem = createProblem(Store.Type.MEDIASTORE, 42);
+        final ImportProblemResolver resolver = new ImportProblemResolver(storeAgent);
+        resolver.resolve(Collections.singletonList(problem));
+        resolver.resolve(Collections.singletonList(problem));
+
+        assertEquals("Missing elements have no label.", "", resolver.getLabel(problem));
+        verify(mediaStore, times(1)).getElements(any());
+    }
+
+    @Test
+    public void testWithoutStoreAgent() {
+        final ImportOperation.Problem problem = createProblem(Store.Type.PAGESTORE, 1);
+        final ImportProblemResolver resolver = new ImportProblemResolver(null);
+        resolver.resolve(Collections.singletonList(problem));
+        assertEquals("Label does not match.", "", resolver.getLabel(problem));
+    }
+
+    @Test
+    public void testProblemsFile() throws Exception {
+        final MockLogger logger = new MockLogger(false);
+        final MockedImportResult importResult = new MockedImportResult(true);
+        final StoreAgent storeAgent = mock(StoreAgent.class);
+        final File problemsFile = new File(temporaryFolder.getRoot(), "problems.txt");
+
+        AdvancedLogger.writeImportProblems(importResult, problemsFile.getPath());
+        AdvancedLogger.logImportProblems(logger, storeAgent, importResult, problemsFile.getPath());
+
+        final List<String> expected = Arrays.asList("store: PAGESTORE | id: 1337 | reason: IdProvider not found",
+                                                    "store: MEDIASTORE | id: 123 | reason: Resolution invalid",
+                                                    "store: MEDIASTORE | id: 1932 | reason: Medium invalid",
+                                                    "store: TEMPLATESTORE | id: 1231 | reason: GOM is invalid");
+        assertEquals("Problems file does not match.", expected, Files.readAllLines(problemsFile.toPath(), StandardCharsets.UTF_8));
+        assertEquals("Result does not match.", "[INFO] Problems: 4 (written to '" + problemsFile.getPath() + "')" + MockLogger.NEW_LINE,
+                     logger.toString());
+        verifyZeroInteractions(storeAgent);
+    }
+
+    @Test
+    public void testProblemsFileIsWrittenWithNdjsonResults() throws Exception {
+        final File problemsFile = new File(temporaryFolder.getRoot(), "problems.txt");
+        final File resultFile = new File(temporaryFolder.getRoot(), "result.ndjson");
+        final StoreAgent storeAgent = mock(StoreAgent.class);
+
+        new ImportResult(storeAgent, new MockedImportResult(true), ResultFormat.NDJSON, resultFile.getPath(), problemsFile.getPath()).log();
+
+        assertTrue("Result file is missing.", resultFile.isFile());
+        assertEquals("Problem count does not match.", 4, Files.readAllLines(problemsFile.toPath(), StandardCharsets.UTF_8).size());
+        verifyZeroInteractions(storeAgent);
+    }
+
+    private static IDProvider createElement(final long id, final String name, final String uid) {
+        final IDProvider element = mock(IDProvider.class);
+        when(element.getId()).thenReturn(id);
+        when(element.getName()).thenReturn(name);
+        when(element.hasUid()).thenReturn(uid != null);
+        when(element.getUid()).thenReturn(uid);
+        return element;
+    }
+
+    private static ImportOperation.Problem createProblem(final Store.Type storeType, final long nodeId) {
+        final ImportOperation.Problem problem = mock(ImportOperation.Problem.class);
+        when(problem.getStoreType()).thenReturn(storeType);
+        when(problem.getNodeId()).thenReturn(nodeId);
+        return problem;
+    }
+}
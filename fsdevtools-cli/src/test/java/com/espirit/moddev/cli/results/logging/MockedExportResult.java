@@ -15,7 +15,7 @@ public class MockedExportResult implements ExportOperation.Result {
 
     private Collection<ExportInfo> _createdElements, _updateElements, _deletedElements, _movedElements;
 
-    MockedExportResult() {
+    public MockedExportResult() {
         this(true);
     }
 
@@ -30,7 +30,7 @@ public class MockedImportResult implements ImportOperation.Result {
             _lostAndFoundElements = Collections.emptySet();
             _createdEntities = Collections.emptySet();
             _updatedEntities = Collections.emptySet();
-            _problems = Collections.emptyList();
+            _problems = new ArrayList<>();
             _projectProperties = EnumSet.noneOf(PropertiesTransportOptions.ProjectPropertyType.class);
         }
     }
@@ -78,6 +78,10 @@ public class MockedImportResult implements ImportOperation.Result {
         }
     }
 
+    void addProblem(final Store.Type storeType, final long nodeId, final String message) {
+        _problems.add(createProblem(storeType, nodeId, message));
+    }
+
     private ImportOperation.Problem createProblem(final Store.Type storeType, final long nodeId, final String message) {
         return new ImportOperation.Problem() {
             @Override
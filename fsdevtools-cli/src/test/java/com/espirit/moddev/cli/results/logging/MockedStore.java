@@ -374,7 +374,14 @@ public class MockedStore implements Store {
 
     @Override
     public List<? extends IDProvider> getElements(final Collection<Long> collection) {
-        return null;
+        final List<IDProvider> elements = new ArrayList<>();
+        for (final Long id : collection) {
+            final IDProvider element = getStoreElement(id);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return elements;
     }
 
     @Override
@@ -0,0 +1,163 @@
+package com.espirit.moddev.cli.results.logging;
+
+import com.espirit.moddev.cli.results.ExportResult;
+import com.espirit.moddev.cli.results.ResultFormat;
+
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.operations.ImportOperation;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NdjsonResultWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullWriter() {
+        new NdjsonResultWriter(null);
+    }
+
+    @Test
+    public void testEmptyExportResult() throws Exception {
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeExportResult(new MockedExportResult(false));
+        assertEquals("Result does not match.",
+                     "{\"record\":\"summary\",\"operation\":\"export\",\"created\":0,\"updated\":0,\"deleted\":0,\"moved\":0,"
+                     + "\"createdFiles\":0,\"updatedFiles\":0,\"deletedFiles\":0,\"movedFiles\":0}\n", output.toString());
+    }
+
+    @Test
+    public void testEmptyImportResult() throws Exception {
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeImportResult(new MockedImportResult(false));
+        assertEquals("Result does not match.",
+                     "{\"record\":\"summary\",\"operation\":\"import\",\"created\":0,\"updated\":0,\"deleted\":0,\"moved\":0,\"lostAndFound\":0,"
+                     + "\"createdEntities\":0,\"updatedEntities\":0,\"projectProperties\":0,\"problems\":0}\n", output.toString());
+    }
+
+    @Test
+    public void testSkippedImport() throws Exception {
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeSkippedImport();
+        assertEquals("Result does not match.",
+                     "{\"record\":\"summary\",\"operation\":\"import\",\"skipped\":true,\"created\":0,\"updated\":0,\"deleted\":0,\"moved\":0,"
+                     + "\"lostAndFound\":0,\"createdEntities\":0,\"updatedEntities\":0,\"projectProperties\":0,\"problems\":0}\n", output.toString());
+    }
+
+    @Test
+    public void testExportResult() throws Exception {
+        final MockedExportResult exportResult = new MockedExportResult(true);
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeExportResult(exportResult);
+
+        final String[] lines = output.toString().split("\n");
+        final int elementCount = exportResult.getCreatedElements().size() + exportResult.getUpdatedElements().size()
+                                 + exportResult.getDeletedElements().size() + exportResult.getMovedElements().size();
+        assertEquals("Every element is one record", elementCount, countRecords(lines, "element"));
+        final String summary = lines[lines.length - 1];
+        assertThat(summary, startsWith("{\"record\":\"summary\""));
+        assertThat(summary, containsString("\"created\":" + exportResult.getCreatedElements().size() + ","));
+        // the FS_META info of the updated elements is not counted
+        assertThat(summary, containsString("\"updated\":" + (countWithoutFsMeta(exportResult.getUpdatedElements())) + ","));
+        assertThat(summary, containsString("\"createdFiles\":" + countRecords(lines, "file\",\"status\":\"created") + ","));
+    }
+
+    @Test
+    public void testImportResult() throws Exception {
+        final MockedImportResult importResult = new MockedImportResult(true);
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeImportResult(importResult);
+
+        final String[] lines = output.toString().split("\n");
+        assertEquals("Every problem is one record", importResult.getProblems().size(), countRecords(lines, "problem"));
+        assertEquals("Every entity is one record", importResult.getCreatedEntities().size() + importResult.getUpdatedEntities().size(),
+                     countRecords(lines, "entity"));
+        final String summary = lines[lines.length - 1];
+        assertThat(summary, containsString("\"problems\":" + importResult.getProblems().size() + "}"));
+        assertThat(summary, containsString("\"projectProperties\":" + importResult.getModifiedProjectProperties().size() + ","));
+    }
+
+    @Test
+    public void testStringsAreEscaped() throws Exception {
+        final ImportOperation.Problem problem = mock(ImportOperation.Problem.class);
+        when(problem.getStoreType()).thenReturn(Store.Type.PAGESTORE);
+        when(problem.getNodeId()).thenReturn(42L);
+        when(problem.getMessage()).thenReturn("uid \"home\"\nis\\invalid\u0001");
+        final ImportOperation.Result importResult = mock(ImportOperation.Result.class);
+        when(importResult.getProblems()).thenReturn(Collections.singletonList(problem));
+
+        final StringWriter output = new StringWriter();
+        new NdjsonResultWriter(output).writeImportResult(importResult);
+
+        assertThat(output.toString(), startsWith(
+            "{\"record\":\"problem\",\"store\":\"PAGESTORE\",\"id\":42,\"message\":\"uid \\\"home\\\"\\nis\\\\invalid\\u0001\"}\n"));
+    }
+
+    private static int countRecords(final String[] lines, final String record) {
+        int count = 0;
+        for (final String line : lines) {
+            if (line.startsWith("{\"record\":\"" + record)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countWithoutFsMeta(final Collection<ExportInfo> exportInfos) {
+        int count = 0;
+        for (final ExportInfo exportInfo : exportInfos) {
+            if (exportInfo.getType() != ExportInfo.Type.FS_META) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testIsStdout() {
+        assertEquals(true, NdjsonResultWriter.isStdout(null));
+        assertEquals(true, NdjsonResultWriter.isStdout(NdjsonResultWriter.STDOUT));
+        assertEquals(false, NdjsonResultWriter.isStdout("result.ndjson"));
+    }
+
+    @Test
+    public void testRedirectConsoleLogging() {
+        final ConsoleAppender stdout = new ConsoleAppender(new PatternLayout("%m%n"), ConsoleAppender.SYSTEM_OUT);
+        final ConsoleAppender stderr = new ConsoleAppender(new PatternLayout("%m%n"), ConsoleAppender.SYSTEM_ERR);
+        Logger.getRootLogger().addAppender(stdout);
+        Logger.getRootLogger().addAppender(stderr);
+        try {
+            NdjsonResultWriter.redirectConsoleLogging();
+
+            assertEquals("Target does not match.", ConsoleAppender.SYSTEM_ERR, stdout.getTarget());
+            assertEquals("Target does not match.", ConsoleAppender.SYSTEM_ERR, stderr.getTarget());
+        } finally {
+            Logger.getRootLogger().removeAppender(stdout);
+            Logger.getRootLogger().removeAppender(stderr);
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testUnwritableResultFileFailsResult() {
+        // a directory can not be opened as result file
+        new ExportResult(new MockedExportResult(false), ResultFormat.NDJSON, temporaryFolder.getRoot().getPath()).log();
+    }
+}
@@ -0,0 +1,88 @@
+package com.espirit.moddev.cli.results.logging;
+
+import de.espirit.firstspirit.access.store.Store;
+import de.espirit.firstspirit.store.access.nexport.ElementExportInfo;
+import de.espirit.firstspirit.store.access.nexport.ExportInfo;
+import de.espirit.firstspirit.store.access.nexport.PropertyTypeExportInfo;
+import de.espirit.firstspirit.transport.PropertiesTransportOptions;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReorganizedResultTest {
+
+    @Test
+    public void testStoreElementsAreGroupedInStoreOrder() {
+        final List<ExportInfo> elements = new ArrayList<>();
+        elements.add(new MockedElementExportInfo(Store.Type.TEMPLATESTORE, "template"));
+        elements.add(new MockedElementExportInfo(Store.Type.PAGESTORE, "second"));
+        elements.add(new MockedElementExportInfo(Store.Type.MEDIASTORE, "medium"));
+        elements.add(new MockedElementExportInfo(Store.Type.PAGESTORE, "first"));
+
+        final ReorganizedResult result = new ReorganizedResult(elements);
+
+        final Map<Store.Type, List<ElementExportInfo>> storeElements = result.getStoreElements();
+        assertEquals("Store types do not match.", Arrays.asList(Store.Type.PAGESTORE, Store.Type.MEDIASTORE, Store.Type.TEMPLATESTORE),
+                     new ArrayList<>(storeElements.keySet()));
+        assertEquals("Elements must keep the order of the result.", Arrays.asList("second", "first"),
+                     names(storeElements.get(Store.Type.PAGESTORE)));
+        assertEquals("Store element count does not match.", 4, result.getStoreElementCount());
+    }
+
+    @Test
+    public void testSortStoreElements() {
+        final List<ExportInfo> elements = new ArrayList<>();
+        elements.add(new MockedElementExportInfo(Store.Type.PAGESTORE, "third"));
+        elements.add(new MockedElementExportInfo(Store.Type.PAGESTORE, "first"));
+        elements.add(new MockedElementExportInfo(Store.Type.PAGESTORE, "second"));
+
+        final ReorganizedResult result = new ReorganizedResult(elements);
+        result.sortStoreElements();
+
+        assertEquals("Elements are not sorted.", Arrays.asList("first", "second", "third"),
+                     names(result.getStoreElements().get(Store.Type.PAGESTORE)));
+    }
+
+    @Test
+    public void testEntityCounters() {
+        final List<ExportInfo> elements = new ArrayList<>();
+        elements.add(new MockedEntityTypeExportInfo("news", "schemaA", 3));
+        elements.add(new MockedEntityTypeExportInfo("events", "schemaA", 2));
+        elements.add(new MockedEntityTypeExportInfo("products", "schemaB", 0));
+
+        final ReorganizedResult result = new ReorganizedResult(elements);
+
+        assertEquals("Entity type count does not match.", 3, result.getEntityTypes().size());
+        assertEquals("Entity count does not match.", 5, result.getEntityCount());
+        assertEquals("Schema count does not match.", 2, result.getSchemaCount());
+    }
+
+    @Test
+    public void testProjectPropertyWithoutTypeIsKept() {
+        final List<ExportInfo> elements = new ArrayList<>();
+        elements.add(new MockedPropertyTypeExportInfo(PropertiesTransportOptions.ProjectPropertyType.USERS));
+        elements.add(new MockedPropertyTypeExportInfo(null));
+        elements.add(new MockedPropertyTypeExportInfo(PropertiesTransportOptions.ProjectPropertyType.GROUPS));
+
+        final ReorganizedResult result = new ReorganizedResult(elements);
+
+        final Collection<PropertyTypeExportInfo> projectProperties = result.getProjectProperties();
+        assertEquals("Project property count does not match.", 3, projectProperties.size());
+        boolean untypedFound = false;
+        for (final PropertyTypeExportInfo projectProperty : projectProperties) {
+            untypedFound |= projectProperty.getPropertyType() == null;
+        }
+        assertTrue("Project property without type is missing.", untypedFound);
+    }
+
+    private static List<String> names(final List<ElementExportInfo> elements) {
+        final List<String> names = new ArrayList<>(elements.size());
+        for (final ElementExportInfo element : elements) {
+            names.add(element.getName());
+        }
+        return names;
+    }
+}
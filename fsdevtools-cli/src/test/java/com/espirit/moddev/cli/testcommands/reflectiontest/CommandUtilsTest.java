@@ -22,6 +22,7 @@
 
 package com.espirit.moddev.cli.testcommands.reflectiontest;
 
+import com.espirit.moddev.cli.api.annotations.Description;
 import com.espirit.moddev.cli.api.command.Command;
 import com.espirit.moddev.cli.commands.export.ExportCommand;
 import com.espirit.moddev.cli.reflection.CommandUtils;
@@ -31,6 +32,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author e-Spirit AG
@@ -45,6 +47,12 @@ public class CommandUtilsTest {
         Assert.assertEquals(4, commandClassesInPackage.size());
     }
 
+    @Test
+    public void indexRetrievesSameCommandClassesAsPackageScan() {
+        Set<Class<? extends Command>> indexedCommandClasses = CommandUtils.loadCommandClasses(DEFAULT_COMMAND_TEST_PACKAGE_NAME);
+        Assert.assertEquals(CommandUtils.scanForCommandClasses(DEFAULT_COMMAND_TEST_PACKAGE_NAME), indexedCommandClasses);
+    }
+
     /**
      * @author e-Spirit AG
      */
@@ -75,5 +83,27 @@ public class CommandUtilsTest {
             final String msg = ReflectionUtils.getDescriptionFromClass(ExportCommand.class);
             Assert.assertTrue("wrong project properties msg. was=\n" + msg, msg.contains(expectedMsgPart));
         }
+
+        @Test
+        public void readsCommandDescriptionOnlyOnce() {
+            final String msg = ReflectionUtils.getDescriptionFromClass(CountedDescription.class);
+            Assert.assertEquals("counted", msg);
+            Assert.assertSame("description should be cached", msg, ReflectionUtils.getDescriptionFromClass(CountedDescription.class));
+            Assert.assertEquals("description method should be invoked only once", 1, CountedDescription.INVOCATIONS.get());
+        }
+    }
+
+    /**
+     * Counts how often its description is read. Not a {@link Command}, so the package scan tests are not affected.
+     */
+    private static final class CountedDescription {
+
+        private static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+        @Description
+        public static String getCountedDescription() {
+            INVOCATIONS.incrementAndGet();
+            return "counted";
+        }
     }
 }
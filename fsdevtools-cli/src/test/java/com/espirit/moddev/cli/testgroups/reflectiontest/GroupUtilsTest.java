@@ -42,4 +42,10 @@ public class GroupUtilsTest {
         Assert.assertEquals(5, groupClassesInPackage.size());
     }
 
+    @Test
+    public void indexRetrievesSameGroupClassesAsPackageScan() {
+        final Set<Class<?>> indexedGroupClasses = GroupUtils.loadGroupClasses(DEFAULT_GROUP_TEST_PACKAGE_NAME);
+        Assert.assertEquals(GroupUtils.scanForGroupClasses(DEFAULT_GROUP_TEST_PACKAGE_NAME), indexedGroupClasses);
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class FlightRecordingTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<FlightRecording> recordings = new ArrayList<>();
+
+    @Before
+    public void requireFlightRecorder() {
+        assumeTrue("flight recorder not available", FlightRecording.isAvailable());
+    }
+
+    @After
+    public void stopRecordings() throws Exception {
+        for (final FlightRecording recording : recordings) {
+            recording.stop();
+        }
+        Timings.reset();
+    }
+
+    @Test
+    public void testRecordingIsWrittenOnStop() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "fs-cli.jfr");
+        final FlightRecording recording = start(file);
+        assertThat(FlightRecording.isRecording(), is(true));
+        try (Timings.Span span = Timings.start("export").setCount(2)) {
+            Timings.startDetail("resolve-identifier").setDetail("pagestore:page").close();
+        }
+
+        recording.stop();
+
+        assertThat(FlightRecording.isRecording(), is(false));
+        assertThat(file.length(), is(greaterThan(0L)));
+        assertThat(Timings.getRecords().size(), is(1));
+    }
+
+    @Test
+    public void testRecordingsOfParallelCommandsAreWrittenSeparately() throws Exception {
+        final FlightRecording first = start(new File(temporaryFolder.getRoot(), "first.jfr"));
+        final FlightRecording second = start(new File(temporaryFolder.getRoot(), "second.jfr"));
+        Timings.start("export").close();
+
+        first.stop();
+
+        assertThat(first.getFile().length(), is(greaterThan(0L)));
+        assertThat(second.getFile().exists(), is(false));
+        assertThat(FlightRecording.isRecording(), is(true));
+
+        second.stop();
+
+        assertThat(second.getFile().length(), is(greaterThan(0L)));
+        assertThat(FlightRecording.isRecording(), is(false));
+    }
+
+    @Test
+    public void testStopTwice() throws Exception {
+        final FlightRecording recording = start(new File(temporaryFolder.getRoot(), "fs-cli.jfr"));
+        recording.stop();
+        recording.stop();
+
+        assertThat(FlightRecording.isRecording(), is(false));
+    }
+
+    private FlightRecording start(final File file) {
+        final FlightRecording recording = FlightRecording.start(file);
+        recordings.add(recording);
+        return recording;
+    }
+}
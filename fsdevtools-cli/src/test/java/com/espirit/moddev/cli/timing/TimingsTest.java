@@ -0,0 +1,161 @@
+/*
+ *
+ * *********************************************************************
+ * fsdevtools
+ * %%
+ * Copyright (C) 2016 e-Spirit AG
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * *********************************************************************
+ *
+ */
+
+package com.espirit.moddev.cli.timing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TimingsTest {
+
+    @Before
+    @After
+    public void resetTimings() {
+        Timings.reset();
+    }
+
+    @Test
+    public void testNestedSpansRecordTheirParent() {
+        try (Timings.Span outer = Timings.start("outer")) {
+            try (Timings.Span inner = Timings.start("inner")) {
+                assertThat(Timings.getRecords(), is(empty()));
+            }
+        }
+        try (Timings.Span next = Timings.start("next")) {
+            // no parent, the outer span is closed
+        }
+
+        final List<Timings.Record> records = Timings.getRecords();
+        assertThat(records, hasSize(3));
+        assertThat(records.get(0).getName(), is("inner"));
+        assertThat(records.get(0).getParent(), is("outer"));
+        assertThat(records.get(1).getName(), is("outer"));
+        assertThat(records.get(1).getParent(), is(nullValue()));
+        assertThat(records.get(1).getDurationNanos(), is(greaterThanOrEqualTo(records.get(0).getDurationNanos())));
+        assertThat(records.get(2).getParent(), is(nullValue()));
+    }
+
+    @Test
+    public void testClosingTwiceRecordsOnce() {
+        final Timings.Span span = Timings.start("span");
+        span.close();
+        span.close();
+
+        assertThat(Timings.getRecords(), hasSize(1));
+    }
+
+    @Test
+    public void testTimeReturnsTheResult() {
+        assertThat(Timings.time("supplier", () -> "result"), is("result"));
+        assertThat(Timings.getRecords().get(0).getName(), is("supplier"));
+        assertThat(Timings.getRecords().get(0).getThread(), is(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        try (Timings.Span outer = Timings.start("open-\"context\"")) {
+            Timings.start("connect").close();
+        }
+        final StringWriter writer = new StringWriter();
+
+        Timings.writeReport(writer);
+
+        final String report = writer.toString();
+        assertThat(report, containsString("\"spans\":["));
+        assertThat(report, containsString("{\"name\":\"connect\",\"parent\":\"open-\\\"context\\\"\",\"thread\":"));
+        assertThat(report, containsString("{\"name\":\"open-\\\"context\\\"\",\"thread\":"));
+        assertThat(report, containsString("\"durationMs\":"));
+    }
+
+    @Test
+    public void testDetailSpansAreNotReported() {
+        try (Timings.Span span = Timings.startDetail("resolve-identifier").setDetail("pagestore:page")) {
+            // only recorded by a flight recording
+        }
+
+        assertThat(Timings.getRecords(), is(empty()));
+    }
+
+    @Test
+    public void testTimelinesAreSeparate() throws Exception {
+        Timings.start("startup").close();
+        final Timings.Timeline first;
+        final Timings.Timeline second;
+        try (Timings.Scope firstScope = Timings.open()) {
+            first = firstScope.getTimeline();
+            try (Timings.Span span = Timings.start("first")) {
+                try (Timings.Scope secondScope = Timings.open()) {
+                    second = secondScope.getTimeline();
+                    Timings.start("second").close();
+                }
+                assertThat(Timings.current(), is(sameInstance(first)));
+            }
+            CompletableFuture.supplyAsync(Timings.bind(() -> Timings.time("async", () -> "result"))).get();
+        }
+
+        assertThat(names(first.getRecords()), is(asList("startup", "first", "async")));
+        assertThat(names(second.getRecords()), is(asList("second")));
+        assertThat(second.getRecords().get(0).getParent(), is(nullValue()));
+        assertThat(Timings.current(), is(nullValue()));
+        assertThat(Timings.getRecords(), is(empty()));
+    }
+
+    @Test
+    public void testSpansOutsideOfTimelinesAreBounded() {
+        for (int i = 0; i <= Timings.MAX_UNSCOPED_RECORDS; i++) {
+            Timings.start("span-" + i).close();
+        }
+
+        final List<Timings.Record> records = Timings.getRecords();
+        assertThat(records, hasSize(Timings.MAX_UNSCOPED_RECORDS));
+        assertThat(records.get(0).getName(), is("span-1"));
+    }
+
+    @Test
+    public void testResetForgetsRecords() {
+        Timings.start("span").close();
+
+        Timings.reset();
+
+        assertThat(Timings.getRecords(), is(empty()));
+    }
+
+    private static List<String> names(final List<Timings.Record> records) {
+        return records.stream().map(Timings.Record::getName).collect(Collectors.toList());
+    }
+}
@@ -10,6 +10,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
@@ -27,12 +29,24 @@ public class NativeServerRunner implements ServerRunner {
      * potentially contains the task that logs the FirstSpirit output (might not be filled in case we did not start the server ourselves)
      */
     protected Optional<FutureTask<Void>> serverTask = Optional.empty();
-    protected ExecutorService executor = Executors.newCachedThreadPool();
+    protected ExecutorService executor = createExecutor();
+    /**
+     * reads the output of the server we started ourselves (might be empty in case we did not start the server ourselves)
+     */
+    protected Optional<ServerLogPump> serverLog = Optional.empty();
 
     public NativeServerRunner(final ServerProperties serverProperties) {
         this.serverProperties = Objects.requireNonNull(serverProperties);
     }
 
+    private static ExecutorService createExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "fs-server-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Waits for a given condition, retrying if necessary, blocking the thread in between.
      *
@@ -42,20 +56,17 @@ public class NativeServerRunner implements ServerRunner {
      * @return the value of the last call of `condition`.
      */
     static boolean waitForCondition(final Supplier<Boolean> condition, final Duration waitTime, final int triesLeft) {
-        if (triesLeft > 0) {
+        for (int tries = triesLeft; tries > 0; tries--) {
             if (condition.get()) {
                 return true;
-            } else {
-                try {
-                    Thread.sleep(waitTime.toMillis());
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt(); //reset interrupt flag
-                }
-                return waitForCondition(condition, waitTime, triesLeft - 1);
             }
-        } else {
-            return false;
+            try {
+                Thread.sleep(waitTime.toMillis());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt(); //reset interrupt flag
+            }
         }
+        return false;
     }
 
     /**
@@ -74,7 +85,6 @@ public class NativeServerRunner implements ServerRunner {
 
         final Path initFile = serverDir.resolve("fs-init");
         final Path policyFile = confDir.resolve("fs-server.policy");
-        final Path confFile = confDir.resolve("fs-server.conf");
 
         Files.createDirectories(serverDir);
         Files.createDirectories(confDir);
@@ -86,6 +96,28 @@ public class NativeServerRunner implements ServerRunner {
                 .copy(serverProperties.getLicenseFileSupplier().get().get(), confDir.resolve("fs-license.conf"), StandardCopyOption.REPLACE_EXISTING);
         }
 
+        writeServerConf(serverProperties);
+        Files.write(policyFile, Arrays.asList(
+            "/* policies for CMS-Server */",
+            "",
+            "grant {",
+            "  permission java.security.AllPermission;",
+            "};")); // basic file
+
+        return args;
+    }
+
+    /**
+     * Writes the configured ports to `fs-server.conf`. The socket port of the file is kept unless a socket port is configured.
+     *
+     * @param serverProperties the server properties to be used
+     * @throws java.io.IOException on file system access problems
+     */
+    static void writeServerConf(final ServerProperties serverProperties) throws IOException {
+        final Path confDir = serverProperties.getServerRoot().resolve("conf");
+        final Path confFile = confDir.resolve("fs-server.conf");
+        Files.createDirectories(confDir);
+
         //either update an existing conf file, or if none exists, use the one from the class path
         try (BufferedReader reader = confFile.toFile().exists() ?
                                      Files.newBufferedReader(confFile) :
@@ -96,19 +128,32 @@ public class NativeServerRunner implements ServerRunner {
             final Properties properties = new Properties();
             properties.load(reader);
             properties.setProperty("HTTP_PORT", String.valueOf(serverProperties.getServerPort()));
+            if (serverProperties.getServerSocketPort() != null) {
+                properties.setProperty("SOCKET_PORT", String.valueOf(serverProperties.getServerSocketPort()));
+            }
 
-            try (FileWriter fileWriter = new FileWriter(confFile.toFile())) {
+            //replace instead of overwriting the file, it may be hardlinked to a snapshot
+            final Path tempFile = confDir.resolve(confFile.getFileName() + ".tmp");
+            try (FileWriter fileWriter = new FileWriter(tempFile.toFile())) {
                 properties.store(fileWriter, "");
             }
+            Files.move(tempFile, confFile, StandardCopyOption.REPLACE_EXISTING);
         }
-        Files.write(policyFile, Arrays.asList(
-            "/* policies for CMS-Server */",
-            "",
-            "grant {",
-            "  permission java.security.AllPermission;",
-            "};")); // basic file
+    }
 
-        return args;
+    /**
+     * Restores the configured snapshot into the server root, unless the root already contains a server. The snapshot may come from a server
+     * that listened on other ports, so the configured ports are written to `fs-server.conf` either way.
+     *
+     * @param serverProperties the server properties to be used
+     * @throws java.io.IOException on file system access problems
+     */
+    static void restoreSnapshot(final ServerProperties serverProperties) throws IOException {
+        final Path serverDir = serverProperties.getServerRoot().resolve("server");
+        if (!Files.exists(serverDir)) {
+            serverProperties.getServerSnapshot().restore(serverProperties.getServerRoot());
+        }
+        writeServerConf(serverProperties);
     }
 
     /**
@@ -129,7 +174,9 @@ public class NativeServerRunner implements ServerRunner {
 
         args.addAll(serverProperties.getServerOps());
 
-        if (serverProperties.isServerInstall()) {
+        if (serverProperties.getServerSnapshot() != null) {
+            restoreSnapshot(serverProperties);
+        } else if (serverProperties.isServerInstall()) {
             prepareFilesystem(serverProperties);
         }
         args.add("-Dcmsroot=" + fsServerRoot);
@@ -163,8 +210,22 @@ public class NativeServerRunner implements ServerRunner {
      * @return a cancellable task that is already running
      * @throws java.io.IOException on file system access problems
      */
-    @SuppressWarnings({"squid:S1141", "squid:S1188"}) //nested try and too long lambda
     static FutureTask<Void> startFirstSpiritServer(final ServerProperties serverProperties, final ExecutorService executor) throws IOException {
+        return startFirstSpiritServer(serverProperties, executor, new ServerLogPump(serverProperties, null));
+    }
+
+    /**
+     * Boots a FirstSpirit server, according to configuration, and reads its output with the given log pump
+     *
+     * @param serverProperties The server properties to be used
+     * @param executor         The executor where tasks should be run on. Needs to supply at least 2 threads at the same time.
+     * @param logPump          The pump that reads the output of the server
+     * @return a cancellable task that is already running
+     * @throws java.io.IOException on file system access problems
+     */
+    @SuppressWarnings({"squid:S1141", "squid:S1188"}) //nested try and too long lambda
+    static FutureTask<Void> startFirstSpiritServer(final ServerProperties serverProperties, final ExecutorService executor,
+                                                   final ServerLogPump logPump) throws IOException {
         final List<String> commands = Collections.unmodifiableList(new ArrayList<>(prepareStartup(serverProperties)));
         if (log.isInfoEnabled()) {
             log.info("Execute command " + String.join(" ", commands));
@@ -185,8 +246,7 @@ public class NativeServerRunner implements ServerRunner {
                 process = builder.start();
                 //start logging on another task to be able to be interrupted to destroy the original process because it hangs sometimes
                 final FutureTask<Void> logTask = new FutureTask<>(() -> {
-                    new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)).lines()
-                        .forEach(line -> log.info("FirstSpirit Server log:" + line));
+                    logPump.pump(process.getInputStream());
                     return null; //that one hurts
                 });
                 executor.submit(logTask);
@@ -194,10 +254,15 @@ public class NativeServerRunner implements ServerRunner {
                     logTask.get();
                 } catch (final InterruptedException ie) {
                     process.destroy();  //kill the process if it did not die on its own
+                    logTask.cancel(false);
                     Thread.currentThread().interrupt();
+                } catch (final ExecutionException ee) {
+                    log.error(PROBLEM_READING, ee.getCause());
+                    process.destroy();
                 }
             } catch (final IOException ioe) {
                 log.error(PROBLEM_READING, ioe);
+                logPump.finish();
             }
             return null; //that one hurts
         });
@@ -247,33 +312,56 @@ public class NativeServerRunner implements ServerRunner {
 
     @Override
     public boolean start() {
-        if (!testConnection(serverProperties)) {
-            log.info("Starting FirstSpirit Server...");
-            boolean serverRunning = false;
-            try {
-                if (!serverTask.isPresent()) {
-                    serverTask = Optional.of(startFirstSpiritServer(serverProperties, executor));
-                }
+        return startAsync().join();
+    }
 
-                serverRunning = waitForCondition(() -> {
-                                                     log.info("Trying to connect to FirstSpirit server...");
-                                                     return testConnection(serverProperties);
-                                                 }, serverProperties.getThreadWait(),
-                                                 serverProperties.getConnectionRetryCount()
-                                                 + 1); //retry count means we try one more time allover
-            } catch (final IOException ioe) {
-                //nothing to do, server will not be running in this case, normal behaviour following
-                log.error(PROBLEM_READING, ioe);
+    @Override
+    public CompletableFuture<Boolean> startAsync() {
+        if (testConnection(serverProperties)) {
+            log.info("FirstSpirit Server already running.");
+            return CompletableFuture.completedFuture(true);
+        }
+        log.info("Starting FirstSpirit Server...");
+        final ServerStartupMonitor startupMonitor = ServerStartupMonitor.forServer(serverProperties);
+        try {
+            if (!serverTask.isPresent()) {
+                final ServerLogPump logPump = new ServerLogPump(serverProperties, startupMonitor);
+                serverLog = Optional.of(logPump);
+                serverTask = Optional.of(startFirstSpiritServer(serverProperties, executor, logPump));
             }
-            if (!serverRunning) {
-                log.error("Could not start FirstSpirit server.");
+        } catch (final IOException ioe) {
+            //nothing to do, server will not be running in this case, normal behaviour following
+            log.error(PROBLEM_READING, ioe);
+            startupMonitor.getResult().complete(false);
+        }
+        if (!startupMonitor.getResult().isDone()) {
+            executor.submit(startupMonitor::run);
+        }
+        return startupMonitor.getResult().thenApply(serverRunning -> {
+            if (serverRunning) {
+                log.info("FirstSpirit Server is running.");
+            } else {
+                log.error("Could not start FirstSpirit server.{}", serverLog.map(logPump -> logPump.getTail().stream()
+                    .collect(joining(System.lineSeparator(), " Last lines of its log:" + System.lineSeparator(), ""))).orElse(""));
             }
             return serverRunning;
+        });
+    }
 
-        } else {
-            log.info("FirstSpirit Server already running.");
-            return true;
+    /**
+     * Saves a snapshot of the server root, e.g. after a first start that imported the projects all tests need. A running server is stopped first,
+     * so the repository files are consistent.
+     *
+     * @param snapshotDirectory the directory to save the snapshot in; must not exist or be empty
+     * @return the snapshot, to be configured as `serverSnapshot` of other servers
+     * @throws java.io.IOException   on file system access problems
+     * @throws IllegalStateException if the server could not be stopped
+     */
+    public ServerRootSnapshot saveSnapshot(final Path snapshotDirectory) throws IOException {
+        if (isRunning() && !stop()) {
+            throw new IllegalStateException("Could not stop FirstSpirit server to save a snapshot.");
         }
+        return ServerRootSnapshot.save(serverProperties.getServerRoot(), snapshotDirectory);
     }
 
     @Override
@@ -281,8 +369,22 @@ public class NativeServerRunner implements ServerRunner {
         return testConnection(serverProperties);
     }
 
+    /**
+     * @return the last lines of the log of the server we started ourselves, oldest first; empty if we did not start the server
+     */
+    public List<String> getServerLogTail() {
+        return serverLog.map(ServerLogPump::getTail).orElse(Collections.emptyList());
+    }
+
     @Override
     public boolean stop() {
-        return stopFirstSpiritServer(serverProperties, serverTask);
+        final boolean stopped = stopFirstSpiritServer(serverProperties, serverTask);
+        if (serverTask.isPresent()) {
+            //the process and its log tasks are gone, release their threads; a new start gets a new executor
+            serverTask = Optional.empty();
+            executor.shutdownNow();
+            executor = createExecutor();
+        }
+        return stopped;
     }
 }
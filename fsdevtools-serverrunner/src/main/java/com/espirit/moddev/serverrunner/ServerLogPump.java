@@ -0,0 +1,168 @@
+package com.espirit.moddev.serverrunner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the output of a FirstSpirit server process. The last lines are kept in a bounded ring buffer for failure diagnostics, only lines of the
+ * configured level and above are forwarded to the logger, and the whole output can be written to a file. Lines without a level, like the lines of
+ * a stack trace, get the level of the line before.
+ */
+@Slf4j
+public final class ServerLogPump {
+
+    /**
+     * Levels of server log lines, in ascending order.
+     */
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final Pattern LEVEL_PATTERN = Pattern.compile("\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|SEVERE|FATAL)\\b");
+
+    private final Level forwardLevel;
+    private final Path logFile;
+    private final int tailLines;
+    private final ServerStartupMonitor startupMonitor;
+    private final Deque<String> tail;
+
+    /**
+     * @param serverProperties the server properties to take the forward level, log file and number of kept lines from
+     * @param startupMonitor   the monitor that should see every log line of the server, may be null
+     */
+    ServerLogPump(final ServerProperties serverProperties, final ServerStartupMonitor startupMonitor) {
+        this(serverProperties.getServerLogLevel(), serverProperties.getServerLogFile(), serverProperties.getServerLogTailLines(), startupMonitor);
+    }
+
+    ServerLogPump(final Level forwardLevel, final Path logFile, final int tailLines, final ServerStartupMonitor startupMonitor) {
+        this.forwardLevel = forwardLevel;
+        this.logFile = logFile;
+        this.tailLines = tailLines;
+        this.startupMonitor = startupMonitor;
+        this.tail = new ArrayDeque<>(tailLines);
+    }
+
+    /**
+     * Reads the given output until it ends. Blocks the calling thread.
+     *
+     * @param output the output of the server process
+     * @throws IOException on problems reading the output or writing the log file
+     */
+    void pump(final InputStream output) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8));
+             BufferedWriter writer = logFile == null ? null : Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                                                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                                                      StandardOpenOption.WRITE)) {
+            Level level = Level.INFO;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (writer != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                addToTail(line);
+                level = parseLevel(line, level);
+                if (level.compareTo(forwardLevel) >= 0) {
+                    forward(level, line);
+                }
+                if (startupMonitor != null) {
+                    startupMonitor.onLogLine(line);
+                }
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Signals that the server process will not write any more output, e.g. because it could not be started.
+     */
+    void finish() {
+        if (startupMonitor != null) {
+            startupMonitor.onLogEnd();
+        }
+    }
+
+    /**
+     * Get the level of a log line.
+     *
+     * @param line          the log line
+     * @param previousLevel the level of the line before
+     * @return the level named in the line, or the level of the line before if the line names none
+     */
+    static Level parseLevel(final String line, final Level previousLevel) {
+        final Matcher matcher = LEVEL_PATTERN.matcher(line);
+        if (!matcher.find()) {
+            return previousLevel;
+        }
+        switch (matcher.group(1)) {
+            case "TRACE":
+                return Level.TRACE;
+            case "DEBUG":
+                return Level.DEBUG;
+            case "INFO":
+                return Level.INFO;
+            case "WARN":
+            case "WARNING":
+                return Level.WARN;
+            default:
+                return Level.ERROR;
+        }
+    }
+
+    private static void forward(final Level level, final String line) {
+        switch (level) {
+            case TRACE:
+                log.trace("FirstSpirit Server log: {}", line);
+                break;
+            case DEBUG:
+                log.debug("FirstSpirit Server log: {}", line);
+                break;
+            case INFO:
+                log.info("FirstSpirit Server log: {}", line);
+                break;
+            case WARN:
+                log.warn("FirstSpirit Server log: {}", line);
+                break;
+            default:
+                log.error("FirstSpirit Server log: {}", line);
+                break;
+        }
+    }
+
+    private void addToTail(final String line) {
+        if (tailLines == 0) {
+            return;
+        }
+        synchronized (tail) {
+            if (tail.size() == tailLines) {
+                tail.removeFirst();
+            }
+            tail.addLast(line);
+        }
+    }
+
+    /**
+     * @return the last lines of the server log, oldest first
+     */
+    public List<String> getTail() {
+        synchronized (tail) {
+            return new ArrayList<>(tail);
+        }
+    }
+}
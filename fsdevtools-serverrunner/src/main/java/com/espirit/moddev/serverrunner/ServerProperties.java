@@ -57,6 +57,11 @@ public class ServerProperties {
      */
     private final int serverPort;
 
+    /**
+     * port the FirstSpirit server listens on for socket connections (leave empty to keep the port of `fs-server.conf`)
+     */
+    private final Integer serverSocketPort;
+
     /**
      * whether a GC log should be written or not
      */
@@ -92,6 +97,11 @@ public class ServerProperties {
      */
     private final Duration threadWait;
 
+    /**
+     * pattern of the log line the server writes once it is started; a matching line triggers an immediate connection test
+     */
+    private final Pattern serverStartedPattern;
+
     /**
      * Where the FirstSpirit jars are stored. You will need at least these jars to successfully start a server:
      * <ul>
@@ -106,11 +116,36 @@ public class ServerProperties {
 
     private final File lockFile;
 
+    /**
+     * snapshot of a prepared server root that is restored into an empty `serverRoot` instead of installing the server (leave empty to install)
+     */
+    private final ServerRootSnapshot serverSnapshot;
+
+    /**
+     * lowest level of server log lines that are forwarded to the logger
+     */
+    private final ServerLogPump.Level serverLogLevel;
+
+    /**
+     * file the whole server log is written to (leave empty to not write the server log)
+     */
+    private final Path serverLogFile;
+
+    /**
+     * how many of the last server log lines are kept for failure diagnostics
+     */
+    private final int serverLogTailLines;
+
     /**
      * matches de/espirit/firstspirit/anything.jar on both unix and windows
      */
     static final Pattern FS_SERVER_JAR_PATTERN = Pattern.compile("de[\\\\/]espirit[\\\\/]firstspirit[\\\\/].+\\.jar");
 
+    /**
+     * matches the log line of a FirstSpirit server that finished its startup, e.g. "FirstSpirit server started"
+     */
+    static final Pattern DEFAULT_SERVER_STARTED_PATTERN = Pattern.compile("server\\b.*\\bstarted\\b", Pattern.CASE_INSENSITIVE);
+
     /**
      * A reference to a supplier for the license file. May come from the file system, or the class path, or anything else.
      * Is read from the class path if nothing is given.
@@ -125,17 +160,31 @@ public class ServerProperties {
     private final URL serverUrl;
 
     @SuppressWarnings("squid:S00107")
-    @Builder
     ServerProperties(final Path serverRoot, final String serverHost, final Integer serverPort, final boolean serverGcLog,
                      final Boolean serverInstall,
-                     @Singular final List<String> serverOps, final Duration threadWait, final String serverAdminPw,
-                     final Integer connectionRetryCount, @Singular final List<File> firstSpiritJars,
+                     final List<String> serverOps, final Duration threadWait, final String serverAdminPw,
+                     final Integer connectionRetryCount, final List<File> firstSpiritJars,
                      final Supplier<Optional<InputStream>> licenseFileSupplier) {
+        this(serverRoot, serverHost, serverPort, serverGcLog, serverInstall, serverOps, threadWait, null, serverAdminPw, connectionRetryCount,
+             firstSpiritJars, licenseFileSupplier, null, null, null, null, null);
+    }
+
+    @SuppressWarnings("squid:S00107")
+    @Builder
+    ServerProperties(final Path serverRoot, final String serverHost, final Integer serverPort, final boolean serverGcLog,
+                     final Boolean serverInstall,
+                     @Singular final List<String> serverOps, final Duration threadWait, final Pattern serverStartedPattern,
+                     final String serverAdminPw, final Integer connectionRetryCount, @Singular final List<File> firstSpiritJars,
+                     final Supplier<Optional<InputStream>> licenseFileSupplier, final ServerRootSnapshot serverSnapshot,
+                     final ServerLogPump.Level serverLogLevel, final Path serverLogFile, final Integer serverLogTailLines,
+                     final Integer serverSocketPort) {
         assertThatOrNull(serverPort, "serverPort", allOf(greaterThan(0), lessThanOrEqualTo(65536)));
+        assertThatOrNull(serverSocketPort, "serverSocketPort", allOf(greaterThan(0), lessThanOrEqualTo(65536)));
         if (threadWait != null && threadWait.isNegative()) {
             throw new IllegalArgumentException("threadWait may not be negative.");
         }
         assertThatOrNull(connectionRetryCount, "connectionRetryCount", greaterThanOrEqualTo(0));
+        assertThatOrNull(serverLogTailLines, "serverLogTailLines", greaterThanOrEqualTo(0));
 
         this.serverRoot = serverRoot == null ? Paths.get(System.getProperty("user.home"), "opt", "FirstSpirit") : serverRoot;
         this.serverGcLog = serverGcLog;
@@ -145,17 +194,23 @@ public class ServerProperties {
                              .collect(Collectors.toCollection(ArrayList::new));
 
         this.threadWait = threadWait == null ? Duration.ofSeconds(2) : threadWait;
+        this.serverStartedPattern = serverStartedPattern == null ? DEFAULT_SERVER_STARTED_PATTERN : serverStartedPattern;
         this.connectionRetryCount = connectionRetryCount == null ? 45 : connectionRetryCount;
         this.serverAdminPw = serverAdminPw == null ? "Admin" : serverAdminPw;
         this.serverHost = serverHost == null || serverHost.isEmpty() ? "localhost" : serverHost;
         this.serverPort = serverPort == null ? this.mode.defaultPort : serverPort;
+        this.serverSocketPort = serverSocketPort;
         this.firstSpiritJars =
             firstSpiritJars == null || firstSpiritJars.isEmpty() ? getFsJarFiles() : firstSpiritJars.stream().filter(Objects::nonNull)
                 .collect(Collectors.toCollection(ArrayList::new));
         assertThat(this.firstSpiritJars, "firstSpiritJars", hasSize(greaterThan(0)));
 
         //generate lock file reference, which can be found in the server directory
-        this.lockFile = this.serverRoot.resolve(".fs.lock").toFile();
+        this.lockFile = this.serverRoot.resolve(ServerRootSnapshot.LOCK_FILE_NAME).toFile();
+        this.serverSnapshot = serverSnapshot;
+        this.serverLogLevel = serverLogLevel == null ? ServerLogPump.Level.WARN : serverLogLevel;
+        this.serverLogFile = serverLogFile;
+        this.serverLogTailLines = serverLogTailLines == null ? 200 : serverLogTailLines;
 
         //when we do not have fs-license.jar on the class path, we will not find the fs-license.conf and getResourceAsStream will return null
         this.licenseFileSupplier =
@@ -169,6 +224,23 @@ public class ServerProperties {
         }
     }
 
+    /**
+     * Creates the properties of another server instance that is configured like this one, but is installed into its own root and listens on its
+     * own http and socket ports. The lock file and `fs-server.conf` of the instance are in its root. If a snapshot is configured, it is restored into the root of
+     * the instance. If a server log file is configured, the instance writes its log next to it, prefixed with the name of its root.
+     *
+     * @param instanceRoot root of the other server instance
+     * @param instancePort       http port of the other server instance
+     * @param instanceSocketPort socket port of the other server instance
+     * @return the properties of the other server instance
+     */
+    ServerProperties forInstance(final Path instanceRoot, final int instancePort, final int instanceSocketPort) {
+        return new ServerProperties(instanceRoot, serverHost, instancePort, serverGcLog, true, serverOps, threadWait, serverStartedPattern,
+                                    serverAdminPw, connectionRetryCount, firstSpiritJars, licenseFileSupplier, serverSnapshot, serverLogLevel,
+                                    serverLogFile == null ? null : serverLogFile.resolveSibling(instanceRoot.getFileName() + "-" + serverLogFile.getFileName()),
+                                    serverLogTailLines, instanceSocketPort);
+    }
+
     private static <T> void assertThat(final T obj, final String name, final Matcher<T> matcher) {
         if (!matcher.matches(obj)) {
             final StringDescription description = new StringDescription();
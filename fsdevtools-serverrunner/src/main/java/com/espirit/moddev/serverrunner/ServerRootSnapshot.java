@@ -0,0 +1,217 @@
+package com.espirit.moddev.serverrunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A saved copy of a stopped FirstSpirit server root, e.g. after a first "golden" start that installed the server and imported the test projects.
+ * Restoring the snapshot into a new root gives a server with an initialized repository that starts without installing or importing again.
+ * <p>
+ * A snapshot is restored with reflinks where the file system supports them (copy-on-write clones, e.g. on btrfs or xfs), otherwise with a copy of
+ * all files in parallel. Hardlinks are available on request only: a hardlinked file is shared with the snapshot, so the server must not modify
+ * files of the restored root in place.
+ */
+@Slf4j
+public final class ServerRootSnapshot {
+
+    /**
+     * How the files of a snapshot are restored.
+     */
+    public enum RestoreMode {
+        /**
+         * Clone the files with `cp --reflink=always`, copying them if the file system or platform does not support that.
+         */
+        REFLINK,
+        /**
+         * Hardlink the files, copying them if the snapshot and the new root are on different file systems. Changes to a restored file change the
+         * snapshot, too.
+         */
+        HARDLINK,
+        /**
+         * Copy the files in parallel.
+         */
+        COPY
+    }
+
+    static final String LOCK_FILE_NAME = ".fs.lock";
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory of a snapshot created with {@link #save(Path, Path)}
+     */
+    public ServerRootSnapshot(final Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    /**
+     * @return the directory of the snapshot
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Saves a copy of the given server root. The server must be stopped, so the repository files are consistent.
+     *
+     * @param serverRoot        the root of a stopped server
+     * @param snapshotDirectory the directory to save the snapshot in; must not exist or be empty
+     * @return the snapshot
+     * @throws IOException           on file system access problems
+     * @throws IllegalStateException if the server is still running or the snapshot directory is not empty
+     */
+    public static ServerRootSnapshot save(final Path serverRoot, final Path snapshotDirectory) throws IOException {
+        if (Files.exists(serverRoot.resolve(LOCK_FILE_NAME))) {
+            throw new IllegalStateException("The FirstSpirit server in '" + serverRoot + "' is still running.");
+        }
+        requireEmpty(snapshotDirectory);
+        log.info("Saving snapshot of '{}' to '{}'", serverRoot, snapshotDirectory);
+        copyTree(serverRoot, snapshotDirectory);
+        return new ServerRootSnapshot(snapshotDirectory);
+    }
+
+    /**
+     * Restores the snapshot into the given server root with reflinks, or copies of the files if reflinks are not supported.
+     *
+     * @param serverRoot the root to restore into; must not exist or be empty
+     * @throws IOException on file system access problems
+     */
+    public void restore(final Path serverRoot) throws IOException {
+        restore(serverRoot, RestoreMode.REFLINK);
+    }
+
+    /**
+     * Restores the snapshot into the given server root.
+     *
+     * @param serverRoot the root to restore into; must not exist or be empty
+     * @param mode       how the files are restored
+     * @throws IOException           on file system access problems
+     * @throws IllegalStateException if the server root is not empty
+     */
+    public void restore(final Path serverRoot, final RestoreMode mode) throws IOException {
+        requireEmpty(serverRoot);
+        log.info("Restoring snapshot '{}' to '{}'", directory, serverRoot);
+        if (mode == RestoreMode.REFLINK && reflinkTree(directory, serverRoot)) {
+            return;
+        }
+        if (mode == RestoreMode.HARDLINK) {
+            try {
+                linkTree(directory, serverRoot);
+                return;
+            } catch (final FileSystemException | UnsupportedOperationException e) {
+                log.info("Could not hardlink '{}', copying it instead: {}", directory, e.toString());
+            }
+        }
+        clear(serverRoot);
+        copyTree(directory, serverRoot);
+    }
+
+    private static void requireEmpty(final Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                if (entries.iterator().hasNext()) {
+                    throw new IllegalStateException("'" + directory + "' is not empty.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Clones the source directory with `cp --reflink=always`, which fails instead of copying if the file system can not clone files.
+     *
+     * @return whether the files were cloned
+     */
+    static boolean reflinkTree(final Path source, final Path target) throws IOException {
+        Files.createDirectories(target);
+        final ProcessBuilder builder = new ProcessBuilder("cp", "-R", "-p", "--reflink=always", source + "/.", target.toString());
+        builder.redirectErrorStream(true);
+        try {
+            final Process process = builder.start();
+            try (Stream<String> output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)).lines()) {
+                output.forEach(line -> log.debug("cp: {}", line));
+            }
+            if (process.waitFor(10, TimeUnit.MINUTES) && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroy();
+        } catch (final IOException ioe) {
+            // no cp on this platform
+            log.debug("Could not run cp", ioe);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while cloning '" + source + "'", ie);
+        }
+        log.info("Could not reflink '{}', copying it instead", source);
+        clear(target);
+        return false;
+    }
+
+    private static void linkTree(final Path source, final Path target) throws IOException {
+        for (final Path file : createDirectoriesAndListFiles(source, target)) {
+            Files.createLink(target.resolve(source.relativize(file)), file);
+        }
+    }
+
+    /**
+     * Copies all files of the source directory into the target directory. The directories are created first, the files are then copied in
+     * parallel. The lock file of a server is not copied.
+     */
+    static void copyTree(final Path source, final Path target) throws IOException {
+        final List<Path> files = createDirectoriesAndListFiles(source, target);
+        try {
+            files.parallelStream().forEach(file -> {
+                try {
+                    Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.COPY_ATTRIBUTES);
+                } catch (final IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<Path> createDirectoriesAndListFiles(final Path source, final Path target) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (final Path path : paths.collect(Collectors.toList())) {
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target.resolve(source.relativize(path)));
+                } else if (!LOCK_FILE_NAME.equals(path.getFileName().toString())) {
+                    files.add(path);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void clear(final Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                if (!path.equals(directory)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
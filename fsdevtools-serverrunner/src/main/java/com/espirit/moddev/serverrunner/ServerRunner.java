@@ -1,5 +1,7 @@
 package com.espirit.moddev.serverrunner;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for a FirstSpirit ServerRunner. Exists to allow instantiation of native or docker versions of the server.
  */
@@ -13,6 +15,13 @@ public interface ServerRunner {
      */
     boolean start();
 
+    /**
+     * Makes sure a FirstSpirit server is running, like {@link #start()}, without blocking the calling thread.
+     *
+     * @return a future that completes with whether a FirstSpirit server is running or not, as soon as that is known
+     */
+    CompletableFuture<Boolean> startAsync();
+
     /**
      * @return whether the server is running and can be contacted. Should not care about whether the server was started using this class, or
      * externally.
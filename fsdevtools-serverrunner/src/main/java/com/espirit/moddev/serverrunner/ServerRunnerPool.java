@@ -0,0 +1,226 @@
+package com.espirit.moddev.serverrunner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A pool of isolated FirstSpirit servers for tests that run in parallel. Every instance is installed into its own subdirectory of a common root
+ * and listens on its own free http and socket ports, so each has its own `fs-server.conf` and lock file. All instances are started in parallel. Tests
+ * {@link #lease() lease} an instance, use it exclusively and return it by closing the {@link Lease}.
+ */
+@Slf4j
+public class ServerRunnerPool implements AutoCloseable {
+
+    private final List<Instance> instances;
+    private final BlockingQueue<Instance> available;
+
+    ServerRunnerPool(final List<ServerProperties> instanceProperties, final Function<ServerProperties, ServerRunner> runnerFactory) {
+        if (instanceProperties.isEmpty()) {
+            throw new IllegalArgumentException("A pool needs at least one server instance.");
+        }
+        final List<Instance> pooled = new ArrayList<>(instanceProperties.size());
+        for (final ServerProperties properties : instanceProperties) {
+            pooled.add(new Instance(properties, runnerFactory.apply(properties)));
+        }
+        this.instances = Collections.unmodifiableList(pooled);
+        this.available = new LinkedBlockingQueue<>(pooled);
+    }
+
+    /**
+     * Starts a pool of native FirstSpirit servers. The instances are configured like the given template, but installed into
+     * `&lt;poolRoot&gt;/instance-&lt;n&gt;` and bound to free http and socket ports. Blocks until all instances are running.
+     *
+     * @param template the server properties every instance is derived from
+     * @param poolRoot the directory the roots of the instances are created in
+     * @param size     the number of instances
+     * @return the started pool
+     * @throws IllegalStateException if an instance could not be started; instances that were started are stopped again
+     */
+    public static ServerRunnerPool start(final ServerProperties template, final Path poolRoot, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1, but was " + size);
+        }
+        //an http and a socket port per instance, the socket port of the bundled `fs-server.conf` would be shared otherwise
+        final List<Integer> ports = findFreePorts(2 * size);
+        final List<ServerProperties> instanceProperties = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            instanceProperties.add(template.forInstance(poolRoot.resolve("instance-" + index), ports.get(2 * index), ports.get(2 * index + 1)));
+        }
+        final ServerRunnerPool pool = new ServerRunnerPool(instanceProperties, NativeServerRunner::new);
+        pool.startAll();
+        return pool;
+    }
+
+    /**
+     * Starts all instances in parallel and waits until all of them are running.
+     *
+     * @throws IllegalStateException if an instance could not be started; all instances are stopped in that case
+     */
+    void startAll() {
+        final List<CompletableFuture<Boolean>> started = new ArrayList<>(instances.size());
+        final List<Integer> failedPorts = new ArrayList<>();
+        Throwable failure = null;
+        try {
+            for (final Instance instance : instances) {
+                log.info("Starting pooled FirstSpirit server on port {} (socket port {}) in '{}'", instance.serverProperties.getServerPort(),
+                         instance.serverProperties.getServerSocketPort(), instance.serverProperties.getServerRoot());
+                started.add(instance.serverRunner.startAsync());
+            }
+        } catch (final RuntimeException e) {
+            failure = e;
+            failedPorts.add(instances.get(started.size()).serverProperties.getServerPort());
+        }
+        //also after a failed start, so no instance is still starting when all are stopped
+        for (int index = 0; index < started.size(); index++) {
+            final int port = instances.get(index).serverProperties.getServerPort();
+            try {
+                if (!started.get(index).join()) {
+                    failedPorts.add(port);
+                }
+            } catch (final CompletionException | CancellationException e) {
+                log.error("Starting the pooled FirstSpirit server on port {} failed", port, e);
+                failedPorts.add(port);
+                if (failure == null) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+        if (!failedPorts.isEmpty()) {
+            close();
+            throw new IllegalStateException("Could not start the pooled FirstSpirit servers on ports " + failedPorts, failure);
+        }
+    }
+
+    /**
+     * Finds distinct ports that are free at the time of the call.
+     *
+     * @param count the number of ports
+     * @return the ports
+     */
+    static List<Integer> findFreePorts(final int count) {
+        final Set<Integer> ports = new HashSet<>();
+        final List<Integer> result = new ArrayList<>(count);
+        while (result.size() < count) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                if (ports.add(socket.getLocalPort())) {
+                    result.add(socket.getLocalPort());
+                }
+            } catch (final IOException ioe) {
+                throw new UncheckedIOException("Could not find a free port", ioe);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of instances in the pool
+     */
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * Leases an instance, waiting until one is available.
+     *
+     * @return the lease of the instance; close it to return the instance to the pool
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public Lease lease() throws InterruptedException {
+        return new Lease(available.take());
+    }
+
+    /**
+     * Leases an instance, waiting at most the given time until one is available.
+     *
+     * @param timeout the maximum time to wait
+     * @return the lease of the instance, or null if no instance became available in time
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public Lease lease(final Duration timeout) throws InterruptedException {
+        final Instance instance = available.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return instance == null ? null : new Lease(instance);
+    }
+
+    /**
+     * Stops all instances, whether they are leased or not. An instance that fails to stop does not keep the others running.
+     */
+    @Override
+    public void close() {
+        for (final Instance instance : instances) {
+            try {
+                if (!instance.serverRunner.stop()) {
+                    log.warn("Could not stop the pooled FirstSpirit server on port {}", instance.serverProperties.getServerPort());
+                }
+            } catch (final RuntimeException e) {
+                log.warn("Could not stop the pooled FirstSpirit server on port {}", instance.serverProperties.getServerPort(), e);
+            }
+        }
+    }
+
+    private static final class Instance {
+
+        private final ServerProperties serverProperties;
+        private final ServerRunner serverRunner;
+
+        private Instance(final ServerProperties serverProperties, final ServerRunner serverRunner) {
+            this.serverProperties = Objects.requireNonNull(serverProperties);
+            this.serverRunner = Objects.requireNonNull(serverRunner);
+        }
+    }
+
+    /**
+     * The exclusive use of one instance of the pool. Closing the lease returns the instance to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Instance instance;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(final Instance instance) {
+            this.instance = instance;
+        }
+
+        /**
+         * @return the properties of the instance, e.g. to connect to its port
+         */
+        public ServerProperties getServerProperties() {
+            return instance.serverProperties;
+        }
+
+        /**
+         * @return the runner of the instance
+         */
+        public ServerRunner getServerRunner() {
+            return instance.serverRunner;
+        }
+
+        /**
+         * Returns the instance to the pool. Closing a lease more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                available.add(instance);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.espirit.moddev.serverrunner;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detects when a booting FirstSpirit server becomes reachable. The server is probed with an exponential backoff, starting at a short delay and
+ * growing up to a maximum delay. Log lines of the server process are passed to {@link #onLogLine(String)}; a line matching the configured
+ * "server started" pattern triggers an immediate probe, so readiness is detected as soon as the server reports it instead of at the next poll.
+ * When the log of the server process ends, the process is gone and the monitor gives up after a last probe.
+ */
+@Slf4j
+class ServerStartupMonitor {
+
+    static final Duration INITIAL_DELAY = Duration.ofMillis(50);
+
+    private final Supplier<Boolean> probe;
+    private final Pattern startedPattern;
+    private final Duration maxDelay;
+    private final Duration timeout;
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    private final Object lock = new Object();
+    private boolean startedLogged;
+    private boolean logEnded;
+
+    /**
+     * @param probe          tests whether the server can be contacted
+     * @param startedPattern pattern of the log line the server writes once it is started
+     * @param maxDelay       the maximum time to wait between two probes
+     * @param timeout        the time after which the server is considered to not start at all
+     */
+    ServerStartupMonitor(final Supplier<Boolean> probe, final Pattern startedPattern, final Duration maxDelay, final Duration timeout) {
+        this.probe = Objects.requireNonNull(probe);
+        this.startedPattern = Objects.requireNonNull(startedPattern);
+        this.maxDelay = maxDelay.compareTo(INITIAL_DELAY) < 0 ? INITIAL_DELAY : maxDelay;
+        this.timeout = Objects.requireNonNull(timeout);
+    }
+
+    /**
+     * Creates a monitor that probes the connection configured in the given server properties. The monitor waits at most `threadWait` between two
+     * probes and gives up after `threadWait` times (`connectionRetryCount` + 1), the time the server was given by fixed interval polling.
+     *
+     * @param serverProperties the server properties to be used
+     * @return the monitor
+     */
+    static ServerStartupMonitor forServer(final ServerProperties serverProperties) {
+        final Duration threadWait = serverProperties.getThreadWait();
+        return new ServerStartupMonitor(() -> NativeServerRunner.testConnection(serverProperties), serverProperties.getServerStartedPattern(),
+                                        threadWait, threadWait.multipliedBy(serverProperties.getConnectionRetryCount() + 1L));
+    }
+
+    /**
+     * @return completes with true when the server can be contacted, with false when it did not become reachable in time or its process ended
+     */
+    CompletableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * Inspects a line of the server log and probes the server right away if the line reports that the server started.
+     *
+     * @param line the log line
+     */
+    void onLogLine(final String line) {
+        if (startedPattern.matcher(line).find()) {
+            log.debug("FirstSpirit server reported startup, probing the connection now");
+            synchronized (lock) {
+                startedLogged = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Signals that the log of the server process ended, meaning the process is gone.
+     */
+    void onLogEnd() {
+        synchronized (lock) {
+            logEnded = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Probes the server until it can be contacted, the timeout elapsed, the server process ended or the result was completed by someone else.
+     * Blocks the calling thread and completes the {@link #getResult() result}.
+     */
+    void run() {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        long delayMillis = INITIAL_DELAY.toMillis();
+        try {
+            while (!result.isDone()) {
+                log.debug("Trying to connect to FirstSpirit server...");
+                if (probe.get()) {
+                    result.complete(true);
+                    return;
+                }
+                synchronized (lock) {
+                    if (logEnded) {
+                        // the last lines may have been written right before the server became reachable
+                        result.complete(probe.get());
+                        return;
+                    }
+                    final long remainingMillis = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+                    if (remainingMillis <= 0) {
+                        result.complete(false);
+                        return;
+                    }
+                    if (!startedLogged) {
+                        lock.wait(Math.min(delayMillis, remainingMillis));
+                    }
+                    if (startedLogged) {
+                        // the server is about to open its port, so probe at the initial rate again
+                        startedLogged = false;
+                        delayMillis = INITIAL_DELAY.toMillis();
+                    } else {
+                        delayMillis = Math.min(delayMillis * 2, maxDelay.toMillis());
+                    }
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            result.complete(false);
+        } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.espirit.moddev.serverrunner
+
+import java.io.ByteArrayInputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.time.Duration
+
+import com.espirit.moddev.serverrunner.ServerLogPump.Level
+import org.scalatest.{Matchers, WordSpec}
+
+import scala.collection.JavaConverters._
+
+class ServerLogPumpSpec extends WordSpec with Matchers {
+  def output(lines: String*) = new ByteArrayInputStream(lines.mkString("\n").getBytes(StandardCharsets.UTF_8))
+
+  "ServerLogPump.pump" should {
+    "keep only the last lines" in {
+      val pump = new ServerLogPump(Level.WARN, null, 2, null)
+      pump.pump(output("INFO one", "INFO two", "INFO three"))
+      pump.getTail.asScala shouldBe Seq("INFO two", "INFO three")
+    }
+    "keep no lines if configured so" in {
+      val pump = new ServerLogPump(Level.WARN, null, 0, null)
+      pump.pump(output("INFO one"))
+      assert(pump.getTail.isEmpty)
+    }
+    "write the whole output to the log file" in {
+      val logFile = Files.createTempDirectory("server-log").resolve("fs-server.log")
+      val pump    = new ServerLogPump(Level.OFF, logFile, 1, null)
+      pump.pump(output("INFO one", "WARN two"))
+      Files.readAllLines(logFile).asScala shouldBe Seq("INFO one", "WARN two")
+    }
+    "signal the end of the output to the startup monitor" in {
+      val monitor = new ServerStartupMonitor(() => false, ServerProperties.DEFAULT_SERVER_STARTED_PATTERN, Duration.ofSeconds(10),
+                                             Duration.ofSeconds(60))
+      new ServerLogPump(Level.WARN, null, 1, monitor).pump(output("INFO one"))
+      monitor.run()
+      assert(!monitor.getResult.get())
+    }
+  }
+
+  "ServerLogPump.parseLevel" should {
+    "find the level in a line" in {
+      ServerLogPump.parseLevel("12:00:00 DEBUG [main] starting", Level.INFO) shouldBe Level.DEBUG
+      ServerLogPump.parseLevel("12:00:00 WARNING something", Level.INFO) shouldBe Level.WARN
+      ServerLogPump.parseLevel("12:00:00 FATAL broken", Level.INFO) shouldBe Level.ERROR
+    }
+    "keep the previous level for lines without level" in {
+      ServerLogPump.parseLevel("\tat de.espirit.Foo.bar(Foo.java:42)", Level.ERROR) shouldBe Level.ERROR
+    }
+    "not take parts of words for levels" in {
+      ServerLogPump.parseLevel("INFORMATION about ERRORS", Level.DEBUG) shouldBe Level.DEBUG
+    }
+  }
+}
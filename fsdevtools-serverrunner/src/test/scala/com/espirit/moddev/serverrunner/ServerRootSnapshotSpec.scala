@@ -0,0 +1,72 @@
+package com.espirit.moddev.serverrunner
+
+import java.io.File
+import java.nio.file.{Files, Path}
+
+import com.espirit.moddev.serverrunner.ServerRootSnapshot.RestoreMode
+import org.scalatest.{Matchers, WordSpec}
+
+import scala.collection.JavaConverters._
+import scala.io.Source
+
+class ServerRootSnapshotSpec extends WordSpec with Matchers {
+  def fixture = new {
+    lazy val serverRoot: Path = {
+      val root = Files.createTempDirectory("server-root")
+      Files.createDirectories(root.resolve("server").resolve("data"))
+      Files.write(root.resolve("server").resolve("data").resolve("repository.db"), Seq("golden").asJava)
+      Files.createDirectories(root.resolve("conf"))
+      Files.write(root.resolve("conf").resolve("fs-server.conf"), Seq("HTTP_PORT=8000").asJava)
+      root
+    }
+    lazy val snapshotDirectory: Path = Files.createTempDirectory("server-snapshot").resolve("snapshot")
+    lazy val targetRoot: Path        = Files.createTempDirectory("server-restored").resolve("root")
+  }
+
+  def content(path: Path): String = Source.fromFile(path.toFile).mkString.trim
+
+  "ServerRootSnapshot.save" should {
+    "copy the server root" in {
+      val f        = fixture
+      val snapshot = ServerRootSnapshot.save(f.serverRoot, f.snapshotDirectory)
+      assert(content(snapshot.getDirectory.resolve("server").resolve("data").resolve("repository.db")) == "golden")
+    }
+    "refuse to save the root of a running server" in {
+      val f = fixture
+      Files.createFile(f.serverRoot.resolve(".fs.lock"))
+      an[IllegalStateException] should be thrownBy ServerRootSnapshot.save(f.serverRoot, f.snapshotDirectory)
+    }
+  }
+
+  "ServerRootSnapshot.restore" should {
+    for (mode <- RestoreMode.values()) {
+      s"restore all files with mode $mode" in {
+        val f        = fixture
+        val snapshot = ServerRootSnapshot.save(f.serverRoot, f.snapshotDirectory)
+        snapshot.restore(f.targetRoot, mode)
+        assert(content(f.targetRoot.resolve("server").resolve("data").resolve("repository.db")) == "golden")
+        assert(content(f.targetRoot.resolve("conf").resolve("fs-server.conf")) == "HTTP_PORT=8000")
+      }
+    }
+    "refuse to restore into a root that is not empty" in {
+      val f        = fixture
+      val snapshot = ServerRootSnapshot.save(f.serverRoot, f.snapshotDirectory)
+      an[IllegalStateException] should be thrownBy snapshot.restore(f.serverRoot)
+    }
+    "leave the snapshot pristine when the restored conf is rewritten" in {
+      val f        = fixture
+      val snapshot = ServerRootSnapshot.save(f.serverRoot, f.snapshotDirectory)
+      val props = ServerProperties
+        .builder()
+        .firstSpiritJar(new File("foobar"))
+        .serverRoot(f.targetRoot)
+        .serverPort(9123)
+        .serverSnapshot(snapshot)
+        .build()
+      NativeServerRunner.prepareStartup(props)
+      assert(Source.fromFile(f.targetRoot.resolve("conf").resolve("fs-server.conf").toFile).getLines().contains("HTTP_PORT=9123"))
+      assert(!Files.exists(f.targetRoot.resolve("server").resolve("fs-init")))
+      assert(content(snapshot.getDirectory.resolve("conf").resolve("fs-server.conf")) == "HTTP_PORT=8000")
+    }
+  }
+}
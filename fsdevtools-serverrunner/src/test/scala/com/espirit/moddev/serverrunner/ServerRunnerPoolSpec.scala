@@ -0,0 +1,122 @@
+package com.espirit.moddev.serverrunner
+
+import java.io.File
+import java.nio.file.Files
+import java.time.Duration
+import java.util.Properties
+import java.util.concurrent.CompletableFuture
+import java.util.function.Function
+
+import org.mockito.Mockito.{mock, verify, when}
+import org.scalatest.{Matchers, WordSpec}
+
+import scala.collection.JavaConverters._
+
+class ServerRunnerPoolSpec extends WordSpec with Matchers {
+  def fixture = new {
+    lazy val template = ServerProperties.builder().firstSpiritJar(new File("foobar")).serverInstall(false).build()
+    lazy val poolRoot = Files.createTempDirectory("server-pool")
+    lazy val instanceProperties =
+      ServerRunnerPool.findFreePorts(4).asScala.grouped(2).zipWithIndex.map {
+        case (Seq(port, socketPort), index) => template.forInstance(poolRoot.resolve(s"instance-$index"), port, socketPort)
+      }.toList
+  }
+
+  def runner(started: Boolean): ServerRunner = {
+    val serverRunner = mock(classOf[ServerRunner])
+    when(serverRunner.startAsync()).thenReturn(CompletableFuture.completedFuture(java.lang.Boolean.valueOf(started)))
+    when(serverRunner.stop()).thenReturn(true)
+    serverRunner
+  }
+
+  def pool(runners: ServerRunner*): ServerRunnerPool = {
+    val remaining = runners.iterator
+    val factory: Function[ServerProperties, ServerRunner] = _ => remaining.next()
+    new ServerRunnerPool(fixture.instanceProperties.take(runners.size).asJava, factory)
+  }
+
+  "ServerProperties.forInstance" should {
+    "use its own root, lock file and ports, and install the server" in {
+      val f         = fixture
+      val instances = f.instanceProperties
+      assert(instances.flatMap(i => Seq(i.getServerPort, i.getServerSocketPort.intValue)).distinct.size == 4)
+      assert(instances.map(_.getServerRoot).distinct.size == 2)
+      assert(instances.map(_.getLockFile).distinct.size == 2)
+      assert(instances.forall(_.isServerInstall))
+      assert(instances.forall(_.getServerRoot.startsWith(f.poolRoot)))
+    }
+    "write the ports of the instance to its 'fs-server.conf'" in {
+      val instances = fixture.instanceProperties
+      val confs = instances.map { instance =>
+        NativeServerRunner.prepareFilesystem(instance)
+        val conf = new Properties()
+        val reader = Files.newBufferedReader(instance.getServerRoot.resolve("conf").resolve("fs-server.conf"))
+        try conf.load(reader) finally reader.close()
+        conf
+      }
+      instances.zip(confs).foreach {
+        case (instance, conf) =>
+          assert(conf.getProperty("HTTP_PORT") == instance.getServerPort.toString)
+          assert(conf.getProperty("SOCKET_PORT") == instance.getServerSocketPort.toString)
+      }
+      assert(confs.map(_.getProperty("SOCKET_PORT")).distinct.size == 2)
+    }
+  }
+
+  "ServerRunnerPool.findFreePorts" should {
+    "return distinct ports" in {
+      val ports = ServerRunnerPool.findFreePorts(5).asScala
+      assert(ports.distinct.size == 5)
+    }
+  }
+
+  "ServerRunnerPool.startAll" should {
+    "start every instance" in {
+      val runners = Seq(runner(started = true), runner(started = true))
+      pool(runners: _*).startAll()
+      runners.foreach(r => verify(r).startAsync())
+    }
+    "stop all instances and fail if an instance did not start" in {
+      val runners = Seq(runner(started = true), runner(started = false))
+      an[IllegalStateException] should be thrownBy pool(runners: _*).startAll()
+      runners.foreach(r => verify(r).stop())
+    }
+    "stop all instances and fail if starting an instance failed with an exception" in {
+      val failing = runner(started = true)
+      val failed  = new CompletableFuture[java.lang.Boolean]()
+      failed.completeExceptionally(new IllegalStateException("start failed"))
+      when(failing.startAsync()).thenReturn(failed)
+      val runners = Seq(runner(started = true), failing)
+      val thrown  = the[IllegalStateException] thrownBy pool(runners: _*).startAll()
+      thrown.getCause.getMessage shouldBe "start failed"
+      runners.foreach(r => verify(r).stop())
+    }
+    "stop the other instances if stopping one fails" in {
+      val failing = runner(started = false)
+      when(failing.stop()).thenThrow(new IllegalStateException("stop failed"))
+      val runners = Seq(failing, runner(started = true))
+      an[IllegalStateException] should be thrownBy pool(runners: _*).startAll()
+      runners.foreach(r => verify(r).stop())
+    }
+  }
+
+  "ServerRunnerPool.lease" should {
+    "lease every instance once" in {
+      val testling = pool(runner(started = true), runner(started = true))
+      val first    = testling.lease()
+      val second   = testling.lease()
+      assert(first.getServerProperties.getServerPort != second.getServerProperties.getServerPort)
+      assert(testling.lease(Duration.ofMillis(50)) == null)
+    }
+    "lease an instance again after its lease was closed" in {
+      val testling = pool(runner(started = true))
+      val first    = testling.lease()
+      first.close()
+      first.close()
+      val second = testling.lease(Duration.ofMillis(50))
+      assert(second != null)
+      assert(second.getServerProperties eq first.getServerProperties)
+      assert(testling.lease(Duration.ofMillis(50)) == null)
+    }
+  }
+}
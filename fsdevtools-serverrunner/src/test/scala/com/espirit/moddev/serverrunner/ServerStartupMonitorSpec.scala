@@ -0,0 +1,67 @@
+package com.espirit.moddev.serverrunner
+
+import java.time.Duration
+import java.util.concurrent.{Executors, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+import java.util.function.Supplier
+
+import org.scalatest.{Matchers, WordSpec}
+
+import scala.language.implicitConversions
+
+class ServerStartupMonitorSpec extends WordSpec with Matchers {
+  private val startedPattern = ServerProperties.DEFAULT_SERVER_STARTED_PATTERN
+
+  def runAsync(monitor: ServerStartupMonitor): Unit = {
+    val executor = Executors.newSingleThreadExecutor()
+    executor.submit(new Runnable { def run(): Unit = monitor.run() })
+    executor.shutdown()
+  }
+
+  "ServerStartupMonitor.run" should {
+    "complete with true as soon as the probe succeeds" in {
+      val probeCount = new AtomicInteger()
+      val probe: Supplier[java.lang.Boolean] = () => probeCount.incrementAndGet() >= 3
+      val monitor = new ServerStartupMonitor(probe, startedPattern, Duration.ofSeconds(10), Duration.ofSeconds(60))
+      val startTime = System.currentTimeMillis()
+      monitor.run()
+      assert(monitor.getResult.get())
+      assert(probeCount.get() == 3)
+      // 50 ms and 100 ms backoff instead of two full poll intervals
+      assert(System.currentTimeMillis() - startTime < 5000)
+    }
+    "complete with false when the timeout elapsed" in {
+      val monitor = new ServerStartupMonitor(() => false, startedPattern, Duration.ofMillis(50), Duration.ofMillis(200))
+      monitor.run()
+      assert(!monitor.getResult.get())
+    }
+    "complete with false when the log of the server process ended" in {
+      val monitor = new ServerStartupMonitor(() => false, startedPattern, Duration.ofSeconds(10), Duration.ofSeconds(60))
+      runAsync(monitor)
+      monitor.onLogEnd()
+      assert(!monitor.getResult.get(5, TimeUnit.SECONDS))
+    }
+    "probe right away when the server logs its startup" in {
+      val serverUp = new AtomicBoolean()
+      val monitor  = new ServerStartupMonitor(() => serverUp.get(), startedPattern, Duration.ofSeconds(30), Duration.ofSeconds(60))
+      runAsync(monitor)
+      // let the backoff grow beyond the time the test waits for the result
+      Thread.sleep(2000)
+      serverUp.set(true)
+      val startTime = System.currentTimeMillis()
+      monitor.onLogLine("INFO  FirstSpirit Server started (build 5.2)")
+      assert(monitor.getResult.get(5, TimeUnit.SECONDS))
+      assert(System.currentTimeMillis() - startTime < 1000)
+    }
+  }
+
+  "ServerProperties.DEFAULT_SERVER_STARTED_PATTERN" should {
+    "match the startup line of the server" in {
+      assert(startedPattern.matcher("INFO  FirstSpirit Server started (build 5.2)").find())
+    }
+    "not match other lines" in {
+      assert(!startedPattern.matcher("INFO  starting module services").find())
+      assert(!startedPattern.matcher("INFO  server is starting").find())
+    }
+  }
+}